@@ -0,0 +1,336 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.enums.ServerMode;
+import org.l2jmobius.commons.network.ConnectionBuilder;
+import org.l2jmobius.commons.network.ConnectionHandler;
+import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
+import org.l2jmobius.gameserver.geoengine.geodata.IBlock;
+import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
+import org.l2jmobius.gameserver.model.StatSet;
+import org.l2jmobius.gameserver.model.World;
+import org.l2jmobius.gameserver.model.actor.templates.CreatureTemplate;
+import org.l2jmobius.gameserver.network.GameClient;
+
+/**
+ * Shared benchmark fixtures, independent of the database and of the real datapack.<br>
+ * Configuration is loaded from the working directory (dist/game), then pointed to a temporary directory holding a synthetic geodata region.<br>
+ * The synthetic region is flat ground divided in rooms of {@link #ROOM_SIZE} cells by one cell wide walls, each wall having a door-like gap near its corner.
+ * @author Mobius
+ */
+public class BenchmarkFixtures
+{
+	/** Synthetic geodata region, loaded as {@code 22_22.l2j}. */
+	public static final int REGION_X = 22;
+	public static final int REGION_Y = 22;
+	
+	/** World coordinates of the synthetic region origin. */
+	public static final int WORLD_X = (REGION_X - World.TILE_ZERO_COORD_X) * World.TILE_SIZE;
+	public static final int WORLD_Y = (REGION_Y - World.TILE_ZERO_COORD_Y) * World.TILE_SIZE;
+	
+	/** Height of the synthetic ground and of the walls. */
+	public static final int GROUND_Z = -3000;
+	public static final int WALL_Z = GROUND_Z + 200;
+	
+	/** Room size, in geodata cells (16 world units each). */
+	public static final int ROOM_SIZE = 128;
+	/** Length of the gap left at the start of each wall, in geodata cells. */
+	public static final int GAP_SIZE = 16;
+	
+	/** Datapack files copied to the synthetic datapack root, needed for stat calculation and zone parsing. */
+	private static final String[] DATAPACK_FILES =
+	{
+		"data/stats/statBonus.xml",
+		"data/xsd/statBonus.xsd",
+		"data/xsd/zones.xsd"
+	};
+	
+	private static final AtomicInteger OBJECT_ID = new AtomicInteger(0x10000000);
+	
+	private static Path _tempDirectory;
+	private static GameClient _client;
+	
+	private BenchmarkFixtures()
+	{
+	}
+	
+	/**
+	 * Loads the game server configuration, the thread pools and the synthetic geodata region, once per benchmark fork.<br>
+	 * Pathfinding is set to cell pathfinding, since it is disabled when no geodata files are present.
+	 */
+	public static synchronized void load()
+	{
+		if (_tempDirectory != null)
+		{
+			return;
+		}
+		
+		try
+		{
+			Config.load(ServerMode.GAME);
+			ThreadPool.init();
+			
+			_tempDirectory = Files.createTempDirectory("l2j-benchmark");
+			Files.write(_tempDirectory.resolve(String.format(GeoEngine.FILE_NAME_FORMAT, REGION_X, REGION_Y)), createRegion());
+			
+			for (String file : DATAPACK_FILES)
+			{
+				final Path target = _tempDirectory.resolve(file);
+				Files.createDirectories(target.getParent());
+				Files.copy(Config.DATAPACK_ROOT.toPath().resolve(file), target);
+			}
+			
+			// The zone manager needs at least one zone with a static id.
+			Files.createDirectories(_tempDirectory.resolve("data/zones"));
+			Files.writeString(_tempDirectory.resolve("data/zones/benchmark.xml"), createZones());
+			Runtime.getRuntime().addShutdownHook(new Thread(BenchmarkFixtures::deleteTempDirectory));
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		
+		// Doors and fences are looked up by geodata checks, none are read from the synthetic datapack root.
+		Config.DATAPACK_ROOT = _tempDirectory.toFile();
+		Config.GEODATA_PATH = _tempDirectory;
+		Config.PATHFINDING = 2;
+		GeoEngine.getInstance();
+	}
+	
+	/**
+	 * @param cellX the cell x coordinate, relative to the synthetic region origin
+	 * @return the world x coordinate of the center of the cell
+	 */
+	public static int getWorldX(int cellX)
+	{
+		return WORLD_X + (cellX * 16) + 8;
+	}
+	
+	/**
+	 * @param cellY the cell y coordinate, relative to the synthetic region origin
+	 * @return the world y coordinate of the center of the cell
+	 */
+	public static int getWorldY(int cellY)
+	{
+		return WORLD_Y + (cellY * 16) + 8;
+	}
+	
+	/**
+	 * @param cellX the cell x coordinate, relative to the synthetic region origin
+	 * @param cellY the cell y coordinate, relative to the synthetic region origin
+	 * @return {@code true} if the cell is part of a wall
+	 */
+	public static boolean isWall(int cellX, int cellY)
+	{
+		final int roomX = cellX % ROOM_SIZE;
+		final int roomY = cellY % ROOM_SIZE;
+		return ((roomX == (ROOM_SIZE / 2)) && (roomY >= GAP_SIZE)) || ((roomY == (ROOM_SIZE / 2)) && (roomX >= GAP_SIZE));
+	}
+	
+	/**
+	 * Creates the synthetic region, every block being a complex block.<br>
+	 * Wall cells are raised and block all directions, ground cells block the directions leading into a wall.
+	 * @return the region, in the geodata file format
+	 */
+	private static byte[] createRegion()
+	{
+		final ByteBuffer buffer = ByteBuffer.allocate(IRegion.REGION_BLOCKS * (1 + (IBlock.BLOCK_CELLS * 2))).order(ByteOrder.LITTLE_ENDIAN);
+		for (int blockX = 0; blockX < IRegion.REGION_BLOCKS_X; blockX++)
+		{
+			for (int blockY = 0; blockY < IRegion.REGION_BLOCKS_Y; blockY++)
+			{
+				buffer.put((byte) IBlock.TYPE_COMPLEX);
+				for (int x = 0; x < IBlock.BLOCK_CELLS_X; x++)
+				{
+					for (int y = 0; y < IBlock.BLOCK_CELLS_Y; y++)
+					{
+						final int cellX = (blockX * IBlock.BLOCK_CELLS_X) + x;
+						final int cellY = (blockY * IBlock.BLOCK_CELLS_Y) + y;
+						if (isWall(cellX, cellY))
+						{
+							buffer.putShort((short) ((WALL_Z << 1) & 0xFFF0));
+							continue;
+						}
+						
+						int nswe = Cell.NSWE_ALL;
+						if (isWall(cellX + 1, cellY))
+						{
+							nswe &= ~Cell.NSWE_EAST;
+						}
+						if ((cellX > 0) && isWall(cellX - 1, cellY))
+						{
+							nswe &= ~Cell.NSWE_WEST;
+						}
+						if (isWall(cellX, cellY + 1))
+						{
+							nswe &= ~Cell.NSWE_SOUTH;
+						}
+						if ((cellY > 0) && isWall(cellX, cellY - 1))
+						{
+							nswe &= ~Cell.NSWE_NORTH;
+						}
+						buffer.putShort((short) (((GROUND_Z << 1) & 0xFFF0) | nswe));
+					}
+				}
+			}
+		}
+		return buffer.array();
+	}
+	
+	/**
+	 * @return a zone list holding a single cuboid zone, covering the first room of the synthetic region
+	 */
+	private static String createZones()
+	{
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<list enabled=\"true\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"../xsd/zones.xsd\">\n");
+		sb.append("\t<zone id=\"1\" name=\"benchmark_room\" type=\"NoStoreZone\" shape=\"Cuboid\" minZ=\"" + (GROUND_Z - 100) + "\" maxZ=\"" + (WALL_Z + 100) + "\">\n");
+		sb.append("\t\t<node X=\"" + WORLD_X + "\" Y=\"" + WORLD_Y + "\" />\n");
+		sb.append("\t\t<node X=\"" + (WORLD_X + (ROOM_SIZE * 8)) + "\" Y=\"" + (WORLD_Y + (ROOM_SIZE * 8)) + "\" />\n");
+		sb.append("\t</zone>\n");
+		sb.append("</list>\n");
+		return sb.toString();
+	}
+	
+	private static void deleteTempDirectory()
+	{
+		try (Stream<Path> paths = Files.walk(_tempDirectory))
+		{
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+		catch (IOException e)
+		{
+			// Left for the system to clean up.
+		}
+	}
+	
+	/**
+	 * @return a template with base stats close to those of a level 85 monster
+	 */
+	public static CreatureTemplate createTemplate()
+	{
+		final StatSet set = new StatSet();
+		set.set("baseSTR", 40);
+		set.set("baseCON", 43);
+		set.set("baseDEX", 30);
+		set.set("baseINT", 21);
+		set.set("baseWIT", 20);
+		set.set("baseMEN", 20);
+		set.set("baseHpMax", 40000);
+		set.set("baseMpMax", 3000);
+		set.set("basePAtk", 4000);
+		set.set("baseMAtk", 2500);
+		set.set("basePDef", 1500);
+		set.set("baseMDef", 1000);
+		set.set("baseRndDam", 30);
+		set.set("baseShldDef", 500);
+		set.set("baseShldRate", 20);
+		set.set("collision_radius", 16);
+		set.set("collision_height", 32);
+		return new CreatureTemplate(set);
+	}
+	
+	/**
+	 * @return a unique object id, outside of the range used by the id manager
+	 */
+	public static int nextObjectId()
+	{
+		return OBJECT_ID.getAndIncrement();
+	}
+	
+	/**
+	 * Creates a synthetic creature and spawns it in the world.
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param z the z coordinate
+	 * @return the spawned creature
+	 */
+	public static SyntheticCreature spawnCreature(int x, int y, int z)
+	{
+		final SyntheticCreature creature = new SyntheticCreature(nextObjectId(), createTemplate());
+		creature.spawnMe(x, y, z);
+		return creature;
+	}
+	
+	/**
+	 * Gets a game client connected through the loopback interface, created on first use.<br>
+	 * The client is never sent anything, it only provides the resource pool packets are written to.
+	 * @return the connected game client
+	 * @throws Exception if the connection could not be established
+	 */
+	public static synchronized GameClient getClient() throws Exception
+	{
+		if (_client != null)
+		{
+			return _client;
+		}
+		
+		final int port;
+		try (ServerSocket serverSocket = new ServerSocket(0))
+		{
+			port = serverSocket.getLocalPort();
+		}
+		
+		final CompletableFuture<GameClient> client = new CompletableFuture<>();
+		final InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+		final ConnectionHandler<GameClient> connectionHandler = new ConnectionBuilder<GameClient>(address, connection ->
+		{
+			final GameClient gameClient = new GameClient(connection);
+			client.complete(gameClient);
+			return gameClient;
+		}, (buffer, gameClient) -> null, packet ->
+		{
+		}).build();
+		connectionHandler.start();
+		
+		final Socket socket = new Socket(address.getAddress(), port);
+		_client = client.get(10, TimeUnit.SECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(() ->
+		{
+			try
+			{
+				socket.close();
+			}
+			catch (IOException e)
+			{
+				// Already closed.
+			}
+			connectionHandler.shutdown();
+		}));
+		return _client;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.benchmark;
+
+import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.actor.Player;
+import org.l2jmobius.gameserver.model.actor.templates.CreatureTemplate;
+import org.l2jmobius.gameserver.model.item.ItemTemplate;
+import org.l2jmobius.gameserver.model.item.Weapon;
+import org.l2jmobius.gameserver.model.item.instance.Item;
+
+/**
+ * Unarmed level 85 creature, created without the id manager and without a npc template from the datapack.
+ * @author Mobius
+ */
+public class SyntheticCreature extends Creature
+{
+	public SyntheticCreature(int objectId, CreatureTemplate template)
+	{
+		super(objectId, template);
+		setName("Synthetic" + objectId);
+	}
+	
+	@Override
+	public int getId()
+	{
+		return 0;
+	}
+	
+	@Override
+	public Item getActiveWeaponInstance()
+	{
+		return null;
+	}
+	
+	@Override
+	public Weapon getActiveWeaponItem()
+	{
+		return null;
+	}
+	
+	@Override
+	public Item getSecondaryWeaponInstance()
+	{
+		return null;
+	}
+	
+	@Override
+	public ItemTemplate getSecondaryWeaponItem()
+	{
+		return null;
+	}
+	
+	@Override
+	public int getLevel()
+	{
+		return 85;
+	}
+	
+	@Override
+	public boolean isAutoAttackable(Creature attacker)
+	{
+		return true;
+	}
+	
+	@Override
+	public void sendInfo(Player player)
+	{
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.benchmark.geoengine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.l2jmobius.benchmark.BenchmarkFixtures;
+import org.l2jmobius.benchmark.SyntheticCreature;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+
+/**
+ * Line of sight checks on the synthetic geodata region.<br>
+ * Open checks cross a room, blocked checks end behind a wall, creature checks also look up doors and fences.
+ * @author Mobius
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoEngineBenchmark
+{
+	private static final int Z = BenchmarkFixtures.GROUND_Z;
+	
+	private GeoEngine _geoEngine;
+	private SyntheticCreature _creature;
+	private SyntheticCreature _target;
+	
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		BenchmarkFixtures.load();
+		_geoEngine = GeoEngine.getInstance();
+		_creature = BenchmarkFixtures.spawnCreature(BenchmarkFixtures.getWorldX(20), BenchmarkFixtures.getWorldY(30), Z);
+		_target = BenchmarkFixtures.spawnCreature(BenchmarkFixtures.getWorldX(50), BenchmarkFixtures.getWorldY(55), Z);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		_creature.decayMe();
+		_target.decayMe();
+	}
+	
+	@Benchmark
+	public boolean canSeeTargetOpen()
+	{
+		return _geoEngine.canSeeTarget(BenchmarkFixtures.getWorldX(20), BenchmarkFixtures.getWorldY(30), Z, BenchmarkFixtures.getWorldX(50), BenchmarkFixtures.getWorldY(55), Z);
+	}
+	
+	@Benchmark
+	public boolean canSeeTargetBlocked()
+	{
+		return _geoEngine.canSeeTarget(BenchmarkFixtures.getWorldX(20), BenchmarkFixtures.getWorldY(30), Z, BenchmarkFixtures.getWorldX(110), BenchmarkFixtures.getWorldY(40), Z);
+	}
+	
+	@Benchmark
+	public boolean canSeeCreature()
+	{
+		return _geoEngine.canSeeTarget(_creature, _target);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.benchmark.geoengine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.l2jmobius.benchmark.BenchmarkFixtures;
+import org.l2jmobius.gameserver.geoengine.pathfinding.AbstractNodeLoc;
+import org.l2jmobius.gameserver.geoengine.pathfinding.PathFinding;
+
+/**
+ * Cell pathfinding on the synthetic geodata region.<br>
+ * Routes go around one wall, through the gap of one wall, or through the gaps of several rooms.
+ * @author Mobius
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathFindingBenchmark
+{
+	@Param(
+	{
+		"corner",
+		"gap",
+		"rooms"
+	})
+	private String _route;
+	
+	private int _x;
+	private int _y;
+	private int _tx;
+	private int _ty;
+	
+	@Setup
+	public void setup()
+	{
+		BenchmarkFixtures.load();
+		
+		switch (_route)
+		{
+			case "corner":
+			{
+				setRoute(30, 30, 100, 100);
+				break;
+			}
+			case "gap":
+			{
+				setRoute(10, 40, 100, 40);
+				break;
+			}
+			default:
+			{
+				setRoute(5, 5, 150, 150);
+				break;
+			}
+		}
+		
+		if (findPath() == null)
+		{
+			throw new IllegalStateException("No path found for route " + _route + "!");
+		}
+	}
+	
+	private void setRoute(int cellX, int cellY, int targetCellX, int targetCellY)
+	{
+		_x = BenchmarkFixtures.getWorldX(cellX);
+		_y = BenchmarkFixtures.getWorldY(cellY);
+		_tx = BenchmarkFixtures.getWorldX(targetCellX);
+		_ty = BenchmarkFixtures.getWorldY(targetCellY);
+	}
+	
+	@Benchmark
+	public List<AbstractNodeLoc> findPath()
+	{
+		return PathFinding.getInstance().findPath(_x, _y, BenchmarkFixtures.GROUND_Z, _tx, _ty, BenchmarkFixtures.GROUND_Z, null, false);
+	}
+}
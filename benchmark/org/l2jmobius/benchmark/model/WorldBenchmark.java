@@ -0,0 +1,114 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.benchmark.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.l2jmobius.benchmark.BenchmarkFixtures;
+import org.l2jmobius.benchmark.SyntheticCreature;
+import org.l2jmobius.gameserver.model.World;
+import org.l2jmobius.gameserver.model.actor.Creature;
+
+/**
+ * Visible object lookups around a synthetic creature, among synthetic creatures spread over a square of {@link #AREA_SIZE} world units.
+ * @author Mobius
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark
+{
+	private static final int AREA_SIZE = 8000;
+	
+	@Param(
+	{
+		"100",
+		"1000",
+		"5000"
+	})
+	private int _creatureCount;
+	
+	@Param(
+	{
+		"300",
+		"1500"
+	})
+	private int _range;
+	
+	private final List<SyntheticCreature> _creatures = new ArrayList<>();
+	private SyntheticCreature _center;
+	
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		BenchmarkFixtures.load();
+		
+		final int x = BenchmarkFixtures.WORLD_X + 1000;
+		final int y = BenchmarkFixtures.WORLD_Y + 1000;
+		_center = BenchmarkFixtures.spawnCreature(x + (AREA_SIZE / 2), y + (AREA_SIZE / 2), BenchmarkFixtures.GROUND_Z);
+		_creatures.add(_center);
+		
+		final Random random = new Random(0);
+		for (int i = 1; i < _creatureCount; i++)
+		{
+			_creatures.add(BenchmarkFixtures.spawnCreature(x + random.nextInt(AREA_SIZE), y + random.nextInt(AREA_SIZE), BenchmarkFixtures.GROUND_Z));
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		for (SyntheticCreature creature : _creatures)
+		{
+			creature.decayMe();
+		}
+		_creatures.clear();
+	}
+	
+	@Benchmark
+	public void forEachVisibleObjectInRange(Blackhole blackhole)
+	{
+		World.getInstance().forEachVisibleObjectInRange(_center, Creature.class, _range, blackhole::consume);
+	}
+	
+	@Benchmark
+	public List<Creature> getVisibleObjectsInRange()
+	{
+		return World.getInstance().getVisibleObjectsInRange(_center, Creature.class, _range);
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.benchmark.network;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.l2jmobius.commons.network.Buffer;
+import org.l2jmobius.commons.network.ResourcePool;
+import org.l2jmobius.commons.network.internal.InternalWritableBuffer;
+import org.l2jmobius.commons.network.internal.SinglePacketBuffer;
+import org.l2jmobius.gameserver.network.Encryption;
+
+/**
+ * Game packet encryption, 8 bytes at a time against the previous byte at a time implementation.<br>
+ * Outbound packets are encrypted in a segmented DynamicPacketBuffer, inbound packets are decrypted in a SinglePacketBuffer, as in the network layer.
+ * @author Mobius
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptionBenchmark
+{
+	@Param(
+	{
+		"16",
+		"128",
+		"1024",
+		"8192"
+	})
+	private int _size;
+	
+	private InternalWritableBuffer _outbound;
+	private SinglePacketBuffer _inbound;
+	private Encryption _encryption;
+	private ByteEncryption _byteEncryption;
+	
+	@Setup
+	public void setup()
+	{
+		final Random random = new Random(0);
+		final byte[] key = new byte[16];
+		random.nextBytes(key);
+		final byte[] data = new byte[_size];
+		random.nextBytes(data);
+		
+		final ResourcePool resourcePool = new ResourcePool();
+		_outbound = InternalWritableBuffer.dynamicOf(resourcePool.getSegmentBuffer(), resourcePool);
+		_outbound.writeBytes(data);
+		_outbound.mark();
+		
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(_size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put(data).flip();
+		_inbound = new SinglePacketBuffer(buffer);
+		
+		_encryption = new Encryption();
+		_encryption.setKey(key);
+		_encryption.encrypt(_outbound, 0, 0); // First packet is not encrypted.
+		_byteEncryption = new ByteEncryption(key);
+	}
+	
+	@Benchmark
+	public Buffer encrypt()
+	{
+		_encryption.encrypt(_outbound, 0, _size);
+		return _outbound;
+	}
+	
+	@Benchmark
+	public Buffer encryptByteAtATime()
+	{
+		_byteEncryption.encrypt(_outbound, 0, _size);
+		return _outbound;
+	}
+	
+	@Benchmark
+	public Buffer decrypt()
+	{
+		_encryption.decrypt(_inbound, 0, _size);
+		return _inbound;
+	}
+	
+	@Benchmark
+	public Buffer decryptByteAtATime()
+	{
+		_byteEncryption.decrypt(_inbound, 0, _size);
+		return _inbound;
+	}
+	
+	/**
+	 * The byte at a time loops used by {@link Encryption} before the 8 bytes at a time ones.
+	 */
+	private static class ByteEncryption
+	{
+		private final byte[] _inKey = new byte[16];
+		private final byte[] _outKey = new byte[16];
+		
+		public ByteEncryption(byte[] key)
+		{
+			System.arraycopy(key, 0, _inKey, 0, 16);
+			System.arraycopy(key, 0, _outKey, 0, 16);
+		}
+		
+		public void encrypt(Buffer data, int offset, int size)
+		{
+			int encrypted = 0;
+			for (int i = 0; i < size; i++)
+			{
+				final int raw = Byte.toUnsignedInt(data.readByte(offset + i));
+				encrypted = raw ^ _outKey[i & 0x0f] ^ encrypted;
+				data.writeByte(offset + i, (byte) encrypted);
+			}
+			shiftKey(_outKey, size);
+		}
+		
+		public void decrypt(Buffer data, int offset, int size)
+		{
+			int xOr = 0;
+			for (int i = 0; i < size; i++)
+			{
+				final int encrypted = Byte.toUnsignedInt(data.readByte(offset + i));
+				data.writeByte(offset + i, (byte) (encrypted ^ _inKey[i & 15] ^ xOr));
+				xOr = encrypted;
+			}
+			shiftKey(_inKey, size);
+		}
+		
+		private static void shiftKey(byte[] key, int size)
+		{
+			int old = key[8] & 0xff;
+			old |= (key[9] << 8) & 0xff00;
+			old |= (key[10] << 16) & 0xff0000;
+			old |= (key[11] << 24) & 0xff000000;
+			old += size;
+			key[8] = (byte) (old & 0xff);
+			key[9] = (byte) ((old >> 8) & 0xff);
+			key[10] = (byte) ((old >> 16) & 0xff);
+			key[11] = (byte) ((old >> 24) & 0xff);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.benchmark.network;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.l2jmobius.benchmark.BenchmarkFixtures;
+import org.l2jmobius.benchmark.SyntheticCreature;
+import org.l2jmobius.commons.network.WritablePacket;
+import org.l2jmobius.commons.network.internal.InternalWritableBuffer;
+import org.l2jmobius.gameserver.network.GameClient;
+import org.l2jmobius.gameserver.network.serverpackets.MagicSkillUse;
+import org.l2jmobius.gameserver.network.serverpackets.MoveToLocation;
+
+/**
+ * Server packet creation and writing to the client resource pool, as done by {@link org.l2jmobius.commons.network.Client#writePacket(WritablePacket)} before encryption.<br>
+ * Broadcast packets are written once to a cache, then copied for each client.
+ * @author Mobius
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerPacketBenchmark
+{
+	private GameClient _client;
+	private SyntheticCreature _creature;
+	private SyntheticCreature _target;
+	private MagicSkillUse _broadcastPacket;
+	
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		BenchmarkFixtures.load();
+		_client = BenchmarkFixtures.getClient();
+		_creature = BenchmarkFixtures.spawnCreature(BenchmarkFixtures.getWorldX(20), BenchmarkFixtures.getWorldY(30), BenchmarkFixtures.GROUND_Z);
+		_target = BenchmarkFixtures.spawnCreature(BenchmarkFixtures.getWorldX(22), BenchmarkFixtures.getWorldY(30), BenchmarkFixtures.GROUND_Z);
+		_broadcastPacket = new MagicSkillUse(_creature, _target, 1177, 5, 1000, 0);
+		_broadcastPacket.sendInBroadcast(true);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		_creature.decayMe();
+		_target.decayMe();
+	}
+	
+	@Benchmark
+	public int writeMoveToLocation() throws Exception
+	{
+		return write(new MoveToLocation(_creature));
+	}
+	
+	@Benchmark
+	public int writeMagicSkillUse() throws Exception
+	{
+		return write(new MagicSkillUse(_creature, _target, 1177, 5, 1000, 0));
+	}
+	
+	@Benchmark
+	public int writeBroadcastCopy() throws Exception
+	{
+		return write(_broadcastPacket);
+	}
+	
+	private int write(WritablePacket<GameClient> packet) throws Exception
+	{
+		final InternalWritableBuffer buffer = packet.writeData(_client);
+		final int limit = buffer.limit();
+		buffer.releaseResources();
+		return limit;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.benchmark.stats;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.l2jmobius.benchmark.BenchmarkFixtures;
+import org.l2jmobius.benchmark.SyntheticCreature;
+import org.l2jmobius.gameserver.model.stats.Formulas;
+import org.l2jmobius.gameserver.util.Util;
+
+/**
+ * Auto attack damage calculation between two synthetic creatures facing each other.
+ * @author Mobius
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormulasBenchmark
+{
+	private SyntheticCreature _attacker;
+	private SyntheticCreature _target;
+	
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		BenchmarkFixtures.load();
+		_attacker = BenchmarkFixtures.spawnCreature(BenchmarkFixtures.getWorldX(20), BenchmarkFixtures.getWorldY(30), BenchmarkFixtures.GROUND_Z);
+		_target = BenchmarkFixtures.spawnCreature(BenchmarkFixtures.getWorldX(22), BenchmarkFixtures.getWorldY(30), BenchmarkFixtures.GROUND_Z);
+		_attacker.setHeading(Util.calculateHeadingFrom(_attacker, _target));
+		_target.setHeading(Util.calculateHeadingFrom(_target, _attacker));
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		_attacker.decayMe();
+		_target.decayMe();
+	}
+	
+	@Benchmark
+	public double autoAttackDamage()
+	{
+		return Formulas.calcAutoAttackDamage(_attacker, _target, Formulas.SHIELD_DEFENSE_FAILED, false, false, false);
+	}
+	
+	@Benchmark
+	public double criticalAutoAttackDamage()
+	{
+		return Formulas.calcAutoAttackDamage(_attacker, _target, Formulas.SHIELD_DEFENSE_FAILED, true, true, false);
+	}
+	
+	@Benchmark
+	public byte shieldUse()
+	{
+		return Formulas.calcShldUse(_attacker, _target);
+	}
+}
@@ -106,6 +106,7 @@ import handlers.admincommandhandlers.AdminMobGroup;
 import handlers.admincommandhandlers.AdminOlympiad;
 import handlers.admincommandhandlers.AdminOnline;
 import handlers.admincommandhandlers.AdminPForge;
+import handlers.admincommandhandlers.AdminPacketStatistics;
 import handlers.admincommandhandlers.AdminPathNode;
 import handlers.admincommandhandlers.AdminPcCafePoints;
 import handlers.admincommandhandlers.AdminPcCondOverride;
@@ -423,6 +424,7 @@ public class MasterHandler
 			AdminMobGroup.class,
 			AdminOlympiad.class,
 			AdminOnline.class,
+			AdminPacketStatistics.class,
 			AdminPathNode.class,
 			AdminPcCafePoints.class,
 			AdminPetition.class,
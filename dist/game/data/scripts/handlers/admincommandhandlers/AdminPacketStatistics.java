@@ -0,0 +1,115 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package handlers.admincommandhandlers;
+
+import java.util.List;
+import java.util.StringTokenizer;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.gameserver.cache.HtmCache;
+import org.l2jmobius.gameserver.handler.IAdminCommandHandler;
+import org.l2jmobius.gameserver.model.actor.Player;
+import org.l2jmobius.gameserver.network.PacketStatistics;
+import org.l2jmobius.gameserver.network.PacketStatistics.PacketStat;
+import org.l2jmobius.gameserver.network.serverpackets.NpcHtmlMessage;
+import org.l2jmobius.gameserver.util.BuilderUtil;
+
+/**
+ * @author Mobius
+ */
+public class AdminPacketStatistics implements IAdminCommandHandler
+{
+	private static final String[] ADMIN_COMMANDS =
+	{
+		"admin_packetstats"
+	};
+	
+	private static final int MAX_ROWS = 20;
+	
+	@Override
+	public boolean useAdminCommand(String command, Player activeChar)
+	{
+		final StringTokenizer st = new StringTokenizer(command.toLowerCase(), " ");
+		st.nextToken(); // Skip actual command.
+		
+		final String subCommand = st.hasMoreTokens() ? st.nextToken() : "client";
+		switch (subCommand)
+		{
+			case "on":
+			case "off":
+			{
+				Config.PACKET_STATISTICS = subCommand.equals("on");
+				BuilderUtil.sendSysMessage(activeChar, "Packet statistics are " + (Config.PACKET_STATISTICS ? "enabled." : "disabled."));
+				showStatistics(activeChar, false);
+				return true;
+			}
+			case "reset":
+			{
+				PacketStatistics.reset();
+				BuilderUtil.sendSysMessage(activeChar, "Packet statistics have been reset.");
+				showStatistics(activeChar, false);
+				return true;
+			}
+			case "dump":
+			{
+				if (PacketStatistics.dump())
+				{
+					BuilderUtil.sendSysMessage(activeChar, "Packet statistics have been written to log/PacketStatistics.txt.");
+				}
+				else
+				{
+					BuilderUtil.sendSysMessage(activeChar, "Packet statistics could not be written.");
+				}
+				return true;
+			}
+			case "client":
+			case "server":
+			{
+				showStatistics(activeChar, subCommand.equals("server"));
+				return true;
+			}
+		}
+		
+		BuilderUtil.sendSysMessage(activeChar, "Usage: //packetstats [on|off|client|server|reset|dump]");
+		return false;
+	}
+	
+	private void showStatistics(Player player, boolean server)
+	{
+		final List<PacketStat> stats = server ? PacketStatistics.getServerPacketStats() : PacketStatistics.getClientPacketStats();
+		final StringBuilder sb = new StringBuilder(2000);
+		for (int i = 0; (i < stats.size()) && (i < MAX_ROWS); i++)
+		{
+			final PacketStat stat = stats.get(i);
+			sb.append("<tr><td>" + stat.getName() + "</td><td>" + stat.getCount() + "</td><td>" + stat.getAverageExecutionTime() + "</td><td>" + stat.getExecutionTimePercentile(0.99) + "</td></tr>");
+		}
+		
+		final NpcHtmlMessage html = new NpcHtmlMessage(0, 1);
+		html.setHtml(HtmCache.getInstance().getHtm(player, "data/html/admin/packetstats.htm"));
+		html.replace("%status%", Config.PACKET_STATISTICS ? "Disable" : "Enable");
+		html.replace("%toggle%", Config.PACKET_STATISTICS ? "off" : "on");
+		html.replace("%title%", server ? "Server packets by write time" : "Client packets by run time");
+		html.replace("%list%", sb.toString());
+		player.sendPacket(html);
+	}
+	
+	@Override
+	public String[] getAdminCommandList()
+	{
+		return ADMIN_COMMANDS;
+	}
+}
@@ -22,8 +22,10 @@ import java.sql.ResultSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.gameserver.handler.IAdminCommandHandler;
+import org.l2jmobius.gameserver.instancemanager.ItemPersistenceManager;
 import org.l2jmobius.gameserver.model.actor.Player;
 
 /**
@@ -62,6 +64,12 @@ public class AdminRepairChar implements IAdminCommandHandler
 		}
 		
 		final String cmd = "UPDATE characters SET x=-84318, y=244579, z=-3730 WHERE char_name=?";
+		// Store the pending item changes first.
+		if (Config.ITEM_WRITE_BEHIND)
+		{
+			ItemPersistenceManager.getInstance().flush();
+		}
+		
 		try (Connection con = DatabaseFactory.getConnection())
 		{
 			PreparedStatement statement = con.prepareStatement(cmd);
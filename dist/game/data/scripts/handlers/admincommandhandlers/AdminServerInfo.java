@@ -29,6 +29,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.commons.network.Connection;
 import org.l2jmobius.gameserver.GameServer;
 import org.l2jmobius.gameserver.cache.HtmCache;
 import org.l2jmobius.gameserver.data.xml.AdminData;
@@ -36,7 +37,12 @@ import org.l2jmobius.gameserver.handler.IAdminCommandHandler;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.network.serverpackets.NpcHtmlMessage;
+import org.l2jmobius.gameserver.taskmanager.AttackableThinkTaskManager;
+import org.l2jmobius.gameserver.taskmanager.CreatureSeeTaskManager;
 import org.l2jmobius.gameserver.taskmanager.GameTimeTaskManager;
+import org.l2jmobius.gameserver.taskmanager.MovementTaskManager;
+import org.l2jmobius.gameserver.taskmanager.RespawnTaskManager;
+import org.l2jmobius.gameserver.util.PlayerRestorePipeline;
 
 /**
  * @author St3eT
@@ -73,6 +79,39 @@ public class AdminServerInfo implements IAdminCommandHandler
 			html.replace("%gameTime%", GameTimeTaskManager.getInstance().getGameHour() + ":" + GameTimeTaskManager.getInstance().getGameMinute());
 			html.replace("%dayNight%", GameTimeTaskManager.getInstance().isNight() ? "Night" : "Day");
 			html.replace("%geodata%", Config.PATHFINDING > 0 ? "Enabled" : "Disabled");
+			final long writes = Connection.getWriteCount();
+			html.replace("%writes%", writes);
+			html.replace("%packetsPerWrite%", writes > 0 ? String.format("%.2f", (double) Connection.getWrittenPackets() / writes) : "0");
+			html.replace("%bytesPerWrite%", writes > 0 ? String.valueOf(Connection.getWrittenBytes() / writes) : "0");
+			html.replace("%restores%", PlayerRestorePipeline.getRestoreCount());
+			html.replace("%restoreTime%", String.format("%.2f", PlayerRestorePipeline.getAverageRestoreTime()));
+			final StringBuilder restoreStages = new StringBuilder();
+			for (String stage : PlayerRestorePipeline.getStages())
+			{
+				restoreStages.append("<tr><td>").append(stage).append(":</td><td><font color=\"00FF00\">").append(String.format("%.2f", PlayerRestorePipeline.getAverageStageTime(stage))).append(" ms</font></td></tr>");
+			}
+			html.replace("%restoreStages%", restoreStages.toString());
+			final CreatureSeeTaskManager creatureSee = CreatureSeeTaskManager.getInstance();
+			html.replace("%seePass%", String.format("%.2f", creatureSee.getLastPassTime()));
+			html.replace("%seeRegions%", creatureSee.getLastRegionCount());
+			html.replace("%seeAverage%", String.format("%.2f", creatureSee.getAveragePassTime()));
+			html.replace("%seeMax%", String.format("%.2f", creatureSee.getMaxPassTime()));
+			html.replace("%seeSkipped%", creatureSee.getSkippedPassCount());
+			final MovementTaskManager movement = MovementTaskManager.getInstance();
+			html.replace("%moving%", movement.getMovingCount());
+			html.replace("%moveShards%", movement.getShardCount());
+			html.replace("%moveAverage%", String.format("%.2f", movement.getAverageTickTime()));
+			html.replace("%moveMax%", String.format("%.2f", movement.getMaxTickTime()));
+			html.replace("%moveOverruns%", movement.getOverrunCount());
+			final RespawnTaskManager respawns = RespawnTaskManager.getInstance();
+			html.replace("%respawnPending%", respawns.getPendingCount());
+			html.replace("%respawnDue%", respawns.getDueCount());
+			html.replace("%respawnProcessed%", respawns.getProcessedCount());
+			final AttackableThinkTaskManager thinks = AttackableThinkTaskManager.getInstance();
+			html.replace("%thinkFull%", thinks.getThinkCount(AttackableThinkTaskManager.TIER_FULL));
+			html.replace("%thinkIdle%", thinks.getThinkCount(AttackableThinkTaskManager.TIER_IDLE));
+			html.replace("%thinkDormant%", thinks.getThinkCount(AttackableThinkTaskManager.TIER_DORMANT));
+			html.replace("%thinkSkipped%", thinks.getSkippedCount());
 			html.replace("%serverTime%", SDF.format(new Date(System.currentTimeMillis())));
 			html.replace("%serverUpTime%", getServerUpTime());
 			html.replace("%onlineAll%", getPlayersCount("ALL"));
@@ -53,6 +53,13 @@ public class ServitorShare extends AbstractEffect
 		return effected.isSummon();
 	}
 	
+	@Override
+	public boolean isIncrementalPump()
+	{
+		// Shared values depend on the owner's stats.
+		return false;
+	}
+	
 	@Override
 	public void pump(Creature effected, Skill skill)
 	{
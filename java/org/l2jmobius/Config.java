@@ -186,6 +186,8 @@ public class Config
 	public static boolean DANCE_CANCEL_BUFF;
 	public static boolean DANCE_CONSUME_ADDITIONAL_MP;
 	public static boolean ALT_STORE_DANCES;
+	public static boolean INCREMENTAL_STAT_RECALCULATION;
+	public static boolean INCREMENTAL_STAT_RECALCULATION_VERIFY;
 	public static boolean AUTO_LEARN_DIVINE_INSPIRATION;
 	public static boolean ALT_GAME_CANCEL_BOW;
 	public static boolean ALT_GAME_CANCEL_CAST;
@@ -485,11 +487,22 @@ public class Config
 	public static boolean DEBUG_EX_CLIENT_PACKETS;
 	public static boolean DEBUG_SERVER_PACKETS;
 	public static boolean DEBUG_UNKNOWN_PACKETS;
+	public static boolean PACKET_STATISTICS;
+	public static int PACKET_STATISTICS_DUMP_INTERVAL;
 	public static Set<String> ALT_DEV_EXCLUDED_PACKETS;
 	public static int SCHEDULED_THREAD_POOL_SIZE;
 	public static int HIGH_PRIORITY_SCHEDULED_THREAD_POOL_SIZE;
 	public static int INSTANT_THREAD_POOL_SIZE;
+	public static boolean TIMING_WHEEL_ENABLED;
+	public static int TIMING_WHEEL_TICK_DURATION;
+	public static boolean ORDERED_PACKET_EXECUTION;
+	public static int PACKET_THREAD_POOL_SIZE;
+	public static boolean PACKET_VIRTUAL_THREADS;
 	public static boolean THREADS_FOR_LOADING;
+	public static boolean PARALLEL_STARTUP;
+	public static boolean PARALLEL_PLAYER_RESTORE;
+	public static int PLAYER_RESTORE_LOG_THRESHOLD;
+	public static int CREATURE_SEE_THREADS;
 	public static boolean DEADLOCK_DETECTOR;
 	public static int DEADLOCK_CHECK_INTERVAL;
 	public static boolean RESTART_ON_DEADLOCK;
@@ -501,6 +514,9 @@ public class Config
 	public static int CHAR_DATA_STORE_INTERVAL;
 	public static int CLAN_VARIABLES_STORE_INTERVAL;
 	public static boolean LAZY_ITEMS_UPDATE;
+	public static boolean ITEM_WRITE_BEHIND;
+	public static int ITEM_WRITE_BEHIND_INTERVAL;
+	public static int ITEM_WRITE_BEHIND_BATCH_SIZE;
 	public static boolean UPDATE_ITEMS_ON_CHAR_STORE;
 	public static boolean DESTROY_DROPPED_PLAYER_ITEM;
 	public static boolean DESTROY_EQUIPABLE_PLAYER_ITEM;
@@ -515,6 +531,7 @@ public class Config
 	public static boolean MULTIPLE_ITEM_DROP;
 	public static boolean HTM_CACHE;
 	public static boolean CHECK_HTML_ENCODING;
+	public static boolean DATAPACK_CACHE;
 	public static boolean HIDE_BYPASS_REMOVAL;
 	public static int MIN_NPC_ANIMATION;
 	public static int MAX_NPC_ANIMATION;
@@ -691,6 +708,10 @@ public class Config
 	public static int AGGRO_DISTANCE_CHECK_RAID_RANGE;
 	public static boolean AGGRO_DISTANCE_CHECK_INSTANCES;
 	public static boolean AGGRO_DISTANCE_CHECK_RESTORE_LIFE;
+	public static boolean AI_LEVEL_OF_DETAIL;
+	public static int AI_LOD_NEAR_RANGE;
+	public static int AI_LOD_IDLE_INTERVAL;
+	public static int AI_LOD_DORMANT_INTERVAL;
 	public static boolean GUARD_ATTACK_AGGRO_MOB;
 	public static double RAID_HP_REGEN_MULTIPLIER;
 	public static double RAID_MP_REGEN_MULTIPLIER;
@@ -850,6 +871,8 @@ public class Config
 	public static int MAX_CHARACTERS_NUMBER_PER_ACCOUNT;
 	public static File DATAPACK_ROOT;
 	public static File SCRIPT_ROOT;
+	public static boolean SCRIPT_CACHE;
+	public static int SCRIPT_COMPILATION_THREADS;
 	public static boolean ACCEPT_ALTERNATE_ID;
 	public static int REQUEST_ID;
 	public static boolean RESERVE_HOST_ON_LOGIN = false;
@@ -977,9 +1000,12 @@ public class Config
 	// --------------------------------------------------
 	public static Path GEODATA_PATH;
 	public static Path PATHNODE_PATH;
+	public static Path PATHGRAPH_PATH;
 	public static Path GEOEDIT_PATH;
 	public static int PATHFINDING;
 	public static String PATHFIND_BUFFERS;
+	public static boolean HIERARCHICAL_PATHFINDING;
+	public static int HIERARCHICAL_PATHFINDING_DISTANCE;
 	public static float LOW_WEIGHT;
 	public static float MEDIUM_WEIGHT;
 	public static float HIGH_WEIGHT;
@@ -1447,6 +1473,13 @@ public class Config
 				LOGGER.log(Level.WARNING, "Error setting script root!", e);
 				SCRIPT_ROOT = new File(".");
 			}
+			SCRIPT_CACHE = serverConfig.getBoolean("ScriptCache", false);
+			SCRIPT_COMPILATION_THREADS = serverConfig.getInt("ScriptCompilationThreads", -1);
+			if (SCRIPT_COMPILATION_THREADS == -1)
+			{
+				SCRIPT_COMPILATION_THREADS = Runtime.getRuntime().availableProcessors();
+			}
+			SCRIPT_COMPILATION_THREADS = Math.max(1, SCRIPT_COMPILATION_THREADS);
 			Pattern charNamePattern;
 			try
 			{
@@ -1496,7 +1529,24 @@ public class Config
 			{
 				INSTANT_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
 			}
+			TIMING_WHEEL_ENABLED = serverConfig.getBoolean("TimingWheelEnabled", false);
+			TIMING_WHEEL_TICK_DURATION = Math.max(1, serverConfig.getInt("TimingWheelTickDuration", 10));
+			ORDERED_PACKET_EXECUTION = serverConfig.getBoolean("OrderedPacketExecution", false);
+			PACKET_THREAD_POOL_SIZE = serverConfig.getInt("PacketThreadPoolSize", -1);
+			if (PACKET_THREAD_POOL_SIZE == -1)
+			{
+				PACKET_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+			}
+			PACKET_VIRTUAL_THREADS = serverConfig.getBoolean("PacketVirtualThreads", false);
 			THREADS_FOR_LOADING = serverConfig.getBoolean("ThreadsForLoading", false);
+			PARALLEL_STARTUP = serverConfig.getBoolean("ParallelStartup", false);
+			PARALLEL_PLAYER_RESTORE = serverConfig.getBoolean("ParallelPlayerRestore", false);
+			PLAYER_RESTORE_LOG_THRESHOLD = serverConfig.getInt("PlayerRestoreLogThreshold", 1000);
+			CREATURE_SEE_THREADS = serverConfig.getInt("CreatureSeeThreads", -1);
+			if (CREATURE_SEE_THREADS == -1)
+			{
+				CREATURE_SEE_THREADS = Runtime.getRuntime().availableProcessors();
+			}
 			DEADLOCK_DETECTOR = serverConfig.getBoolean("DeadLockDetector", true);
 			DEADLOCK_CHECK_INTERVAL = serverConfig.getInt("DeadLockCheckInterval", 20);
 			RESTART_ON_DEADLOCK = serverConfig.getBoolean("RestartOnDeadlock", false);
@@ -1811,6 +1861,8 @@ public class Config
 			DANCE_CANCEL_BUFF = characterConfig.getBoolean("DanceCancelBuff", false);
 			DANCE_CONSUME_ADDITIONAL_MP = characterConfig.getBoolean("DanceConsumeAdditionalMP", true);
 			ALT_STORE_DANCES = characterConfig.getBoolean("AltStoreDances", false);
+			INCREMENTAL_STAT_RECALCULATION = characterConfig.getBoolean("IncrementalStatRecalculation", false);
+			INCREMENTAL_STAT_RECALCULATION_VERIFY = characterConfig.getBoolean("IncrementalStatRecalculationVerify", false);
 			AUTO_LEARN_DIVINE_INSPIRATION = characterConfig.getBoolean("AutoLearnDivineInspiration", false);
 			ALT_GAME_CANCEL_BOW = characterConfig.getString("AltGameCancelByHit", "Cast").equalsIgnoreCase("bow") || characterConfig.getString("AltGameCancelByHit", "Cast").equalsIgnoreCase("all");
 			ALT_GAME_CANCEL_CAST = characterConfig.getString("AltGameCancelByHit", "Cast").equalsIgnoreCase("cast") || characterConfig.getString("AltGameCancelByHit", "Cast").equalsIgnoreCase("all");
@@ -2075,6 +2127,8 @@ public class Config
 			DEBUG_EX_CLIENT_PACKETS = generalConfig.getBoolean("DebugExClientPackets", false);
 			DEBUG_SERVER_PACKETS = generalConfig.getBoolean("DebugServerPackets", false);
 			DEBUG_UNKNOWN_PACKETS = generalConfig.getBoolean("DebugUnknownPackets", true);
+			PACKET_STATISTICS = generalConfig.getBoolean("PacketStatistics", false);
+			PACKET_STATISTICS_DUMP_INTERVAL = generalConfig.getInt("PacketStatisticsDumpInterval", 0);
 			final String[] packets = generalConfig.getString("ExcludedPacketList", "").trim().split(",");
 			ALT_DEV_EXCLUDED_PACKETS = new HashSet<>(packets.length);
 			for (String packet : packets)
@@ -2094,6 +2148,9 @@ public class Config
 			CHAR_DATA_STORE_INTERVAL = generalConfig.getInt("CharacterDataStoreInterval", 15) * 60 * 1000;
 			CLAN_VARIABLES_STORE_INTERVAL = generalConfig.getInt("ClanVariablesStoreInterval", 15) * 60 * 1000;
 			LAZY_ITEMS_UPDATE = generalConfig.getBoolean("LazyItemsUpdate", false);
+			ITEM_WRITE_BEHIND = generalConfig.getBoolean("ItemWriteBehind", false);
+			ITEM_WRITE_BEHIND_INTERVAL = Math.max(100, generalConfig.getInt("ItemWriteBehindInterval", 1000));
+			ITEM_WRITE_BEHIND_BATCH_SIZE = Math.max(1, generalConfig.getInt("ItemWriteBehindBatchSize", 500));
 			UPDATE_ITEMS_ON_CHAR_STORE = generalConfig.getBoolean("UpdateItemsOnCharStore", false);
 			DESTROY_DROPPED_PLAYER_ITEM = generalConfig.getBoolean("DestroyPlayerDroppedItem", false);
 			DESTROY_EQUIPABLE_PLAYER_ITEM = generalConfig.getBoolean("DestroyEquipableItem", false);
@@ -2108,6 +2165,7 @@ public class Config
 			MULTIPLE_ITEM_DROP = generalConfig.getBoolean("MultipleItemDrop", true);
 			HTM_CACHE = generalConfig.getBoolean("HtmCache", true);
 			CHECK_HTML_ENCODING = generalConfig.getBoolean("CheckHtmlEncoding", true);
+			DATAPACK_CACHE = generalConfig.getBoolean("DatapackCache", false);
 			HIDE_BYPASS_REMOVAL = generalConfig.getBoolean("HideBypassRemoval", true);
 			MIN_NPC_ANIMATION = generalConfig.getInt("MinNpcAnimation", 5);
 			MAX_NPC_ANIMATION = generalConfig.getInt("MaxNpcAnimation", 60);
@@ -2245,6 +2303,10 @@ public class Config
 			AGGRO_DISTANCE_CHECK_RAID_RANGE = npcConfig.getInt("AggroDistanceCheckRaidRange", 3000);
 			AGGRO_DISTANCE_CHECK_INSTANCES = npcConfig.getBoolean("AggroDistanceCheckInstances", false);
 			AGGRO_DISTANCE_CHECK_RESTORE_LIFE = npcConfig.getBoolean("AggroDistanceCheckRestoreLife", true);
+			AI_LEVEL_OF_DETAIL = npcConfig.getBoolean("AiLevelOfDetail", false);
+			AI_LOD_NEAR_RANGE = npcConfig.getInt("AiLodNearRange", 3000);
+			AI_LOD_IDLE_INTERVAL = Math.max(1, npcConfig.getInt("AiLodIdleInterval", 2));
+			AI_LOD_DORMANT_INTERVAL = Math.max(1, npcConfig.getInt("AiLodDormantInterval", 10));
 			GUARD_ATTACK_AGGRO_MOB = npcConfig.getBoolean("GuardAttackAggroMob", false);
 			RAID_HP_REGEN_MULTIPLIER = npcConfig.getDouble("RaidHpRegenMultiplier", 100) / 100;
 			RAID_MP_REGEN_MULTIPLIER = npcConfig.getDouble("RaidMpRegenMultiplier", 100) / 100;
@@ -2583,9 +2645,12 @@ public class Config
 			final PropertiesParser geoEngineConfig = new PropertiesParser(GEOENGINE_CONFIG_FILE);
 			GEODATA_PATH = Paths.get(Config.DATAPACK_ROOT.getPath() + "/" + geoEngineConfig.getString("GeoDataPath", "geodata"));
 			PATHNODE_PATH = Paths.get(Config.DATAPACK_ROOT.getPath() + "/" + geoEngineConfig.getString("PathnodePath", "pathnode"));
+			PATHGRAPH_PATH = Paths.get(Config.DATAPACK_ROOT.getPath() + "/" + geoEngineConfig.getString("PathGraphPath", "pathgraph"));
 			GEOEDIT_PATH = Paths.get(Config.DATAPACK_ROOT.getPath() + "/" + geoEngineConfig.getString("GeoEditPath", "saves"));
 			PATHFINDING = geoEngineConfig.getInt("PathFinding", 0);
 			PATHFIND_BUFFERS = geoEngineConfig.getString("PathFindBuffers", "100x6;128x6;192x6;256x4;320x4;384x4;500x2");
+			HIERARCHICAL_PATHFINDING = geoEngineConfig.getBoolean("HierarchicalPathFinding", false);
+			HIERARCHICAL_PATHFINDING_DISTANCE = geoEngineConfig.getInt("HierarchicalPathFindingDistance", 2000);
 			LOW_WEIGHT = geoEngineConfig.getFloat("LowWeight", 0.5f);
 			MEDIUM_WEIGHT = geoEngineConfig.getFloat("MediumWeight", 2);
 			HIGH_WEIGHT = geoEngineConfig.getFloat("HighWeight", 3);
@@ -21,7 +21,7 @@ package org.l2jmobius.commons.network;
 /**
  * Represents a buffer for reading and writing different data types.<br>
  * This interface provides methods to read and write primitive data types<br>
- * like byte, short, and int at specific indices within the buffer.<br>
+ * like byte, short, int and long at specific indices within the buffer.<br>
  * Additionally, methods to get and set the buffer's limit are provided.<br>
  * @author JoeAlisson
  */
@@ -69,6 +69,20 @@ public interface Buffer
 	 */
 	void writeInt(int index, int value);
 	
+	/**
+	 * Reads a long value (64-bit integer) in little-endian order from the buffer at the specified index.
+	 * @param index The index from where the long should be read.
+	 * @return The long value at the specified index.
+	 */
+	long readLong(int index);
+	
+	/**
+	 * Writes a long value (64-bit integer) in little-endian order to the buffer at the specified index.
+	 * @param index The index at which the long value should be written.
+	 * @param value The long value to be written.
+	 */
+	void writeLong(int index, long value);
+	
 	/**
 	 * Retrieves the current limit of the buffer.
 	 * @return The buffer's current limit.
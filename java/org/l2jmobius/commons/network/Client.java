@@ -18,7 +18,10 @@
  */
 package org.l2jmobius.commons.network;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -37,9 +40,14 @@ public abstract class Client<T extends Connection<?>>
 {
 	// private static final Logger LOGGER = Logger.getLogger(Client.class.getName());
 	
+	// Packets sent by a coalesced write, limits the buffers of a gathering write.
+	private static final int MAX_COALESCED_PACKETS = 64;
+	
 	private final T _connection;
 	private final Queue<WritablePacket<? extends Client<T>>> _packetsToWrite = new ConcurrentLinkedQueue<>();
 	private final AtomicBoolean _writing = new AtomicBoolean(false);
+	private final List<InternalWritableBuffer> _coalescedBuffers = new ArrayList<>();
+	private final PacketMailbox _packetMailbox = new PacketMailbox();
 	private final AtomicBoolean _disconnecting = new AtomicBoolean(false);
 	private int _estimateQueueSize = 0;
 	private int _dataSentSize;
@@ -126,39 +134,28 @@ public abstract class Client<T extends Connection<?>>
 		else
 		{
 			_estimateQueueSize--;
-			write(packet);
+			if (_connection.writeCoalescingSize() > 0)
+			{
+				writeCoalesced(packet);
+			}
+			else
+			{
+				write(packet);
+			}
 		}
 	}
 	
-	@SuppressWarnings(
-	{
-		"unchecked",
-		"rawtypes"
-	})
+	@SuppressWarnings("rawtypes")
 	private void write(WritablePacket packet)
 	{
 		boolean written = false;
 		InternalWritableBuffer buffer = null;
 		try
 		{
-			buffer = packet.writeData(this);
-			
-			final int payloadSize = buffer.limit() - ConnectionConfig.HEADER_SIZE;
-			if (payloadSize <= 0)
-			{
-				return;
-			}
-			
-			if (encrypt(buffer, ConnectionConfig.HEADER_SIZE, payloadSize))
+			buffer = encode(packet);
+			if (buffer != null)
 			{
 				_dataSentSize = buffer.limit();
-				
-				if (_dataSentSize <= ConnectionConfig.HEADER_SIZE)
-				{
-					return;
-				}
-				
-				packet.writeHeader(buffer, _dataSentSize);
 				written = _connection.write(buffer.toByteBuffers());
 				// LOGGER.info("Sending packet " + packet + "[" + _dataSentSize + "] to " + this);
 			}
@@ -180,6 +177,134 @@ public abstract class Client<T extends Connection<?>>
 		}
 	}
 	
+	/**
+	 * Encrypts the given packet and the next queued packets in sequence, then sends them in a single gathering write.<br>
+	 * Packets are added until the coalescing byte budget is reached, so the last packet can exceed it.
+	 * @param packet the first packet to send
+	 */
+	@SuppressWarnings("rawtypes")
+	private void writeCoalesced(WritablePacket packet)
+	{
+		final int budget = _connection.writeCoalescingSize();
+		int size = 0;
+		int bufferCount = 0;
+		WritablePacket next = packet;
+		_coalescedBuffers.clear();
+		while (true)
+		{
+			try
+			{
+				final InternalWritableBuffer buffer = encode(next);
+				if (buffer != null)
+				{
+					_coalescedBuffers.add(buffer);
+					final ByteBuffer[] buffers = buffer.toByteBuffers();
+					bufferCount += buffers.length;
+					size += buffer.limit();
+				}
+			}
+			catch (NotWrittenBufferException ignored)
+			{
+				// LOGGER.info("packet was not written " + next + " to " + this);
+			}
+			catch (Exception e)
+			{
+				// LOGGER.info("Error while " + this + " writing " + next + " " + e);
+			}
+			
+			if ((size >= budget) || (_coalescedBuffers.size() >= MAX_COALESCED_PACKETS) || ((next = _packetsToWrite.poll()) == null))
+			{
+				break;
+			}
+			_estimateQueueSize--;
+		}
+		
+		if (_coalescedBuffers.isEmpty())
+		{
+			handleNotWritten(null);
+			return;
+		}
+		
+		final ByteBuffer[] data;
+		if (_coalescedBuffers.size() == 1)
+		{
+			data = _coalescedBuffers.get(0).toByteBuffers();
+		}
+		else
+		{
+			data = new ByteBuffer[bufferCount];
+			int index = 0;
+			for (InternalWritableBuffer buffer : _coalescedBuffers)
+			{
+				for (ByteBuffer byteBuffer : buffer.toByteBuffers())
+				{
+					data[index++] = byteBuffer;
+				}
+			}
+		}
+		
+		// The write can complete and start the next coalesced write on another thread, so the buffers are not used after a successful write.
+		boolean written = false;
+		try
+		{
+			_dataSentSize = size;
+			written = _connection.write(data);
+			// LOGGER.info("Sending " + data.length + " buffers [" + _dataSentSize + "] to " + this);
+		}
+		finally
+		{
+			if (!written)
+			{
+				if (!releaseWritingResource())
+				{
+					for (InternalWritableBuffer buffer : _coalescedBuffers)
+					{
+						buffer.releaseResources();
+					}
+				}
+				_coalescedBuffers.clear();
+				if (isConnected())
+				{
+					writeFairPacket();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Writes the data of the packet, encrypts it and writes its header.
+	 * @param packet the packet to encode
+	 * @return the buffer to send, {@code null} if the packet has nothing to send
+	 * @throws NotWrittenBufferException if the packet data could not be written
+	 */
+	@SuppressWarnings(
+	{
+		"unchecked",
+		"rawtypes"
+	})
+	private InternalWritableBuffer encode(WritablePacket packet) throws NotWrittenBufferException
+	{
+		final InternalWritableBuffer buffer = packet.writeData(this);
+		try
+		{
+			final int payloadSize = buffer.limit() - ConnectionConfig.HEADER_SIZE;
+			if ((payloadSize > 0) && encrypt(buffer, ConnectionConfig.HEADER_SIZE, payloadSize) && (buffer.limit() > ConnectionConfig.HEADER_SIZE))
+			{
+				packet.writeHeader(buffer, buffer.limit());
+				Connection.addWrittenPackets(1);
+				return buffer;
+			}
+		}
+		catch (RuntimeException e)
+		{
+			buffer.releaseResources();
+			throw e;
+		}
+		
+		buffer.releaseResources();
+		return null;
+	}
+	
 	private void handleNotWritten(InternalWritableBuffer buffer)
 	{
 		if (!releaseWritingResource() && (buffer != null))
@@ -292,6 +417,14 @@ public abstract class Client<T extends Connection<?>>
 		}
 	}
 	
+	/**
+	 * @return the queue of received packets used by {@link OrderedPacketExecutor}
+	 */
+	PacketMailbox getPacketMailbox()
+	{
+		return _packetMailbox;
+	}
+	
 	public T getConnection()
 	{
 		return _connection;
@@ -23,6 +23,7 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.l2jmobius.commons.network.internal.fairness.FairnessController;
 
@@ -36,6 +37,11 @@ public class Connection<T extends Client<Connection<T>>>
 {
 	// private static final Logger LOGGER = Logger.getLogger(Connection.class.getName());
 	
+	// Write statistics of all connections.
+	private static final LongAdder WRITE_COUNT = new LongAdder();
+	private static final LongAdder WRITTEN_BYTES = new LongAdder();
+	private static final LongAdder WRITTEN_PACKETS = new LongAdder();
+	
 	private final AsynchronousSocketChannel _channel;
 	private final ReadHandler<T> _readHandler;
 	private final WriteHandler<T> _writeHandler;
@@ -101,6 +107,7 @@ public class Connection<T extends Client<Connection<T>>>
 	{
 		if (_channel.isOpen() && (_writingBuffers != null))
 		{
+			WRITE_COUNT.increment();
 			_channel.write(_writingBuffers, 0, _writingBuffers.length, -1, TimeUnit.MILLISECONDS, _client, _writeHandler);
 		}
 		else if (_client != null)
@@ -192,6 +199,11 @@ public class Connection<T extends Client<Connection<T>>>
 		return _config.dropPacketThreshold;
 	}
 	
+	public int writeCoalescingSize()
+	{
+		return _config.writeCoalescingSize;
+	}
+	
 	public boolean isAutoReadingEnabled()
 	{
 		return _config.autoReading;
@@ -201,4 +213,38 @@ public class Connection<T extends Client<Connection<T>>>
 	{
 		return _config.fairnessController;
 	}
+	
+	static void addWrittenBytes(long bytes)
+	{
+		WRITTEN_BYTES.add(bytes);
+	}
+	
+	static void addWrittenPackets(int packets)
+	{
+		WRITTEN_PACKETS.add(packets);
+	}
+	
+	/**
+	 * @return the number of socket writes of all connections, including writes resuming a partially sent buffer
+	 */
+	public static long getWriteCount()
+	{
+		return WRITE_COUNT.sum();
+	}
+	
+	/**
+	 * @return the number of bytes sent by all connections
+	 */
+	public static long getWrittenBytes()
+	{
+		return WRITTEN_BYTES.sum();
+	}
+	
+	/**
+	 * @return the number of packets sent by all connections
+	 */
+	public static long getWrittenPackets()
+	{
+		return WRITTEN_PACKETS.sum();
+	}
 }
@@ -180,6 +180,18 @@ public class ConnectionBuilder<T extends Client<Connection<T>>>
 		return this;
 	}
 	
+	/**
+	 * Define the byte budget of a coalesced write.<br>
+	 * When greater than zero, queued packets are encrypted in sequence and sent in a single gathering write until the budget is reached. Otherwise each packet is sent by its own write.
+	 * @param size the maximum number of bytes of a coalesced write. The default value is 0
+	 * @return this
+	 */
+	public ConnectionBuilder<T> writeCoalescingSize(int size)
+	{
+		_config.writeCoalescingSize = size;
+		return this;
+	}
+	
 	/**
 	 * Define the MMO Threads' Priority.<br>
 	 * The value should be between {@link Thread#MIN_PRIORITY} and {@link Thread#MAX_PRIORITY}.
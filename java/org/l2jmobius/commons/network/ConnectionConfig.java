@@ -53,6 +53,7 @@ public class ConnectionConfig
 	public boolean useNagle;
 	public boolean dropPackets;
 	public int dropPacketThreshold = 250;
+	public int writeCoalescingSize;
 	public boolean useCachedThreadPool;
 	public int maxCachedThreads = Integer.MAX_VALUE;
 	public int threadPriority = Thread.NORM_PRIORITY;
@@ -112,6 +113,7 @@ public class ConnectionConfig
 		initBufferPoolFactor = parseFloat(properties, "BufferPool.InitFactor", 0);
 		dropPackets = parseBoolean(properties, "DropPackets", dropPackets);
 		dropPacketThreshold = parseInt(properties, "DropPacketThreshold", 250);
+		writeCoalescingSize = Math.max(0, parseInt(properties, "WriteCoalescingSize", writeCoalescingSize));
 		resourcePool.setBufferSegmentSize(parseInt(properties, "BufferSegmentSize", resourcePool.getSegmentSize()));
 		fairnessBuckets = parseInt(properties, "FairnessBuckets", fairnessBuckets);
 		autoReading = parseBoolean(properties, "AutoReading", autoReading);
@@ -0,0 +1,57 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.network;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.l2jmobius.commons.threads.ThreadProvider;
+
+/**
+ * Executes the packets of each client one at a time and in the order they were received.<br>
+ * Packets of a client are queued in its mailbox, which is run by a shared pool of platform or virtual threads. A slow packet only delays the following packets of the same client, while other clients keep being served.
+ * @param <T> The type of Client associated with the packets to be executed.
+ * @author Mobius
+ */
+public class OrderedPacketExecutor<T extends Client<Connection<T>>> implements PacketExecutor<T>
+{
+	private final ExecutorService _carrier;
+	
+	/**
+	 * @param name the name prefix of the threads
+	 * @param threadCount the number of platform threads, not used with virtual threads
+	 * @param virtualThreads {@code true} to run each mailbox on a virtual thread
+	 */
+	public OrderedPacketExecutor(String name, int threadCount, boolean virtualThreads)
+	{
+		_carrier = virtualThreads ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name, 1).factory()) : Executors.newFixedThreadPool(threadCount, new ThreadProvider(name, true));
+	}
+	
+	@Override
+	public void execute(ReadablePacket<T> packet)
+	{
+		packet.getClient().getPacketMailbox().add(packet, _carrier);
+	}
+	
+	/**
+	 * Stops the threads executing the packets. Packets still queued are discarded.
+	 */
+	public void shutdown()
+	{
+		_carrier.shutdownNow();
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.network;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.l2jmobius.commons.threads.RunnableWrapper;
+
+/**
+ * Queue of the received packets of a client, executed one at a time and in order by an {@link OrderedPacketExecutor}.<br>
+ * The mailbox is scheduled on the carrier executor only while it has packets, so it never occupies more than one thread.
+ * @author Mobius
+ */
+class PacketMailbox implements Runnable
+{
+	// Packets executed before giving the thread to other clients.
+	private static final int MAX_PACKETS_PER_RUN = 32;
+	
+	private final Queue<ReadablePacket<?>> _packets = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean _scheduled = new AtomicBoolean(false);
+	private Executor _carrier;
+	
+	/**
+	 * Adds a packet and schedules the mailbox if it is not already scheduled or running.
+	 * @param packet the packet to execute
+	 * @param carrier the executor running the mailbox
+	 */
+	void add(ReadablePacket<?> packet, Executor carrier)
+	{
+		_packets.add(packet);
+		if (_scheduled.compareAndSet(false, true))
+		{
+			_carrier = carrier;
+			carrier.execute(this);
+		}
+	}
+	
+	@Override
+	public void run()
+	{
+		ReadablePacket<?> packet;
+		int executed = 0;
+		while ((executed++ < MAX_PACKETS_PER_RUN) && ((packet = _packets.poll()) != null))
+		{
+			new RunnableWrapper(packet).run();
+		}
+		
+		// A packet added after the last poll may have seen the mailbox still scheduled.
+		_scheduled.set(false);
+		if (!_packets.isEmpty() && _scheduled.compareAndSet(false, true))
+		{
+			_carrier.execute(this);
+		}
+	}
+}
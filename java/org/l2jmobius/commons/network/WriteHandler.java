@@ -49,6 +49,7 @@ class WriteHandler<T extends Client<Connection<T>>> implements CompletionHandler
 			return;
 		}
 		
+		Connection.addWrittenBytes(result);
 		if ((result < client.getDataSentSize()) && (result > 0))
 		{
 			// LOGGER.info("Still " + result + " data to send. Trying to send");
@@ -129,15 +129,22 @@ public class ArrayPacketBuffer extends InternalWritableBuffer implements Readabl
 	@Override
 	public void writeLong(long value)
 	{
-		ensureSize(_index + 8);
-		_data[_index++] = (byte) value;
-		_data[_index++] = (byte) (value >>> 8);
-		_data[_index++] = (byte) (value >>> 16);
-		_data[_index++] = (byte) (value >>> 24);
-		_data[_index++] = (byte) (value >>> 32);
-		_data[_index++] = (byte) (value >>> 40);
-		_data[_index++] = (byte) (value >>> 48);
-		_data[_index++] = (byte) (value >>> 56);
+		writeLong(_index, value);
+		_index += 8;
+	}
+	
+	@Override
+	public void writeLong(int index, long value)
+	{
+		ensureSize(index + 8);
+		_data[index++] = (byte) value;
+		_data[index++] = (byte) (value >>> 8);
+		_data[index++] = (byte) (value >>> 16);
+		_data[index++] = (byte) (value >>> 24);
+		_data[index++] = (byte) (value >>> 32);
+		_data[index++] = (byte) (value >>> 40);
+		_data[index++] = (byte) (value >>> 48);
+		_data[index] = (byte) (value >>> 56);
 	}
 	
 	@Override
@@ -244,6 +251,12 @@ public class ArrayPacketBuffer extends InternalWritableBuffer implements Readabl
 		return readUnsigned(index++) | (readUnsigned(index++) << 8) | (readUnsigned(index++) << 16) | (readUnsigned(index) << 24);
 	}
 	
+	@Override
+	public long readLong(int index)
+	{
+		return (readInt(index) & 0xFFFFFFFFL) | ((readInt(index + 4) & 0xFFFFFFFFL) << 32);
+	}
+	
 	@Override
 	public int limit()
 	{
@@ -194,6 +194,13 @@ public class DynamicPacketBuffer extends InternalWritableBuffer
 		_bufferIndex += 8;
 	}
 	
+	@Override
+	public void writeLong(int index, long value)
+	{
+		checkBounds(index, 8);
+		setLong(index, value);
+	}
+	
 	private void setLong(int index, long value)
 	{
 		final PacketNode node = indexToNode(index);
@@ -299,6 +306,7 @@ public class DynamicPacketBuffer extends InternalWritableBuffer
 		return Float.intBitsToFloat(readInt(index));
 	}
 	
+	@Override
 	public long readLong(int index)
 	{
 		checkSize(index + 8);
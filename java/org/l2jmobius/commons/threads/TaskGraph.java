@@ -0,0 +1,219 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.threads;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs named tasks that declare the tasks they depend on, used to load the server data.<br>
+ * Dependencies must be added before the tasks depending on them, so tasks run sequentially in the order they were added, or in parallel on a {@link ForkJoinPool} as soon as their dependencies are done.
+ * @author Mobius
+ */
+public class TaskGraph
+{
+	private static final Logger LOGGER = Logger.getLogger(TaskGraph.class.getName());
+	
+	// Slowest tasks shown in the report.
+	private static final int REPORT_SIZE = 15;
+	
+	private final Map<String, Task> _tasks = new LinkedHashMap<>();
+	private final Consumer<String> _sectionPrinter;
+	private String _section;
+	
+	/**
+	 * @param sectionPrinter prints the section of the next task when tasks run sequentially
+	 */
+	public TaskGraph(Consumer<String> sectionPrinter)
+	{
+		_sectionPrinter = sectionPrinter;
+	}
+	
+	/**
+	 * @param section the section of the tasks added next
+	 */
+	public void section(String section)
+	{
+		_section = section;
+	}
+	
+	/**
+	 * @param name the unique name of the task
+	 * @param runnable the task
+	 * @param dependencies the names of the tasks that must be done before this task
+	 */
+	public void add(String name, Runnable runnable, String... dependencies)
+	{
+		if (_tasks.containsKey(name))
+		{
+			throw new IllegalArgumentException("Task " + name + " is already added.");
+		}
+		
+		final Task task = new Task(name, _section, runnable);
+		for (String dependency : dependencies)
+		{
+			final Task parent = _tasks.get(dependency);
+			if (parent == null)
+			{
+				throw new IllegalArgumentException("Task " + name + " depends on " + dependency + ", which is not added before it.");
+			}
+			parent._dependents.add(task);
+			task._pending.incrementAndGet();
+		}
+		_tasks.put(name, task);
+	}
+	
+	/**
+	 * Runs all tasks and logs the slowest ones.
+	 * @param parallel {@code true} to run independent tasks in parallel
+	 * @throws Exception the first exception thrown by a task
+	 */
+	public void run(boolean parallel) throws Exception
+	{
+		final long start = System.currentTimeMillis();
+		if (parallel)
+		{
+			runParallel();
+		}
+		else
+		{
+			runSequential();
+		}
+		report(System.currentTimeMillis() - start, parallel);
+	}
+	
+	private void runSequential()
+	{
+		String section = null;
+		for (Task task : _tasks.values())
+		{
+			if ((task._section != null) && !task._section.equals(section))
+			{
+				section = task._section;
+				_sectionPrinter.accept(section);
+			}
+			
+			final long start = System.nanoTime();
+			task._runnable.run();
+			task._time = System.nanoTime() - start;
+		}
+	}
+	
+	private void runParallel() throws Exception
+	{
+		final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		final CountDownLatch done = new CountDownLatch(_tasks.size());
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		// Collect the roots first, dependents reaching zero pending while submitting are submitted by their last dependency.
+		final List<Task> roots = new ArrayList<>();
+		for (Task task : _tasks.values())
+		{
+			if (task._pending.get() == 0)
+			{
+				roots.add(task);
+			}
+		}
+		for (Task task : roots)
+		{
+			pool.execute(() -> execute(task, pool, done, failure));
+		}
+		
+		done.await();
+		pool.shutdown();
+		pool.awaitTermination(1, TimeUnit.MINUTES);
+		
+		final Throwable e = failure.get();
+		if (e instanceof Exception)
+		{
+			throw (Exception) e;
+		}
+		if (e != null)
+		{
+			throw new Exception(e);
+		}
+	}
+	
+	private void execute(Task task, ForkJoinPool pool, CountDownLatch done, AtomicReference<Throwable> failure)
+	{
+		final long start = System.nanoTime();
+		try
+		{
+			task._runnable.run();
+		}
+		catch (Throwable e)
+		{
+			LOGGER.log(Level.SEVERE, getClass().getSimpleName() + ": Task " + task._name + " failed!", e);
+			failure.compareAndSet(null, e);
+		}
+		finally
+		{
+			task._time = System.nanoTime() - start;
+			for (Task dependent : task._dependents)
+			{
+				if (dependent._pending.decrementAndGet() == 0)
+				{
+					pool.execute(() -> execute(dependent, pool, done, failure));
+				}
+			}
+			done.countDown();
+		}
+	}
+	
+	private void report(long elapsed, boolean parallel)
+	{
+		final List<Task> tasks = new ArrayList<>(_tasks.values());
+		long total = 0;
+		for (Task task : tasks)
+		{
+			total += task._time;
+		}
+		
+		LOGGER.info(getClass().getSimpleName() + ": Ran " + tasks.size() + " tasks " + (parallel ? "in parallel" : "sequentially") + " in " + elapsed + " ms, " + (total / 1000000) + " ms of task time.");
+		tasks.sort((a, b) -> Long.compare(b._time, a._time));
+		for (Task task : tasks.subList(0, Math.min(REPORT_SIZE, tasks.size())))
+		{
+			LOGGER.info(getClass().getSimpleName() + ": " + task._name + " " + (task._time / 1000000) + " ms.");
+		}
+	}
+	
+	private static class Task
+	{
+		final String _name;
+		final String _section;
+		final Runnable _runnable;
+		final List<Task> _dependents = new ArrayList<>();
+		final AtomicInteger _pending = new AtomicInteger();
+		volatile long _time;
+		
+		Task(String name, String section, Runnable runnable)
+		{
+			_name = name;
+			_section = section;
+			_runnable = runnable;
+		}
+	}
+}
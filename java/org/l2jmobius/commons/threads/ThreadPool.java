@@ -35,12 +35,13 @@ public class ThreadPool
 {
 	private static final Logger LOGGER = Logger.getLogger(ThreadPool.class.getName());
 	
-	private static final ScheduledThreadPoolExecutor SCHEDULED_POOL = new ScheduledThreadPoolExecutor(Config.SCHEDULED_THREAD_POOL_SIZE, new ThreadProvider("L2jMobius ScheduledThread"), new ThreadPoolExecutor.CallerRunsPolicy());
 	private static final ThreadPoolExecutor INSTANT_POOL = new ThreadPoolExecutor(Config.INSTANT_THREAD_POOL_SIZE, Integer.MAX_VALUE, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), new ThreadProvider("L2jMobius Thread"));
 	private static final long MAX_DELAY = 3155695200000L; // One hundred years.
 	private static final long MIN_DELAY = 0L;
 	
+	private static ScheduledThreadPoolExecutor SCHEDULED_POOL;
 	private static ScheduledThreadPoolExecutor HIGH_PRIORITY_SCHEDULED_POOL;
+	private static TimingWheel TIMING_WHEEL;
 	
 	public static void init()
 	{
@@ -53,26 +54,47 @@ public class ThreadPool
 			LOGGER.info("...scheduled pool executor with " + Config.HIGH_PRIORITY_SCHEDULED_THREAD_POOL_SIZE + " high priority threads.");
 		}
 		
-		// Configure ScheduledThreadPoolExecutor.
-		SCHEDULED_POOL.setRejectedExecutionHandler(new RejectedExecutionHandlerImpl());
-		SCHEDULED_POOL.setRemoveOnCancelPolicy(true);
-		SCHEDULED_POOL.prestartAllCoreThreads();
+		// Configure ScheduledThreadPoolExecutor or the TimingWheel that replaces it.
+		if (Config.TIMING_WHEEL_ENABLED)
+		{
+			TIMING_WHEEL = new TimingWheel("L2jMobius TimingWheel", Config.TIMING_WHEEL_TICK_DURATION, Config.SCHEDULED_THREAD_POOL_SIZE);
+		}
+		else
+		{
+			SCHEDULED_POOL = new ScheduledThreadPoolExecutor(Config.SCHEDULED_THREAD_POOL_SIZE, new ThreadProvider("L2jMobius ScheduledThread"), new ThreadPoolExecutor.CallerRunsPolicy());
+			SCHEDULED_POOL.setRejectedExecutionHandler(new RejectedExecutionHandlerImpl());
+			SCHEDULED_POOL.setRemoveOnCancelPolicy(true);
+			SCHEDULED_POOL.prestartAllCoreThreads();
+		}
 		
 		// Configure ThreadPoolExecutor.
 		INSTANT_POOL.setRejectedExecutionHandler(new RejectedExecutionHandlerImpl());
 		INSTANT_POOL.prestartAllCoreThreads();
 		
-		// Schedule the purge task.
-		scheduleAtFixedRate(ThreadPool::purge, 60000, 60000);
+		// Schedule the purge task. The timing wheel removes cancelled tasks by itself.
+		if (TIMING_WHEEL == null)
+		{
+			scheduleAtFixedRate(ThreadPool::purge, 60000, 60000);
+		}
 		
 		// Log information.
-		LOGGER.info("...scheduled pool executor with " + Config.SCHEDULED_THREAD_POOL_SIZE + " total threads.");
+		if (TIMING_WHEEL != null)
+		{
+			LOGGER.info("...timing wheel scheduler with " + Config.TIMING_WHEEL_TICK_DURATION + "ms ticks and " + Config.SCHEDULED_THREAD_POOL_SIZE + " total threads.");
+		}
+		else
+		{
+			LOGGER.info("...scheduled pool executor with " + Config.SCHEDULED_THREAD_POOL_SIZE + " total threads.");
+		}
 		LOGGER.info("...instant pool executor with " + Config.INSTANT_THREAD_POOL_SIZE + " total threads.");
 	}
 	
 	public static void purge()
 	{
-		SCHEDULED_POOL.purge();
+		if (SCHEDULED_POOL != null)
+		{
+			SCHEDULED_POOL.purge();
+		}
 		INSTANT_POOL.purge();
 	}
 	
@@ -86,6 +108,10 @@ public class ThreadPool
 	{
 		try
 		{
+			if (TIMING_WHEEL != null)
+			{
+				return TIMING_WHEEL.schedule(new RunnableWrapper(runnable), validate(delay));
+			}
 			return SCHEDULED_POOL.schedule(new RunnableWrapper(runnable), validate(delay), TimeUnit.MILLISECONDS);
 		}
 		catch (Exception e)
@@ -106,6 +132,10 @@ public class ThreadPool
 	{
 		try
 		{
+			if (TIMING_WHEEL != null)
+			{
+				return TIMING_WHEEL.scheduleAtFixedRate(new RunnableWrapper(runnable), validate(initialDelay), validate(period));
+			}
 			return SCHEDULED_POOL.scheduleAtFixedRate(new RunnableWrapper(runnable), validate(initialDelay), validate(period), TimeUnit.MILLISECONDS);
 		}
 		catch (Exception e)
@@ -151,6 +181,18 @@ public class ThreadPool
 		}
 	}
 	
+	/**
+	 * @return the TimingWheel metrics, or the ScheduledThreadPoolExecutor state when the wheel is disabled.
+	 */
+	public static String getScheduledStats()
+	{
+		if (TIMING_WHEEL != null)
+		{
+			return TIMING_WHEEL.getStats();
+		}
+		return "ScheduledPool: pending " + SCHEDULED_POOL.getQueue().size() + ", active " + SCHEDULED_POOL.getActiveCount() + ", completed " + SCHEDULED_POOL.getCompletedTaskCount();
+	}
+	
 	/**
 	 * @param delay : the delay to validate.
 	 * @return a valid value, from MIN_DELAY to MAX_DELAY.
@@ -180,7 +222,15 @@ public class ThreadPool
 		try
 		{
 			LOGGER.info("ThreadPool: Shutting down.");
-			SCHEDULED_POOL.shutdownNow();
+			LOGGER.info("ThreadPool: " + getScheduledStats());
+			if (TIMING_WHEEL != null)
+			{
+				TIMING_WHEEL.shutdown();
+			}
+			else
+			{
+				SCHEDULED_POOL.shutdownNow();
+			}
 			INSTANT_POOL.shutdownNow();
 		}
 		catch (Throwable t)
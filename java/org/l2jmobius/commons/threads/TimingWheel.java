@@ -0,0 +1,518 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.threads;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import org.l2jmobius.commons.util.CommonUtil;
+
+/**
+ * A hierarchical timing wheel that can be used instead of a ScheduledThreadPoolExecutor.<br>
+ * The wheel has 7 levels of 64 slots. Level 0 advances one slot per tick and each higher level spans 64 times the level below it, so even a delay of one hundred years fits.<br>
+ * Scheduling and cancelling are O(1): callers only push the task to a lock-free queue, the wheel thread links or unlinks it from its slot and due tasks are handed to a pool of worker threads.
+ * @author Mobius
+ */
+public class TimingWheel
+{
+	private static final Logger LOGGER = Logger.getLogger(TimingWheel.class.getName());
+	
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 7;
+	private static final long MAX_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+	
+	private static final int WAITING = 0;
+	private static final int RUNNING = 1;
+	private static final int DONE = 2;
+	private static final int CANCELLED = 3;
+	
+	private final String _name;
+	private final long _tickNanos;
+	private final long _startTime = System.nanoTime();
+	private final Task[][] _slots = new Task[LEVELS][SLOTS];
+	private final Queue<Task> _scheduledTasks = new ConcurrentLinkedQueue<>();
+	private final Queue<Task> _cancelledTasks = new ConcurrentLinkedQueue<>();
+	private final ThreadPoolExecutor _executor;
+	private final Thread _thread;
+	private volatile boolean _running = true;
+	private long _currentTick;
+	
+	// Metrics.
+	private final AtomicInteger _pendingCount = new AtomicInteger();
+	private final LongAdder _executedCount = new LongAdder();
+	private final LongAdder _runTime = new LongAdder();
+	private final AtomicLong _maxRunTime = new AtomicLong();
+	private volatile long _tickLag;
+	private volatile long _maxTickLag;
+	
+	/**
+	 * @param name : the name of the wheel, also used as thread name prefix.
+	 * @param tickDuration : the duration of a level 0 tick in milliseconds.
+	 * @param threads : the number of worker threads running the due tasks.
+	 */
+	public TimingWheel(String name, long tickDuration, int threads)
+	{
+		_name = name;
+		_tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickDuration));
+		_executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new ThreadProvider(name + " Worker"));
+		_executor.setRejectedExecutionHandler(new RejectedExecutionHandlerImpl());
+		_executor.prestartAllCoreThreads();
+		_thread = new ThreadProvider(name, ThreadPriority.PRIORITY_8).newThread(this::run);
+		_thread.start();
+	}
+	
+	/**
+	 * Creates and executes a one-shot action that becomes enabled after the given delay.
+	 * @param runnable : the task to execute.
+	 * @param delay : the time from now to delay execution in milliseconds.
+	 * @return a ScheduledFuture representing pending completion of the task.
+	 */
+	public ScheduledFuture<?> schedule(Runnable runnable, long delay)
+	{
+		final Task task = new Task(runnable, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay), 0);
+		submit(task);
+		return task;
+	}
+	
+	/**
+	 * Creates and executes a periodic action that becomes enabled first after the given initial delay.
+	 * @param runnable : the task to execute.
+	 * @param initialDelay : the time to delay first execution in milliseconds.
+	 * @param period : the period between successive executions in milliseconds.
+	 * @return a ScheduledFuture representing pending completion of the task.
+	 */
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable runnable, long initialDelay, long period)
+	{
+		final Task task = new Task(runnable, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(initialDelay), TimeUnit.MILLISECONDS.toNanos(Math.max(1, period)));
+		submit(task);
+		return task;
+	}
+	
+	private void submit(Task task)
+	{
+		if (!_running)
+		{
+			return;
+		}
+		
+		_pendingCount.incrementAndGet();
+		_scheduledTasks.add(task);
+	}
+	
+	private void run()
+	{
+		while (_running)
+		{
+			final long elapsed = System.nanoTime() - _startTime;
+			final long targetTick = elapsed / _tickNanos;
+			if (targetTick <= _currentTick)
+			{
+				LockSupport.parkNanos(((_currentTick + 1) * _tickNanos) - elapsed);
+				continue;
+			}
+			
+			try
+			{
+				processScheduled();
+				processCancelled();
+				while (_currentTick < targetTick)
+				{
+					_currentTick++;
+					advance();
+				}
+			}
+			catch (Throwable t)
+			{
+				LOGGER.warning(_name + ": Problem advancing wheel. " + CommonUtil.getStackTrace(t));
+			}
+			
+			final long lag = TimeUnit.NANOSECONDS.toMillis((System.nanoTime() - _startTime) - (targetTick * _tickNanos));
+			_tickLag = lag;
+			if (lag > _maxTickLag)
+			{
+				_maxTickLag = lag;
+			}
+		}
+	}
+	
+	private void processScheduled()
+	{
+		Task task;
+		while ((task = _scheduledTasks.poll()) != null)
+		{
+			if (task.getState() != WAITING)
+			{
+				continue;
+			}
+			
+			long deadline = ((task._deadline - _startTime) + _tickNanos - 1) / _tickNanos;
+			if (deadline <= _currentTick)
+			{
+				deadline = _currentTick + 1;
+			}
+			task._deadlineTick = deadline;
+			place(task);
+		}
+	}
+	
+	private void processCancelled()
+	{
+		Task task;
+		while ((task = _cancelledTasks.poll()) != null)
+		{
+			if (task._level >= 0)
+			{
+				unlink(task);
+			}
+		}
+	}
+	
+	private void advance()
+	{
+		final long tick = _currentTick;
+		
+		// Move the tasks of every higher level slot that starts on this tick down the wheel.
+		for (int level = 1; level < LEVELS; level++)
+		{
+			final int shift = SLOT_BITS * level;
+			if ((tick & ((1L << shift) - 1)) != 0)
+			{
+				break;
+			}
+			
+			final int index = (int) ((tick >>> shift) & SLOT_MASK);
+			Task task = _slots[level][index];
+			_slots[level][index] = null;
+			while (task != null)
+			{
+				final Task next = task._next;
+				task._prev = null;
+				task._next = null;
+				place(task);
+				task = next;
+			}
+		}
+		
+		// Dispatch the tasks that expire on this tick.
+		final int index = (int) (tick & SLOT_MASK);
+		Task task = _slots[0][index];
+		_slots[0][index] = null;
+		while (task != null)
+		{
+			final Task next = task._next;
+			task._prev = null;
+			task._next = null;
+			task._level = -1;
+			if (task.getState() == WAITING)
+			{
+				_executor.execute(task);
+			}
+			task = next;
+		}
+	}
+	
+	private void place(Task task)
+	{
+		long delta = task._deadlineTick - _currentTick;
+		if (delta > MAX_TICKS)
+		{
+			delta = MAX_TICKS;
+			task._deadlineTick = _currentTick + MAX_TICKS;
+		}
+		
+		final int level = delta < SLOTS ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+		final int index = (int) ((task._deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+		final Task head = _slots[level][index];
+		task._level = level;
+		task._index = index;
+		task._prev = null;
+		task._next = head;
+		if (head != null)
+		{
+			head._prev = task;
+		}
+		_slots[level][index] = task;
+	}
+	
+	private void unlink(Task task)
+	{
+		if (task._prev != null)
+		{
+			task._prev._next = task._next;
+		}
+		else
+		{
+			_slots[task._level][task._index] = task._next;
+		}
+		if (task._next != null)
+		{
+			task._next._prev = task._prev;
+		}
+		task._prev = null;
+		task._next = null;
+		task._level = -1;
+	}
+	
+	/**
+	 * @return the number of tasks waiting for their deadline.
+	 */
+	public int getPendingCount()
+	{
+		return _pendingCount.get();
+	}
+	
+	/**
+	 * @return the delay of the last processed tick in milliseconds.
+	 */
+	public long getTickLag()
+	{
+		return _tickLag;
+	}
+	
+	/**
+	 * @return the highest observed tick delay in milliseconds.
+	 */
+	public long getMaxTickLag()
+	{
+		return _maxTickLag;
+	}
+	
+	/**
+	 * @return the number of task runs.
+	 */
+	public long getExecutedCount()
+	{
+		return _executedCount.sum();
+	}
+	
+	/**
+	 * @return the average task run time in microseconds.
+	 */
+	public long getAverageRunTime()
+	{
+		final long count = _executedCount.sum();
+		return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(_runTime.sum() / count);
+	}
+	
+	/**
+	 * @return the highest task run time in microseconds.
+	 */
+	public long getMaxRunTime()
+	{
+		return TimeUnit.NANOSECONDS.toMicros(_maxRunTime.get());
+	}
+	
+	public String getStats()
+	{
+		return _name + ": pending " + getPendingCount() + ", tick lag " + getTickLag() + "ms (max " + getMaxTickLag() + "ms), executed " + getExecutedCount() + ", run time avg " + getAverageRunTime() + "us (max " + getMaxRunTime() + "us)";
+	}
+	
+	/**
+	 * Stops the wheel thread and the worker threads. Pending tasks are discarded.
+	 */
+	public void shutdown()
+	{
+		_running = false;
+		LockSupport.unpark(_thread);
+		_executor.shutdownNow();
+	}
+	
+	private class Task implements ScheduledFuture<Object>, Runnable
+	{
+		private final Runnable _runnable;
+		private final long _period;
+		private volatile long _deadline;
+		private final AtomicInteger _state = new AtomicInteger(WAITING);
+		private volatile Thread _runner;
+		
+		// Wheel thread only.
+		private long _deadlineTick;
+		private int _level = -1;
+		private int _index;
+		private Task _prev;
+		private Task _next;
+		
+		public Task(Runnable runnable, long deadline, long period)
+		{
+			_runnable = runnable;
+			_deadline = deadline;
+			_period = period;
+		}
+		
+		private int getState()
+		{
+			return _state.get();
+		}
+		
+		@Override
+		public void run()
+		{
+			if (!_state.compareAndSet(WAITING, RUNNING))
+			{
+				return;
+			}
+			
+			_pendingCount.decrementAndGet();
+			_runner = Thread.currentThread();
+			final long start = System.nanoTime();
+			try
+			{
+				_runnable.run();
+			}
+			catch (Throwable t)
+			{
+				LOGGER.warning(_name + ": " + _runnable.getClass().getSimpleName() + " " + CommonUtil.getStackTrace(t));
+			}
+			finally
+			{
+				_runner = null;
+				final long runTime = System.nanoTime() - start;
+				_executedCount.increment();
+				_runTime.add(runTime);
+				_maxRunTime.accumulateAndGet(runTime, Math::max);
+			}
+			
+			if (_period > 0)
+			{
+				_deadline += _period;
+				if (_state.compareAndSet(RUNNING, WAITING))
+				{
+					submit(this);
+					return;
+				}
+			}
+			else
+			{
+				_state.compareAndSet(RUNNING, DONE);
+			}
+			
+			synchronized (this)
+			{
+				notifyAll();
+			}
+		}
+		
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning)
+		{
+			final int state = _state.get();
+			if ((state == DONE) || (state == CANCELLED) || !_state.compareAndSet(state, CANCELLED))
+			{
+				return false;
+			}
+			
+			if (state == WAITING)
+			{
+				_pendingCount.decrementAndGet();
+				_cancelledTasks.add(this);
+			}
+			else if (mayInterruptIfRunning)
+			{
+				final Thread runner = _runner;
+				if (runner != null)
+				{
+					runner.interrupt();
+				}
+			}
+			
+			synchronized (this)
+			{
+				notifyAll();
+			}
+			return true;
+		}
+		
+		@Override
+		public boolean isCancelled()
+		{
+			return _state.get() == CANCELLED;
+		}
+		
+		@Override
+		public boolean isDone()
+		{
+			return _state.get() >= DONE;
+		}
+		
+		@Override
+		public Object get() throws InterruptedException, ExecutionException
+		{
+			synchronized (this)
+			{
+				while (!isDone())
+				{
+					wait();
+				}
+			}
+			if (isCancelled())
+			{
+				throw new CancellationException();
+			}
+			return null;
+		}
+		
+		@Override
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+		{
+			final long deadline = System.nanoTime() + unit.toNanos(timeout);
+			synchronized (this)
+			{
+				while (!isDone())
+				{
+					final long remaining = deadline - System.nanoTime();
+					if (remaining <= 0)
+					{
+						throw new TimeoutException();
+					}
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+			if (isCancelled())
+			{
+				throw new CancellationException();
+			}
+			return null;
+		}
+		
+		@Override
+		public long getDelay(TimeUnit unit)
+		{
+			return unit.convert(_deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+		
+		@Override
+		public int compareTo(Delayed other)
+		{
+			return other == this ? 0 : Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+		}
+	}
+}
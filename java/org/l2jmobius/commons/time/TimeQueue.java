@@ -0,0 +1,145 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.time;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Objects scheduled at a time, kept in a min-heap by time so that only the entries that are due get touched.<br>
+ * Rescheduled and removed objects leave their old heap entry behind, it is skipped when it comes due.
+ * @param <T> the scheduled object type
+ * @author Mobius
+ */
+public class TimeQueue<T>
+{
+	private final Map<T, Long> _schedules = new ConcurrentHashMap<>();
+	private final PriorityBlockingQueue<Schedule<T>> _queue = new PriorityBlockingQueue<>();
+	private final AtomicLong _dueCount = new AtomicLong();
+	private final AtomicLong _processedCount = new AtomicLong();
+	
+	/**
+	 * Schedules an object, replacing its previous schedule.
+	 * @param object the object
+	 * @param time the time in milliseconds
+	 */
+	public void put(T object, long time)
+	{
+		_schedules.put(object, time);
+		_queue.add(new Schedule<>(object, time));
+	}
+	
+	/**
+	 * @param object the object
+	 * @return {@code true} if the object was scheduled, {@code false} otherwise.
+	 */
+	public boolean remove(T object)
+	{
+		return _schedules.remove(object) != null;
+	}
+	
+	/**
+	 * @param object the object
+	 * @return the scheduled time of the object, {@code null} if it is not scheduled.
+	 */
+	public Long getTime(T object)
+	{
+		return _schedules.get(object);
+	}
+	
+	/**
+	 * Removes the objects scheduled before the given time and passes them to the action, in time order.
+	 * @param currentTime the time in milliseconds
+	 * @param action the action
+	 * @return the number of processed objects
+	 */
+	public int pollDue(long currentTime, Consumer<T> action)
+	{
+		int processed = 0;
+		Schedule<T> schedule;
+		while (((schedule = _queue.peek()) != null) && (currentTime > schedule._time))
+		{
+			_queue.poll();
+			_dueCount.incrementAndGet();
+			
+			// Skip rescheduled and removed objects.
+			if (_schedules.remove(schedule._object, schedule._time))
+			{
+				action.accept(schedule._object);
+				processed++;
+			}
+		}
+		_processedCount.addAndGet(processed);
+		return processed;
+	}
+	
+	/**
+	 * @return the scheduled objects and their time.
+	 */
+	public Map<T, Long> getSchedules()
+	{
+		return Collections.unmodifiableMap(_schedules);
+	}
+	
+	public int size()
+	{
+		return _schedules.size();
+	}
+	
+	public boolean isEmpty()
+	{
+		return _schedules.isEmpty();
+	}
+	
+	/**
+	 * @return the number of heap entries that came due, including the skipped ones.
+	 */
+	public long getDueCount()
+	{
+		return _dueCount.get();
+	}
+	
+	/**
+	 * @return the number of objects passed to an action.
+	 */
+	public long getProcessedCount()
+	{
+		return _processedCount.get();
+	}
+	
+	private static class Schedule<T> implements Comparable<Schedule<T>>
+	{
+		private final T _object;
+		private final long _time;
+		
+		public Schedule(T object, long time)
+		{
+			_object = object;
+			_time = time;
+		}
+		
+		@Override
+		public int compareTo(Schedule<T> other)
+		{
+			return Long.compare(_time, other._time);
+		}
+	}
+}
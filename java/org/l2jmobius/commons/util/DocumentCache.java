@@ -0,0 +1,333 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import org.l2jmobius.Config;
+
+/**
+ * Binary snapshot cache of parsed XML documents.<br>
+ * Each source file is stored in its own cache file together with the hash of its content, so changed files are parsed from XML again and every other file skips parsing and schema validation.
+ * @author Mobius
+ */
+public class DocumentCache
+{
+	private static final Logger LOGGER = Logger.getLogger(DocumentCache.class.getName());
+	
+	private static final String CACHE_FOLDER = "data/xmlcache";
+	private static final int MAGIC = 0x4C32444F; // L2DO
+	private static final int VERSION = 1;
+	
+	private static final byte ELEMENT = 1;
+	private static final byte TEXT = 2;
+	private static final byte CDATA = 3;
+	private static final byte COMMENT = 4;
+	private static final byte END = 0;
+	
+	private static final ThreadLocal<DocumentBuilder> BUILDERS = ThreadLocal.withInitial(() ->
+	{
+		try
+		{
+			return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+		}
+		catch (ParserConfigurationException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	});
+	
+	private DocumentCache()
+	{
+	}
+	
+	/**
+	 * Gets the document of a file from the cache, or parses and caches it when the file changed since it was cached.
+	 * @param owner the name of the parser, documents parsed with different settings are cached separately
+	 * @param file the XML file
+	 * @param parser parses the file when it is not cached
+	 * @return the document of the file
+	 * @throws Exception if the file could not be parsed
+	 */
+	public static Document getDocument(String owner, File file, Callable<Document> parser) throws Exception
+	{
+		final File cacheFile = getCacheFile(owner, file);
+		if (cacheFile == null)
+		{
+			return parser.call();
+		}
+		
+		final byte[] hash = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file.toPath()));
+		if (cacheFile.isFile())
+		{
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile))))
+			{
+				if ((in.readInt() == MAGIC) && (in.readInt() == VERSION))
+				{
+					final byte[] cachedHash = new byte[hash.length];
+					in.readFully(cachedHash);
+					if (Arrays.equals(hash, cachedHash))
+					{
+						return read(in);
+					}
+				}
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.WARNING, "DocumentCache: Could not read " + cacheFile + ", parsing " + file.getName() + " again.", e);
+			}
+		}
+		
+		final Document doc = parser.call();
+		write(doc, hash, cacheFile);
+		return doc;
+	}
+	
+	/**
+	 * @param owner the name of the parser
+	 * @param file the XML file
+	 * @return the cache file of the XML file, or {@code null} if the file is outside the datapack
+	 */
+	private static File getCacheFile(String owner, File file)
+	{
+		final String root = Config.DATAPACK_ROOT.getAbsoluteFile().toPath().normalize().toString();
+		final String path = file.getAbsoluteFile().toPath().normalize().toString();
+		if (!path.startsWith(root))
+		{
+			return null;
+		}
+		return new File(new File(Config.DATAPACK_ROOT, CACHE_FOLDER + "/" + owner), path.substring(root.length()) + ".bin");
+	}
+	
+	private static void write(Document doc, byte[] hash, File cacheFile)
+	{
+		final File tempFile = new File(cacheFile.getPath() + "." + Thread.currentThread().threadId() + ".tmp");
+		try
+		{
+			cacheFile.getParentFile().mkdirs();
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.write(hash);
+				writeChildren(out, doc, new HashMap<>());
+			}
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			LOGGER.log(Level.WARNING, "DocumentCache: Could not write " + cacheFile, e);
+			tempFile.delete();
+		}
+	}
+	
+	private static void writeChildren(DataOutputStream out, Node parent, Map<String, Integer> strings) throws IOException
+	{
+		for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling())
+		{
+			switch (node.getNodeType())
+			{
+				case Node.ELEMENT_NODE:
+				{
+					out.writeByte(ELEMENT);
+					writeString(out, node.getNodeName(), strings);
+					final NamedNodeMap attrs = node.getAttributes();
+					writeVarInt(out, attrs.getLength());
+					for (int i = 0; i < attrs.getLength(); i++)
+					{
+						final Node attr = attrs.item(i);
+						writeString(out, attr.getNodeName(), strings);
+						writeString(out, attr.getNodeValue(), strings);
+					}
+					writeChildren(out, node, strings);
+					break;
+				}
+				case Node.TEXT_NODE:
+				{
+					out.writeByte(TEXT);
+					writeString(out, node.getNodeValue(), strings);
+					break;
+				}
+				case Node.CDATA_SECTION_NODE:
+				{
+					out.writeByte(CDATA);
+					writeString(out, node.getNodeValue(), strings);
+					break;
+				}
+				case Node.COMMENT_NODE:
+				{
+					out.writeByte(COMMENT);
+					writeString(out, node.getNodeValue(), strings);
+					break;
+				}
+			}
+		}
+		out.writeByte(END);
+	}
+	
+	/**
+	 * Writes a string once, later occurrences only write its index.
+	 * @param out the output
+	 * @param value the string
+	 * @param strings the indexes of the strings already written
+	 * @throws IOException
+	 */
+	private static void writeString(DataOutputStream out, String value, Map<String, Integer> strings) throws IOException
+	{
+		final Integer index = strings.get(value);
+		if (index != null)
+		{
+			writeVarInt(out, index);
+			return;
+		}
+		
+		final int size = strings.size();
+		strings.put(value, size);
+		writeVarInt(out, size);
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+	
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException
+	{
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0)
+		{
+			out.writeByte((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		out.writeByte(remaining);
+	}
+	
+	/**
+	 * @return a new empty document, to own the nodes built without a parser
+	 */
+	public static Document newDocument()
+	{
+		final Document doc = BUILDERS.get().newDocument();
+		doc.setStrictErrorChecking(false);
+		return doc;
+	}
+	
+	private static Document read(DataInputStream in) throws Exception
+	{
+		final Document doc = newDocument();
+		readChildren(in, doc, doc, new ArrayList<>());
+		return doc;
+	}
+	
+	private static void readChildren(DataInputStream in, Document doc, Node parent, List<String> strings) throws IOException
+	{
+		byte type;
+		while ((type = in.readByte()) != END)
+		{
+			switch (type)
+			{
+				case ELEMENT:
+				{
+					final Element element = doc.createElement(readString(in, strings));
+					final int attributes = readVarInt(in);
+					for (int i = 0; i < attributes; i++)
+					{
+						element.setAttribute(readString(in, strings), readString(in, strings));
+					}
+					readChildren(in, doc, element, strings);
+					parent.appendChild(element);
+					break;
+				}
+				case TEXT:
+				{
+					parent.appendChild(doc.createTextNode(readString(in, strings)));
+					break;
+				}
+				case CDATA:
+				{
+					parent.appendChild(doc.createCDATASection(readString(in, strings)));
+					break;
+				}
+				case COMMENT:
+				{
+					parent.appendChild(doc.createComment(readString(in, strings)));
+					break;
+				}
+				default:
+				{
+					throw new IOException("Unknown node type " + type + ".");
+				}
+			}
+		}
+	}
+	
+	private static String readString(DataInputStream in, List<String> strings) throws IOException
+	{
+		final int index = readVarInt(in);
+		if (index < strings.size())
+		{
+			return strings.get(index);
+		}
+		
+		final byte[] bytes = new byte[readVarInt(in)];
+		in.readFully(bytes);
+		final String value = new String(bytes, StandardCharsets.UTF_8);
+		strings.add(value);
+		return value;
+	}
+	
+	private static int readVarInt(DataInputStream in) throws IOException
+	{
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = in.readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while ((b & 0x80) != 0);
+		return value;
+	}
+}
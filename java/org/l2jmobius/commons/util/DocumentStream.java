@@ -0,0 +1,171 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.ErrorHandler;
+
+/**
+ * Streaming XML parser.<br>
+ * Reads a file with a StAX cursor and builds one element of the root at a time, so only the element being parsed is kept in memory instead of the whole document.
+ * @author Mobius
+ */
+public class DocumentStream
+{
+	private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newFactory();
+	static
+	{
+		INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+		INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+	}
+	
+	private DocumentStream()
+	{
+	}
+	
+	/**
+	 * Validates a file against the schema named in its root element, without building a document.
+	 * @param file the XML file
+	 * @param errorHandler the handler of validation errors
+	 * @throws Exception if the file is not valid
+	 */
+	public static void validate(File file, ErrorHandler errorHandler) throws Exception
+	{
+		final Validator validator = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema().newValidator();
+		validator.setErrorHandler(errorHandler);
+		validator.validate(new StreamSource(file));
+	}
+	
+	/**
+	 * Parses a file and calls the action for each element child of its root element.<br>
+	 * Elements are detached, only the element passed to the action and its children can be walked.
+	 * @param file the XML file
+	 * @param ignoringComments {@code true} to skip comments
+	 * @param action the action called for each element
+	 * @throws Exception if the file could not be parsed
+	 */
+	public static void forEachElement(File file, boolean ignoringComments, Consumer<Node> action) throws Exception
+	{
+		final Document doc = DocumentCache.newDocument();
+		try (InputStream is = new BufferedInputStream(new FileInputStream(file)))
+		{
+			final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(is);
+			try
+			{
+				int depth = 0;
+				while (reader.hasNext())
+				{
+					switch (reader.next())
+					{
+						case XMLStreamConstants.START_ELEMENT:
+						{
+							if (depth == 1)
+							{
+								action.accept(readElement(reader, doc, ignoringComments));
+							}
+							else
+							{
+								depth++;
+							}
+							break;
+						}
+						case XMLStreamConstants.END_ELEMENT:
+						{
+							depth--;
+							break;
+						}
+					}
+				}
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+	}
+	
+	/**
+	 * Reads the element the cursor is on with all its children, leaving the cursor on its end.
+	 * @param reader the cursor
+	 * @param doc the owner of the created nodes
+	 * @param ignoringComments {@code true} to skip comments
+	 * @return the element
+	 * @throws XMLStreamException
+	 */
+	private static Element readElement(XMLStreamReader reader, Document doc, boolean ignoringComments) throws XMLStreamException
+	{
+		final Element element = doc.createElement(reader.getLocalName());
+		for (int i = 0; i < reader.getAttributeCount(); i++)
+		{
+			element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		}
+		
+		while (reader.hasNext())
+		{
+			switch (reader.next())
+			{
+				case XMLStreamConstants.START_ELEMENT:
+				{
+					element.appendChild(readElement(reader, doc, ignoringComments));
+					break;
+				}
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.SPACE:
+				{
+					element.appendChild(doc.createTextNode(reader.getText()));
+					break;
+				}
+				case XMLStreamConstants.CDATA:
+				{
+					element.appendChild(doc.createCDATASection(reader.getText()));
+					break;
+				}
+				case XMLStreamConstants.COMMENT:
+				{
+					if (!ignoringComments)
+					{
+						element.appendChild(doc.createComment(reader.getText()));
+					}
+					break;
+				}
+				case XMLStreamConstants.END_ELEMENT:
+				{
+					return element;
+				}
+			}
+		}
+		return element;
+	}
+}
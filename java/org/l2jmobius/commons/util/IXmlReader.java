@@ -90,6 +90,12 @@ public interface IXmlReader
 			return;
 		}
 		
+		if (isStreaming() && !(Config.DATAPACK_CACHE && isCaching()))
+		{
+			parseStream(f);
+			return;
+		}
+		
 		final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
 		dbf.setNamespaceAware(true);
 		dbf.setValidating(isValidating());
@@ -99,7 +105,7 @@ public interface IXmlReader
 			dbf.setAttribute(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
 			final DocumentBuilder db = dbf.newDocumentBuilder();
 			db.setErrorHandler(new XMLErrorHandler());
-			parseDocument(db.parse(f), f);
+			parseDocument(Config.DATAPACK_CACHE && isCaching() ? DocumentCache.getDocument(getClass().getSimpleName(), f, () -> db.parse(f)) : db.parse(f), f);
 		}
 		catch (SAXParseException e)
 		{
@@ -111,6 +117,42 @@ public interface IXmlReader
 		}
 	}
 	
+	/**
+	 * Parses a single XML file without building its document.<br>
+	 * Calls {@link #parseElement(Node, File)} for each element of the root element, as they are read.<br>
+	 * The file is validated first only when {@link #isValidating()} is {@code true}.
+	 * @param f the XML file to parse.
+	 */
+	default void parseStream(File f)
+	{
+		try
+		{
+			if (isValidating())
+			{
+				DocumentStream.validate(f, new XMLErrorHandler());
+			}
+			DocumentStream.forEachElement(f, isIgnoringComments(), node -> parseElement(node, f));
+		}
+		catch (SAXParseException e)
+		{
+			LOGGER.log(Level.WARNING, "Could not parse file: " + f.getName() + " at line: " + e.getLineNumber() + ", column: " + e.getColumnNumber() + " :", e);
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.WARNING, "Could not parse file: " + f.getName(), e);
+		}
+	}
+	
+	/**
+	 * Checks if files are parsed with {@link #parseStream(File)}.<br>
+	 * Cached documents are still parsed with {@link #parseDocument(Document, File)}.
+	 * @return {@code true} if files are streamed, {@code false} otherwise
+	 */
+	default boolean isStreaming()
+	{
+		return false;
+	}
+	
 	/**
 	 * Checks if XML validation is enabled.
 	 * @return {@code true} if it Is enabled, {@code false} otherwise
@@ -129,6 +171,15 @@ public interface IXmlReader
 		return true;
 	}
 	
+	/**
+	 * Checks if parsed documents are kept in the {@link DocumentCache}.
+	 * @return {@code true} if its documents are cached, {@code false} otherwise
+	 */
+	default boolean isCaching()
+	{
+		return false;
+	}
+	
 	/**
 	 * Wrapper for {@link #parseDirectory(File, boolean)}.
 	 * @param file the path to the directory where the XML files are.
@@ -217,6 +268,16 @@ public interface IXmlReader
 	 */
 	void parseDocument(Document doc, File f);
 	
+	/**
+	 * Parses a single element of the root element.<br>
+	 * Is expected to be call from {@link #parseStream(File)} by readers that stream their files.
+	 * @param node the current element to parse
+	 * @param f the current file
+	 */
+	default void parseElement(Node node, File f)
+	{
+	}
+	
 	/**
 	 * Parses a boolean value.
 	 * @param node the node to parse
@@ -34,6 +34,9 @@ import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.enums.ServerMode;
 import org.l2jmobius.commons.network.ConnectionBuilder;
 import org.l2jmobius.commons.network.ConnectionHandler;
+import org.l2jmobius.commons.network.OrderedPacketExecutor;
+import org.l2jmobius.commons.network.PacketExecutor;
+import org.l2jmobius.commons.threads.TaskGraph;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.DeadLockDetector;
 import org.l2jmobius.commons.util.PropertiesParser;
@@ -104,6 +107,7 @@ import org.l2jmobius.gameserver.data.xml.TeleporterData;
 import org.l2jmobius.gameserver.data.xml.TransformData;
 import org.l2jmobius.gameserver.data.xml.VariationData;
 import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes.ClusterPathFinding;
 import org.l2jmobius.gameserver.handler.ConditionHandler;
 import org.l2jmobius.gameserver.handler.DailyMissionHandler;
 import org.l2jmobius.gameserver.handler.EffectHandler;
@@ -157,6 +161,7 @@ import org.l2jmobius.gameserver.model.olympiad.Olympiad;
 import org.l2jmobius.gameserver.network.GameClient;
 import org.l2jmobius.gameserver.network.GamePacketHandler;
 import org.l2jmobius.gameserver.network.NpcStringId;
+import org.l2jmobius.gameserver.network.PacketStatistics;
 import org.l2jmobius.gameserver.network.SystemMessageId;
 import org.l2jmobius.gameserver.scripting.ScriptEngineManager;
 import org.l2jmobius.gameserver.taskmanager.GameTimeTaskManager;
@@ -170,6 +175,7 @@ public class GameServer
 	private static final Logger LOGGER = Logger.getLogger(GameServer.class.getName());
 	
 	private final DeadLockDetector _deadDetectThread;
+	private final OrderedPacketExecutor<GameClient> _orderedPacketExecutor;
 	private static GameServer INSTANCE;
 	public static final Calendar dateTimeServerStarted = Calendar.getInstance();
 	
@@ -183,6 +189,11 @@ public class GameServer
 		return _deadDetectThread;
 	}
 	
+	public OrderedPacketExecutor<GameClient> getOrderedPacketExecutor()
+	{
+		return _orderedPacketExecutor;
+	}
+	
 	public GameServer() throws Exception
 	{
 		final long serverLoadStart = System.currentTimeMillis();
@@ -226,133 +237,149 @@ public class GameServer
 		EventDispatcher.getInstance();
 		ScriptEngineManager.getInstance();
 		
-		printSection("World");
-		World.getInstance();
-		MapRegionManager.getInstance();
-		ZoneManager.getInstance();
-		DoorData.getInstance();
-		FenceData.getInstance();
-		AnnouncementsTable.getInstance();
-		GlobalVariablesManager.getInstance();
-		
-		printSection("Data");
-		ActionData.getInstance();
-		CategoryData.getInstance();
-		DynamicExpRateData.getInstance();
-		SecondaryAuthData.getInstance();
-		CombinationItemsData.getInstance();
-		SayuneData.getInstance();
-		ClanRewardData.getInstance();
-		DailyMissionHandler.getInstance().executeScript();
-		DailyMissionData.getInstance();
-		
-		printSection("Skills");
-		SkillConditionHandler.getInstance().executeScript();
-		EffectHandler.getInstance().executeScript();
-		EnchantSkillGroupsData.getInstance();
-		SkillTreeData.getInstance();
-		SkillData.getInstance();
-		PetSkillData.getInstance();
-		
-		printSection("Items");
-		ConditionHandler.getInstance().executeScript();
-		ItemData.getInstance();
-		EnchantItemGroupsData.getInstance();
-		EnchantItemData.getInstance();
-		EnchantItemOptionsData.getInstance();
-		ElementalAttributeData.getInstance();
-		ItemCrystallizationData.getInstance();
-		OptionData.getInstance();
-		VariationData.getInstance();
-		EnchantItemHPBonusData.getInstance();
-		BuyListData.getInstance();
-		MultisellData.getInstance();
-		RecipeData.getInstance();
-		ArmorSetData.getInstance();
-		FishingData.getInstance();
-		HennaData.getInstance();
-		PrimeShopData.getInstance();
-		PcCafePointsManager.getInstance();
-		AppearanceItemData.getInstance();
-		ItemCommissionManager.getInstance();
-		LuckyGameData.getInstance();
-		AttendanceRewardData.getInstance();
-		
-		printSection("Characters");
-		ClassListData.getInstance();
-		InitialEquipmentData.getInstance();
-		InitialShortcutData.getInstance();
-		ExperienceData.getInstance();
-		PlayerXpPercentLostData.getInstance();
-		KarmaData.getInstance();
-		HitConditionBonusData.getInstance();
-		PlayerTemplateData.getInstance();
-		CharInfoTable.getInstance();
-		AdminData.getInstance();
-		PetDataTable.getInstance();
-		CubicData.getInstance();
-		CharSummonTable.getInstance().init();
-		CaptchaManager.getInstance();
-		BeautyShopData.getInstance();
-		MentorManager.getInstance();
+		// Each loader declares the loaders it reads from, so independent loaders can run in parallel.
+		final TaskGraph loaders = new TaskGraph(this::printSection);
+		loaders.section("World");
+		loaders.add("World", World::getInstance);
+		loaders.add("MapRegionManager", MapRegionManager::getInstance);
+		loaders.add("ZoneManager", ZoneManager::getInstance, "World");
+		loaders.add("DoorData", DoorData::getInstance, "World", "ZoneManager", "MapRegionManager");
+		loaders.add("FenceData", FenceData::getInstance, "World", "ZoneManager", "MapRegionManager");
+		loaders.add("AnnouncementsTable", AnnouncementsTable::getInstance);
+		loaders.add("GlobalVariablesManager", GlobalVariablesManager::getInstance);
+		
+		loaders.section("Data");
+		loaders.add("ActionData", ActionData::getInstance);
+		loaders.add("CategoryData", CategoryData::getInstance);
+		loaders.add("DynamicExpRateData", DynamicExpRateData::getInstance);
+		loaders.add("SecondaryAuthData", SecondaryAuthData::getInstance);
+		loaders.add("CombinationItemsData", CombinationItemsData::getInstance);
+		loaders.add("SayuneData", SayuneData::getInstance);
+		loaders.add("ClanRewardData", ClanRewardData::getInstance);
+		loaders.add("DailyMissionHandler", () -> DailyMissionHandler.getInstance().executeScript());
+		loaders.add("DailyMissionData", DailyMissionData::getInstance, "DailyMissionHandler");
+		
+		loaders.section("Skills");
+		loaders.add("SkillConditionHandler", () -> SkillConditionHandler.getInstance().executeScript());
+		loaders.add("EffectHandler", () -> EffectHandler.getInstance().executeScript());
+		loaders.add("EnchantSkillGroupsData", EnchantSkillGroupsData::getInstance);
+		loaders.add("SkillTreeData", SkillTreeData::getInstance);
+		loaders.add("SkillData", SkillData::getInstance, "SkillConditionHandler", "EffectHandler", "EnchantSkillGroupsData", "SkillTreeData");
+		loaders.add("PetSkillData", PetSkillData::getInstance, "SkillData");
+		
+		loaders.section("Items");
+		loaders.add("ConditionHandler", () -> ConditionHandler.getInstance().executeScript());
+		loaders.add("ItemData", ItemData::getInstance, "World", "ConditionHandler", "SkillData");
+		loaders.add("EnchantItemGroupsData", EnchantItemGroupsData::getInstance, "ItemData");
+		loaders.add("EnchantItemData", EnchantItemData::getInstance, "ItemData");
+		loaders.add("EnchantItemOptionsData", EnchantItemOptionsData::getInstance, "ItemData");
+		loaders.add("ElementalAttributeData", ElementalAttributeData::getInstance, "ItemData");
+		loaders.add("ItemCrystallizationData", ItemCrystallizationData::getInstance, "ItemData");
+		loaders.add("OptionData", OptionData::getInstance, "EffectHandler", "SkillData");
+		loaders.add("VariationData", VariationData::getInstance, "ItemData", "OptionData");
+		loaders.add("EnchantItemHPBonusData", EnchantItemHPBonusData::getInstance, "ItemData");
+		loaders.add("BuyListData", BuyListData::getInstance, "ItemData");
+		loaders.add("MultisellData", MultisellData::getInstance, "ItemData", "EnchantItemGroupsData");
+		loaders.add("RecipeData", RecipeData::getInstance, "ItemData");
+		loaders.add("ArmorSetData", ArmorSetData::getInstance, "ItemData", "SkillData");
+		loaders.add("FishingData", FishingData::getInstance, "ItemData");
+		loaders.add("HennaData", HennaData::getInstance, "SkillData");
+		loaders.add("PrimeShopData", PrimeShopData::getInstance, "ItemData");
+		loaders.add("PcCafePointsManager", PcCafePointsManager::getInstance);
+		loaders.add("AppearanceItemData", AppearanceItemData::getInstance, "ItemData");
+		loaders.add("ItemCommissionManager", ItemCommissionManager::getInstance, "ItemData");
+		loaders.add("LuckyGameData", LuckyGameData::getInstance, "ItemData");
+		loaders.add("AttendanceRewardData", AttendanceRewardData::getInstance, "ItemData");
 		
+		loaders.section("Characters");
+		loaders.add("ClassListData", ClassListData::getInstance);
+		loaders.add("InitialEquipmentData", InitialEquipmentData::getInstance, "ItemData");
+		loaders.add("InitialShortcutData", InitialShortcutData::getInstance, "InitialEquipmentData");
+		loaders.add("ExperienceData", ExperienceData::getInstance);
+		loaders.add("PlayerXpPercentLostData", PlayerXpPercentLostData::getInstance, "ExperienceData");
+		loaders.add("KarmaData", KarmaData::getInstance);
+		loaders.add("HitConditionBonusData", HitConditionBonusData::getInstance);
+		loaders.add("PlayerTemplateData", PlayerTemplateData::getInstance, "ClassListData");
+		loaders.add("CharInfoTable", CharInfoTable::getInstance);
+		loaders.add("AdminData", AdminData::getInstance);
+		loaders.add("PetDataTable", PetDataTable::getInstance, "SkillData");
+		loaders.add("CubicData", CubicData::getInstance, "SkillData");
+		loaders.add("CharSummonTable", () -> CharSummonTable.getInstance().init(), "SkillData", "PetDataTable");
+		loaders.add("CaptchaManager", CaptchaManager::getInstance, "AdminData");
+		loaders.add("BeautyShopData", BeautyShopData::getInstance);
+		loaders.add("MentorManager", MentorManager::getInstance, "World");
 		if (Config.PREMIUM_SYSTEM_ENABLED)
 		{
-			LOGGER.info("PremiumManager: Premium system is enabled.");
-			PremiumManager.getInstance();
+			loaders.add("PremiumManager", () ->
+			{
+				LOGGER.info("PremiumManager: Premium system is enabled.");
+				PremiumManager.getInstance();
+			}, "World");
+		}
+		
+		loaders.section("Clans");
+		loaders.add("ClanTable", ClanTable::getInstance, "World", "SkillData", "ItemData", "CharInfoTable", "ClassListData");
+		loaders.add("ResidenceFunctionsData", ResidenceFunctionsData::getInstance);
+		loaders.add("ClanHallData", ClanHallData::getInstance, "DoorData", "ClanTable", "ResidenceFunctionsData");
+		loaders.add("ClanHallAuctionManager", ClanHallAuctionManager::getInstance, "ClanHallData");
+		loaders.add("ClanEntryManager", ClanEntryManager::getInstance, "ClanTable");
+		
+		loaders.section("Geodata");
+		loaders.add("GeoEngine", GeoEngine::getInstance, "World", "DoorData", "FenceData");
+		if ((Config.PATHFINDING == 2) && Config.HIERARCHICAL_PATHFINDING)
+		{
+			loaders.add("ClusterPathFinding", ClusterPathFinding::getInstance, "GeoEngine");
 		}
 		
-		printSection("Clans");
-		ClanTable.getInstance();
-		ResidenceFunctionsData.getInstance();
-		ClanHallData.getInstance();
-		ClanHallAuctionManager.getInstance();
-		ClanEntryManager.getInstance();
-		
-		printSection("Geodata");
-		GeoEngine.getInstance();
-		
-		printSection("NPCs");
-		NpcData.getInstance();
-		FakePlayerData.getInstance();
-		FakePlayerChatManager.getInstance();
-		SpawnData.getInstance();
-		WalkingManager.getInstance();
-		StaticObjectData.getInstance();
-		ItemAuctionManager.getInstance();
-		CastleManager.getInstance().loadInstances();
-		SchemeBufferTable.getInstance();
-		GrandBossManager.getInstance();
-		EventDropManager.getInstance();
-		
-		printSection("Instance");
-		InstanceManager.getInstance();
-		
-		printSection("Olympiad");
-		Olympiad.getInstance();
-		Hero.getInstance();
-		
-		// Call to load caches
-		printSection("Cache");
-		HtmCache.getInstance();
-		CrestTable.getInstance();
-		TeleporterData.getInstance();
-		MatchingRoomManager.getInstance();
-		PetitionManager.getInstance();
-		CursedWeaponsManager.getInstance();
-		TransformData.getInstance();
-		BotReportTable.getInstance();
+		loaders.section("NPCs");
+		loaders.add("NpcData", NpcData::getInstance, "SkillData", "ItemData");
+		loaders.add("FakePlayerData", FakePlayerData::getInstance, "CharInfoTable", "NpcData");
+		loaders.add("FakePlayerChatManager", FakePlayerChatManager::getInstance, "GeoEngine", "FakePlayerData");
+		loaders.add("SpawnData", SpawnData::getInstance, "NpcData", "ZoneManager");
+		loaders.add("WalkingManager", WalkingManager::getInstance, "NpcData");
+		loaders.add("StaticObjectData", StaticObjectData::getInstance, "World", "ZoneManager");
+		loaders.add("ItemAuctionManager", ItemAuctionManager::getInstance, "ItemData", "NpcData");
+		loaders.add("CastleManager", () -> CastleManager.getInstance().loadInstances(), "ClanTable", "DoorData", "ZoneManager", "MapRegionManager", "SpawnData", "ResidenceFunctionsData");
+		loaders.add("SchemeBufferTable", SchemeBufferTable::getInstance, "SkillData");
+		loaders.add("GrandBossManager", GrandBossManager::getInstance, "NpcData", "ZoneManager");
+		loaders.add("EventDropManager", EventDropManager::getInstance, "ItemData");
+		
+		loaders.section("Instance");
+		loaders.add("InstanceManager", InstanceManager::getInstance, "DoorData", "SpawnData");
+		
+		loaders.section("Olympiad");
+		loaders.add("Olympiad", Olympiad::getInstance, "World", "ZoneManager", "CategoryData", "ClassListData");
+		loaders.add("Hero", Hero::getInstance, "World", "ClassListData", "CharInfoTable", "ClanTable", "NpcData", "CastleManager", "Olympiad");
+		
+		loaders.section("Cache");
+		loaders.add("HtmCache", HtmCache::getInstance);
+		loaders.add("CrestTable", CrestTable::getInstance, "ClanTable");
+		loaders.add("TeleporterData", TeleporterData::getInstance, "ItemData", "NpcData");
+		loaders.add("MatchingRoomManager", MatchingRoomManager::getInstance);
+		loaders.add("PetitionManager", PetitionManager::getInstance, "AdminData");
+		loaders.add("CursedWeaponsManager", CursedWeaponsManager::getInstance, "World", "ItemData", "SkillData");
+		loaders.add("TransformData", TransformData::getInstance, "SkillData", "ItemData");
+		loaders.add("BotReportTable", BotReportTable::getInstance, "SkillData");
 		if (Config.SELLBUFF_ENABLED)
 		{
-			SellBuffsManager.getInstance();
+			loaders.add("SellBuffsManager", SellBuffsManager::getInstance, "SkillData", "ItemData", "Olympiad", "HtmCache");
 		}
 		if (Config.MULTILANG_ENABLE)
 		{
-			SystemMessageId.loadLocalisations();
-			NpcStringId.loadLocalisations();
-			SendMessageLocalisationData.getInstance();
-			NpcNameLocalisationData.getInstance();
+			loaders.add("Localisations", () ->
+			{
+				SystemMessageId.loadLocalisations();
+				NpcStringId.loadLocalisations();
+				SendMessageLocalisationData.getInstance();
+				NpcNameLocalisationData.getInstance();
+			}, "NpcData");
+		}
+		
+		if (Config.PARALLEL_STARTUP)
+		{
+			printSection("Parallel Loading");
 		}
+		loaders.run(Config.PARALLEL_STARTUP);
 		
 		printSection("Scripts");
 		QuestManager.getInstance();
@@ -452,9 +479,16 @@ public class GameServer
 		LOGGER.info(getClass().getSimpleName() + ": Maximum number of connected players is " + Config.MAXIMUM_ONLINE_USERS + ".");
 		LOGGER.info(getClass().getSimpleName() + ": Server loaded in " + ((System.currentTimeMillis() - serverLoadStart) / 1000) + " seconds.");
 		
-		final ConnectionHandler<GameClient> connectionHandler = new ConnectionBuilder<>(new InetSocketAddress(Config.PORT_GAME), GameClient::new, new GamePacketHandler(), ThreadPool::execute).build();
+		_orderedPacketExecutor = Config.ORDERED_PACKET_EXECUTION ? new OrderedPacketExecutor<>("L2jMobius Packet Thread", Config.PACKET_THREAD_POOL_SIZE, Config.PACKET_VIRTUAL_THREADS) : null;
+		final PacketExecutor<GameClient> packetExecutor = (_orderedPacketExecutor != null) ? _orderedPacketExecutor : ThreadPool::execute;
+		final ConnectionHandler<GameClient> connectionHandler = new ConnectionBuilder<>(new InetSocketAddress(Config.PORT_GAME), GameClient::new, new GamePacketHandler(), packetExecutor).build();
 		connectionHandler.start();
 		
+		if (Config.PACKET_STATISTICS_DUMP_INTERVAL > 0)
+		{
+			PacketStatistics.scheduleDump();
+		}
+		
 		LoginServerThread.getInstance().start();
 		
 		Toolkit.getDefaultToolkit().beep();
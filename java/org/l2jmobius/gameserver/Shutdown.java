@@ -33,6 +33,7 @@ import org.l2jmobius.gameserver.instancemanager.DBSpawnManager;
 import org.l2jmobius.gameserver.instancemanager.GlobalVariablesManager;
 import org.l2jmobius.gameserver.instancemanager.GrandBossManager;
 import org.l2jmobius.gameserver.instancemanager.ItemAuctionManager;
+import org.l2jmobius.gameserver.instancemanager.ItemPersistenceManager;
 import org.l2jmobius.gameserver.instancemanager.ItemsOnGroundManager;
 import org.l2jmobius.gameserver.instancemanager.PrecautionaryRestartManager;
 import org.l2jmobius.gameserver.instancemanager.QuestManager;
@@ -369,6 +370,21 @@ public class Shutdown extends Thread
 			// ignore
 		}
 		
+		// stop the client packet threads
+		try
+		{
+			final GameServer gameServer = GameServer.getInstance();
+			if ((gameServer != null) && (gameServer.getOrderedPacketExecutor() != null))
+			{
+				gameServer.getOrderedPacketExecutor().shutdown();
+				LOGGER.info("Ordered Packet Executor: Packet threads have been shut down(" + tc.getEstimatedTimeAndRestartCounter() + "ms).");
+			}
+		}
+		catch (Throwable t)
+		{
+			// ignore
+		}
+		
 		// stop all thread pools
 		try
 		{
@@ -478,6 +494,13 @@ public class Shutdown extends Thread
 		SchemeBufferTable.getInstance().saveSchemes();
 		LOGGER.info("SchemeBufferTable data has been saved.");
 		
+		// Store pending item changes before closing
+		if (Config.ITEM_WRITE_BEHIND)
+		{
+			ItemPersistenceManager.getInstance().shutdown();
+			LOGGER.info("Item Persistence Manager: Pending items stored(" + tc.getEstimatedTimeAndRestartCounter() + "ms).");
+		}
+		
 		// Save items on ground before closing
 		if (Config.SAVE_DROPPED_ITEM)
 		{
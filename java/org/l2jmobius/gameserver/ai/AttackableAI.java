@@ -61,6 +61,7 @@ import org.l2jmobius.gameserver.model.skill.Skill;
 import org.l2jmobius.gameserver.model.skill.SkillCaster;
 import org.l2jmobius.gameserver.model.zone.ZoneId;
 import org.l2jmobius.gameserver.taskmanager.AttackableThinkTaskManager;
+import org.l2jmobius.gameserver.taskmanager.AttackableThinkTaskManager.ThinkState;
 import org.l2jmobius.gameserver.taskmanager.GameTimeTaskManager;
 import org.l2jmobius.gameserver.util.Util;
 
@@ -86,6 +87,10 @@ public class AttackableAI extends CreatureAI
 	 * The flag used to indicate that a thinking action is in progress, to prevent recursive thinking.
 	 */
 	private boolean _thinking;
+	/**
+	 * The think schedule of the actor, while it is registered to the AttackableThinkTaskManager.
+	 */
+	private volatile ThinkState _thinkState;
 	
 	private int chaostime = 0;
 	
@@ -199,16 +204,26 @@ public class AttackableAI extends CreatureAI
 	
 	public void startAITask()
 	{
-		AttackableThinkTaskManager.getInstance().add(getActiveChar());
+		AttackableThinkTaskManager.getInstance().add(this);
 	}
 	
 	@Override
 	public void stopAITask()
 	{
-		AttackableThinkTaskManager.getInstance().remove(getActiveChar());
+		AttackableThinkTaskManager.getInstance().remove(this);
 		super.stopAITask();
 	}
 	
+	public ThinkState getThinkState()
+	{
+		return _thinkState;
+	}
+	
+	public void setThinkState(ThinkState state)
+	{
+		_thinkState = state;
+	}
+	
 	/**
 	 * Set the Intention of this CreatureAI and create an AI Task executed every 1s (call onEvtThink method) for this Attackable.<br>
 	 * <font color=#FF0000><b><u>Caution</u>: If actor _knowPlayer isn't EMPTY, AI_INTENTION_IDLE will be change in AI_INTENTION_ACTIVE</b></font>
@@ -1379,6 +1394,9 @@ public class AttackableAI extends CreatureAI
 		// Calculate the attack timeout
 		_attackTimeout = MAX_ATTACK_TIMEOUT + GameTimeTaskManager.getInstance().getGameTicks();
 		
+		// Think at full rate.
+		AttackableThinkTaskManager.getInstance().promote(this);
+		
 		// Set the _globalAggro to 0 to permit attack even just after spawn
 		if (_globalAggro < 0)
 		{
@@ -1449,6 +1467,9 @@ public class AttackableAI extends CreatureAI
 		
 		if (target != null)
 		{
+			// Think at full rate.
+			AttackableThinkTaskManager.getInstance().promote(this);
+			
 			// Add the target to the actor _aggroList or update hate if already present
 			me.addDamageHate(target, 0, aggro);
 			
@@ -0,0 +1,211 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A html page split on its %name% placeholders.<br>
+ * The placeholders are numbered slots, a page is rendered in one pass with the values of its slots.
+ * @author Mobius
+ */
+public class HtmlTemplate
+{
+	private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+	private static final int MAX_BUILDER_CAPACITY = 65536;
+	
+	private final String _html;
+	
+	// Offsets of the placeholders in the html, and the slot of each of them.
+	private final int[] _starts;
+	private final int[] _ends;
+	private final int[] _slots;
+	
+	// Placeholder with its % signs to slot.
+	private final Map<String, Integer> _slotIds;
+	private final String[] _placeholders;
+	
+	private HtmlTemplate(String html, int[] starts, int[] ends, int[] slots, Map<String, Integer> slotIds, String[] placeholders)
+	{
+		_html = html;
+		_starts = starts;
+		_ends = ends;
+		_slots = slots;
+		_slotIds = slotIds;
+		_placeholders = placeholders;
+	}
+	
+	/**
+	 * @param html the html page
+	 * @return the template of the page
+	 */
+	public static HtmlTemplate compile(String html)
+	{
+		List<int[]> found = null;
+		Map<String, Integer> slotIds = Collections.emptyMap();
+		int start = html.indexOf('%');
+		while (start >= 0)
+		{
+			final int end = html.indexOf('%', start + 1);
+			if (end < 0)
+			{
+				break;
+			}
+			
+			if (!isName(html, start + 1, end))
+			{
+				// The closing sign may open the next placeholder.
+				start = end;
+				continue;
+			}
+			
+			if (found == null)
+			{
+				found = new ArrayList<>();
+				slotIds = new HashMap<>();
+			}
+			
+			final String placeholder = html.substring(start, end + 1);
+			Integer slot = slotIds.get(placeholder);
+			if (slot == null)
+			{
+				slot = slotIds.size();
+				slotIds.put(placeholder, slot);
+			}
+			found.add(new int[]
+			{
+				start,
+				end + 1,
+				slot
+			});
+			start = html.indexOf('%', end + 1);
+		}
+		
+		if (found == null)
+		{
+			return new HtmlTemplate(html, new int[0], new int[0], new int[0], slotIds, new String[0]);
+		}
+		
+		final int[] starts = new int[found.size()];
+		final int[] ends = new int[found.size()];
+		final int[] slots = new int[found.size()];
+		for (int i = 0; i < starts.length; i++)
+		{
+			final int[] placeholder = found.get(i);
+			starts[i] = placeholder[0];
+			ends[i] = placeholder[1];
+			slots[i] = placeholder[2];
+		}
+		
+		final String[] placeholders = new String[slotIds.size()];
+		for (Entry<String, Integer> entry : slotIds.entrySet())
+		{
+			placeholders[entry.getValue()] = entry.getKey();
+		}
+		return new HtmlTemplate(html, starts, ends, slots, slotIds, placeholders);
+	}
+	
+	/**
+	 * @param text
+	 * @return {@code true} if the text is a placeholder such as %objectId%, {@code false} otherwise.
+	 */
+	public static boolean isPlaceholder(String text)
+	{
+		final int length = text.length();
+		return (length > 2) && (text.charAt(0) == '%') && (text.charAt(length - 1) == '%') && isName(text, 1, length - 1);
+	}
+	
+	private static boolean isName(String text, int start, int end)
+	{
+		if (start == end)
+		{
+			return false;
+		}
+		
+		for (int i = start; i < end; i++)
+		{
+			final char c = text.charAt(i);
+			if (((c < 'a') || (c > 'z')) && ((c < 'A') || (c > 'Z')) && ((c < '0') || (c > '9')) && (c != '_'))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the html page this template was compiled from.
+	 */
+	public String getHtml()
+	{
+		return _html;
+	}
+	
+	/**
+	 * @return the number of distinct placeholders.
+	 */
+	public int getSlotCount()
+	{
+		return _placeholders.length;
+	}
+	
+	/**
+	 * @param placeholder the placeholder with its % signs
+	 * @return the slot of the placeholder, -1 if the page does not contain it.
+	 */
+	public int getSlot(String placeholder)
+	{
+		final Integer slot = _slotIds.get(placeholder);
+		return slot == null ? -1 : slot;
+	}
+	
+	/**
+	 * @param values the value of each slot, {@code null} keeps the placeholder
+	 * @return the html page with the placeholders replaced.
+	 */
+	public String render(String[] values)
+	{
+		if (_slots.length == 0)
+		{
+			return _html;
+		}
+		
+		StringBuilder sb = BUILDER.get();
+		if (sb.capacity() > MAX_BUILDER_CAPACITY)
+		{
+			sb = new StringBuilder(8192);
+			BUILDER.set(sb);
+		}
+		sb.setLength(0);
+		
+		int position = 0;
+		for (int i = 0; i < _slots.length; i++)
+		{
+			sb.append(_html, position, _starts[i]);
+			final String value = values[_slots[i]];
+			sb.append(value != null ? value : _placeholders[_slots[i]]);
+			position = _ends[i];
+		}
+		sb.append(_html, position, _html.length());
+		return sb.toString();
+	}
+}
@@ -39,6 +39,7 @@ import org.l2jmobius.commons.util.StringUtil;
 import org.l2jmobius.commons.util.file.filter.XMLFilter;
 import org.l2jmobius.gameserver.enums.ItemLocation;
 import org.l2jmobius.gameserver.instancemanager.IdManager;
+import org.l2jmobius.gameserver.instancemanager.ItemPersistenceManager;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.WorldObject;
 import org.l2jmobius.gameserver.model.actor.Attackable;
@@ -407,7 +408,16 @@ public class ItemData
 			item.setLastChange(Item.REMOVED);
 			
 			World.getInstance().removeObject(item);
-			IdManager.getInstance().releaseId(item.getObjectId());
+			
+			// With write-behind the id is released once the deletion of the item is stored.
+			if (Config.ITEM_WRITE_BEHIND)
+			{
+				ItemPersistenceManager.getInstance().releaseId(item);
+			}
+			else
+			{
+				IdManager.getInstance().releaseId(item.getObjectId());
+			}
 			
 			if ((Config.LOG_ITEMS && ((!Config.LOG_ITEMS_SMALL_LOG) && (!Config.LOG_ITEMS_IDS_ONLY))) || (Config.LOG_ITEMS_SMALL_LOG && (item.isEquipable() || (item.getId() == ADENA_ID))) || (Config.LOG_ITEMS_IDS_ONLY && Config.LOG_ITEMS_IDS_LIST.contains(item.getId())))
 			{
@@ -62,6 +62,12 @@ public class MultisellData implements IXmlReader
 		load();
 	}
 	
+	@Override
+	public boolean isCaching()
+	{
+		return true;
+	}
+	
 	@Override
 	public void load()
 	{
@@ -69,6 +69,18 @@ public class NpcData implements IXmlReader
 		load();
 	}
 	
+	@Override
+	public boolean isCaching()
+	{
+		return true;
+	}
+	
+	@Override
+	public boolean isStreaming()
+	{
+		return true;
+	}
+	
 	@Override
 	public synchronized void load()
 	{
@@ -93,632 +105,638 @@ public class NpcData implements IXmlReader
 			{
 				for (Node listNode = node.getFirstChild(); listNode != null; listNode = listNode.getNextSibling())
 				{
-					if ("npc".equalsIgnoreCase(listNode.getNodeName()))
+					parseElement(listNode, f);
+				}
+			}
+		}
+	}
+	
+	@Override
+	public void parseElement(Node listNode, File f)
+	{
+		if ("npc".equalsIgnoreCase(listNode.getNodeName()))
+		{
+			NamedNodeMap attrs = listNode.getAttributes();
+			final StatSet set = new StatSet(new HashMap<>());
+			final int npcId = parseInteger(attrs, "id");
+			final int level = parseInteger(attrs, "level", 85);
+			final String type = parseString(attrs, "type", "Folk");
+			Map<String, Object> parameters = null;
+			Map<Integer, Skill> skills = null;
+			Set<Integer> clans = null;
+			Set<Integer> ignoreClanNpcIds = null;
+			List<DropHolder> dropLists = null;
+			List<DropGroupHolder> dropGroups = null;
+			set.set("id", npcId);
+			set.set("displayId", parseInteger(attrs, "displayId"));
+			set.set("level", level);
+			set.set("type", type);
+			set.set("name", parseString(attrs, "name"));
+			set.set("usingServerSideName", parseBoolean(attrs, "usingServerSideName"));
+			set.set("title", parseString(attrs, "title"));
+			set.set("usingServerSideTitle", parseBoolean(attrs, "usingServerSideTitle"));
+			for (Node npcNode = listNode.getFirstChild(); npcNode != null; npcNode = npcNode.getNextSibling())
+			{
+				attrs = npcNode.getAttributes();
+				switch (npcNode.getNodeName().toLowerCase())
+				{
+					case "parameters":
 					{
-						NamedNodeMap attrs = listNode.getAttributes();
-						final StatSet set = new StatSet(new HashMap<>());
-						final int npcId = parseInteger(attrs, "id");
-						final int level = parseInteger(attrs, "level", 85);
-						final String type = parseString(attrs, "type", "Folk");
-						Map<String, Object> parameters = null;
-						Map<Integer, Skill> skills = null;
-						Set<Integer> clans = null;
-						Set<Integer> ignoreClanNpcIds = null;
-						List<DropHolder> dropLists = null;
-						List<DropGroupHolder> dropGroups = null;
-						set.set("id", npcId);
-						set.set("displayId", parseInteger(attrs, "displayId"));
-						set.set("level", level);
-						set.set("type", type);
-						set.set("name", parseString(attrs, "name"));
-						set.set("usingServerSideName", parseBoolean(attrs, "usingServerSideName"));
-						set.set("title", parseString(attrs, "title"));
-						set.set("usingServerSideTitle", parseBoolean(attrs, "usingServerSideTitle"));
-						for (Node npcNode = listNode.getFirstChild(); npcNode != null; npcNode = npcNode.getNextSibling())
+						if (parameters == null)
 						{
-							attrs = npcNode.getAttributes();
-							switch (npcNode.getNodeName().toLowerCase())
+							parameters = new HashMap<>();
+						}
+						parameters.putAll(parseParameters(npcNode));
+						break;
+					}
+					case "race":
+					case "sex":
+					{
+						set.set(npcNode.getNodeName(), npcNode.getTextContent().toUpperCase());
+						break;
+					}
+					case "equipment":
+					{
+						set.set("chestId", parseInteger(attrs, "chest"));
+						set.set("rhandId", parseInteger(attrs, "rhand"));
+						set.set("lhandId", parseInteger(attrs, "lhand"));
+						set.set("weaponEnchant", parseInteger(attrs, "weaponEnchant"));
+						break;
+					}
+					case "acquire":
+					{
+						set.set("exp", parseDouble(attrs, "exp"));
+						set.set("sp", parseDouble(attrs, "sp"));
+						set.set("raidPoints", parseDouble(attrs, "raidPoints"));
+						break;
+					}
+					case "mpreward":
+					{
+						set.set("mpRewardValue", parseInteger(attrs, "value"));
+						set.set("mpRewardType", parseEnum(attrs, MpRewardType.class, "type"));
+						set.set("mpRewardTicks", parseInteger(attrs, "ticks"));
+						set.set("mpRewardAffectType", parseEnum(attrs, MpRewardAffectType.class, "affects"));
+						break;
+					}
+					case "stats":
+					{
+						set.set("baseSTR", parseInteger(attrs, "str"));
+						set.set("baseINT", parseInteger(attrs, "int"));
+						set.set("baseDEX", parseInteger(attrs, "dex"));
+						set.set("baseWIT", parseInteger(attrs, "wit"));
+						set.set("baseCON", parseInteger(attrs, "con"));
+						set.set("baseMEN", parseInteger(attrs, "men"));
+						for (Node statsNode = npcNode.getFirstChild(); statsNode != null; statsNode = statsNode.getNextSibling())
+						{
+							attrs = statsNode.getAttributes();
+							switch (statsNode.getNodeName().toLowerCase())
 							{
-								case "parameters":
-								{
-									if (parameters == null)
-									{
-										parameters = new HashMap<>();
-									}
-									parameters.putAll(parseParameters(npcNode));
-									break;
-								}
-								case "race":
-								case "sex":
+								case "vitals":
 								{
-									set.set(npcNode.getNodeName(), npcNode.getTextContent().toUpperCase());
+									set.set("baseHpMax", parseDouble(attrs, "hp"));
+									set.set("baseHpReg", parseDouble(attrs, "hpRegen"));
+									set.set("baseMpMax", parseDouble(attrs, "mp"));
+									set.set("baseMpReg", parseDouble(attrs, "mpRegen"));
 									break;
 								}
-								case "equipment":
+								case "attack":
 								{
-									set.set("chestId", parseInteger(attrs, "chest"));
-									set.set("rhandId", parseInteger(attrs, "rhand"));
-									set.set("lhandId", parseInteger(attrs, "lhand"));
-									set.set("weaponEnchant", parseInteger(attrs, "weaponEnchant"));
+									set.set("basePAtk", parseDouble(attrs, "physical"));
+									set.set("baseMAtk", parseDouble(attrs, "magical"));
+									set.set("baseRndDam", parseInteger(attrs, "random"));
+									set.set("baseCritRate", parseDouble(attrs, "critical"));
+									set.set("accuracy", parseFloat(attrs, "accuracy")); // TODO: Implement me
+									set.set("basePAtkSpd", parseFloat(attrs, "attackSpeed"));
+									set.set("reuseDelay", parseInteger(attrs, "reuseDelay")); // TODO: Implement me
+									set.set("baseAtkType", parseString(attrs, "type"));
+									set.set("baseAtkRange", parseInteger(attrs, "range"));
+									set.set("distance", parseInteger(attrs, "distance")); // TODO: Implement me
+									set.set("width", parseInteger(attrs, "width")); // TODO: Implement me
 									break;
 								}
-								case "acquire":
+								case "defence":
 								{
-									set.set("exp", parseDouble(attrs, "exp"));
-									set.set("sp", parseDouble(attrs, "sp"));
-									set.set("raidPoints", parseDouble(attrs, "raidPoints"));
+									set.set("basePDef", parseDouble(attrs, "physical"));
+									set.set("baseMDef", parseDouble(attrs, "magical"));
+									set.set("evasion", parseInteger(attrs, "evasion")); // TODO: Implement me
+									set.set("baseShldDef", parseInteger(attrs, "shield"));
+									set.set("baseShldRate", parseInteger(attrs, "shieldRate"));
 									break;
 								}
-								case "mpreward":
+								case "abnormalresist":
 								{
-									set.set("mpRewardValue", parseInteger(attrs, "value"));
-									set.set("mpRewardType", parseEnum(attrs, MpRewardType.class, "type"));
-									set.set("mpRewardTicks", parseInteger(attrs, "ticks"));
-									set.set("mpRewardAffectType", parseEnum(attrs, MpRewardAffectType.class, "affects"));
+									set.set("physicalAbnormalResist", parseDouble(attrs, "physical"));
+									set.set("magicAbnormalResist", parseDouble(attrs, "magic"));
 									break;
 								}
-								case "stats":
+								case "attribute":
 								{
-									set.set("baseSTR", parseInteger(attrs, "str"));
-									set.set("baseINT", parseInteger(attrs, "int"));
-									set.set("baseDEX", parseInteger(attrs, "dex"));
-									set.set("baseWIT", parseInteger(attrs, "wit"));
-									set.set("baseCON", parseInteger(attrs, "con"));
-									set.set("baseMEN", parseInteger(attrs, "men"));
-									for (Node statsNode = npcNode.getFirstChild(); statsNode != null; statsNode = statsNode.getNextSibling())
+									for (Node attributeNode = statsNode.getFirstChild(); attributeNode != null; attributeNode = attributeNode.getNextSibling())
 									{
-										attrs = statsNode.getAttributes();
-										switch (statsNode.getNodeName().toLowerCase())
+										attrs = attributeNode.getAttributes();
+										switch (attributeNode.getNodeName().toLowerCase())
 										{
-											case "vitals":
-											{
-												set.set("baseHpMax", parseDouble(attrs, "hp"));
-												set.set("baseHpReg", parseDouble(attrs, "hpRegen"));
-												set.set("baseMpMax", parseDouble(attrs, "mp"));
-												set.set("baseMpReg", parseDouble(attrs, "mpRegen"));
-												break;
-											}
 											case "attack":
 											{
-												set.set("basePAtk", parseDouble(attrs, "physical"));
-												set.set("baseMAtk", parseDouble(attrs, "magical"));
-												set.set("baseRndDam", parseInteger(attrs, "random"));
-												set.set("baseCritRate", parseDouble(attrs, "critical"));
-												set.set("accuracy", parseFloat(attrs, "accuracy")); // TODO: Implement me
-												set.set("basePAtkSpd", parseFloat(attrs, "attackSpeed"));
-												set.set("reuseDelay", parseInteger(attrs, "reuseDelay")); // TODO: Implement me
-												set.set("baseAtkType", parseString(attrs, "type"));
-												set.set("baseAtkRange", parseInteger(attrs, "range"));
-												set.set("distance", parseInteger(attrs, "distance")); // TODO: Implement me
-												set.set("width", parseInteger(attrs, "width")); // TODO: Implement me
-												break;
-											}
-											case "defence":
-											{
-												set.set("basePDef", parseDouble(attrs, "physical"));
-												set.set("baseMDef", parseDouble(attrs, "magical"));
-												set.set("evasion", parseInteger(attrs, "evasion")); // TODO: Implement me
-												set.set("baseShldDef", parseInteger(attrs, "shield"));
-												set.set("baseShldRate", parseInteger(attrs, "shieldRate"));
-												break;
-											}
-											case "abnormalresist":
-											{
-												set.set("physicalAbnormalResist", parseDouble(attrs, "physical"));
-												set.set("magicAbnormalResist", parseDouble(attrs, "magic"));
-												break;
-											}
-											case "attribute":
-											{
-												for (Node attributeNode = statsNode.getFirstChild(); attributeNode != null; attributeNode = attributeNode.getNextSibling())
+												final String attackAttributeType = parseString(attrs, "type");
+												switch (attackAttributeType.toUpperCase())
 												{
-													attrs = attributeNode.getAttributes();
-													switch (attributeNode.getNodeName().toLowerCase())
+													case "FIRE":
 													{
-														case "attack":
-														{
-															final String attackAttributeType = parseString(attrs, "type");
-															switch (attackAttributeType.toUpperCase())
-															{
-																case "FIRE":
-																{
-																	set.set("baseFire", parseInteger(attrs, "value"));
-																	break;
-																}
-																case "WATER":
-																{
-																	set.set("baseWater", parseInteger(attrs, "value"));
-																	break;
-																}
-																case "WIND":
-																{
-																	set.set("baseWind", parseInteger(attrs, "value"));
-																	break;
-																}
-																case "EARTH":
-																{
-																	set.set("baseEarth", parseInteger(attrs, "value"));
-																	break;
-																}
-																case "DARK":
-																{
-																	set.set("baseDark", parseInteger(attrs, "value"));
-																	break;
-																}
-																case "HOLY":
-																{
-																	set.set("baseHoly", parseInteger(attrs, "value"));
-																	break;
-																}
-															}
-															break;
-														}
-														case "defence":
-														{
-															set.set("baseFireRes", parseInteger(attrs, "fire"));
-															set.set("baseWaterRes", parseInteger(attrs, "water"));
-															set.set("baseWindRes", parseInteger(attrs, "wind"));
-															set.set("baseEarthRes", parseInteger(attrs, "earth"));
-															set.set("baseHolyRes", parseInteger(attrs, "holy"));
-															set.set("baseDarkRes", parseInteger(attrs, "dark"));
-															set.set("baseElementRes", parseInteger(attrs, "default"));
-															break;
-														}
+														set.set("baseFire", parseInteger(attrs, "value"));
+														break;
 													}
-												}
-												break;
-											}
-											case "speed":
-											{
-												for (Node speedNode = statsNode.getFirstChild(); speedNode != null; speedNode = speedNode.getNextSibling())
-												{
-													attrs = speedNode.getAttributes();
-													switch (speedNode.getNodeName().toLowerCase())
+													case "WATER":
 													{
-														case "walk":
-														{
-															final double groundWalk = parseDouble(attrs, "ground");
-															set.set("baseWalkSpd", groundWalk <= 0d ? 0.1 : groundWalk);
-															set.set("baseSwimWalkSpd", parseDouble(attrs, "swim"));
-															set.set("baseFlyWalkSpd", parseDouble(attrs, "fly"));
-															break;
-														}
-														case "run":
-														{
-															final double runSpeed = parseDouble(attrs, "ground");
-															set.set("baseRunSpd", runSpeed <= 0d ? 0.1 : runSpeed);
-															set.set("baseSwimRunSpd", parseDouble(attrs, "swim"));
-															set.set("baseFlyRunSpd", parseDouble(attrs, "fly"));
-															break;
-														}
+														set.set("baseWater", parseInteger(attrs, "value"));
+														break;
+													}
+													case "WIND":
+													{
+														set.set("baseWind", parseInteger(attrs, "value"));
+														break;
+													}
+													case "EARTH":
+													{
+														set.set("baseEarth", parseInteger(attrs, "value"));
+														break;
+													}
+													case "DARK":
+													{
+														set.set("baseDark", parseInteger(attrs, "value"));
+														break;
+													}
+													case "HOLY":
+													{
+														set.set("baseHoly", parseInteger(attrs, "value"));
+														break;
 													}
 												}
 												break;
 											}
-											case "hittime":
+											case "defence":
 											{
-												set.set("hitTime", npcNode.getTextContent()); // TODO: Implement me default 600 (value in ms)
+												set.set("baseFireRes", parseInteger(attrs, "fire"));
+												set.set("baseWaterRes", parseInteger(attrs, "water"));
+												set.set("baseWindRes", parseInteger(attrs, "wind"));
+												set.set("baseEarthRes", parseInteger(attrs, "earth"));
+												set.set("baseHolyRes", parseInteger(attrs, "holy"));
+												set.set("baseDarkRes", parseInteger(attrs, "dark"));
+												set.set("baseElementRes", parseInteger(attrs, "default"));
 												break;
 											}
 										}
 									}
 									break;
 								}
-								case "status":
-								{
-									set.set("unique", parseBoolean(attrs, "unique"));
-									set.set("attackable", parseBoolean(attrs, "attackable"));
-									set.set("targetable", parseBoolean(attrs, "targetable"));
-									set.set("talkable", parseBoolean(attrs, "talkable"));
-									set.set("undying", parseBoolean(attrs, "undying"));
-									set.set("showName", parseBoolean(attrs, "showName"));
-									set.set("randomWalk", parseBoolean(attrs, "randomWalk"));
-									set.set("randomAnimation", parseBoolean(attrs, "randomAnimation"));
-									set.set("flying", parseBoolean(attrs, "flying"));
-									set.set("canMove", parseBoolean(attrs, "canMove"));
-									set.set("noSleepMode", parseBoolean(attrs, "noSleepMode"));
-									set.set("passableDoor", parseBoolean(attrs, "passableDoor"));
-									set.set("hasSummoner", parseBoolean(attrs, "hasSummoner"));
-									set.set("canBeSown", parseBoolean(attrs, "canBeSown"));
-									set.set("isDeathPenalty", parseBoolean(attrs, "isDeathPenalty"));
-									set.set("fakePlayer", parseBoolean(attrs, "fakePlayer"));
-									set.set("fakePlayerTalkable", parseBoolean(attrs, "fakePlayerTalkable"));
-									break;
-								}
-								case "skilllist":
+								case "speed":
 								{
-									skills = new HashMap<>();
-									for (Node skillListNode = npcNode.getFirstChild(); skillListNode != null; skillListNode = skillListNode.getNextSibling())
+									for (Node speedNode = statsNode.getFirstChild(); speedNode != null; speedNode = speedNode.getNextSibling())
 									{
-										if ("skill".equalsIgnoreCase(skillListNode.getNodeName()))
+										attrs = speedNode.getAttributes();
+										switch (speedNode.getNodeName().toLowerCase())
 										{
-											attrs = skillListNode.getAttributes();
-											final int skillId = parseInteger(attrs, "id");
-											final int skillLevel = parseInteger(attrs, "level");
-											final Skill skill = SkillData.getInstance().getSkill(skillId, skillLevel);
-											if (skill != null)
+											case "walk":
 											{
-												skills.put(skill.getId(), skill);
+												final double groundWalk = parseDouble(attrs, "ground");
+												set.set("baseWalkSpd", groundWalk <= 0d ? 0.1 : groundWalk);
+												set.set("baseSwimWalkSpd", parseDouble(attrs, "swim"));
+												set.set("baseFlyWalkSpd", parseDouble(attrs, "fly"));
+												break;
 											}
-											else
+											case "run":
 											{
-												LOGGER.warning("[" + f.getName() + "] skill not found. NPC ID: " + npcId + " Skill ID: " + skillId + " Skill Level: " + skillLevel);
+												final double runSpeed = parseDouble(attrs, "ground");
+												set.set("baseRunSpd", runSpeed <= 0d ? 0.1 : runSpeed);
+												set.set("baseSwimRunSpd", parseDouble(attrs, "swim"));
+												set.set("baseFlyRunSpd", parseDouble(attrs, "fly"));
+												break;
 											}
 										}
 									}
 									break;
 								}
-								case "shots":
+								case "hittime":
 								{
-									set.set("soulShot", parseInteger(attrs, "soul"));
-									set.set("spiritShot", parseInteger(attrs, "spirit"));
-									set.set("shotShotChance", parseInteger(attrs, "shotChance"));
-									set.set("spiritShotChance", parseInteger(attrs, "spiritChance"));
+									set.set("hitTime", npcNode.getTextContent()); // TODO: Implement me default 600 (value in ms)
 									break;
 								}
-								case "corpsetime":
+							}
+						}
+						break;
+					}
+					case "status":
+					{
+						set.set("unique", parseBoolean(attrs, "unique"));
+						set.set("attackable", parseBoolean(attrs, "attackable"));
+						set.set("targetable", parseBoolean(attrs, "targetable"));
+						set.set("talkable", parseBoolean(attrs, "talkable"));
+						set.set("undying", parseBoolean(attrs, "undying"));
+						set.set("showName", parseBoolean(attrs, "showName"));
+						set.set("randomWalk", parseBoolean(attrs, "randomWalk"));
+						set.set("randomAnimation", parseBoolean(attrs, "randomAnimation"));
+						set.set("flying", parseBoolean(attrs, "flying"));
+						set.set("canMove", parseBoolean(attrs, "canMove"));
+						set.set("noSleepMode", parseBoolean(attrs, "noSleepMode"));
+						set.set("passableDoor", parseBoolean(attrs, "passableDoor"));
+						set.set("hasSummoner", parseBoolean(attrs, "hasSummoner"));
+						set.set("canBeSown", parseBoolean(attrs, "canBeSown"));
+						set.set("isDeathPenalty", parseBoolean(attrs, "isDeathPenalty"));
+						set.set("fakePlayer", parseBoolean(attrs, "fakePlayer"));
+						set.set("fakePlayerTalkable", parseBoolean(attrs, "fakePlayerTalkable"));
+						break;
+					}
+					case "skilllist":
+					{
+						skills = new HashMap<>();
+						for (Node skillListNode = npcNode.getFirstChild(); skillListNode != null; skillListNode = skillListNode.getNextSibling())
+						{
+							if ("skill".equalsIgnoreCase(skillListNode.getNodeName()))
+							{
+								attrs = skillListNode.getAttributes();
+								final int skillId = parseInteger(attrs, "id");
+								final int skillLevel = parseInteger(attrs, "level");
+								final Skill skill = SkillData.getInstance().getSkill(skillId, skillLevel);
+								if (skill != null)
 								{
-									set.set("corpseTime", npcNode.getTextContent());
-									break;
+									skills.put(skill.getId(), skill);
 								}
-								case "excrteffect":
+								else
 								{
-									set.set("exCrtEffect", npcNode.getTextContent()); // TODO: Implement me default ? type boolean
-									break;
+									LOGGER.warning("[" + f.getName() + "] skill not found. NPC ID: " + npcId + " Skill ID: " + skillId + " Skill Level: " + skillLevel);
 								}
-								case "snpcprophprate":
+							}
+						}
+						break;
+					}
+					case "shots":
+					{
+						set.set("soulShot", parseInteger(attrs, "soul"));
+						set.set("spiritShot", parseInteger(attrs, "spirit"));
+						set.set("shotShotChance", parseInteger(attrs, "shotChance"));
+						set.set("spiritShotChance", parseInteger(attrs, "spiritChance"));
+						break;
+					}
+					case "corpsetime":
+					{
+						set.set("corpseTime", npcNode.getTextContent());
+						break;
+					}
+					case "excrteffect":
+					{
+						set.set("exCrtEffect", npcNode.getTextContent()); // TODO: Implement me default ? type boolean
+						break;
+					}
+					case "snpcprophprate":
+					{
+						set.set("sNpcPropHpRate", npcNode.getTextContent()); // TODO: Implement me default 1 type double
+						break;
+					}
+					case "ai":
+					{
+						set.set("aiType", parseString(attrs, "type"));
+						set.set("aggroRange", parseInteger(attrs, "aggroRange"));
+						set.set("clanHelpRange", parseInteger(attrs, "clanHelpRange"));
+						set.set("isChaos", parseBoolean(attrs, "isChaos"));
+						set.set("isAggressive", parseBoolean(attrs, "isAggressive"));
+						for (Node aiNode = npcNode.getFirstChild(); aiNode != null; aiNode = aiNode.getNextSibling())
+						{
+							attrs = aiNode.getAttributes();
+							switch (aiNode.getNodeName().toLowerCase())
+							{
+								case "skill":
 								{
-									set.set("sNpcPropHpRate", npcNode.getTextContent()); // TODO: Implement me default 1 type double
+									set.set("minSkillChance", parseInteger(attrs, "minChance"));
+									set.set("maxSkillChance", parseInteger(attrs, "maxChance"));
+									set.set("primarySkillId", parseInteger(attrs, "primaryId"));
+									set.set("shortRangeSkillId", parseInteger(attrs, "shortRangeId"));
+									set.set("shortRangeSkillChance", parseInteger(attrs, "shortRangeChance"));
+									set.set("longRangeSkillId", parseInteger(attrs, "longRangeId"));
+									set.set("longRangeSkillChance", parseInteger(attrs, "longRangeChance"));
 									break;
 								}
-								case "ai":
+								case "clanlist":
 								{
-									set.set("aiType", parseString(attrs, "type"));
-									set.set("aggroRange", parseInteger(attrs, "aggroRange"));
-									set.set("clanHelpRange", parseInteger(attrs, "clanHelpRange"));
-									set.set("isChaos", parseBoolean(attrs, "isChaos"));
-									set.set("isAggressive", parseBoolean(attrs, "isAggressive"));
-									for (Node aiNode = npcNode.getFirstChild(); aiNode != null; aiNode = aiNode.getNextSibling())
+									for (Node clanListNode = aiNode.getFirstChild(); clanListNode != null; clanListNode = clanListNode.getNextSibling())
 									{
-										attrs = aiNode.getAttributes();
-										switch (aiNode.getNodeName().toLowerCase())
+										attrs = clanListNode.getAttributes();
+										switch (clanListNode.getNodeName().toLowerCase())
 										{
-											case "skill":
+											case "clan":
 											{
-												set.set("minSkillChance", parseInteger(attrs, "minChance"));
-												set.set("maxSkillChance", parseInteger(attrs, "maxChance"));
-												set.set("primarySkillId", parseInteger(attrs, "primaryId"));
-												set.set("shortRangeSkillId", parseInteger(attrs, "shortRangeId"));
-												set.set("shortRangeSkillChance", parseInteger(attrs, "shortRangeChance"));
-												set.set("longRangeSkillId", parseInteger(attrs, "longRangeId"));
-												set.set("longRangeSkillChance", parseInteger(attrs, "longRangeChance"));
+												if (clans == null)
+												{
+													clans = new HashSet<>(1);
+												}
+												clans.add(getOrCreateClanId(clanListNode.getTextContent()));
 												break;
 											}
-											case "clanlist":
+											case "ignorenpcid":
 											{
-												for (Node clanListNode = aiNode.getFirstChild(); clanListNode != null; clanListNode = clanListNode.getNextSibling())
+												if (ignoreClanNpcIds == null)
 												{
-													attrs = clanListNode.getAttributes();
-													switch (clanListNode.getNodeName().toLowerCase())
-													{
-														case "clan":
-														{
-															if (clans == null)
-															{
-																clans = new HashSet<>(1);
-															}
-															clans.add(getOrCreateClanId(clanListNode.getTextContent()));
-															break;
-														}
-														case "ignorenpcid":
-														{
-															if (ignoreClanNpcIds == null)
-															{
-																ignoreClanNpcIds = new HashSet<>(1);
-															}
-															ignoreClanNpcIds.add(Integer.parseInt(clanListNode.getTextContent()));
-															break;
-														}
-													}
+													ignoreClanNpcIds = new HashSet<>(1);
 												}
+												ignoreClanNpcIds.add(Integer.parseInt(clanListNode.getTextContent()));
 												break;
 											}
 										}
 									}
 									break;
 								}
-								case "droplists":
+							}
+						}
+						break;
+					}
+					case "droplists":
+					{
+						for (Node dropListsNode = npcNode.getFirstChild(); dropListsNode != null; dropListsNode = dropListsNode.getNextSibling())
+						{
+							DropType dropType = null;
+							
+							try
+							{
+								dropType = Enum.valueOf(DropType.class, dropListsNode.getNodeName().toUpperCase());
+							}
+							catch (Exception e)
+							{
+								// Handled bellow.
+							}
+							
+							if (dropType != null)
+							{
+								for (Node dropNode = dropListsNode.getFirstChild(); dropNode != null; dropNode = dropNode.getNextSibling())
 								{
-									for (Node dropListsNode = npcNode.getFirstChild(); dropListsNode != null; dropListsNode = dropListsNode.getNextSibling())
+									final String nodeName = dropNode.getNodeName();
+									if (nodeName.equalsIgnoreCase("group"))
 									{
-										DropType dropType = null;
-										
-										try
-										{
-											dropType = Enum.valueOf(DropType.class, dropListsNode.getNodeName().toUpperCase());
-										}
-										catch (Exception e)
+										if (dropGroups == null)
 										{
-											// Handled bellow.
+											dropGroups = new ArrayList<>();
 										}
 										
-										if (dropType != null)
+										final DropGroupHolder group = new DropGroupHolder(parseDouble(dropNode.getAttributes(), "chance"));
+										for (Node groupNode = dropNode.getFirstChild(); groupNode != null; groupNode = groupNode.getNextSibling())
 										{
-											for (Node dropNode = dropListsNode.getFirstChild(); dropNode != null; dropNode = dropNode.getNextSibling())
+											if (groupNode.getNodeName().equalsIgnoreCase("item"))
 											{
-												final String nodeName = dropNode.getNodeName();
-												if (nodeName.equalsIgnoreCase("group"))
+												final NamedNodeMap groupAttrs = groupNode.getAttributes();
+												final int itemId = parseInteger(groupAttrs, "id");
+												
+												final ItemTemplate item = ItemData.getInstance().getTemplate(itemId);
+												if (item == null)
 												{
-													if (dropGroups == null)
-													{
-														dropGroups = new ArrayList<>();
-													}
-													
-													final DropGroupHolder group = new DropGroupHolder(parseDouble(dropNode.getAttributes(), "chance"));
-													for (Node groupNode = dropNode.getFirstChild(); groupNode != null; groupNode = groupNode.getNextSibling())
-													{
-														if (groupNode.getNodeName().equalsIgnoreCase("item"))
-														{
-															final NamedNodeMap groupAttrs = groupNode.getAttributes();
-															final int itemId = parseInteger(groupAttrs, "id");
-															
-															final ItemTemplate item = ItemData.getInstance().getTemplate(itemId);
-															if (item == null)
-															{
-																LOGGER.warning("DropListItem: Could not find item with id " + itemId + ".");
-															}
-															else
-															{
-																// Max equipable item grade configuration.
-																final int itemCrystalLevel = item.getCrystalType().getLevel();
-																if ((itemCrystalLevel > Config.MAX_EQUIPABLE_ITEM_GRADE.getLevel()) && (itemCrystalLevel < CrystalType.EVENT.getLevel()))
-																{
-																	continue;
-																}
-																
-																group.addDrop(new DropHolder(dropType, itemId, parseLong(groupAttrs, "min"), parseLong(groupAttrs, "max"), parseDouble(groupAttrs, "chance")));
-															}
-														}
-													}
-													
-													dropGroups.add(group);
+													LOGGER.warning("DropListItem: Could not find item with id " + itemId + ".");
 												}
-												else if (nodeName.equalsIgnoreCase("item"))
+												else
 												{
-													if (dropLists == null)
+													// Max equipable item grade configuration.
+													final int itemCrystalLevel = item.getCrystalType().getLevel();
+													if ((itemCrystalLevel > Config.MAX_EQUIPABLE_ITEM_GRADE.getLevel()) && (itemCrystalLevel < CrystalType.EVENT.getLevel()))
 													{
-														dropLists = new ArrayList<>();
+														continue;
 													}
 													
-													final NamedNodeMap dropAttrs = dropNode.getAttributes();
-													final int itemId = parseInteger(dropAttrs, "id");
-													
-													final ItemTemplate item = ItemData.getInstance().getTemplate(itemId);
-													if (item == null)
-													{
-														LOGGER.warning("DropListItem: Could not find item with id " + itemId + ".");
-													}
-													else
-													{
-														// Max equipable item grade configuration.
-														final int itemCrystalLevel = item.getCrystalType().getLevel();
-														if ((itemCrystalLevel > Config.MAX_EQUIPABLE_ITEM_GRADE.getLevel()) && (itemCrystalLevel < CrystalType.EVENT.getLevel()))
-														{
-															continue;
-														}
-														
-														dropLists.add(new DropHolder(dropType, itemId, parseLong(dropAttrs, "min"), parseLong(dropAttrs, "max"), parseDouble(dropAttrs, "chance")));
-													}
+													group.addDrop(new DropHolder(dropType, itemId, parseLong(groupAttrs, "min"), parseLong(groupAttrs, "max"), parseDouble(groupAttrs, "chance")));
 												}
 											}
 										}
+										
+										dropGroups.add(group);
 									}
-									break;
-								}
-								case "collision":
-								{
-									for (Node collisionNode = npcNode.getFirstChild(); collisionNode != null; collisionNode = collisionNode.getNextSibling())
+									else if (nodeName.equalsIgnoreCase("item"))
 									{
-										attrs = collisionNode.getAttributes();
-										switch (collisionNode.getNodeName().toLowerCase())
+										if (dropLists == null)
 										{
-											case "radius":
-											{
-												set.set("collision_radius", parseDouble(attrs, "normal"));
-												set.set("collisionRadiusGrown", parseDouble(attrs, "grown"));
-												break;
-											}
-											case "height":
+											dropLists = new ArrayList<>();
+										}
+										
+										final NamedNodeMap dropAttrs = dropNode.getAttributes();
+										final int itemId = parseInteger(dropAttrs, "id");
+										
+										final ItemTemplate item = ItemData.getInstance().getTemplate(itemId);
+										if (item == null)
+										{
+											LOGGER.warning("DropListItem: Could not find item with id " + itemId + ".");
+										}
+										else
+										{
+											// Max equipable item grade configuration.
+											final int itemCrystalLevel = item.getCrystalType().getLevel();
+											if ((itemCrystalLevel > Config.MAX_EQUIPABLE_ITEM_GRADE.getLevel()) && (itemCrystalLevel < CrystalType.EVENT.getLevel()))
 											{
-												set.set("collision_height", parseDouble(attrs, "normal"));
-												set.set("collisionHeightGrown", parseDouble(attrs, "grown"));
-												break;
+												continue;
 											}
+											
+											dropLists.add(new DropHolder(dropType, itemId, parseLong(dropAttrs, "min"), parseLong(dropAttrs, "max"), parseDouble(dropAttrs, "chance")));
 										}
 									}
-									break;
 								}
 							}
 						}
-						
-						NpcTemplate template = _npcs.get(npcId);
-						if (template == null)
+						break;
+					}
+					case "collision":
+					{
+						for (Node collisionNode = npcNode.getFirstChild(); collisionNode != null; collisionNode = collisionNode.getNextSibling())
 						{
-							template = new NpcTemplate(set);
-							_npcs.put(template.getId(), template);
+							attrs = collisionNode.getAttributes();
+							switch (collisionNode.getNodeName().toLowerCase())
+							{
+								case "radius":
+								{
+									set.set("collision_radius", parseDouble(attrs, "normal"));
+									set.set("collisionRadiusGrown", parseDouble(attrs, "grown"));
+									break;
+								}
+								case "height":
+								{
+									set.set("collision_height", parseDouble(attrs, "normal"));
+									set.set("collisionHeightGrown", parseDouble(attrs, "grown"));
+									break;
+								}
+							}
 						}
-						else
+						break;
+					}
+				}
+			}
+			
+			NpcTemplate template = _npcs.get(npcId);
+			if (template == null)
+			{
+				template = new NpcTemplate(set);
+				_npcs.put(template.getId(), template);
+			}
+			else
+			{
+				template.set(set);
+			}
+			
+			if (parameters != null)
+			{
+				// Using unmodifiable map parameters of template are not meant to be changed at runtime.
+				template.setParameters(new StatSet(Collections.unmodifiableMap(parameters)));
+			}
+			else
+			{
+				template.setParameters(StatSet.EMPTY_STATSET);
+			}
+			
+			if (skills != null)
+			{
+				Map<AISkillScope, List<Skill>> aiSkillLists = null;
+				for (Skill skill : skills.values())
+				{
+					if (!skill.isPassive())
+					{
+						if (aiSkillLists == null)
 						{
-							template.set(set);
+							aiSkillLists = new EnumMap<>(AISkillScope.class);
 						}
 						
-						if (parameters != null)
+						final List<AISkillScope> aiSkillScopes = new ArrayList<>();
+						final AISkillScope shortOrLongRangeScope = skill.getCastRange() <= 150 ? AISkillScope.SHORT_RANGE : AISkillScope.LONG_RANGE;
+						if (skill.isSuicideAttack())
 						{
-							// Using unmodifiable map parameters of template are not meant to be changed at runtime.
-							template.setParameters(new StatSet(Collections.unmodifiableMap(parameters)));
+							aiSkillScopes.add(AISkillScope.SUICIDE);
 						}
 						else
 						{
-							template.setParameters(StatSet.EMPTY_STATSET);
-						}
-						
-						if (skills != null)
-						{
-							Map<AISkillScope, List<Skill>> aiSkillLists = null;
-							for (Skill skill : skills.values())
+							aiSkillScopes.add(AISkillScope.GENERAL);
+							
+							if (skill.isContinuous())
 							{
-								if (!skill.isPassive())
+								if (!skill.isDebuff())
 								{
-									if (aiSkillLists == null)
-									{
-										aiSkillLists = new EnumMap<>(AISkillScope.class);
-									}
-									
-									final List<AISkillScope> aiSkillScopes = new ArrayList<>();
-									final AISkillScope shortOrLongRangeScope = skill.getCastRange() <= 150 ? AISkillScope.SHORT_RANGE : AISkillScope.LONG_RANGE;
-									if (skill.isSuicideAttack())
-									{
-										aiSkillScopes.add(AISkillScope.SUICIDE);
-									}
-									else
-									{
-										aiSkillScopes.add(AISkillScope.GENERAL);
-										
-										if (skill.isContinuous())
-										{
-											if (!skill.isDebuff())
-											{
-												aiSkillScopes.add(AISkillScope.BUFF);
-											}
-											else
-											{
-												aiSkillScopes.add(AISkillScope.DEBUFF);
-												aiSkillScopes.add(AISkillScope.COT);
-												aiSkillScopes.add(shortOrLongRangeScope);
-											}
-										}
-										else if (skill.hasEffectType(EffectType.DISPEL, EffectType.DISPEL_BY_SLOT))
-										{
-											aiSkillScopes.add(AISkillScope.NEGATIVE);
-											aiSkillScopes.add(shortOrLongRangeScope);
-										}
-										else if (skill.hasEffectType(EffectType.HEAL))
-										{
-											aiSkillScopes.add(AISkillScope.HEAL);
-										}
-										else if (skill.hasEffectType(EffectType.PHYSICAL_ATTACK, EffectType.PHYSICAL_ATTACK_HP_LINK, EffectType.MAGICAL_ATTACK, EffectType.DEATH_LINK, EffectType.HP_DRAIN))
-										{
-											aiSkillScopes.add(AISkillScope.ATTACK);
-											aiSkillScopes.add(AISkillScope.UNIVERSAL);
-											aiSkillScopes.add(shortOrLongRangeScope);
-										}
-										else if (skill.hasEffectType(EffectType.SLEEP))
-										{
-											aiSkillScopes.add(AISkillScope.IMMOBILIZE);
-										}
-										else if (skill.hasEffectType(EffectType.BLOCK_ACTIONS, EffectType.ROOT))
-										{
-											aiSkillScopes.add(AISkillScope.IMMOBILIZE);
-											aiSkillScopes.add(shortOrLongRangeScope);
-										}
-										else if (skill.hasEffectType(EffectType.MUTE, EffectType.BLOCK_CONTROL))
-										{
-											aiSkillScopes.add(AISkillScope.COT);
-											aiSkillScopes.add(shortOrLongRangeScope);
-										}
-										else if (skill.hasEffectType(EffectType.DMG_OVER_TIME, EffectType.DMG_OVER_TIME_PERCENT))
-										{
-											aiSkillScopes.add(shortOrLongRangeScope);
-										}
-										else if (skill.hasEffectType(EffectType.RESURRECTION))
-										{
-											aiSkillScopes.add(AISkillScope.RES);
-										}
-										else
-										{
-											aiSkillScopes.add(AISkillScope.UNIVERSAL);
-										}
-									}
-									
-									for (AISkillScope aiSkillScope : aiSkillScopes)
-									{
-										List<Skill> aiSkills = aiSkillLists.get(aiSkillScope);
-										if (aiSkills == null)
-										{
-											aiSkills = new ArrayList<>();
-											aiSkillLists.put(aiSkillScope, aiSkills);
-										}
-										
-										aiSkills.add(skill);
-									}
+									aiSkillScopes.add(AISkillScope.BUFF);
+								}
+								else
+								{
+									aiSkillScopes.add(AISkillScope.DEBUFF);
+									aiSkillScopes.add(AISkillScope.COT);
+									aiSkillScopes.add(shortOrLongRangeScope);
 								}
 							}
-							
-							template.setSkills(skills);
-							template.setAISkillLists(aiSkillLists);
-						}
-						else
-						{
-							template.setSkills(null);
-							template.setAISkillLists(null);
-						}
-						
-						template.setClans(clans);
-						template.setIgnoreClanNpcIds(ignoreClanNpcIds);
-						
-						// Clean old drop groups.
-						template.removeDropGroups();
-						
-						// Set new drop groups.
-						if (dropGroups != null)
-						{
-							template.setDropGroups(dropGroups);
-						}
-						
-						// Clean old drop lists.
-						template.removeDrops();
-						
-						// Add configurable item drop for bosses.
-						if ((Config.BOSS_DROP_ENABLED) && (type.contains("RaidBoss") && (level >= Config.BOSS_DROP_MIN_LEVEL) && (level <= Config.BOSS_DROP_MAX_LEVEL)))
-						{
-							if (dropLists == null)
+							else if (skill.hasEffectType(EffectType.DISPEL, EffectType.DISPEL_BY_SLOT))
+							{
+								aiSkillScopes.add(AISkillScope.NEGATIVE);
+								aiSkillScopes.add(shortOrLongRangeScope);
+							}
+							else if (skill.hasEffectType(EffectType.HEAL))
+							{
+								aiSkillScopes.add(AISkillScope.HEAL);
+							}
+							else if (skill.hasEffectType(EffectType.PHYSICAL_ATTACK, EffectType.PHYSICAL_ATTACK_HP_LINK, EffectType.MAGICAL_ATTACK, EffectType.DEATH_LINK, EffectType.HP_DRAIN))
+							{
+								aiSkillScopes.add(AISkillScope.ATTACK);
+								aiSkillScopes.add(AISkillScope.UNIVERSAL);
+								aiSkillScopes.add(shortOrLongRangeScope);
+							}
+							else if (skill.hasEffectType(EffectType.SLEEP))
+							{
+								aiSkillScopes.add(AISkillScope.IMMOBILIZE);
+							}
+							else if (skill.hasEffectType(EffectType.BLOCK_ACTIONS, EffectType.ROOT))
+							{
+								aiSkillScopes.add(AISkillScope.IMMOBILIZE);
+								aiSkillScopes.add(shortOrLongRangeScope);
+							}
+							else if (skill.hasEffectType(EffectType.MUTE, EffectType.BLOCK_CONTROL))
+							{
+								aiSkillScopes.add(AISkillScope.COT);
+								aiSkillScopes.add(shortOrLongRangeScope);
+							}
+							else if (skill.hasEffectType(EffectType.DMG_OVER_TIME, EffectType.DMG_OVER_TIME_PERCENT))
+							{
+								aiSkillScopes.add(shortOrLongRangeScope);
+							}
+							else if (skill.hasEffectType(EffectType.RESURRECTION))
+							{
+								aiSkillScopes.add(AISkillScope.RES);
+							}
+							else
 							{
-								dropLists = new ArrayList<>();
+								aiSkillScopes.add(AISkillScope.UNIVERSAL);
 							}
-							dropLists.addAll(Config.BOSS_DROP_LIST);
 						}
 						
-						// Set new drop lists.
-						if (dropLists != null)
+						for (AISkillScope aiSkillScope : aiSkillScopes)
 						{
-							// Drops are sorted by chance (high to low).
-							Collections.sort(dropLists, (d1, d2) -> Double.valueOf(d2.getChance()).compareTo(Double.valueOf(d1.getChance())));
-							for (DropHolder dropHolder : dropLists)
+							List<Skill> aiSkills = aiSkillLists.get(aiSkillScope);
+							if (aiSkills == null)
 							{
-								switch (dropHolder.getDropType())
-								{
-									case DROP:
-									case LUCKY: // Lucky drops are added to normal drops and calculated later.
-									{
-										template.addDrop(dropHolder);
-										break;
-									}
-									case SPOIL:
-									{
-										template.addSpoil(dropHolder);
-										break;
-									}
-								}
+								aiSkills = new ArrayList<>();
+								aiSkillLists.put(aiSkillScope, aiSkills);
 							}
+							
+							aiSkills.add(skill);
 						}
-						
-						if (!template.getParameters().getMinionList("Privates").isEmpty() && (template.getParameters().getSet().get("SummonPrivateRate") == null))
+					}
+				}
+				
+				template.setSkills(skills);
+				template.setAISkillLists(aiSkillLists);
+			}
+			else
+			{
+				template.setSkills(null);
+				template.setAISkillLists(null);
+			}
+			
+			template.setClans(clans);
+			template.setIgnoreClanNpcIds(ignoreClanNpcIds);
+			
+			// Clean old drop groups.
+			template.removeDropGroups();
+			
+			// Set new drop groups.
+			if (dropGroups != null)
+			{
+				template.setDropGroups(dropGroups);
+			}
+			
+			// Clean old drop lists.
+			template.removeDrops();
+			
+			// Add configurable item drop for bosses.
+			if ((Config.BOSS_DROP_ENABLED) && (type.contains("RaidBoss") && (level >= Config.BOSS_DROP_MIN_LEVEL) && (level <= Config.BOSS_DROP_MAX_LEVEL)))
+			{
+				if (dropLists == null)
+				{
+					dropLists = new ArrayList<>();
+				}
+				dropLists.addAll(Config.BOSS_DROP_LIST);
+			}
+			
+			// Set new drop lists.
+			if (dropLists != null)
+			{
+				// Drops are sorted by chance (high to low).
+				Collections.sort(dropLists, (d1, d2) -> Double.valueOf(d2.getChance()).compareTo(Double.valueOf(d1.getChance())));
+				for (DropHolder dropHolder : dropLists)
+				{
+					switch (dropHolder.getDropType())
+					{
+						case DROP:
+						case LUCKY: // Lucky drops are added to normal drops and calculated later.
+						{
+							template.addDrop(dropHolder);
+							break;
+						}
+						case SPOIL:
 						{
-							_masterMonsterIDs.add(template.getId());
+							template.addSpoil(dropHolder);
+							break;
 						}
 					}
 				}
 			}
+			
+			if (!template.getParameters().getMinionList("Privates").isEmpty() && (template.getParameters().getSet().get("SummonPrivateRate") == null))
+			{
+				_masterMonsterIDs.add(template.getId());
+			}
 		}
 	}
 	
@@ -205,6 +205,18 @@ public class SkillData implements IXmlReader
 		return temp;
 	}
 	
+	@Override
+	public boolean isCaching()
+	{
+		return true;
+	}
+	
+	@Override
+	public boolean isStreaming()
+	{
+		return true;
+	}
+	
 	@Override
 	public boolean isValidating()
 	{
@@ -240,209 +252,215 @@ public class SkillData implements IXmlReader
 			{
 				for (Node listNode = node.getFirstChild(); listNode != null; listNode = listNode.getNextSibling())
 				{
-					if ("skill".equalsIgnoreCase(listNode.getNodeName()))
+					parseElement(listNode, f);
+				}
+			}
+		}
+	}
+	
+	@Override
+	public void parseElement(Node listNode, File f)
+	{
+		if ("skill".equalsIgnoreCase(listNode.getNodeName()))
+		{
+			NamedNodeMap attributes = listNode.getAttributes();
+			final Map<Integer, Set<Integer>> levels = new HashMap<>();
+			final Map<Integer, Map<Integer, StatSet>> skillInfo = new HashMap<>();
+			final StatSet generalSkillInfo = skillInfo.computeIfAbsent(-1, k -> new HashMap<>()).computeIfAbsent(-1, k -> new StatSet());
+			parseAttributes(attributes, "", generalSkillInfo);
+			
+			final Map<String, Map<Integer, Map<Integer, Object>>> variableValues = new HashMap<>();
+			final Map<EffectScope, List<NamedParamInfo>> effectParamInfo = new EnumMap<>(EffectScope.class);
+			final Map<SkillConditionScope, List<NamedParamInfo>> conditionParamInfo = new EnumMap<>(SkillConditionScope.class);
+			for (Node skillNode = listNode.getFirstChild(); skillNode != null; skillNode = skillNode.getNextSibling())
+			{
+				final String skillNodeName = skillNode.getNodeName();
+				switch (skillNodeName.toLowerCase())
+				{
+					case "variable":
 					{
-						NamedNodeMap attributes = listNode.getAttributes();
-						final Map<Integer, Set<Integer>> levels = new HashMap<>();
-						final Map<Integer, Map<Integer, StatSet>> skillInfo = new HashMap<>();
-						final StatSet generalSkillInfo = skillInfo.computeIfAbsent(-1, k -> new HashMap<>()).computeIfAbsent(-1, k -> new StatSet());
-						parseAttributes(attributes, "", generalSkillInfo);
-						
-						final Map<String, Map<Integer, Map<Integer, Object>>> variableValues = new HashMap<>();
-						final Map<EffectScope, List<NamedParamInfo>> effectParamInfo = new EnumMap<>(EffectScope.class);
-						final Map<SkillConditionScope, List<NamedParamInfo>> conditionParamInfo = new EnumMap<>(SkillConditionScope.class);
-						for (Node skillNode = listNode.getFirstChild(); skillNode != null; skillNode = skillNode.getNextSibling())
+						attributes = skillNode.getAttributes();
+						final String name = "@" + parseString(attributes, "name");
+						variableValues.put(name, parseValues(skillNode));
+						break;
+					}
+					case "#text":
+					{
+						break;
+					}
+					default:
+					{
+						final EffectScope effectScope = EffectScope.findByXmlNodeName(skillNodeName);
+						if (effectScope != null)
 						{
-							final String skillNodeName = skillNode.getNodeName();
-							switch (skillNodeName.toLowerCase())
+							for (Node effectsNode = skillNode.getFirstChild(); effectsNode != null; effectsNode = effectsNode.getNextSibling())
 							{
-								case "variable":
-								{
-									attributes = skillNode.getAttributes();
-									final String name = "@" + parseString(attributes, "name");
-									variableValues.put(name, parseValues(skillNode));
-									break;
-								}
-								case "#text":
-								{
-									break;
-								}
-								default:
+								switch (effectsNode.getNodeName().toLowerCase())
 								{
-									final EffectScope effectScope = EffectScope.findByXmlNodeName(skillNodeName);
-									if (effectScope != null)
+									case "effect":
 									{
-										for (Node effectsNode = skillNode.getFirstChild(); effectsNode != null; effectsNode = effectsNode.getNextSibling())
-										{
-											switch (effectsNode.getNodeName().toLowerCase())
-											{
-												case "effect":
-												{
-													effectParamInfo.computeIfAbsent(effectScope, k -> new LinkedList<>()).add(parseNamedParamInfo(effectsNode, variableValues));
-													break;
-												}
-											}
-										}
+										effectParamInfo.computeIfAbsent(effectScope, k -> new LinkedList<>()).add(parseNamedParamInfo(effectsNode, variableValues));
 										break;
 									}
-									final SkillConditionScope skillConditionScope = SkillConditionScope.findByXmlNodeName(skillNodeName);
-									if (skillConditionScope != null)
-									{
-										for (Node conditionNode = skillNode.getFirstChild(); conditionNode != null; conditionNode = conditionNode.getNextSibling())
-										{
-											switch (conditionNode.getNodeName().toLowerCase())
-											{
-												case "condition":
-												{
-													conditionParamInfo.computeIfAbsent(skillConditionScope, k -> new LinkedList<>()).add(parseNamedParamInfo(conditionNode, variableValues));
-													break;
-												}
-											}
-										}
-									}
-									else
-									{
-										parseInfo(skillNode, variableValues, skillInfo);
-									}
-									break;
 								}
 							}
+							break;
 						}
-						
-						final int fromLevel = generalSkillInfo.getInt(".fromLevel", 1);
-						final int toLevel = generalSkillInfo.getInt(".toLevel", 0);
-						for (int i = fromLevel; i <= toLevel; i++)
-						{
-							levels.computeIfAbsent(i, k -> new HashSet<>()).add(0);
-						}
-						
-						skillInfo.forEach((level, subLevelMap) ->
-						{
-							if (level == -1)
-							{
-								return;
-							}
-							subLevelMap.forEach((subLevel, statSet) ->
-							{
-								if (subLevel == -1)
-								{
-									return;
-								}
-								levels.computeIfAbsent(level, k -> new HashSet<>()).add(subLevel);
-							});
-						});
-						
-						Stream.concat(effectParamInfo.values().stream(), conditionParamInfo.values().stream()).forEach(namedParamInfos -> namedParamInfos.forEach(namedParamInfo ->
+						final SkillConditionScope skillConditionScope = SkillConditionScope.findByXmlNodeName(skillNodeName);
+						if (skillConditionScope != null)
 						{
-							namedParamInfo.getInfo().forEach((level, subLevelMap) ->
+							for (Node conditionNode = skillNode.getFirstChild(); conditionNode != null; conditionNode = conditionNode.getNextSibling())
 							{
-								if (level == -1)
-								{
-									return;
-								}
-								subLevelMap.forEach((subLevel, statSet) ->
+								switch (conditionNode.getNodeName().toLowerCase())
 								{
-									if (subLevel == -1)
+									case "condition":
 									{
-										return;
-									}
-									levels.computeIfAbsent(level, k -> new HashSet<>()).add(subLevel);
-								});
-							});
-							
-							if ((namedParamInfo.getFromLevel() != null) && (namedParamInfo.getToLevel() != null))
-							{
-								for (int i = namedParamInfo.getFromLevel(); i <= namedParamInfo.getToLevel(); i++)
-								{
-									if ((namedParamInfo.getFromSubLevel() != null) && (namedParamInfo.getToSubLevel() != null))
-									{
-										for (int j = namedParamInfo.getFromSubLevel(); j <= namedParamInfo.getToSubLevel(); j++)
-										{
-											levels.computeIfAbsent(i, k -> new HashSet<>()).add(j);
-										}
-									}
-									else
-									{
-										levels.computeIfAbsent(i, k -> new HashSet<>()).add(0);
+										conditionParamInfo.computeIfAbsent(skillConditionScope, k -> new LinkedList<>()).add(parseNamedParamInfo(conditionNode, variableValues));
+										break;
 									}
 								}
 							}
-						}));
-						
-						levels.forEach((level, subLevels) -> subLevels.forEach(subLevel ->
+						}
+						else
+						{
+							parseInfo(skillNode, variableValues, skillInfo);
+						}
+						break;
+					}
+				}
+			}
+			
+			final int fromLevel = generalSkillInfo.getInt(".fromLevel", 1);
+			final int toLevel = generalSkillInfo.getInt(".toLevel", 0);
+			for (int i = fromLevel; i <= toLevel; i++)
+			{
+				levels.computeIfAbsent(i, k -> new HashSet<>()).add(0);
+			}
+			
+			skillInfo.forEach((level, subLevelMap) ->
+			{
+				if (level == -1)
+				{
+					return;
+				}
+				subLevelMap.forEach((subLevel, statSet) ->
+				{
+					if (subLevel == -1)
+					{
+						return;
+					}
+					levels.computeIfAbsent(level, k -> new HashSet<>()).add(subLevel);
+				});
+			});
+			
+			Stream.concat(effectParamInfo.values().stream(), conditionParamInfo.values().stream()).forEach(namedParamInfos -> namedParamInfos.forEach(namedParamInfo ->
+			{
+				namedParamInfo.getInfo().forEach((level, subLevelMap) ->
+				{
+					if (level == -1)
+					{
+						return;
+					}
+					subLevelMap.forEach((subLevel, statSet) ->
+					{
+						if (subLevel == -1)
+						{
+							return;
+						}
+						levels.computeIfAbsent(level, k -> new HashSet<>()).add(subLevel);
+					});
+				});
+				
+				if ((namedParamInfo.getFromLevel() != null) && (namedParamInfo.getToLevel() != null))
+				{
+					for (int i = namedParamInfo.getFromLevel(); i <= namedParamInfo.getToLevel(); i++)
+					{
+						if ((namedParamInfo.getFromSubLevel() != null) && (namedParamInfo.getToSubLevel() != null))
 						{
-							final StatSet statSet = Optional.ofNullable(skillInfo.getOrDefault(level, Collections.emptyMap()).get(subLevel)).orElseGet(StatSet::new);
-							skillInfo.getOrDefault(level, Collections.emptyMap()).getOrDefault(-1, StatSet.EMPTY_STATSET).getSet().forEach(statSet.getSet()::putIfAbsent);
-							skillInfo.getOrDefault(-1, Collections.emptyMap()).getOrDefault(-1, StatSet.EMPTY_STATSET).getSet().forEach(statSet.getSet()::putIfAbsent);
-							statSet.set(".level", level);
-							statSet.set(".subLevel", subLevel);
-							final Skill skill = new Skill(statSet);
-							forEachNamedParamInfoParam(effectParamInfo, level, subLevel, ((effectScope, params) ->
+							for (int j = namedParamInfo.getFromSubLevel(); j <= namedParamInfo.getToSubLevel(); j++)
 							{
-								final String effectName = params.getString(".name");
-								params.remove(".name");
-								try
-								{
-									final Function<StatSet, AbstractEffect> effectFunction = EffectHandler.getInstance().getHandlerFactory(effectName);
-									if (effectFunction != null)
-									{
-										skill.addEffect(effectScope, effectFunction.apply(params));
-									}
-									else
-									{
-										LOGGER.warning(getClass().getSimpleName() + ": Missing effect for Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "] Effect Scope[" + effectScope + "] Effect Name[" + effectName + "]");
-									}
-								}
-								catch (Exception e)
-								{
-									LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Failed loading effect for Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "] Effect Scope[" + effectScope + "] Effect Name[" + effectName + "]", e);
-								}
-							}));
-							
-							forEachNamedParamInfoParam(conditionParamInfo, level, subLevel, ((skillConditionScope, params) ->
+								levels.computeIfAbsent(i, k -> new HashSet<>()).add(j);
+							}
+						}
+						else
+						{
+							levels.computeIfAbsent(i, k -> new HashSet<>()).add(0);
+						}
+					}
+				}
+			}));
+			
+			levels.forEach((level, subLevels) -> subLevels.forEach(subLevel ->
+			{
+				final StatSet statSet = Optional.ofNullable(skillInfo.getOrDefault(level, Collections.emptyMap()).get(subLevel)).orElseGet(StatSet::new);
+				skillInfo.getOrDefault(level, Collections.emptyMap()).getOrDefault(-1, StatSet.EMPTY_STATSET).getSet().forEach(statSet.getSet()::putIfAbsent);
+				skillInfo.getOrDefault(-1, Collections.emptyMap()).getOrDefault(-1, StatSet.EMPTY_STATSET).getSet().forEach(statSet.getSet()::putIfAbsent);
+				statSet.set(".level", level);
+				statSet.set(".subLevel", subLevel);
+				final Skill skill = new Skill(statSet);
+				forEachNamedParamInfoParam(effectParamInfo, level, subLevel, ((effectScope, params) ->
+				{
+					final String effectName = params.getString(".name");
+					params.remove(".name");
+					try
+					{
+						final Function<StatSet, AbstractEffect> effectFunction = EffectHandler.getInstance().getHandlerFactory(effectName);
+						if (effectFunction != null)
+						{
+							skill.addEffect(effectScope, effectFunction.apply(params));
+						}
+						else
+						{
+							LOGGER.warning(getClass().getSimpleName() + ": Missing effect for Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "] Effect Scope[" + effectScope + "] Effect Name[" + effectName + "]");
+						}
+					}
+					catch (Exception e)
+					{
+						LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Failed loading effect for Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "] Effect Scope[" + effectScope + "] Effect Name[" + effectName + "]", e);
+					}
+				}));
+				
+				forEachNamedParamInfoParam(conditionParamInfo, level, subLevel, ((skillConditionScope, params) ->
+				{
+					final String conditionName = params.getString(".name");
+					params.remove(".name");
+					try
+					{
+						final Function<StatSet, ISkillCondition> conditionFunction = SkillConditionHandler.getInstance().getHandlerFactory(conditionName);
+						if (conditionFunction != null)
+						{
+							if (skill.isPassive())
 							{
-								final String conditionName = params.getString(".name");
-								params.remove(".name");
-								try
+								if (skillConditionScope != SkillConditionScope.PASSIVE)
 								{
-									final Function<StatSet, ISkillCondition> conditionFunction = SkillConditionHandler.getInstance().getHandlerFactory(conditionName);
-									if (conditionFunction != null)
-									{
-										if (skill.isPassive())
-										{
-											if (skillConditionScope != SkillConditionScope.PASSIVE)
-											{
-												LOGGER.warning(getClass().getSimpleName() + ": Non passive condition for passive Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "]");
-											}
-										}
-										else if (skillConditionScope == SkillConditionScope.PASSIVE)
-										{
-											LOGGER.warning(getClass().getSimpleName() + ": Passive condition for non passive Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "]");
-										}
-										
-										skill.addCondition(skillConditionScope, conditionFunction.apply(params));
-									}
-									else
-									{
-										LOGGER.warning(getClass().getSimpleName() + ": Missing condition for Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "] Effect Scope[" + skillConditionScope + "] Effect Name[" + conditionName + "]");
-									}
-								}
-								catch (Exception e)
-								{
-									LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Failed loading condition for Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "] Condition Scope[" + skillConditionScope + "] Condition Name[" + conditionName + "]", e);
+									LOGGER.warning(getClass().getSimpleName() + ": Non passive condition for passive Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "]");
 								}
-							}));
-							
-							_skills.put(getSkillHashCode(skill), skill);
-							_skillsMaxLevel.merge(skill.getId(), skill.getLevel(), Integer::max);
-							if ((skill.getSubLevel() % 1000) == 1)
+							}
+							else if (skillConditionScope == SkillConditionScope.PASSIVE)
 							{
-								EnchantSkillGroupsData.getInstance().addRouteForSkill(skill.getId(), skill.getLevel(), skill.getSubLevel());
+								LOGGER.warning(getClass().getSimpleName() + ": Passive condition for non passive Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "]");
 							}
-						}));
+							
+							skill.addCondition(skillConditionScope, conditionFunction.apply(params));
+						}
+						else
+						{
+							LOGGER.warning(getClass().getSimpleName() + ": Missing condition for Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "] Effect Scope[" + skillConditionScope + "] Effect Name[" + conditionName + "]");
+						}
 					}
+					catch (Exception e)
+					{
+						LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Failed loading condition for Skill Id[" + statSet.getInt(".id") + "] Level[" + level + "] SubLevel[" + subLevel + "] Condition Scope[" + skillConditionScope + "] Condition Name[" + conditionName + "]", e);
+					}
+				}));
+				
+				_skills.put(getSkillHashCode(skill), skill);
+				_skillsMaxLevel.merge(skill.getId(), skill.getLevel(), Integer::max);
+				if ((skill.getSubLevel() % 1000) == 1)
+				{
+					EnchantSkillGroupsData.getInstance().addRouteForSkill(skill.getId(), skill.getLevel(), skill.getSubLevel());
 				}
-			}
+			}));
 		}
 	}
 	
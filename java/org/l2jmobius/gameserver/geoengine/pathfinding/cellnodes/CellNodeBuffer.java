@@ -16,22 +16,65 @@
  */
 package org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Arrays;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
 
 /**
+ * Pathfinding workspace of {@code size * size} cells, centered between the start and the target of a search.<br>
+ * Cells are held in flat primitive arrays indexed by {@code (x * size) + y}, so a search does not allocate.<br>
+ * A cell is part of the current search when its stamp equals the search stamp, so cells are not cleared between searches.<br>
+ * The open set is a binary heap ordered by cost, then by insertion order.<br>
+ * A buffer is used by one thread at a time, see {@link CellPathFinding}.
  * @author DS Credits to Diamond
  */
 public class CellNodeBuffer
 {
 	private static final int MAX_ITERATIONS = 3500;
 	
-	private final ReentrantLock _lock = new ReentrantLock();
+	/** Parent direction codes stored in the upper bits of a cell, 0 being no parent. */
+	private static final int[] PARENT_X =
+	{
+		0,
+		1,
+		1,
+		0,
+		-1,
+		-1,
+		-1,
+		0,
+		1
+	};
+	private static final int[] PARENT_Y =
+	{
+		0,
+		0,
+		1,
+		1,
+		1,
+		0,
+		-1,
+		-1,
+		-1
+	};
+	
 	private final int _mapSize;
-	private final CellNode[][] _buffer;
+	
+	// Cells.
+	private final int[] _stamps;
+	private final short[] _heights;
+	private final byte[] _cells; // NSWE in the lower bits, parent direction in the upper bits.
+	private final float[] _costs; // Negative when the cell is not part of the open set yet.
+	
+	// Open set.
+	private final int[] _heap;
+	private final int[] _heapOrders;
+	private int _heapSize = 0;
+	private int _order = 0;
+	
+	private int _stamp = 0;
 	
 	private int _baseX = 0;
 	private int _baseY = 0;
@@ -43,20 +86,38 @@ public class CellNodeBuffer
 	private long _timeStamp = 0;
 	private long _lastElapsedTime = 0;
 	
-	private CellNode _current = null;
+	private int _current = -1;
 	
 	public CellNodeBuffer(int size)
 	{
 		_mapSize = size;
-		_buffer = new CellNode[_mapSize][_mapSize];
+		final int cells = _mapSize * _mapSize;
+		_stamps = new int[cells];
+		_heights = new short[cells];
+		_cells = new byte[cells];
+		_costs = new float[cells];
+		
+		// Each iteration adds up to 8 neighbors.
+		final int heapSize = Math.min(cells, (MAX_ITERATIONS * 8) + 1);
+		_heap = new int[heapSize];
+		_heapOrders = new int[heapSize];
 	}
 	
-	public final boolean lock()
+	public final int getMapSize()
 	{
-		return _lock.tryLock();
+		return _mapSize;
 	}
 	
-	public final CellNode findPath(int x, int y, int z, int tx, int ty, int tz)
+	/**
+	 * @param x the start geo x
+	 * @param y the start geo y
+	 * @param z the start z
+	 * @param tx the target geo x
+	 * @param ty the target geo y
+	 * @param tz the target z
+	 * @return the index of the target cell, {@code -1} if no path is found
+	 */
+	public final int findPath(int x, int y, int z, int tx, int ty, int tz)
 	{
 		_timeStamp = System.currentTimeMillis();
 		_baseX = x + ((tx - x - _mapSize) / 2); // Middle of the line (x,y) - (tx,ty).
@@ -64,45 +125,38 @@ public class CellNodeBuffer
 		_targetX = tx;
 		_targetY = ty;
 		_targetZ = tz;
+		_heapSize = 0;
+		_order = 0;
+		if (++_stamp == 0)
+		{
+			Arrays.fill(_stamps, 0);
+			_stamp = 1;
+		}
+		
 		_current = getNode(x, y, z);
-		_current.setCost(getCost(x, y, z, Config.HIGH_WEIGHT));
+		_costs[_current] = (float) getCost(x, y, z, Config.HIGH_WEIGHT);
 		
 		for (int count = 0; count < MAX_ITERATIONS; count++)
 		{
-			if ((_current.getLoc().getNodeX() == _targetX) && (_current.getLoc().getNodeY() == _targetY) && (Math.abs(_current.getLoc().getZ() - _targetZ) < 64))
+			if ((getNodeX(_current) == _targetX) && (getNodeY(_current) == _targetY) && (Math.abs(_heights[_current] - _targetZ) < 64))
 			{
 				return _current; // Found.
 			}
 			
 			getNeighbors();
-			if (_current.getNext() == null)
+			if (_heapSize == 0)
 			{
-				return null; // No more ways.
+				return -1; // No more ways.
 			}
 			
-			_current = _current.getNext();
+			_current = poll();
 		}
-		return null;
+		return -1;
 	}
 	
 	public void free()
 	{
-		_current = null;
-		
-		CellNode node;
-		for (int i = 0; i < _mapSize; i++)
-		{
-			for (int j = 0; j < _mapSize; j++)
-			{
-				node = _buffer[i][j];
-				if (node != null)
-				{
-					node.free();
-				}
-			}
-		}
-		
-		_lock.unlock();
+		_current = -1;
 		_lastElapsedTime = System.currentTimeMillis() - _timeStamp;
 	}
 	
@@ -111,67 +165,115 @@ public class CellNodeBuffer
 		return _lastElapsedTime;
 	}
 	
-	public final List<CellNode> debugPath()
+	/**
+	 * @param node the cell index
+	 * @return the geo x of the cell
+	 */
+	public final int getNodeX(int node)
+	{
+		return _baseX + (node / _mapSize);
+	}
+	
+	/**
+	 * @param node the cell index
+	 * @return the geo y of the cell
+	 */
+	public final int getNodeY(int node)
+	{
+		return _baseY + (node % _mapSize);
+	}
+	
+	/**
+	 * @param node the cell index
+	 * @return the index of the cell this cell was reached from, {@code -1} for the start cell
+	 */
+	public final int getParent(int node)
+	{
+		final int direction = (_cells[node] >> 4) & 0x0F;
+		if (direction == 0)
+		{
+			return -1;
+		}
+		return node + (PARENT_X[direction] * _mapSize) + PARENT_Y[direction];
+	}
+	
+	public final float getCost(int node)
+	{
+		return _costs[node];
+	}
+	
+	/**
+	 * @param node the cell index
+	 * @return a new location for the cell
+	 */
+	public final NodeLoc getLoc(int node)
+	{
+		return new NodeLoc(getNodeX(node), getNodeY(node), _heights[node], _cells[node] & Cell.NSWE_ALL);
+	}
+	
+	/**
+	 * Marks the cells of the last path with a negative cost, used to display the search.
+	 * @return the cells of the last path, followed by the other cells with a cost
+	 */
+	public final int[] debugPath()
 	{
-		final List<CellNode> result = new LinkedList<>();
-		for (CellNode n = _current; n.getParent() != null; n = (CellNode) n.getParent())
+		int size = 0;
+		final int[] result = new int[_stamps.length];
+		for (int node = _current; getParent(node) >= 0; node = getParent(node))
 		{
-			result.add(n);
-			n.setCost(-n.getCost());
+			result[size++] = node;
+			_costs[node] = -_costs[node];
 		}
 		
-		for (int i = 0; i < _mapSize; i++)
+		for (int node = 0; node < _stamps.length; node++)
 		{
-			for (int j = 0; j < _mapSize; j++)
+			if ((_stamps[node] != _stamp) || (_costs[node] <= 0))
 			{
-				final CellNode n = _buffer[i][j];
-				if ((n == null) || !n.isInUse() || (n.getCost() <= 0))
-				{
-					continue;
-				}
-				
-				result.add(n);
+				continue;
 			}
+			
+			result[size++] = node;
 		}
-		return result;
+		return Arrays.copyOf(result, size);
 	}
 	
 	private void getNeighbors()
 	{
-		if (_current.getLoc().canGoNone())
+		final int nswe = _cells[_current] & Cell.NSWE_ALL;
+		if (nswe == 0)
 		{
 			return;
 		}
 		
-		final int x = _current.getLoc().getNodeX();
-		final int y = _current.getLoc().getNodeY();
-		final int z = _current.getLoc().getZ();
+		final int x = getNodeX(_current);
+		final int y = getNodeY(_current);
+		final int z = _heights[_current];
 		
-		CellNode nodeE = null;
-		CellNode nodeS = null;
-		CellNode nodeW = null;
-		CellNode nodeN = null;
+		int nodeE = -1;
+		int nodeS = -1;
+		int nodeW = -1;
+		int nodeN = -1;
 		
 		// East
-		if (_current.getLoc().canGoEast())
+		if ((nswe & Cell.NSWE_EAST) != 0)
 		{
 			nodeE = addNode(x + 1, y, z, false);
 		}
 		
 		// South
-		if (_current.getLoc().canGoSouth())
+		if ((nswe & Cell.NSWE_SOUTH) != 0)
 		{
 			nodeS = addNode(x, y + 1, z, false);
 		}
 		
 		// West
-		if (_current.getLoc().canGoWest())
+		if ((nswe & Cell.NSWE_WEST) != 0)
 		{
 			nodeW = addNode(x - 1, y, z, false);
 		}
 		
 		// North
-		if (_current.getLoc().canGoNorth())
+		if ((nswe & Cell.NSWE_NORTH) != 0)
 		{
 			nodeN = addNode(x, y - 1, z, false);
 		}
@@ -182,85 +284,105 @@ public class CellNodeBuffer
 		}
 		
 		// SouthEast
-		if ((nodeE != null) && (nodeS != null) && nodeE.getLoc().canGoSouth() && nodeS.getLoc().canGoEast())
+		if ((nodeE >= 0) && (nodeS >= 0) && canGo(nodeE, Cell.NSWE_SOUTH) && canGo(nodeS, Cell.NSWE_EAST))
 		{
 			addNode(x + 1, y + 1, z, true);
 		}
 		
 		// SouthWest
-		if ((nodeS != null) && (nodeW != null) && nodeW.getLoc().canGoSouth() && nodeS.getLoc().canGoWest())
+		if ((nodeS >= 0) && (nodeW >= 0) && canGo(nodeW, Cell.NSWE_SOUTH) && canGo(nodeS, Cell.NSWE_WEST))
 		{
 			addNode(x - 1, y + 1, z, true);
 		}
 		
 		// NorthEast
-		if ((nodeN != null) && (nodeE != null) && nodeE.getLoc().canGoNorth() && nodeN.getLoc().canGoEast())
+		if ((nodeN >= 0) && (nodeE >= 0) && canGo(nodeE, Cell.NSWE_NORTH) && canGo(nodeN, Cell.NSWE_EAST))
 		{
 			addNode(x + 1, y - 1, z, true);
 		}
 		
 		// NorthWest
-		if ((nodeN != null) && (nodeW != null) && nodeW.getLoc().canGoNorth() && nodeN.getLoc().canGoWest())
+		if ((nodeN >= 0) && (nodeW >= 0) && canGo(nodeW, Cell.NSWE_NORTH) && canGo(nodeN, Cell.NSWE_WEST))
 		{
 			addNode(x - 1, y - 1, z, true);
 		}
 	}
 	
-	private final CellNode getNode(int x, int y, int z)
+	private final boolean canGo(int node, int nswe)
+	{
+		return (_cells[node] & nswe) != 0;
+	}
+	
+	/**
+	 * Gets the cell at the given geo coordinates, reading its NSWE and height from the geodata on first use in this search.
+	 * @param x the geo x
+	 * @param y the geo y
+	 * @param z the z used to find the nearest layer
+	 * @return the cell index, {@code -1} if outside of this buffer
+	 */
+	private final int getNode(int x, int y, int z)
 	{
 		final int aX = x - _baseX;
 		if ((aX < 0) || (aX >= _mapSize))
 		{
-			return null;
+			return -1;
 		}
 		
 		final int aY = y - _baseY;
 		if ((aY < 0) || (aY >= _mapSize))
 		{
-			return null;
+			return -1;
 		}
 		
-		CellNode result = _buffer[aX][aY];
-		if (result == null)
+		final int node = (aX * _mapSize) + aY;
+		if (_stamps[node] != _stamp)
 		{
-			result = new CellNode(new NodeLoc(x, y, z));
-			_buffer[aX][aY] = result;
-		}
-		else if (!result.isInUse())
-		{
-			result.setInUse();
-			// Re-init node if needed.
-			if (result.getLoc() != null)
+			final GeoEngine geoEngine = GeoEngine.getInstance();
+			int nswe = 0;
+			if (geoEngine.checkNearestNswe(x, y, z, Cell.NSWE_NORTH))
+			{
+				nswe |= Cell.NSWE_NORTH;
+			}
+			if (geoEngine.checkNearestNswe(x, y, z, Cell.NSWE_EAST))
+			{
+				nswe |= Cell.NSWE_EAST;
+			}
+			if (geoEngine.checkNearestNswe(x, y, z, Cell.NSWE_SOUTH))
 			{
-				result.getLoc().set(x, y, z);
+				nswe |= Cell.NSWE_SOUTH;
 			}
-			else
+			if (geoEngine.checkNearestNswe(x, y, z, Cell.NSWE_WEST))
 			{
-				result.setLoc(new NodeLoc(x, y, z));
+				nswe |= Cell.NSWE_WEST;
 			}
+			
+			_stamps[node] = _stamp;
+			_heights[node] = (short) geoEngine.getNearestZ(x, y, z);
+			_cells[node] = (byte) nswe;
+			_costs[node] = -1000;
 		}
 		
-		return result;
+		return node;
 	}
 	
-	private final CellNode addNode(int x, int y, int z, boolean diagonal)
+	private final int addNode(int x, int y, int z, boolean diagonal)
 	{
-		final CellNode newNode = getNode(x, y, z);
-		if (newNode == null)
+		final int newNode = getNode(x, y, z);
+		if (newNode < 0)
 		{
-			return null;
+			return -1;
 		}
-		if (newNode.getCost() >= 0)
+		if (_costs[newNode] >= 0)
 		{
 			return newNode;
 		}
 		
-		final int geoZ = newNode.getLoc().getZ();
+		final int geoZ = _heights[newNode];
 		
-		final int stepZ = Math.abs(geoZ - _current.getLoc().getZ());
+		final int stepZ = Math.abs(geoZ - _heights[_current]);
 		float weight = diagonal ? Config.DIAGONAL_WEIGHT : Config.LOW_WEIGHT;
 		
-		if (!newNode.getLoc().canGoAll() || (stepZ > 16))
+		if (((_cells[newNode] & Cell.NSWE_ALL) != Cell.NSWE_ALL) || (stepZ > 16))
 		{
 			weight = Config.HIGH_WEIGHT;
 		}
@@ -281,36 +403,29 @@ public class CellNodeBuffer
 			weight = Config.MEDIUM_WEIGHT;
 		}
 		
-		newNode.setParent(_current);
-		newNode.setCost(getCost(x, y, geoZ, weight));
+		setParent(newNode, x, y);
+		_costs[newNode] = (float) getCost(x, y, geoZ, weight);
+		offer(newNode);
 		
-		CellNode node = _current;
-		int count = 0;
-		while ((node.getNext() != null) && (count < (MAX_ITERATIONS * 4)))
-		{
-			count++;
-			if (node.getNext().getCost() > newNode.getCost())
-			{
-				// Insert node into a chain.
-				newNode.setNext(node.getNext());
-				break;
-			}
-			node = node.getNext();
-		}
-		if (count == (MAX_ITERATIONS * 4))
+		return newNode;
+	}
+	
+	private final void setParent(int node, int x, int y)
+	{
+		final int dX = getNodeX(_current) - x;
+		final int dY = getNodeY(_current) - y;
+		int direction = 1;
+		while ((PARENT_X[direction] != dX) || (PARENT_Y[direction] != dY))
 		{
-			System.err.println("Pathfinding: too long loop detected, cost:" + newNode.getCost());
+			direction++;
 		}
-		
-		node.setNext(newNode); // Add last.
-		
-		return newNode;
+		_cells[node] = (byte) ((_cells[node] & Cell.NSWE_ALL) | (direction << 4));
 	}
 	
 	private final boolean isHighWeight(int x, int y, int z)
 	{
-		final CellNode result = getNode(x, y, z);
-		return (result == null) || !result.getLoc().canGoAll() || (Math.abs(result.getLoc().getZ() - z) > 16);
+		final int node = getNode(x, y, z);
+		return (node < 0) || ((_cells[node] & Cell.NSWE_ALL) != Cell.NSWE_ALL) || (Math.abs(_heights[node] - z) > 16);
 	}
 	
 	private final double getCost(int x, int y, int z, float weight)
@@ -332,4 +447,77 @@ public class CellNodeBuffer
 		
 		return result;
 	}
+	
+	/**
+	 * Heap entries are compared by cost, then by insertion order, so cells of equal cost are visited in the order they were added.
+	 * @param a the first heap position
+	 * @param b the second heap position
+	 * @return {@code true} if the entry at position a is visited before the entry at position b
+	 */
+	private final boolean isBefore(int a, int b)
+	{
+		final float costA = _costs[_heap[a]];
+		final float costB = _costs[_heap[b]];
+		return (costA < costB) || ((costA == costB) && (_heapOrders[a] < _heapOrders[b]));
+	}
+	
+	private final void swap(int a, int b)
+	{
+		final int node = _heap[a];
+		_heap[a] = _heap[b];
+		_heap[b] = node;
+		final int order = _heapOrders[a];
+		_heapOrders[a] = _heapOrders[b];
+		_heapOrders[b] = order;
+	}
+	
+	private final void offer(int node)
+	{
+		int position = _heapSize++;
+		_heap[position] = node;
+		_heapOrders[position] = _order++;
+		while (position > 0)
+		{
+			final int parent = (position - 1) >> 1;
+			if (!isBefore(position, parent))
+			{
+				break;
+			}
+			swap(position, parent);
+			position = parent;
+		}
+	}
+	
+	private final int poll()
+	{
+		final int result = _heap[0];
+		_heapSize--;
+		if (_heapSize > 0)
+		{
+			_heap[0] = _heap[_heapSize];
+			_heapOrders[0] = _heapOrders[_heapSize];
+			int position = 0;
+			while (true)
+			{
+				final int left = (position << 1) + 1;
+				if (left >= _heapSize)
+				{
+					break;
+				}
+				
+				int child = left;
+				if (((left + 1) < _heapSize) && isBefore(left + 1, left))
+				{
+					child = left + 1;
+				}
+				if (!isBefore(child, position))
+				{
+					break;
+				}
+				swap(position, child);
+				position = child;
+			}
+		}
+		return result;
+	}
 }
\ No newline at end of file
@@ -16,7 +16,6 @@
  */
 package org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
@@ -26,9 +25,10 @@ import java.util.logging.Logger;
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.util.StringUtil;
 import org.l2jmobius.gameserver.geoengine.GeoEngine;
-import org.l2jmobius.gameserver.geoengine.pathfinding.AbstractNode;
 import org.l2jmobius.gameserver.geoengine.pathfinding.AbstractNodeLoc;
 import org.l2jmobius.gameserver.geoengine.pathfinding.PathFinding;
+import org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes.ClusterPathFinding;
+import org.l2jmobius.gameserver.geoengine.pathfinding.utils.BufferPool;
 import org.l2jmobius.gameserver.instancemanager.IdManager;
 import org.l2jmobius.gameserver.model.instancezone.Instance;
 import org.l2jmobius.gameserver.model.item.instance.Item;
@@ -43,6 +43,8 @@ public class CellPathFinding extends PathFinding
 	private BufferInfo[] _allBuffers;
 	private int _findSuccess = 0;
 	private int _findFails = 0;
+	private int _clusterFindSuccess = 0;
+	private int _clusterFindFails = 0;
 	private int _postFilterUses = 0;
 	private int _postFilterPlayableUses = 0;
 	private int _postFilterPasses = 0;
@@ -102,68 +104,22 @@ public class CellPathFinding extends PathFinding
 			return null;
 		}
 		final int gtz = GeoEngine.getInstance().getHeight(tx, ty, tz);
-		final CellNodeBuffer buffer = alloc(64 + (2 * Math.max(Math.abs(gx - gtx), Math.abs(gy - gty))), playable);
-		if (buffer == null)
-		{
-			return null;
-		}
 		
 		final boolean debug = Config.DEBUG_PATH && playable;
 		
-		if (debug)
-		{
-			if (_debugItems == null)
-			{
-				_debugItems = new LinkedList<>();
-			}
-			else
-			{
-				for (Item item : _debugItems)
-				{
-					item.decayMe();
-				}
-				
-				_debugItems.clear();
-			}
-		}
-		
 		List<AbstractNodeLoc> path = null;
-		try
+		if (Config.HIERARCHICAL_PATHFINDING && ((Math.max(Math.abs(gx - gtx), Math.abs(gy - gty)) * 16) >= Config.HIERARCHICAL_PATHFINDING_DISTANCE))
 		{
-			final CellNode result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
-			
-			if (debug)
-			{
-				for (CellNode n : buffer.debugPath())
-				{
-					if (n.getCost() < 0)
-					{
-						dropDebugItem(1831, (int) (-n.getCost() * 10), n.getLoc());
-					}
-					else
-					{
-						// Known nodes.
-						dropDebugItem(57, (int) (n.getCost() * 10), n.getLoc());
-					}
-				}
-			}
-			
-			if (result == null)
-			{
-				_findFails++;
-				return null;
-			}
-			
-			path = constructPath(result);
+			path = findClusterPath(gx, gy, gz, gtx, gty, gtz, playable);
 		}
-		catch (Exception e)
+		if (path == null)
 		{
-			LOGGER.log(Level.WARNING, "", e);
-			return null;
+			path = findCellPath(gx, gy, gz, gtx, gty, gtz, playable, debug);
 		}
-		finally
+		if (path == null)
 		{
-			buffer.free();
+			_findFails++;
+			return null;
 		}
 		
 		if ((path.size() < 3) || (Config.MAX_POSTFILTER_PASSES <= 0))
@@ -235,7 +191,136 @@ public class CellPathFinding extends PathFinding
 		return path;
 	}
 	
-	private List<AbstractNodeLoc> constructPath(AbstractNode<NodeLoc> node)
+	/**
+	 * Searches a path cell by cell.
+	 * @param gx the start geo x
+	 * @param gy the start geo y
+	 * @param gz the start z
+	 * @param gtx the target geo x
+	 * @param gty the target geo y
+	 * @param gtz the target z
+	 * @param playable {@code true} if the path is searched for a playable
+	 * @param debug {@code true} to display the searched cells
+	 * @return the route points after the start, {@code null} if no path is found
+	 */
+	private List<AbstractNodeLoc> findCellPath(int gx, int gy, int gz, int gtx, int gty, int gtz, boolean playable, boolean debug)
+	{
+		final CellNodeBuffer buffer = alloc(64 + (2 * Math.max(Math.abs(gx - gtx), Math.abs(gy - gty))), playable);
+		if (buffer == null)
+		{
+			return null;
+		}
+		
+		if (debug)
+		{
+			if (_debugItems == null)
+			{
+				_debugItems = new LinkedList<>();
+			}
+			else
+			{
+				for (Item item : _debugItems)
+				{
+					item.decayMe();
+				}
+				
+				_debugItems.clear();
+			}
+		}
+		
+		try
+		{
+			final int result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
+			
+			if (debug)
+			{
+				for (int node : buffer.debugPath())
+				{
+					if (buffer.getCost(node) < 0)
+					{
+						dropDebugItem(1831, (int) (-buffer.getCost(node) * 10), buffer.getLoc(node));
+					}
+					else
+					{
+						// Known nodes.
+						dropDebugItem(57, (int) (buffer.getCost(node) * 10), buffer.getLoc(node));
+					}
+				}
+			}
+			
+			if (result < 0)
+			{
+				return null;
+			}
+			
+			return constructPath(buffer, result);
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.WARNING, "", e);
+			return null;
+		}
+		finally
+		{
+			free(buffer);
+		}
+	}
+	
+	/**
+	 * Plans a path from portal to portal with {@link ClusterPathFinding}, then searches cell by cell between portals.<br>
+	 * Each cell search stays within a cluster and its border, so only small buffers are used.
+	 * @param gx the start geo x
+	 * @param gy the start geo y
+	 * @param gz the start z
+	 * @param gtx the target geo x
+	 * @param gty the target geo y
+	 * @param gtz the target z
+	 * @param playable {@code true} if the path is searched for a playable
+	 * @return the route points after the start, {@code null} if the path cannot be planned or a part of it is not found
+	 */
+	private List<AbstractNodeLoc> findClusterPath(int gx, int gy, int gz, int gtx, int gty, int gtz, boolean playable)
+	{
+		final List<NodeLoc> portals = ClusterPathFinding.getInstance().findPath(gx, gy, gz, gtx, gty, gtz);
+		if (portals == null)
+		{
+			return null;
+		}
+		portals.add(new NodeLoc(gtx, gty, gtz));
+		
+		final LinkedList<AbstractNodeLoc> path = new LinkedList<>();
+		int x = gx;
+		int y = gy;
+		int z = gz;
+		for (NodeLoc portal : portals)
+		{
+			final int nextX = portal.getNodeX();
+			final int nextY = portal.getNodeY();
+			if ((Math.abs(nextX - x) <= 1) && (Math.abs(nextY - y) <= 1))
+			{
+				// Neighbor cell, through a cluster border.
+				path.add(portal);
+			}
+			else
+			{
+				final List<AbstractNodeLoc> part = findCellPath(x, y, z, nextX, nextY, portal.getZ(), playable, false);
+				if (part == null)
+				{
+					_clusterFindFails++;
+					return null;
+				}
+				path.addAll(part);
+			}
+			
+			x = nextX;
+			y = nextY;
+			z = path.getLast().getZ();
+		}
+		
+		_clusterFindSuccess++;
+		return path;
+	}
+	
+	private List<AbstractNodeLoc> constructPath(CellNodeBuffer buffer, int node)
 	{
 		final LinkedList<AbstractNodeLoc> path = new LinkedList<>();
 		int previousDirectionX = Integer.MIN_VALUE;
@@ -243,13 +328,15 @@ public class CellPathFinding extends PathFinding
 		int directionX;
 		int directionY;
 		
-		AbstractNode<NodeLoc> tempNode = node;
-		while (tempNode.getParent() != null)
+		int tempNode = node;
+		int parent = buffer.getParent(tempNode);
+		while (parent >= 0)
 		{
-			if (!Config.ADVANCED_DIAGONAL_STRATEGY && (tempNode.getParent().getParent() != null))
+			final int grandParent = buffer.getParent(parent);
+			if (!Config.ADVANCED_DIAGONAL_STRATEGY && (grandParent >= 0))
 			{
-				final int tmpX = tempNode.getLoc().getNodeX() - tempNode.getParent().getParent().getLoc().getNodeX();
-				final int tmpY = tempNode.getLoc().getNodeY() - tempNode.getParent().getParent().getLoc().getNodeY();
+				final int tmpX = buffer.getNodeX(tempNode) - buffer.getNodeX(grandParent);
+				final int tmpY = buffer.getNodeY(tempNode) - buffer.getNodeY(grandParent);
 				if (Math.abs(tmpX) == Math.abs(tmpY))
 				{
 					directionX = tmpX;
@@ -257,14 +344,14 @@ public class CellPathFinding extends PathFinding
 				}
 				else
 				{
-					directionX = tempNode.getLoc().getNodeX() - tempNode.getParent().getLoc().getNodeX();
-					directionY = tempNode.getLoc().getNodeY() - tempNode.getParent().getLoc().getNodeY();
+					directionX = buffer.getNodeX(tempNode) - buffer.getNodeX(parent);
+					directionY = buffer.getNodeY(tempNode) - buffer.getNodeY(parent);
 				}
 			}
 			else
 			{
-				directionX = tempNode.getLoc().getNodeX() - tempNode.getParent().getLoc().getNodeX();
-				directionY = tempNode.getLoc().getNodeY() - tempNode.getParent().getLoc().getNodeY();
+				directionX = buffer.getNodeX(tempNode) - buffer.getNodeX(parent);
+				directionY = buffer.getNodeY(tempNode) - buffer.getNodeY(parent);
 			}
 			
 			// Only add a new route point if moving direction changes.
@@ -273,66 +360,71 @@ public class CellPathFinding extends PathFinding
 				previousDirectionX = directionX;
 				previousDirectionY = directionY;
 				
-				path.addFirst(tempNode.getLoc());
-				tempNode.setLoc(null);
+				path.addFirst(buffer.getLoc(tempNode));
 			}
 			
-			tempNode = tempNode.getParent();
+			tempNode = parent;
+			parent = grandParent;
 		}
 		
 		return path;
 	}
 	
+	/**
+	 * Takes an idle buffer able to hold the requested size, without locking.<br>
+	 * Buffers are created on first use, up to the count configured for their size. When all of them are in use, a temporary buffer is created and counted as an overflow.
+	 * @param size the minimum buffer size
+	 * @param playable {@code true} if the path is searched for a playable
+	 * @return the buffer, {@code null} if no buffer size is large enough
+	 */
 	private CellNodeBuffer alloc(int size, boolean playable)
 	{
-		CellNodeBuffer current = null;
 		for (BufferInfo i : _allBuffers)
 		{
 			if (i.mapSize >= size)
 			{
-				for (CellNodeBuffer buf : i.bufs)
+				final CellNodeBuffer buffer = i.pool.acquire();
+				if (buffer != null)
 				{
-					if (buf.lock())
-					{
-						i.uses++;
-						if (playable)
-						{
-							i.playableUses++;
-						}
-						i.elapsed += buf.getElapsedTime();
-						current = buf;
-						break;
-					}
-				}
-				if (current != null)
-				{
-					break;
-				}
-				
-				// Not found, allocate temporary buffer.
-				current = new CellNodeBuffer(i.mapSize);
-				current.lock();
-				if (i.bufs.size() < i.count)
-				{
-					i.bufs.add(current);
 					i.uses++;
 					if (playable)
 					{
 						i.playableUses++;
 					}
-					break;
+					i.elapsed += buffer.getElapsedTime();
+					return buffer;
 				}
-				
+			}
+		}
+		
+		// All buffers are in use, allocate temporary buffer.
+		for (BufferInfo i : _allBuffers)
+		{
+			if (i.mapSize >= size)
+			{
 				i.overflows++;
 				if (playable)
 				{
 					i.playableOverflows++;
-					// System.err.println("Overflow, size requested: " + size + " playable:"+playable);
 				}
+				return new CellNodeBuffer(i.mapSize);
 			}
 		}
 		
-		return current;
+		return null;
+	}
+	
+	private void free(CellNodeBuffer buffer)
+	{
+		buffer.free();
+		for (BufferInfo i : _allBuffers)
+		{
+			if (i.mapSize == buffer.getMapSize())
+			{
+				i.pool.release(buffer);
+				return;
+			}
+		}
 	}
 	
 	private void dropDebugItem(int itemId, int num, AbstractNodeLoc loc)
@@ -346,8 +438,7 @@ public class CellPathFinding extends PathFinding
 	private static class BufferInfo
 	{
 		final int mapSize;
-		final int count;
-		List<CellNodeBuffer> bufs;
+		final BufferPool<CellNodeBuffer> pool;
 		int uses = 0;
 		int playableUses = 0;
 		int overflows = 0;
@@ -357,15 +448,14 @@ public class CellPathFinding extends PathFinding
 		public BufferInfo(int size, int cnt)
 		{
 			mapSize = size;
-			count = cnt;
-			bufs = new ArrayList<>(count);
+			pool = new BufferPool<>(cnt, () -> new CellNodeBuffer(size));
 		}
 		
 		@Override
 		public String toString()
 		{
 			final StringBuilder stat = new StringBuilder(100);
-			StringUtil.append(stat, String.valueOf(mapSize), "x", String.valueOf(mapSize), " num:", String.valueOf(bufs.size()), "/", String.valueOf(count), " uses:", String.valueOf(uses), "/", String.valueOf(playableUses));
+			StringUtil.append(stat, String.valueOf(mapSize), "x", String.valueOf(mapSize), " num:", String.valueOf(pool.getCreatedCount()), "/", String.valueOf(pool.getCapacity()), " uses:", String.valueOf(uses), "/", String.valueOf(playableUses));
 			if (uses > 0)
 			{
 				StringUtil.append(stat, " total/avg(ms):", String.valueOf(elapsed), "/", String.format("%1.2f", (double) elapsed / uses));
@@ -393,6 +483,10 @@ public class CellPathFinding extends PathFinding
 			StringUtil.append(stat, " total/avg(ms):", String.valueOf(_postFilterElapsed), "/", String.format("%1.2f", (double) _postFilterElapsed / _postFilterUses), " passes total/avg:", String.valueOf(_postFilterPasses), "/", String.format("%1.1f", (double) _postFilterPasses / _postFilterUses), System.lineSeparator());
 		}
 		StringUtil.append(stat, "Pathfind success/fail:", String.valueOf(_findSuccess), "/", String.valueOf(_findFails));
+		if (Config.HIERARCHICAL_PATHFINDING)
+		{
+			StringUtil.append(stat, " portal success/fail:", String.valueOf(_clusterFindSuccess), "/", String.valueOf(_clusterFindFails), System.lineSeparator(), ClusterPathFinding.getInstance().getStat());
+		}
 		result[result.length - 1] = stat.toString();
 		
 		return result;
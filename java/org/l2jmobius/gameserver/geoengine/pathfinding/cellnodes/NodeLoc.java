@@ -38,6 +38,24 @@ public class NodeLoc extends AbstractNodeLoc
 		set(x, y, z);
 	}
 	
+	/**
+	 * Creates a location from already known geodata values.
+	 * @param x the geo x
+	 * @param y the geo y
+	 * @param geoHeight the height of the nearest layer
+	 * @param nswe the NSWE flags of the nearest layer
+	 */
+	public NodeLoc(int x, int y, int geoHeight, int nswe)
+	{
+		_x = x;
+		_y = y;
+		_goNorth = (nswe & Cell.NSWE_NORTH) != 0;
+		_goEast = (nswe & Cell.NSWE_EAST) != 0;
+		_goSouth = (nswe & Cell.NSWE_SOUTH) != 0;
+		_goWest = (nswe & Cell.NSWE_WEST) != 0;
+		_geoHeight = geoHeight;
+	}
+	
 	public void set(int x, int y, int z)
 	{
 		_x = x;
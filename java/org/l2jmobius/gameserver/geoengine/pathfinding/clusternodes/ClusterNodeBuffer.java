@@ -0,0 +1,316 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes;
+
+import java.util.Arrays;
+
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
+import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
+
+/**
+ * Cost search limited to the cells of one cluster, see {@link RegionGraph}.<br>
+ * Computes the walking cost from a cell to the reachable cells of its cluster, used to connect the portals of a cluster and to connect path ends to the portals of their clusters.<br>
+ * Cells follow the nearest layer of the cell they are reached from, as in {@link org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes.CellNodeBuffer}.<br>
+ * A buffer is used by one thread at a time.
+ * @author Mobius
+ */
+public class ClusterNodeBuffer
+{
+	private static final int SIZE = RegionGraph.CLUSTER_SIZE;
+	private static final int CELLS = SIZE * SIZE;
+	private static final float DIAGONAL_COST = (float) Math.sqrt(2);
+	
+	// Cells.
+	private final int[] _stamps = new int[CELLS];
+	private final int[] _closedStamps = new int[CELLS];
+	private final int[] _targetStamps = new int[CELLS];
+	private final short[] _heights = new short[CELLS];
+	private final byte[] _nswe = new byte[CELLS];
+	private final float[] _costs = new float[CELLS];
+	
+	// Open set, a cell is added again when a lower cost is found.
+	private final int[] _heap = new int[CELLS * 8];
+	private final float[] _heapCosts = new float[CELLS * 8];
+	private int _heapSize = 0;
+	
+	private int _stamp = 0;
+	private int _targets = 0;
+	
+	private IRegion _region;
+	private int _baseX = 0;
+	private int _baseY = 0;
+	
+	/**
+	 * Starts a new search in the cluster of the given cell.
+	 * @param x the geo x of a cell of the cluster
+	 * @param y the geo y of a cell of the cluster
+	 */
+	public void init(int x, int y)
+	{
+		_region = GeoEngine.getInstance().getRegion(x, y);
+		_baseX = x - (x % SIZE);
+		_baseY = y - (y % SIZE);
+		_heapSize = 0;
+		_targets = 0;
+		if (++_stamp == 0)
+		{
+			Arrays.fill(_stamps, 0);
+			Arrays.fill(_closedStamps, 0);
+			Arrays.fill(_targetStamps, 0);
+			_stamp = 1;
+		}
+	}
+	
+	/**
+	 * Adds a cell the search should reach. The search stops once all targets are reached, or searches the whole cluster when there are no targets.
+	 * @param x the geo x
+	 * @param y the geo y
+	 */
+	public void addTarget(int x, int y)
+	{
+		final int node = getIndex(x, y);
+		if ((node >= 0) && (_targetStamps[node] != _stamp))
+		{
+			_targetStamps[node] = _stamp;
+			_targets++;
+		}
+	}
+	
+	/**
+	 * Computes the costs from the given cell, which must be in the cluster given to {@link #init(int, int)}.
+	 * @param x the geo x
+	 * @param y the geo y
+	 * @param z the z used to find the nearest layer
+	 */
+	public void search(int x, int y, int z)
+	{
+		final int start = getNode(x, y, z);
+		if (start < 0)
+		{
+			return;
+		}
+		
+		_costs[start] = 0;
+		offer(start, 0);
+		while (_heapSize > 0)
+		{
+			final float cost = _heapCosts[0];
+			final int node = poll();
+			if ((_closedStamps[node] == _stamp) || (cost > _costs[node]))
+			{
+				continue;
+			}
+			
+			_closedStamps[node] = _stamp;
+			if ((_targetStamps[node] == _stamp) && (--_targets == 0))
+			{
+				return;
+			}
+			
+			getNeighbors(node);
+		}
+	}
+	
+	/**
+	 * @param x the geo x
+	 * @param y the geo y
+	 * @param z the z of the expected layer
+	 * @return the cost of the cell from the searched cell, {@code -1} if the cell was not reached on a layer near the given z
+	 */
+	public float getCost(int x, int y, int z)
+	{
+		final int node = getIndex(x, y);
+		if ((node < 0) || (_closedStamps[node] != _stamp) || (Math.abs(_heights[node] - z) > 16))
+		{
+			return -1;
+		}
+		return _costs[node];
+	}
+	
+	private void getNeighbors(int node)
+	{
+		final int nswe = _nswe[node];
+		if (nswe == 0)
+		{
+			return;
+		}
+		
+		final int x = _baseX + (node / SIZE);
+		final int y = _baseY + (node % SIZE);
+		final int z = _heights[node];
+		
+		int nodeE = -1;
+		int nodeS = -1;
+		int nodeW = -1;
+		int nodeN = -1;
+		
+		if ((nswe & Cell.NSWE_EAST) != 0)
+		{
+			nodeE = addNode(node, x + 1, y, z, 1);
+		}
+		if ((nswe & Cell.NSWE_SOUTH) != 0)
+		{
+			nodeS = addNode(node, x, y + 1, z, 1);
+		}
+		if ((nswe & Cell.NSWE_WEST) != 0)
+		{
+			nodeW = addNode(node, x - 1, y, z, 1);
+		}
+		if ((nswe & Cell.NSWE_NORTH) != 0)
+		{
+			nodeN = addNode(node, x, y - 1, z, 1);
+		}
+		
+		if ((nodeE >= 0) && (nodeS >= 0) && canGo(nodeE, Cell.NSWE_SOUTH) && canGo(nodeS, Cell.NSWE_EAST))
+		{
+			addNode(node, x + 1, y + 1, z, DIAGONAL_COST);
+		}
+		if ((nodeS >= 0) && (nodeW >= 0) && canGo(nodeW, Cell.NSWE_SOUTH) && canGo(nodeS, Cell.NSWE_WEST))
+		{
+			addNode(node, x - 1, y + 1, z, DIAGONAL_COST);
+		}
+		if ((nodeN >= 0) && (nodeE >= 0) && canGo(nodeE, Cell.NSWE_NORTH) && canGo(nodeN, Cell.NSWE_EAST))
+		{
+			addNode(node, x + 1, y - 1, z, DIAGONAL_COST);
+		}
+		if ((nodeN >= 0) && (nodeW >= 0) && canGo(nodeW, Cell.NSWE_NORTH) && canGo(nodeN, Cell.NSWE_WEST))
+		{
+			addNode(node, x - 1, y - 1, z, DIAGONAL_COST);
+		}
+	}
+	
+	private boolean canGo(int node, int nswe)
+	{
+		return (_nswe[node] & nswe) != 0;
+	}
+	
+	private int getIndex(int x, int y)
+	{
+		final int aX = x - _baseX;
+		final int aY = y - _baseY;
+		if ((aX < 0) || (aX >= SIZE) || (aY < 0) || (aY >= SIZE))
+		{
+			return -1;
+		}
+		return (aX * SIZE) + aY;
+	}
+	
+	/**
+	 * Gets the cell at the given geo coordinates, reading its NSWE and height from the geodata on first use in this search.
+	 * @param x the geo x
+	 * @param y the geo y
+	 * @param z the z used to find the nearest layer
+	 * @return the cell index, {@code -1} if outside of the cluster
+	 */
+	private int getNode(int x, int y, int z)
+	{
+		final int node = getIndex(x, y);
+		if ((node >= 0) && (_stamps[node] != _stamp))
+		{
+			int nswe = 0;
+			if (_region.checkNearestNswe(x, y, z, Cell.NSWE_NORTH))
+			{
+				nswe |= Cell.NSWE_NORTH;
+			}
+			if (_region.checkNearestNswe(x, y, z, Cell.NSWE_EAST))
+			{
+				nswe |= Cell.NSWE_EAST;
+			}
+			if (_region.checkNearestNswe(x, y, z, Cell.NSWE_SOUTH))
+			{
+				nswe |= Cell.NSWE_SOUTH;
+			}
+			if (_region.checkNearestNswe(x, y, z, Cell.NSWE_WEST))
+			{
+				nswe |= Cell.NSWE_WEST;
+			}
+			
+			_stamps[node] = _stamp;
+			_heights[node] = (short) _region.getNearestZ(x, y, z);
+			_nswe[node] = (byte) nswe;
+			_costs[node] = Float.MAX_VALUE;
+		}
+		return node;
+	}
+	
+	private int addNode(int from, int x, int y, int z, float distance)
+	{
+		final int node = getNode(x, y, z);
+		if ((node < 0) || (_closedStamps[node] == _stamp))
+		{
+			return node;
+		}
+		
+		final int dZ = _heights[node] - _heights[from];
+		final float cost = _costs[from] + (dZ == 0 ? distance : (float) Math.sqrt((distance * distance) + ((dZ * dZ) / 256.0)));
+		if (cost < _costs[node])
+		{
+			_costs[node] = cost;
+			offer(node, cost);
+		}
+		return node;
+	}
+	
+	private void offer(int node, float cost)
+	{
+		int position = _heapSize++;
+		while (position > 0)
+		{
+			final int parent = (position - 1) >> 1;
+			if (_heapCosts[parent] <= cost)
+			{
+				break;
+			}
+			_heap[position] = _heap[parent];
+			_heapCosts[position] = _heapCosts[parent];
+			position = parent;
+		}
+		_heap[position] = node;
+		_heapCosts[position] = cost;
+	}
+	
+	private int poll()
+	{
+		final int result = _heap[0];
+		final int node = _heap[--_heapSize];
+		final float cost = _heapCosts[_heapSize];
+		int position = 0;
+		while (true)
+		{
+			int child = (position << 1) + 1;
+			if (child >= _heapSize)
+			{
+				break;
+			}
+			if (((child + 1) < _heapSize) && (_heapCosts[child + 1] < _heapCosts[child]))
+			{
+				child++;
+			}
+			if (_heapCosts[child] >= cost)
+			{
+				break;
+			}
+			_heap[position] = _heap[child];
+			_heapCosts[position] = _heapCosts[child];
+			position = child;
+		}
+		_heap[position] = node;
+		_heapCosts[position] = cost;
+		return result;
+	}
+}
\ No newline at end of file
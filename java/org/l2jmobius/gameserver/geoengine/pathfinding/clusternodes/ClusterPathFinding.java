@@ -0,0 +1,233 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.commons.util.StringUtil;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.GeoData;
+import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
+import org.l2jmobius.gameserver.geoengine.pathfinding.cellnodes.NodeLoc;
+import org.l2jmobius.gameserver.geoengine.pathfinding.utils.BufferPool;
+import org.l2jmobius.gameserver.model.World;
+
+/**
+ * Plans long paths over the {@link RegionGraph}s of the loaded geodata regions.<br>
+ * Saved region graphs are loaded on startup. Missing or outdated graphs are built in the background, regions without a graph yet are not planned.
+ * @author Mobius
+ */
+public class ClusterPathFinding
+{
+	private static final Logger LOGGER = Logger.getLogger(ClusterPathFinding.class.getName());
+	
+	private final AtomicReferenceArray<RegionGraph> _graphs = new AtomicReferenceArray<>(GeoData.GEO_REGIONS);
+	private final BufferPool<PortalNodeBuffer> _buffers;
+	private final AtomicInteger _pendingGraphs = new AtomicInteger();
+	private int _uses = 0;
+	private int _fails = 0;
+	private int _overflows = 0;
+	private long _elapsed = 0;
+	
+	protected ClusterPathFinding()
+	{
+		_buffers = new BufferPool<>(Runtime.getRuntime().availableProcessors(), PortalNodeBuffer::new);
+		
+		final Queue<int[]> missing = new ConcurrentLinkedQueue<>();
+		int loaded = 0;
+		for (int regionX = World.TILE_X_MIN; regionX <= World.TILE_X_MAX; regionX++)
+		{
+			for (int regionY = World.TILE_Y_MIN; regionY <= World.TILE_Y_MAX; regionY++)
+			{
+				if (!GeoEngine.getInstance().hasGeoPos(regionX * IRegion.REGION_CELLS_X, regionY * IRegion.REGION_CELLS_Y))
+				{
+					continue;
+				}
+				
+				try
+				{
+					final RegionGraph graph = RegionGraph.load(regionX, regionY);
+					if (graph != null)
+					{
+						_graphs.set(graph.getRegionOffset(), graph);
+						loaded++;
+						continue;
+					}
+				}
+				catch (Exception e)
+				{
+					LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Failed to load " + RegionGraph.getFilePath(regionX, regionY).getFileName() + "!", e);
+				}
+				missing.add(new int[]
+				{
+					regionX,
+					regionY
+				});
+			}
+		}
+		
+		LOGGER.info(getClass().getSimpleName() + ": Loaded " + loaded + " region graphs.");
+		if (missing.isEmpty())
+		{
+			return;
+		}
+		
+		LOGGER.info(getClass().getSimpleName() + ": Building " + missing.size() + " region graphs in the background.");
+		_pendingGraphs.set(missing.size());
+		final long start = System.currentTimeMillis();
+		final int workers = Math.min(missing.size(), Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+		for (int i = 0; i < workers; i++)
+		{
+			ThreadPool.execute(() ->
+			{
+				final RegionGraphBuilder builder = new RegionGraphBuilder();
+				int[] region;
+				while ((region = missing.poll()) != null)
+				{
+					try
+					{
+						final RegionGraph graph = builder.build(region[0], region[1]);
+						if (graph != null)
+						{
+							_graphs.set(graph.getRegionOffset(), graph);
+							graph.save();
+						}
+					}
+					catch (Exception e)
+					{
+						LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Failed to build region graph " + region[0] + "_" + region[1] + "!", e);
+					}
+					
+					if (_pendingGraphs.decrementAndGet() == 0)
+					{
+						LOGGER.info(getClass().getSimpleName() + ": Built region graphs in " + ((System.currentTimeMillis() - start) / 1000) + " seconds.");
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * @param geoX the geo x
+	 * @param geoY the geo y
+	 * @return the graph of the region containing the given cell, {@code null} if it is not available
+	 */
+	public RegionGraph getGraph(int geoX, int geoY)
+	{
+		return _graphs.get(((geoX / IRegion.REGION_CELLS_X) * GeoData.GEO_REGIONS_Y) + (geoY / IRegion.REGION_CELLS_Y));
+	}
+	
+	/**
+	 * @param regionOffset the index of the region in {@link GeoData}
+	 * @return the graph of the region, {@code null} if it is not available
+	 */
+	public RegionGraph getRegionGraph(int regionOffset)
+	{
+		return _graphs.get(regionOffset);
+	}
+	
+	/**
+	 * Plans a path from portal to portal.
+	 * @param x the start geo x
+	 * @param y the start geo y
+	 * @param z the start z
+	 * @param tx the target geo x
+	 * @param ty the target geo y
+	 * @param tz the target z
+	 * @return the portals to walk through, {@code null} if the path cannot be planned
+	 */
+	public List<NodeLoc> findPath(int x, int y, int z, int tx, int ty, int tz)
+	{
+		PortalNodeBuffer buffer = _buffers.acquire();
+		if (buffer == null)
+		{
+			_overflows++;
+			buffer = new PortalNodeBuffer();
+		}
+		
+		final long timeStamp = System.currentTimeMillis();
+		final int[] portals;
+		try
+		{
+			portals = buffer.findPath(x, y, z, tx, ty, tz);
+		}
+		finally
+		{
+			_buffers.release(buffer);
+		}
+		
+		_uses++;
+		_elapsed += System.currentTimeMillis() - timeStamp;
+		if (portals == null)
+		{
+			_fails++;
+			return null;
+		}
+		
+		final List<NodeLoc> result = new ArrayList<>(portals.length);
+		for (int key : portals)
+		{
+			final RegionGraph graph = _graphs.get(PortalNodeBuffer.getRegionOffset(key));
+			final int portal = PortalNodeBuffer.getPortal(key);
+			result.add(new NodeLoc(graph.getGeoX(portal), graph.getGeoY(portal), graph.getZ(portal)));
+		}
+		return result;
+	}
+	
+	public String getStat()
+	{
+		int graphs = 0;
+		int portals = 0;
+		for (int i = 0; i < GeoData.GEO_REGIONS; i++)
+		{
+			final RegionGraph graph = _graphs.get(i);
+			if (graph != null)
+			{
+				graphs++;
+				portals += graph.getPortalCount();
+			}
+		}
+		
+		final StringBuilder stat = new StringBuilder(100);
+		StringUtil.append(stat, "Region graphs:", String.valueOf(graphs), " portals:", String.valueOf(portals), " pending:", String.valueOf(_pendingGraphs.get()), " buffers:", String.valueOf(_buffers.getCreatedCount()), "/", String.valueOf(_buffers.getCapacity()), System.lineSeparator());
+		StringUtil.append(stat, "Portal pathfind uses/fail:", String.valueOf(_uses), "/", String.valueOf(_fails));
+		if (_uses > 0)
+		{
+			StringUtil.append(stat, " total/avg(ms):", String.valueOf(_elapsed), "/", String.format("%1.2f", (double) _elapsed / _uses));
+		}
+		StringUtil.append(stat, " ovf:", String.valueOf(_overflows));
+		return stat.toString();
+	}
+	
+	public static ClusterPathFinding getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final ClusterPathFinding INSTANCE = new ClusterPathFinding();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,345 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes;
+
+import java.util.Arrays;
+
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
+
+/**
+ * Search workspace over the portals of the {@link RegionGraph}s, from a start cell to a target cell.<br>
+ * Visited portals are held in an open addressing table of primitive arrays, so a search does not allocate and does not depend on the size of the world graph.<br>
+ * A portal is identified by its region offset and its index in the region graph.<br>
+ * A buffer is used by one thread at a time, see {@link ClusterPathFinding}.
+ * @author Mobius
+ */
+public class PortalNodeBuffer
+{
+	private static final int CAPACITY_BITS = 14;
+	private static final int CAPACITY = 1 << CAPACITY_BITS;
+	private static final int MAX_NODES = CAPACITY / 2;
+	private static final int HEAP_SIZE = CAPACITY * 4;
+	private static final int PORTAL_BITS = 20;
+	private static final int PORTAL_MASK = (1 << PORTAL_BITS) - 1;
+	private static final int[] SIDES =
+	{
+		Cell.NSWE_EAST,
+		Cell.NSWE_WEST,
+		Cell.NSWE_SOUTH,
+		Cell.NSWE_NORTH
+	};
+	
+	private final ClusterNodeBuffer _clusterBuffer = new ClusterNodeBuffer();
+	
+	// Visited portals.
+	private final int[] _stamps = new int[CAPACITY];
+	private final int[] _keys = new int[CAPACITY];
+	private final float[] _costs = new float[CAPACITY];
+	private final int[] _parents = new int[CAPACITY];
+	private final boolean[] _closed = new boolean[CAPACITY];
+	private int _nodeCount = 0;
+	
+	// Open set, a portal is added again when a lower cost is found.
+	private final int[] _heap = new int[HEAP_SIZE];
+	private final float[] _heapCosts = new float[HEAP_SIZE];
+	private int _heapSize = 0;
+	
+	// Costs from the portals of the target cluster to the target.
+	private float[] _targetCosts = new float[64];
+	
+	private int _stamp = 0;
+	
+	private int _targetX = 0;
+	private int _targetY = 0;
+	
+	/**
+	 * @param x the start geo x
+	 * @param y the start geo y
+	 * @param z the start z
+	 * @param tx the target geo x
+	 * @param ty the target geo y
+	 * @param tz the target z
+	 * @return the portals to go through from start to target in order, {@code null} if no route is found or the start and target share a cluster
+	 */
+	public int[] findPath(int x, int y, int z, int tx, int ty, int tz)
+	{
+		final ClusterPathFinding graphs = ClusterPathFinding.getInstance();
+		final RegionGraph startGraph = graphs.getGraph(x, y);
+		final RegionGraph targetGraph = graphs.getGraph(tx, ty);
+		if ((startGraph == null) || (targetGraph == null))
+		{
+			return null;
+		}
+		
+		final int startCluster = RegionGraph.getCluster(x, y);
+		final int targetCluster = RegionGraph.getCluster(tx, ty);
+		if ((startGraph == targetGraph) && (startCluster == targetCluster))
+		{
+			return null;
+		}
+		
+		_targetX = tx;
+		_targetY = ty;
+		_heapSize = 0;
+		_nodeCount = 0;
+		if (++_stamp == 0)
+		{
+			Arrays.fill(_stamps, 0);
+			_stamp = 1;
+		}
+		
+		// Walking costs between the target and the portals of its cluster.
+		final int targetStart = targetGraph.getClusterStart(targetCluster);
+		final int targetEnd = targetGraph.getClusterEnd(targetCluster);
+		if ((targetEnd - targetStart) > _targetCosts.length)
+		{
+			_targetCosts = new float[targetEnd - targetStart];
+		}
+		_clusterBuffer.init(tx, ty);
+		for (int portal = targetStart; portal < targetEnd; portal++)
+		{
+			_clusterBuffer.addTarget(targetGraph.getGeoX(portal), targetGraph.getGeoY(portal));
+		}
+		_clusterBuffer.search(tx, ty, tz);
+		boolean reachable = false;
+		for (int portal = targetStart; portal < targetEnd; portal++)
+		{
+			_targetCosts[portal - targetStart] = _clusterBuffer.getCost(targetGraph.getGeoX(portal), targetGraph.getGeoY(portal), targetGraph.getZ(portal));
+			reachable |= _targetCosts[portal - targetStart] >= 0;
+		}
+		if (!reachable)
+		{
+			return null;
+		}
+		
+		// Walking costs between the start and the portals of its cluster.
+		final int startOffset = startGraph.getRegionOffset();
+		final int startStart = startGraph.getClusterStart(startCluster);
+		final int startEnd = startGraph.getClusterEnd(startCluster);
+		_clusterBuffer.init(x, y);
+		for (int portal = startStart; portal < startEnd; portal++)
+		{
+			_clusterBuffer.addTarget(startGraph.getGeoX(portal), startGraph.getGeoY(portal));
+		}
+		_clusterBuffer.search(x, y, z);
+		for (int portal = startStart; portal < startEnd; portal++)
+		{
+			final float cost = _clusterBuffer.getCost(startGraph.getGeoX(portal), startGraph.getGeoY(portal), startGraph.getZ(portal));
+			if ((cost >= 0) && !relax(startGraph, startOffset, portal, -1, cost))
+			{
+				return null;
+			}
+		}
+		
+		float bestCost = Float.MAX_VALUE;
+		int best = -1;
+		while (_heapSize > 0)
+		{
+			if (_heapCosts[0] >= bestCost)
+			{
+				break; // No shorter route left.
+			}
+			
+			final int node = poll();
+			if (_closed[node])
+			{
+				continue;
+			}
+			_closed[node] = true;
+			
+			final int key = _keys[node];
+			final int offset = getRegionOffset(key);
+			final RegionGraph graph = graphs.getRegionGraph(offset);
+			final int portal = getPortal(key);
+			final float cost = _costs[node];
+			
+			// Reaching the target from a portal of its cluster.
+			if ((graph == targetGraph) && (portal >= targetStart) && (portal < targetEnd))
+			{
+				final float targetCost = _targetCosts[portal - targetStart];
+				if ((targetCost >= 0) && ((cost + targetCost) < bestCost))
+				{
+					bestCost = cost + targetCost;
+					best = node;
+				}
+			}
+			
+			// Portals of the same cluster.
+			for (int edge = graph.getEdgeStart(portal); edge < graph.getEdgeEnd(portal); edge++)
+			{
+				if (!relax(graph, offset, graph.getEdgeTarget(edge), node, cost + graph.getEdgeCost(edge)))
+				{
+					return null;
+				}
+			}
+			
+			// Portals of neighbor clusters.
+			final int sides = graph.getSides(portal);
+			for (int side : SIDES)
+			{
+				if ((sides & side) == 0)
+				{
+					continue;
+				}
+				
+				final int nextX = graph.getGeoX(portal) + RegionGraph.getOffsetX(side);
+				final int nextY = graph.getGeoY(portal) + RegionGraph.getOffsetY(side);
+				final RegionGraph nextGraph = graphs.getGraph(nextX, nextY);
+				if (nextGraph == null)
+				{
+					continue;
+				}
+				
+				final int nextPortal = nextGraph.findPortal(nextX, nextY, graph.getZ(portal));
+				if ((nextPortal >= 0) && !relax(nextGraph, nextGraph == graph ? offset : nextGraph.getRegionOffset(), nextPortal, node, cost + 1))
+				{
+					return null;
+				}
+			}
+		}
+		
+		if (best < 0)
+		{
+			return null;
+		}
+		
+		int size = 0;
+		for (int node = best; node >= 0; node = _parents[node])
+		{
+			size++;
+		}
+		final int[] result = new int[size];
+		for (int node = best; node >= 0; node = _parents[node])
+		{
+			result[--size] = _keys[node];
+		}
+		return result;
+	}
+	
+	/**
+	 * @param key a portal of the last path
+	 * @return the region offset of the portal
+	 */
+	public static int getRegionOffset(int key)
+	{
+		return key >>> PORTAL_BITS;
+	}
+	
+	/**
+	 * @param key a portal of the last path
+	 * @return the index of the portal in its region graph
+	 */
+	public static int getPortal(int key)
+	{
+		return key & PORTAL_MASK;
+	}
+	
+	/**
+	 * Adds a portal to the open set, or lowers its cost.
+	 * @param graph the region graph of the portal
+	 * @param offset the region offset of the graph
+	 * @param portal the portal
+	 * @param parent the visited portal it is reached from, {@code -1} for the start
+	 * @param cost the cost from the start
+	 * @return {@code false} if the search is too large for this buffer
+	 */
+	private boolean relax(RegionGraph graph, int offset, int portal, int parent, float cost)
+	{
+		final int key = (offset << PORTAL_BITS) | portal;
+		int node = (key * 0x9E3779B9) >>> (32 - CAPACITY_BITS);
+		while ((_stamps[node] == _stamp) && (_keys[node] != key))
+		{
+			node = (node + 1) & (CAPACITY - 1);
+		}
+		
+		if (_stamps[node] != _stamp)
+		{
+			if (++_nodeCount > MAX_NODES)
+			{
+				return false;
+			}
+			_stamps[node] = _stamp;
+			_keys[node] = key;
+			_costs[node] = Float.MAX_VALUE;
+			_closed[node] = false;
+		}
+		
+		if (_closed[node] || (cost >= _costs[node]))
+		{
+			return true;
+		}
+		if (_heapSize == HEAP_SIZE)
+		{
+			return false;
+		}
+		
+		_costs[node] = cost;
+		_parents[node] = parent;
+		final int dX = graph.getGeoX(portal) - _targetX;
+		final int dY = graph.getGeoY(portal) - _targetY;
+		offer(node, cost + (float) Math.sqrt((dX * dX) + (dY * dY)));
+		return true;
+	}
+	
+	private void offer(int node, float cost)
+	{
+		int position = _heapSize++;
+		while (position > 0)
+		{
+			final int parent = (position - 1) >> 1;
+			if (_heapCosts[parent] <= cost)
+			{
+				break;
+			}
+			_heap[position] = _heap[parent];
+			_heapCosts[position] = _heapCosts[parent];
+			position = parent;
+		}
+		_heap[position] = node;
+		_heapCosts[position] = cost;
+	}
+	
+	private int poll()
+	{
+		final int result = _heap[0];
+		final int node = _heap[--_heapSize];
+		final float cost = _heapCosts[_heapSize];
+		int position = 0;
+		while (true)
+		{
+			int child = (position << 1) + 1;
+			if (child >= _heapSize)
+			{
+				break;
+			}
+			if (((child + 1) < _heapSize) && (_heapCosts[child + 1] < _heapCosts[child]))
+			{
+				child++;
+			}
+			if (_heapCosts[child] >= cost)
+			{
+				break;
+			}
+			_heap[position] = _heap[child];
+			_heapCosts[position] = _heapCosts[child];
+			position = child;
+		}
+		_heap[position] = node;
+		_heapCosts[position] = cost;
+		return result;
+	}
+}
\ No newline at end of file
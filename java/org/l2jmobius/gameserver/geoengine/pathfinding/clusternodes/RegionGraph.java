@@ -0,0 +1,328 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
+import org.l2jmobius.gameserver.geoengine.geodata.GeoData;
+import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
+
+/**
+ * Abstract graph of a geodata region, used to plan long paths.<br>
+ * The region is divided in clusters of {@link #CLUSTER_SIZE} * {@link #CLUSTER_SIZE} cells. Each walkable opening on the border of two clusters gets a portal on both sides.<br>
+ * Portals of a cluster are connected by the cost of walking between them inside the cluster. Portals of neighbor clusters, in the same or in another region, are found by position.<br>
+ * Portals are sorted by cluster, edges are sorted by portal.
+ * @author Mobius
+ */
+public class RegionGraph
+{
+	public static final String FILE_NAME_FORMAT = "%d_%d.graph";
+	
+	public static final int CLUSTER_SIZE = 64;
+	public static final int CLUSTERS_X = IRegion.REGION_CELLS_X / CLUSTER_SIZE;
+	public static final int CLUSTERS_Y = IRegion.REGION_CELLS_Y / CLUSTER_SIZE;
+	public static final int CLUSTERS = CLUSTERS_X * CLUSTERS_Y;
+	
+	private static final int FILE_VERSION = 1;
+	
+	private final int _regionX;
+	private final int _regionY;
+	
+	// Portals, with coordinates relative to the region.
+	private final short[] _x;
+	private final short[] _y;
+	private final short[] _z;
+	private final byte[] _sides; // NSWE of the borders crossed by the portal.
+	private final int[] _clusterStarts;
+	
+	// Edges to portals of the same cluster.
+	private final int[] _edgeStarts;
+	private final int[] _edgeTargets;
+	private final float[] _edgeCosts;
+	
+	public RegionGraph(int regionX, int regionY, short[] x, short[] y, short[] z, byte[] sides, int[] clusterStarts, int[] edgeStarts, int[] edgeTargets, float[] edgeCosts)
+	{
+		_regionX = regionX;
+		_regionY = regionY;
+		_x = x;
+		_y = y;
+		_z = z;
+		_sides = sides;
+		_clusterStarts = clusterStarts;
+		_edgeStarts = edgeStarts;
+		_edgeTargets = edgeTargets;
+		_edgeCosts = edgeCosts;
+	}
+	
+	public int getRegionX()
+	{
+		return _regionX;
+	}
+	
+	public int getRegionY()
+	{
+		return _regionY;
+	}
+	
+	/**
+	 * @return the index of the region in {@link GeoData}
+	 */
+	public int getRegionOffset()
+	{
+		return (_regionX * GeoData.GEO_REGIONS_Y) + _regionY;
+	}
+	
+	public int getPortalCount()
+	{
+		return _x.length;
+	}
+	
+	public int getEdgeCount()
+	{
+		return _edgeTargets.length;
+	}
+	
+	public int getGeoX(int portal)
+	{
+		return (_regionX * IRegion.REGION_CELLS_X) + _x[portal];
+	}
+	
+	public int getGeoY(int portal)
+	{
+		return (_regionY * IRegion.REGION_CELLS_Y) + _y[portal];
+	}
+	
+	public int getZ(int portal)
+	{
+		return _z[portal];
+	}
+	
+	/**
+	 * @param portal the portal
+	 * @return the NSWE of the cluster borders the portal leads through
+	 */
+	public int getSides(int portal)
+	{
+		return _sides[portal];
+	}
+	
+	public int getClusterStart(int cluster)
+	{
+		return _clusterStarts[cluster];
+	}
+	
+	public int getClusterEnd(int cluster)
+	{
+		return _clusterStarts[cluster + 1];
+	}
+	
+	public int getEdgeStart(int portal)
+	{
+		return _edgeStarts[portal];
+	}
+	
+	public int getEdgeEnd(int portal)
+	{
+		return _edgeStarts[portal + 1];
+	}
+	
+	public int getEdgeTarget(int edge)
+	{
+		return _edgeTargets[edge];
+	}
+	
+	public float getEdgeCost(int edge)
+	{
+		return _edgeCosts[edge];
+	}
+	
+	/**
+	 * Finds a portal of the cluster containing the given cell.
+	 * @param geoX the geo x of the portal
+	 * @param geoY the geo y of the portal
+	 * @param z the z used to find the nearest portal layer
+	 * @return the portal at the given cell nearest to the given z, {@code -1} if there is none
+	 */
+	public int findPortal(int geoX, int geoY, int z)
+	{
+		final int x = geoX % IRegion.REGION_CELLS_X;
+		final int y = geoY % IRegion.REGION_CELLS_Y;
+		final int cluster = getCluster(geoX, geoY);
+		int result = -1;
+		int resultDz = Integer.MAX_VALUE;
+		for (int portal = _clusterStarts[cluster]; portal < _clusterStarts[cluster + 1]; portal++)
+		{
+			if ((_x[portal] == x) && (_y[portal] == y))
+			{
+				final int dz = Math.abs(_z[portal] - z);
+				if (dz < resultDz)
+				{
+					result = portal;
+					resultDz = dz;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @param geoX the geo x
+	 * @param geoY the geo y
+	 * @return the index of the cluster containing the given cell, in its region
+	 */
+	public static int getCluster(int geoX, int geoY)
+	{
+		return (((geoX % IRegion.REGION_CELLS_X) / CLUSTER_SIZE) * CLUSTERS_Y) + ((geoY % IRegion.REGION_CELLS_Y) / CLUSTER_SIZE);
+	}
+	
+	/**
+	 * @param nswe a single NSWE direction
+	 * @return the geo x offset of the direction
+	 */
+	public static int getOffsetX(int nswe)
+	{
+		return nswe == Cell.NSWE_EAST ? 1 : nswe == Cell.NSWE_WEST ? -1 : 0;
+	}
+	
+	/**
+	 * @param nswe a single NSWE direction
+	 * @return the geo y offset of the direction
+	 */
+	public static int getOffsetY(int nswe)
+	{
+		return nswe == Cell.NSWE_SOUTH ? 1 : nswe == Cell.NSWE_NORTH ? -1 : 0;
+	}
+	
+	public static Path getFilePath(int regionX, int regionY)
+	{
+		return Config.PATHGRAPH_PATH.resolve(String.format(FILE_NAME_FORMAT, regionX, regionY));
+	}
+	
+	public static Path getGeoFilePath(int regionX, int regionY)
+	{
+		return Config.GEODATA_PATH.resolve(String.format(GeoEngine.FILE_NAME_FORMAT, regionX, regionY));
+	}
+	
+	/**
+	 * Saves this graph with the size and modification time of its geodata file, so graphs of changed geodata are not loaded.
+	 * @throws IOException
+	 */
+	public void save() throws IOException
+	{
+		final Path geoFilePath = getGeoFilePath(_regionX, _regionY);
+		final Path filePath = getFilePath(_regionX, _regionY);
+		Files.createDirectories(filePath.getParent());
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(filePath))))
+		{
+			out.writeInt(FILE_VERSION);
+			out.writeInt(CLUSTER_SIZE);
+			out.writeLong(Files.size(geoFilePath));
+			out.writeLong(Files.getLastModifiedTime(geoFilePath).toMillis());
+			
+			out.writeInt(_x.length);
+			for (int portal = 0; portal < _x.length; portal++)
+			{
+				out.writeShort(_x[portal]);
+				out.writeShort(_y[portal]);
+				out.writeShort(_z[portal]);
+				out.writeByte(_sides[portal]);
+			}
+			for (int cluster = 0; cluster <= CLUSTERS; cluster++)
+			{
+				out.writeInt(_clusterStarts[cluster]);
+			}
+			
+			out.writeInt(_edgeTargets.length);
+			for (int portal = 0; portal <= _x.length; portal++)
+			{
+				out.writeInt(_edgeStarts[portal]);
+			}
+			for (int edge = 0; edge < _edgeTargets.length; edge++)
+			{
+				out.writeInt(_edgeTargets[edge]);
+				out.writeFloat(_edgeCosts[edge]);
+			}
+		}
+	}
+	
+	/**
+	 * @param regionX the region x
+	 * @param regionY the region y
+	 * @return the saved graph of the region, {@code null} if there is none or if it was built from other geodata
+	 * @throws IOException
+	 */
+	public static RegionGraph load(int regionX, int regionY) throws IOException
+	{
+		final Path geoFilePath = getGeoFilePath(regionX, regionY);
+		final Path filePath = getFilePath(regionX, regionY);
+		if (!Files.exists(filePath) || !Files.exists(geoFilePath))
+		{
+			return null;
+		}
+		
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(filePath))))
+		{
+			if ((in.readInt() != FILE_VERSION) || (in.readInt() != CLUSTER_SIZE) || (in.readLong() != Files.size(geoFilePath)) || (in.readLong() != Files.getLastModifiedTime(geoFilePath).toMillis()))
+			{
+				return null;
+			}
+			
+			final int portalCount = in.readInt();
+			final short[] x = new short[portalCount];
+			final short[] y = new short[portalCount];
+			final short[] z = new short[portalCount];
+			final byte[] sides = new byte[portalCount];
+			for (int portal = 0; portal < portalCount; portal++)
+			{
+				x[portal] = in.readShort();
+				y[portal] = in.readShort();
+				z[portal] = in.readShort();
+				sides[portal] = in.readByte();
+			}
+			final int[] clusterStarts = new int[CLUSTERS + 1];
+			for (int cluster = 0; cluster <= CLUSTERS; cluster++)
+			{
+				clusterStarts[cluster] = in.readInt();
+			}
+			
+			final int edgeCount = in.readInt();
+			final int[] edgeStarts = new int[portalCount + 1];
+			for (int portal = 0; portal <= portalCount; portal++)
+			{
+				edgeStarts[portal] = in.readInt();
+			}
+			final int[] edgeTargets = new int[edgeCount];
+			final float[] edgeCosts = new float[edgeCount];
+			for (int edge = 0; edge < edgeCount; edge++)
+			{
+				edgeTargets[edge] = in.readInt();
+				edgeCosts[edge] = in.readFloat();
+			}
+			
+			return new RegionGraph(regionX, regionY, x, y, z, sides, clusterStarts, edgeStarts, edgeTargets, edgeCosts);
+		}
+	}
+}
\ No newline at end of file
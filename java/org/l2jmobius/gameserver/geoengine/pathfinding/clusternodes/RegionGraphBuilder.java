@@ -0,0 +1,306 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.Cell;
+import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
+
+/**
+ * Builds the {@link RegionGraph} of a loaded geodata region.<br>
+ * Openings on a cluster border are found the same way from both sides, so neighbor clusters and regions built separately get matching portals.
+ * @author Mobius
+ */
+public class RegionGraphBuilder
+{
+	private static final int SIZE = RegionGraph.CLUSTER_SIZE;
+	private static final int MAX_LAYERS = 64;
+	
+	private final ClusterNodeBuffer _buffer = new ClusterNodeBuffer();
+	
+	// Portals of the region.
+	private final List<Portal> _portals = new ArrayList<>();
+	private final int[] _clusterStarts = new int[RegionGraph.CLUSTERS + 1];
+	
+	// Openings of the border being scanned.
+	private final List<Opening> _openings = new ArrayList<>();
+	
+	/**
+	 * @param regionX the region x
+	 * @param regionY the region y
+	 * @return the graph of the region, {@code null} if the region has no geodata
+	 */
+	public RegionGraph build(int regionX, int regionY)
+	{
+		final int baseX = regionX * IRegion.REGION_CELLS_X;
+		final int baseY = regionY * IRegion.REGION_CELLS_Y;
+		if (!GeoEngine.getInstance().hasGeoPos(baseX, baseY))
+		{
+			return null;
+		}
+		
+		_portals.clear();
+		for (int clusterX = 0; clusterX < RegionGraph.CLUSTERS_X; clusterX++)
+		{
+			for (int clusterY = 0; clusterY < RegionGraph.CLUSTERS_Y; clusterY++)
+			{
+				final int cluster = (clusterX * RegionGraph.CLUSTERS_Y) + clusterY;
+				final int minX = baseX + (clusterX * SIZE);
+				final int minY = baseY + (clusterY * SIZE);
+				_clusterStarts[cluster] = _portals.size();
+				
+				// Each border is scanned from its west or north side, so both clusters find the same openings.
+				addPortals(minX + SIZE - 1, minY, Cell.NSWE_EAST, true);
+				addPortals(minX - 1, minY, Cell.NSWE_EAST, false);
+				addPortals(minX, minY + SIZE - 1, Cell.NSWE_SOUTH, true);
+				addPortals(minX, minY - 1, Cell.NSWE_SOUTH, false);
+				
+				connectPortals(_clusterStarts[cluster], _portals.size());
+			}
+		}
+		_clusterStarts[RegionGraph.CLUSTERS] = _portals.size();
+		
+		final int portalCount = _portals.size();
+		final short[] x = new short[portalCount];
+		final short[] y = new short[portalCount];
+		final short[] z = new short[portalCount];
+		final byte[] sides = new byte[portalCount];
+		final int[] edgeStarts = new int[portalCount + 1];
+		int edgeCount = 0;
+		for (int i = 0; i < portalCount; i++)
+		{
+			final Portal portal = _portals.get(i);
+			x[i] = (short) (portal.x - baseX);
+			y[i] = (short) (portal.y - baseY);
+			z[i] = (short) portal.z;
+			sides[i] = (byte) portal.sides;
+			edgeStarts[i] = edgeCount;
+			edgeCount += portal.edgeCount;
+		}
+		edgeStarts[portalCount] = edgeCount;
+		
+		final int[] edgeTargets = new int[edgeCount];
+		final float[] edgeCosts = new float[edgeCount];
+		for (int i = 0; i < portalCount; i++)
+		{
+			final Portal portal = _portals.get(i);
+			System.arraycopy(portal.edgeTargets, 0, edgeTargets, edgeStarts[i], portal.edgeCount);
+			System.arraycopy(portal.edgeCosts, 0, edgeCosts, edgeStarts[i], portal.edgeCount);
+		}
+		
+		return new RegionGraph(regionX, regionY, x, y, z, sides, _clusterStarts.clone(), edgeStarts, edgeTargets, edgeCosts);
+	}
+	
+	/**
+	 * Scans the openings of a cluster border and adds a portal in the middle of each opening, on one side of the border.
+	 * @param x the geo x of the first cell on the west or north side of the border
+	 * @param y the geo y of the first cell on the west or north side of the border
+	 * @param direction {@link Cell#NSWE_EAST} for a vertical border, {@link Cell#NSWE_SOUTH} for a horizontal border
+	 * @param westOrNorth {@code true} to add portals on the west or north side of the border, {@code false} for the other side
+	 */
+	private void addPortals(int x, int y, int direction, boolean westOrNorth)
+	{
+		final int dX = RegionGraph.getOffsetX(direction);
+		final int dY = RegionGraph.getOffsetY(direction);
+		final int back = direction == Cell.NSWE_EAST ? Cell.NSWE_WEST : Cell.NSWE_NORTH;
+		final IRegion region = GeoEngine.getInstance().getRegion(x, y);
+		final IRegion nextRegion = GeoEngine.getInstance().getRegion(x + dX, y + dY);
+		if (!region.hasGeo() || !nextRegion.hasGeo())
+		{
+			return;
+		}
+		
+		_openings.clear();
+		for (int i = 0; i < SIZE; i++)
+		{
+			// Cells along the border.
+			final int cellX = x + (dY * i);
+			final int cellY = y + (dX * i);
+			final int nextX = cellX + dX;
+			final int nextY = cellY + dY;
+			
+			int z = region.getNextHigherZ(cellX, cellY, Short.MIN_VALUE);
+			for (int layer = 0; layer < MAX_LAYERS; layer++)
+			{
+				if (region.checkNearestNswe(cellX, cellY, z, direction))
+				{
+					final int nextZ = nextRegion.getNearestZ(nextX, nextY, z);
+					if (nextRegion.checkNearestNswe(nextX, nextY, nextZ, back))
+					{
+						addOpening(i, z, nextZ);
+					}
+				}
+				
+				final int higherZ = region.getNextHigherZ(cellX, cellY, z + 1);
+				if (higherZ == (z + 1))
+				{
+					break;
+				}
+				z = higherZ;
+			}
+			
+			for (int j = _openings.size() - 1; j >= 0; j--)
+			{
+				if (_openings.get(j).last < i)
+				{
+					addPortal(_openings.remove(j), x, y, direction, westOrNorth);
+				}
+			}
+		}
+		
+		for (Opening opening : _openings)
+		{
+			addPortal(opening, x, y, direction, westOrNorth);
+		}
+	}
+	
+	private void addOpening(int i, int z, int nextZ)
+	{
+		for (Opening opening : _openings)
+		{
+			if ((opening.last == (i - 1)) && (Math.abs(opening.z[opening.last] - z) <= 16))
+			{
+				opening.last = i;
+				opening.z[i] = z;
+				opening.nextZ[i] = nextZ;
+				return;
+			}
+		}
+		
+		final Opening opening = new Opening(i);
+		opening.z[i] = z;
+		opening.nextZ[i] = nextZ;
+		_openings.add(opening);
+	}
+	
+	private void addPortal(Opening opening, int x, int y, int direction, boolean westOrNorth)
+	{
+		final int i = (opening.first + opening.last) / 2;
+		final int dX = RegionGraph.getOffsetX(direction);
+		final int dY = RegionGraph.getOffsetY(direction);
+		int portalX = x + (dY * i);
+		int portalY = y + (dX * i);
+		int portalZ = opening.z[i];
+		int side = direction;
+		if (!westOrNorth)
+		{
+			portalX += dX;
+			portalY += dY;
+			portalZ = opening.nextZ[i];
+			side = direction == Cell.NSWE_EAST ? Cell.NSWE_WEST : Cell.NSWE_NORTH;
+		}
+		
+		// Corner cells can be a portal of two borders.
+		final int clusterStart = _clusterStarts[RegionGraph.getCluster(portalX, portalY)];
+		for (int p = clusterStart; p < _portals.size(); p++)
+		{
+			final Portal portal = _portals.get(p);
+			if ((portal.x == portalX) && (portal.y == portalY) && (portal.z == portalZ))
+			{
+				portal.sides |= side;
+				return;
+			}
+		}
+		_portals.add(new Portal(portalX, portalY, portalZ, side));
+	}
+	
+	/**
+	 * Connects each portal of a cluster to the other portals of the cluster it can walk to.
+	 * @param start the first portal of the cluster
+	 * @param end the portal after the last portal of the cluster
+	 */
+	private void connectPortals(int start, int end)
+	{
+		for (int p = start; p < end; p++)
+		{
+			final Portal portal = _portals.get(p);
+			portal.edgeTargets = new int[end - start - 1];
+			portal.edgeCosts = new float[end - start - 1];
+			if (portal.edgeTargets.length == 0)
+			{
+				continue;
+			}
+			
+			_buffer.init(portal.x, portal.y);
+			for (int t = start; t < end; t++)
+			{
+				if (t != p)
+				{
+					final Portal target = _portals.get(t);
+					_buffer.addTarget(target.x, target.y);
+				}
+			}
+			_buffer.search(portal.x, portal.y, portal.z);
+			
+			for (int t = start; t < end; t++)
+			{
+				if (t == p)
+				{
+					continue;
+				}
+				
+				final Portal target = _portals.get(t);
+				final float cost = _buffer.getCost(target.x, target.y, target.z);
+				if (cost >= 0)
+				{
+					portal.edgeTargets[portal.edgeCount] = t;
+					portal.edgeCosts[portal.edgeCount] = cost;
+					portal.edgeCount++;
+				}
+			}
+		}
+	}
+	
+	private static class Portal
+	{
+		final int x;
+		final int y;
+		final int z;
+		int sides;
+		int[] edgeTargets;
+		float[] edgeCosts;
+		int edgeCount = 0;
+		
+		Portal(int x, int y, int z, int sides)
+		{
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.sides = sides;
+		}
+	}
+	
+	/**
+	 * Walkable cells in a row along a border, on one layer.
+	 */
+	private static class Opening
+	{
+		final int first;
+		int last;
+		final int[] z = new int[SIZE];
+		final int[] nextZ = new int[SIZE];
+		
+		Opening(int i)
+		{
+			first = i;
+			last = i;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free pool of pathfinding buffers.<br>
+ * Buffers are created on first use, up to the pool capacity, and idle buffers are kept in slots taken and returned with compare-and-set.
+ * @param <T> the type of buffer
+ * @author Mobius
+ */
+public class BufferPool<T>
+{
+	private final AtomicReferenceArray<T> _buffers; // Idle buffers.
+	private final AtomicInteger _created = new AtomicInteger();
+	private final Supplier<T> _factory;
+	
+	/**
+	 * @param capacity the maximum number of pooled buffers
+	 * @param factory the factory creating a new buffer
+	 */
+	public BufferPool(int capacity, Supplier<T> factory)
+	{
+		_buffers = new AtomicReferenceArray<>(capacity);
+		_factory = factory;
+	}
+	
+	/**
+	 * Scanning starts at a slot depending on the current thread, so concurrent searches rarely compete for the same slot.
+	 * @return the slot to start scanning from
+	 */
+	private int getStartSlot()
+	{
+		final int capacity = _buffers.length();
+		return capacity > 0 ? (int) (Thread.currentThread().threadId() % capacity) : 0;
+	}
+	
+	/**
+	 * Takes an idle buffer, or creates one if the capacity is not reached yet.
+	 * @return the buffer, {@code null} if all pooled buffers are in use
+	 */
+	public T acquire()
+	{
+		final int capacity = _buffers.length();
+		final int start = getStartSlot();
+		for (int i = 0; i < capacity; i++)
+		{
+			final int slot = (start + i) % capacity;
+			final T buffer = _buffers.get(slot);
+			if ((buffer != null) && _buffers.compareAndSet(slot, buffer, null))
+			{
+				return buffer;
+			}
+		}
+		
+		// Create a pooled buffer if the capacity is not reached yet.
+		int current;
+		while ((current = _created.get()) < capacity)
+		{
+			if (_created.compareAndSet(current, current + 1))
+			{
+				return _factory.get();
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns a buffer to the pool. A temporary buffer is dropped when all slots are taken.
+	 * @param buffer the buffer to return
+	 */
+	public void release(T buffer)
+	{
+		final int capacity = _buffers.length();
+		final int start = getStartSlot();
+		for (int i = 0; i < capacity; i++)
+		{
+			final int slot = (start + i) % capacity;
+			if ((_buffers.get(slot) == null) && _buffers.compareAndSet(slot, null, buffer))
+			{
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of pooled buffers created so far
+	 */
+	public int getCreatedCount()
+	{
+		return _created.get();
+	}
+	
+	/**
+	 * @return the maximum number of pooled buffers
+	 */
+	public int getCapacity()
+	{
+		return _buffers.length();
+	}
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.gameserver.model.WorldObject;
 import org.l2jmobius.gameserver.model.actor.Player;
@@ -200,6 +201,12 @@ public class CastleManager
 				}
 			}
 			// else offline-player circlet removal
+			// Store the pending item changes first.
+			if (Config.ITEM_WRITE_BEHIND)
+			{
+				ItemPersistenceManager.getInstance().flush();
+			}
+			
 			try (Connection con = DatabaseFactory.getConnection();
 				PreparedStatement ps = con.prepareStatement("DELETE FROM items WHERE owner_id = ? and item_id = ?"))
 			{
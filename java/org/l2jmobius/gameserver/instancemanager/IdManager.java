@@ -20,16 +20,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
-import org.l2jmobius.commons.threads.ThreadPool;
-import org.l2jmobius.gameserver.util.PrimeFinder;
 
 /**
  * @author Mobius (reworked from L2J IdFactory)
@@ -59,12 +60,29 @@ public class IdManager
 	private static final int LAST_OID = 0x7FFFFFFF;
 	private static final int FREE_OBJECT_ID_SIZE = LAST_OID - FIRST_OID;
 	
-	private BitSet _freeIds;
+	// Ids are kept in words of 64 bits, a set bit is a used id. Words are grouped in segments created on first use.
+	private static final int WORDS = (FREE_OBJECT_ID_SIZE + 63) >>> 6;
+	private static final int SEGMENT_SHIFT = 10;
+	private static final int SEGMENT_WORDS = 1 << SEGMENT_SHIFT;
+	private static final int SEGMENT_MASK = SEGMENT_WORDS - 1;
+	
+	// Free ids a word needs before it is reused.
+	private static final int REUSE_BATCH = 16;
+	
+	private final AtomicReferenceArray<AtomicLongArray> _segments = new AtomicReferenceArray<>((WORDS + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+	private final AtomicInteger[] _stripes; // Word each stripe of threads takes ids from.
+	private final AtomicInteger _nextWord = new AtomicInteger();
+	private final Queue<Integer> _reusableWords = new ConcurrentLinkedQueue<>();
 	private AtomicInteger _freeIdCount;
-	private AtomicInteger _nextFreeId;
 	
 	public IdManager()
 	{
+		_stripes = new AtomicInteger[Integer.highestOneBit((Runtime.getRuntime().availableProcessors() * 2) - 1) << 1];
+		for (int i = 0; i < _stripes.length; i++)
+		{
+			_stripes[i] = new AtomicInteger(-1);
+		}
+		
 		// Update characters online status.
 		try (Connection con = DatabaseFactory.getConnection();
 			Statement statement = con.createStatement())
@@ -80,6 +98,12 @@ public class IdManager
 		// Cleanup database.
 		if (Config.DATABASE_CLEAN_UP)
 		{
+			// Store the pending item changes first.
+			if (Config.ITEM_WRITE_BEHIND)
+			{
+				ItemPersistenceManager.getInstance().flush();
+			}
+			
 			try (Connection con = DatabaseFactory.getConnection();
 				Statement statement = con.createStatement())
 			{
@@ -185,8 +209,6 @@ public class IdManager
 		// Initialize.
 		try
 		{
-			_freeIds = new BitSet(PrimeFinder.nextPrime(100000));
-			_freeIds.clear();
 			_freeIdCount = new AtomicInteger(FREE_OBJECT_ID_SIZE);
 			
 			// Collect already used ids.
@@ -222,79 +244,156 @@ public class IdManager
 					LOGGER.warning("IdManager: Object ID " + usedObjectId + " in DB is less than minimum ID of " + FIRST_OID);
 					continue;
 				}
-				_freeIds.set(objectId);
-				_freeIdCount.decrementAndGet();
+				
+				final int word = objectId >>> 6;
+				final long bit = 1L << objectId;
+				final AtomicLongArray segment = getSegment(word);
+				final long value = segment.get(word & SEGMENT_MASK);
+				if ((value & bit) == 0)
+				{
+					segment.set(word & SEGMENT_MASK, value | bit);
+					_freeIdCount.decrementAndGet();
+				}
 			}
-			
-			_nextFreeId = new AtomicInteger(_freeIds.nextClearBit(0));
 		}
 		catch (Exception e)
 		{
 			LOGGER.severe("IdManager: Could not be initialized properly: " + e.getMessage());
 		}
 		
-		// Schedule increase capacity task.
-		ThreadPool.scheduleAtFixedRate(() ->
+		LOGGER.info("IdManager: " + _freeIdCount.get() + " id's available.");
+	}
+	
+	/**
+	 * Marks an id as free. Ids are reused once enough ids of their word are released, so a released id is not handed out again right away.
+	 * @param objectId the id to release
+	 */
+	public void releaseId(int objectId)
+	{
+		final int id = objectId - FIRST_OID;
+		if (id < 0)
+		{
+			LOGGER.warning("IdManager: Release objectID " + objectId + " failed (< " + FIRST_OID + ")");
+			return;
+		}
+		
+		final int word = id >>> 6;
+		final long bit = 1L << id;
+		final AtomicLongArray segment = getSegment(word);
+		final int index = word & SEGMENT_MASK;
+		long value;
+		do
 		{
-			if (PrimeFinder.nextPrime((usedIdCount() * 11) / 10) > _freeIds.size())
+			value = segment.get(index);
+			if ((value & bit) == 0)
 			{
-				increaseBitSetCapacity();
+				return; // Already free.
 			}
-		}, 30000, 30000);
+		}
+		while (!segment.compareAndSet(index, value, value & ~bit));
+		_freeIdCount.incrementAndGet();
 		
-		LOGGER.info("IdManager: " + _freeIds.size() + " id's available.");
+		// Return the word for reuse once it has a batch of free ids.
+		if (Long.bitCount(~(value & ~bit)) == REUSE_BATCH)
+		{
+			_reusableWords.add(word);
+		}
 	}
 	
-	public synchronized void releaseId(int objectId)
+	/**
+	 * Gets a free id from the word of the stripe of the current thread. Threads of different stripes claim ids from different words, so they rarely compete.
+	 * @return a free id
+	 */
+	public int getNextId()
 	{
-		if ((objectId - FIRST_OID) > -1)
-		{
-			_freeIds.clear(objectId - FIRST_OID);
-			_freeIdCount.incrementAndGet();
-		}
-		else
+		final AtomicInteger stripe = _stripes[(int) (Thread.currentThread().threadId() & (_stripes.length - 1))];
+		while (true)
 		{
-			LOGGER.warning("IdManager: Release objectID " + objectId + " failed (< " + FIRST_OID + ")");
+			final int word = stripe.get();
+			if (word >= 0)
+			{
+				final AtomicLongArray segment = getSegment(word);
+				final int index = word & SEGMENT_MASK;
+				long value;
+				while ((value = segment.get(index)) != -1L)
+				{
+					final int bit = Long.numberOfTrailingZeros(~value);
+					if (segment.compareAndSet(index, value, value | (1L << bit)))
+					{
+						_freeIdCount.decrementAndGet();
+						return (word << 6) + bit + FIRST_OID;
+					}
+				}
+			}
+			
+			// The word of the stripe is full, take another one.
+			final int nextWord = nextWord();
+			if (!stripe.compareAndSet(word, nextWord))
+			{
+				_reusableWords.add(nextWord); // Another thread already took one.
+			}
 		}
 	}
 	
-	public synchronized int getNextId()
+	/**
+	 * @return the index of a word with free ids, released words first
+	 */
+	private int nextWord()
 	{
-		final int newId = _nextFreeId.get();
-		_freeIds.set(newId);
-		_freeIdCount.decrementAndGet();
-		
-		int nextFree = _freeIds.nextClearBit(newId);
-		if (nextFree < 0)
+		final Integer reusable = _reusableWords.poll();
+		if (reusable != null)
 		{
-			nextFree = _freeIds.nextClearBit(0);
+			return reusable;
 		}
-		if (nextFree < 0)
+		
+		int word;
+		while ((word = _nextWord.get()) < WORDS)
 		{
-			if (_freeIds.size() < FREE_OBJECT_ID_SIZE)
+			if (_nextWord.compareAndSet(word, word + 1))
 			{
-				increaseBitSetCapacity();
+				return word;
 			}
-			else
+		}
+		
+		// All words were handed out once, look for any word with a free id.
+		for (word = 0; word < WORDS; word++)
+		{
+			if (getSegment(word).get(word & SEGMENT_MASK) != -1L)
 			{
-				throw new NullPointerException("IdManager: Ran out of valid ids.");
+				return word;
 			}
 		}
-		_nextFreeId.set(nextFree);
 		
-		return newId + FIRST_OID;
+		throw new NullPointerException("IdManager: Ran out of valid ids.");
 	}
 	
-	private synchronized void increaseBitSetCapacity()
+	/**
+	 * @param word the index of a word
+	 * @return the segment containing the word, created if needed
+	 */
+	private AtomicLongArray getSegment(int word)
 	{
-		final BitSet newBitSet = new BitSet(PrimeFinder.nextPrime((usedIdCount() * 11) / 10));
-		newBitSet.or(_freeIds);
-		_freeIds = newBitSet;
-	}
-	
-	private int usedIdCount()
-	{
-		return _freeIdCount.get() - FIRST_OID;
+		final int index = word >>> SEGMENT_SHIFT;
+		final AtomicLongArray segment = _segments.get(index);
+		if (segment != null)
+		{
+			return segment;
+		}
+		
+		final AtomicLongArray newSegment = new AtomicLongArray(SEGMENT_WORDS);
+		
+		// Ids after the last valid id are never free.
+		final int lastWord = (FREE_OBJECT_ID_SIZE - 1) >>> 6;
+		if ((lastWord >>> SEGMENT_SHIFT) == index)
+		{
+			newSegment.set(lastWord & SEGMENT_MASK, -1L << ((FREE_OBJECT_ID_SIZE - 1) & 63) << 1);
+			for (int i = (lastWord & SEGMENT_MASK) + 1; i < SEGMENT_WORDS; i++)
+			{
+				newSegment.set(i, -1L);
+			}
+		}
+		
+		return _segments.compareAndSet(index, null, newSegment) ? newSegment : _segments.get(index);
 	}
 	
 	public int size()
@@ -0,0 +1,324 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.instancemanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.database.DatabaseFactory;
+import org.l2jmobius.gameserver.model.item.instance.Item;
+
+/**
+ * Write-behind persistence of items.<br>
+ * Item.updateDatabase only marks the item as dirty, and a dedicated writer thread periodically stores the dirty items in JDBC batches.<br>
+ * An item is kept once in the dirty set and is always written by the thread holding the flush lock, so the changes of an object id reach the database in order.<br>
+ * The object id of a destroyed item is released only once its deletion is committed, so a new item with the same id can never have its rows deleted.
+ * @author Mobius
+ */
+public class ItemPersistenceManager implements Runnable
+{
+	private static final Logger LOGGER = Logger.getLogger(ItemPersistenceManager.class.getName());
+	
+	public static final int NONE = 0;
+	public static final int INSERT = 1;
+	public static final int UPDATE = 2;
+	public static final int DELETE = 3;
+	
+	// Failed flushes, among stored items, after which the changes of an item are dropped.
+	private static final int MAX_STORE_ATTEMPTS = 3;
+	
+	private static final String INSERT_ITEM = "INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,?,?,?,?)";
+	private static final String UPDATE_ITEM = "UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? WHERE object_id = ?";
+	private static final String[] DELETE_ITEM =
+	{
+		"DELETE FROM items WHERE object_id = ?",
+		"DELETE FROM item_variations WHERE itemId = ?",
+		"DELETE FROM item_elementals WHERE itemId = ?",
+		"DELETE FROM item_variables WHERE id = ?"
+	};
+	
+	private final Set<Item> _dirtyItems = ConcurrentHashMap.newKeySet();
+	private final Set<Item> _releasedItems = ConcurrentHashMap.newKeySet();
+	private final Map<Item, Integer> _failedAttempts = new ConcurrentHashMap<>();
+	private final ReentrantLock _flushLock = new ReentrantLock(); // Not a monitor, so flushing virtual threads do not pin their carrier during JDBC calls.
+	private volatile Thread _writer;
+	private volatile boolean _running = true;
+	private volatile long _storedCount = 0;
+	private volatile long _flushCount = 0;
+	
+	protected ItemPersistenceManager()
+	{
+	}
+	
+	/**
+	 * Starts the writer thread.
+	 */
+	private void start()
+	{
+		_writer = new Thread(this, "ItemPersistenceManager");
+		_writer.setDaemon(true);
+		_writer.start();
+	}
+	
+	@Override
+	public void run()
+	{
+		while (_running)
+		{
+			try
+			{
+				Thread.sleep(Config.ITEM_WRITE_BEHIND_INTERVAL);
+			}
+			catch (InterruptedException e)
+			{
+				// Woken up by shutdown.
+			}
+			
+			flush();
+		}
+	}
+	
+	/**
+	 * Marks the item as dirty. It will be stored by the next flush.
+	 * @param item the item to store
+	 */
+	public void add(Item item)
+	{
+		_dirtyItems.add(item);
+	}
+	
+	/**
+	 * Releases the object id of a destroyed item once its deletion is stored.
+	 * @param item the destroyed item
+	 */
+	public void releaseId(Item item)
+	{
+		_releasedItems.add(item);
+		_dirtyItems.add(item);
+	}
+	
+	/**
+	 * Stores all dirty items in the calling thread. Used before reading items from the database, so pending changes are never missed.<br>
+	 * The flush lock is always taken, so a batch stored by another thread is committed before this method returns.
+	 */
+	public void flush()
+	{
+		_flushLock.lock();
+		try
+		{
+			while (!_dirtyItems.isEmpty())
+			{
+				final List<Item> items = new ArrayList<>();
+				final List<Item> released = new ArrayList<>();
+				final Iterator<Item> iterator = _dirtyItems.iterator();
+				while (iterator.hasNext() && (items.size() < Config.ITEM_WRITE_BEHIND_BATCH_SIZE))
+				{
+					final Item item = iterator.next();
+					iterator.remove();
+					if (_releasedItems.remove(item))
+					{
+						released.add(item);
+					}
+					items.add(item);
+				}
+				
+				if (!storeBatch(items, released) && !storeEach(items, released))
+				{
+					// Retry on the next flush.
+					break;
+				}
+			}
+		}
+		finally
+		{
+			_flushLock.unlock();
+		}
+	}
+	
+	/**
+	 * Stores the items of a failed batch one at a time, so a failing item does not hold back the others.<br>
+	 * An item still failing after {@link #MAX_STORE_ATTEMPTS} flushes while other items are stored is dropped.
+	 * @param items the items of the failed batch
+	 * @param released the destroyed items of the batch
+	 * @return {@code true} if at least one item was stored, {@code false} if the database looks unavailable
+	 */
+	private boolean storeEach(List<Item> items, List<Item> released)
+	{
+		final List<Item> failed = new ArrayList<>();
+		for (Item item : items)
+		{
+			final List<Item> single = Collections.singletonList(item);
+			if (!storeBatch(single, released.contains(item) ? single : Collections.emptyList()))
+			{
+				failed.add(item);
+			}
+		}
+		
+		// Attempts are only counted when other items could be stored, so a database outage drops nothing.
+		final boolean stored = failed.size() < items.size();
+		for (Item item : failed)
+		{
+			final int attempts = stored ? _failedAttempts.merge(item, 1, Integer::sum) : 0;
+			if (attempts < MAX_STORE_ATTEMPTS)
+			{
+				if (released.contains(item))
+				{
+					_releasedItems.add(item);
+				}
+				_dirtyItems.add(item);
+			}
+			else
+			{
+				// The object id of a dropped destroyed item is not released, its rows may still exist.
+				_failedAttempts.remove(item);
+				LOGGER.warning(getClass().getSimpleName() + ": Dropped the changes of " + item + " (" + item.getObjectId() + ") after " + attempts + " failed attempts.");
+			}
+		}
+		return stored;
+	}
+	
+	/**
+	 * Stores the items in one JDBC batch and transaction. On failure the transaction is rolled back and the database state of the items is restored.
+	 * @param items the items to store
+	 * @param released the destroyed items whose object id is released once stored
+	 * @return {@code true} if the batch was committed
+	 */
+	private boolean storeBatch(List<Item> items, List<Item> released)
+	{
+		final List<Integer> actions = new ArrayList<>();
+		final PreparedStatement[] deletes = new PreparedStatement[DELETE_ITEM.length];
+		try (Connection con = DatabaseFactory.getConnection();
+			PreparedStatement insert = con.prepareStatement(INSERT_ITEM);
+			PreparedStatement update = con.prepareStatement(UPDATE_ITEM))
+		{
+			con.setAutoCommit(false);
+			try
+			{
+				for (int i = 0; i < DELETE_ITEM.length; i++)
+				{
+					deletes[i] = con.prepareStatement(DELETE_ITEM[i]);
+				}
+				
+				for (Item item : items)
+				{
+					actions.add(item.addToBatch(con, insert, update, deletes));
+				}
+				
+				for (PreparedStatement delete : deletes)
+				{
+					delete.executeBatch();
+				}
+				insert.executeBatch();
+				update.executeBatch();
+				con.commit();
+				_storedCount += items.size();
+				_flushCount++;
+				
+				if (!_failedAttempts.isEmpty())
+				{
+					for (Item item : items)
+					{
+						_failedAttempts.remove(item);
+					}
+				}
+				
+				// The rows of the destroyed items are gone, their ids can be reused.
+				for (Item item : released)
+				{
+					IdManager.getInstance().releaseId(item.getObjectId());
+				}
+				return true;
+			}
+			catch (Exception e)
+			{
+				con.rollback();
+				throw e;
+			}
+			finally
+			{
+				con.setAutoCommit(true);
+				for (PreparedStatement delete : deletes)
+				{
+					if (delete != null)
+					{
+						delete.close();
+					}
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.SEVERE, getClass().getSimpleName() + ": Could not store " + items.size() + " items: " + e.getMessage(), e);
+			
+			// Restore the database state of the batch.
+			for (int i = 0; i < actions.size(); i++)
+			{
+				items.get(i).revertBatch(actions.get(i));
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * @return the number of items waiting to be stored.
+	 */
+	public int getDirtyCount()
+	{
+		return _dirtyItems.size();
+	}
+	
+	public String getStats()
+	{
+		return getClass().getSimpleName() + ": dirty " + _dirtyItems.size() + ", stored " + _storedCount + " in " + _flushCount + " batches";
+	}
+	
+	/**
+	 * Stops the writer thread and stores the remaining dirty items.
+	 */
+	public void shutdown()
+	{
+		_running = false;
+		_writer.interrupt();
+		flush();
+		LOGGER.info(getStats());
+	}
+	
+	public static ItemPersistenceManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final ItemPersistenceManager INSTANCE = new ItemPersistenceManager();
+		static
+		{
+			INSTANCE.start();
+		}
+	}
+}
@@ -163,7 +163,7 @@ public class ZoneManager implements IXmlReader
 		{
 			for (ZoneRegion zoneRegion : zoneRegions)
 			{
-				zoneRegion.getZones().clear();
+				zoneRegion.clear();
 				count++;
 			}
 		}
@@ -412,7 +412,7 @@ public class ZoneManager implements IXmlReader
 								final int by = ((y + 1) - OFFSET_Y) << SHIFT_BY;
 								if (temp.getZone().intersectsRectangle(ax, bx, ay, by))
 								{
-									_zoneRegions[x][y].getZones().put(temp.getId(), temp);
+									_zoneRegions[x][y].addZone(temp);
 								}
 							}
 						}
@@ -654,15 +654,7 @@ public class ZoneManager implements IXmlReader
 	 */
 	public List<ZoneType> getZones(int x, int y, int z)
 	{
-		final List<ZoneType> temp = new ArrayList<>();
-		for (ZoneType zone : getRegion(x, y).getZones().values())
-		{
-			if (zone.isInsideZone(x, y, z))
-			{
-				temp.add(zone);
-			}
-		}
-		return temp;
+		return getRegion(x, y).getZones(x, y, z);
 	}
 	
 	/**
@@ -674,17 +666,9 @@ public class ZoneManager implements IXmlReader
 	 * @param type the type
 	 * @return zone from given coordinates
 	 */
-	@SuppressWarnings("unchecked")
 	public <T extends ZoneType> T getZone(int x, int y, int z, Class<T> type)
 	{
-		for (ZoneType zone : getRegion(x, y).getZones().values())
-		{
-			if (zone.isInsideZone(x, y, z) && type.isInstance(zone))
-			{
-				return (T) zone;
-			}
-		}
-		return null;
+		return getRegion(x, y).getZone(x, y, z, type);
 	}
 	
 	/**
@@ -29,6 +29,7 @@ import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.Rnd;
+import org.l2jmobius.gameserver.instancemanager.ItemPersistenceManager;
 import org.l2jmobius.gameserver.model.item.instance.Item;
 import org.l2jmobius.gameserver.network.SystemMessageId;
 import org.l2jmobius.gameserver.network.serverpackets.SystemMessage;
@@ -267,6 +268,12 @@ public class LotteryManager
 			int count3 = 0;
 			int count4 = 0;
 			
+			// Store the pending item changes first.
+			if (Config.ITEM_WRITE_BEHIND)
+			{
+				ItemPersistenceManager.getInstance().flush();
+			}
+			
 			try (Connection con = DatabaseFactory.getConnection();
 				PreparedStatement ps = con.prepareStatement(SELECT_LOTTERY_ITEM))
 			{
@@ -1287,8 +1287,8 @@ public class EffectList
 			_hiddenBuffs.decrementAndGet();
 		});
 		
-		// Recalculate all stats
-		_owner.getStat().recalculateStats(broadcast);
+		// Recalculate the stats of the changed effects
+		_owner.getStat().recalculateStats(broadcast, true);
 		
 		if (broadcast)
 		{
@@ -307,6 +307,12 @@ public class Spawn extends Location implements IIdentifiable, INamable
 	public void stopRespawn()
 	{
 		_doRespawn = false;
+		
+		// Cancel the respawns already scheduled.
+		if (_scheduledCount > 0)
+		{
+			RespawnTaskManager.getInstance().cancel(this);
+		}
 	}
 	
 	/**
@@ -18,7 +18,6 @@ package org.l2jmobius.gameserver.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -609,14 +608,14 @@ public class World
 	
 	public <T extends WorldObject> List<T> getVisibleObjects(WorldObject object, Class<T> clazz)
 	{
-		final List<T> result = new LinkedList<>();
+		final List<T> result = new ArrayList<>();
 		forEachVisibleObject(object, clazz, result::add);
 		return result;
 	}
 	
 	public <T extends WorldObject> List<T> getVisibleObjects(WorldObject object, Class<T> clazz, Predicate<T> predicate)
 	{
-		final List<T> result = new LinkedList<>();
+		final List<T> result = new ArrayList<>();
 		forEachVisibleObject(object, clazz, o ->
 		{
 			if (predicate.test(o))
@@ -643,39 +642,20 @@ public class World
 		final WorldRegion[] surroundingRegions = worldRegion.getSurroundingRegions();
 		for (int i = 0; i < surroundingRegions.length; i++)
 		{
-			final Collection<WorldObject> visibleObjects = surroundingRegions[i].getVisibleObjects();
-			if (visibleObjects.isEmpty())
-			{
-				continue;
-			}
-			
-			for (WorldObject wo : visibleObjects)
-			{
-				if ((wo == object) || !clazz.isInstance(wo))
-				{
-					continue;
-				}
-				
-				if (wo.getInstanceWorld() != object.getInstanceWorld())
-				{
-					continue;
-				}
-				
-				c.accept(clazz.cast(wo));
-			}
+			surroundingRegions[i].forEachVisibleObject(object, clazz, c);
 		}
 	}
 	
 	public <T extends WorldObject> List<T> getVisibleObjectsInRange(WorldObject object, Class<T> clazz, int range)
 	{
-		final List<T> result = new LinkedList<>();
+		final List<T> result = new ArrayList<>();
 		forEachVisibleObjectInRange(object, clazz, range, result::add);
 		return result;
 	}
 	
 	public <T extends WorldObject> List<T> getVisibleObjectsInRange(WorldObject object, Class<T> clazz, int range, Predicate<T> predicate)
 	{
-		final List<T> result = new LinkedList<>();
+		final List<T> result = new ArrayList<>();
 		forEachVisibleObjectInRange(object, clazz, range, o ->
 		{
 			if (predicate.test(o))
@@ -702,29 +682,7 @@ public class World
 		final WorldRegion[] surroundingRegions = worldRegion.getSurroundingRegions();
 		for (int i = 0; i < surroundingRegions.length; i++)
 		{
-			final Collection<WorldObject> visibleObjects = surroundingRegions[i].getVisibleObjects();
-			if (visibleObjects.isEmpty())
-			{
-				continue;
-			}
-			
-			for (WorldObject wo : visibleObjects)
-			{
-				if ((wo == object) || !clazz.isInstance(wo))
-				{
-					continue;
-				}
-				
-				if (wo.getInstanceWorld() != object.getInstanceWorld())
-				{
-					continue;
-				}
-				
-				if (wo.calculateDistance3D(object) <= range)
-				{
-					c.accept(clazz.cast(wo));
-				}
-			}
+			surroundingRegions[i].forEachVisibleObjectInRange(object, clazz, range, c);
 		}
 	}
 	
@@ -60,6 +60,11 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 	private int _objectId;
 	/** World Region */
 	private WorldRegion _worldRegion;
+	/** The WorldRegion and index of the sub-cell this object is listed in, null and -1 when not listed. */
+	private volatile WorldRegion _cellRegion;
+	private volatile int _regionCell = -1;
+	/** Set while a thread moves this object between sub-cells. */
+	private final AtomicBoolean _cellUpdate = new AtomicBoolean();
 	/** Location */
 	private final Location _location = new Location(0, 0, -10000);
 	/** Instance */
@@ -572,6 +577,32 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 		_worldRegion = region;
 	}
 	
+	WorldRegion getCellRegion()
+	{
+		return _cellRegion;
+	}
+	
+	int getRegionCell()
+	{
+		return _regionCell;
+	}
+	
+	void setRegionCell(WorldRegion region, int cell)
+	{
+		_cellRegion = region;
+		_regionCell = cell;
+	}
+	
+	boolean startCellUpdate()
+	{
+		return _cellUpdate.compareAndSet(false, true);
+	}
+	
+	void finishCellUpdate()
+	{
+		_cellUpdate.set(false);
+	}
+	
 	/**
 	 * Gets the X coordinate.
 	 * @return the X coordinate
@@ -660,7 +691,14 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 	public void setXYZ(int newX, int newY, int newZ)
 	{
 		_location.setXYZ(newX, newY, newZ);
-		
+		revalidateWorldRegion();
+	}
+	
+	/**
+	 * Moves a spawned object to the world region and sub-cell of its current position.
+	 */
+	private void revalidateWorldRegion()
+	{
 		if (_isSpawned)
 		{
 			final WorldRegion newRegion = World.getInstance().getRegion(this);
@@ -674,6 +712,10 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 				World.getInstance().switchRegion(this, newRegion);
 				setWorldRegion(newRegion);
 			}
+			else if (_worldRegion != null)
+			{
+				_worldRegion.updateCell(this);
+			}
 		}
 	}
 	
@@ -748,6 +790,7 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 	{
 		_location.setXYZ(loc.getX(), loc.getY(), loc.getZ());
 		_location.setHeading(loc.getHeading());
+		revalidateWorldRegion();
 	}
 	
 	/**
@@ -17,24 +17,79 @@
 package org.l2jmobius.gameserver.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.gameserver.ai.CtrlIntention;
 import org.l2jmobius.gameserver.model.actor.Attackable;
 import org.l2jmobius.gameserver.model.actor.Npc;
+import org.l2jmobius.gameserver.model.actor.Player;
+import org.l2jmobius.gameserver.model.actor.Summon;
 import org.l2jmobius.gameserver.model.actor.instance.Door;
 import org.l2jmobius.gameserver.model.actor.instance.Fence;
+import org.l2jmobius.gameserver.model.item.instance.Item;
 import org.l2jmobius.gameserver.taskmanager.RandomAnimationTaskManager;
 
 public class WorldRegion
 {
+	/** Bit shift of the sub-cells, dividing a region into 8x8 cells of 256 units. */
+	private static final int CELL_SHIFT = 8;
+	private static final int CELLS_PER_SIDE = 1 << (World.SHIFT_BY - CELL_SHIFT);
+	private static final int CELL_MASK = CELLS_PER_SIDE - 1;
+	
+	/** Object type buckets kept in every sub-cell, in order of the BUCKET_CLASSES array. The last bucket keeps any other object. */
+	private static final Class<?>[] BUCKET_CLASSES =
+	{
+		Player.class,
+		Summon.class,
+		Npc.class,
+		Item.class
+	};
+	private static final int BUCKET_OTHER = BUCKET_CLASSES.length;
+	private static final int BUCKETS = BUCKET_CLASSES.length + 1;
+	
+	/** Cached mask of the buckets that can hold instances of a requested class. */
+	private static final ClassValue<Integer> BUCKET_MASKS = new ClassValue<>()
+	{
+		@Override
+		protected Integer computeValue(Class<?> type)
+		{
+			if (type.isInterface())
+			{
+				return (1 << BUCKETS) - 1;
+			}
+			
+			int mask = 0;
+			boolean subclass = false;
+			for (int i = 0; i < BUCKET_CLASSES.length; i++)
+			{
+				if (type.isAssignableFrom(BUCKET_CLASSES[i]))
+				{
+					mask |= 1 << i;
+				}
+				else if (BUCKET_CLASSES[i].isAssignableFrom(type))
+				{
+					mask |= 1 << i;
+					subclass = true;
+				}
+			}
+			if (!subclass)
+			{
+				mask |= 1 << BUCKET_OTHER;
+			}
+			return mask;
+		}
+	};
+	
 	/** Set containing visible objects in this world region. */
 	private final Set<WorldObject> _visibleObjects = ConcurrentHashMap.newKeySet();
 	/** List containing doors in this world region. */
@@ -43,8 +98,14 @@ public class WorldRegion
 	private final List<Fence> _fences = new ArrayList<>(1);
 	/** Array containing nearby regions forming this world region's effective area. */
 	private WorldRegion[] _surroundingRegions;
+	/** Copy-on-write arrays of visible objects, indexed by type bucket. Used by the unranged queries. */
+	private final AtomicReferenceArray<WorldObject[]> _objects = new AtomicReferenceArray<>(BUCKETS);
+	/** Copy-on-write arrays of visible objects, indexed by sub-cell and type bucket. Used by the range queries. */
+	private final AtomicReferenceArray<WorldObject[]> _cells = new AtomicReferenceArray<>(CELLS_PER_SIDE * CELLS_PER_SIDE * BUCKETS);
 	private final int _regionX;
 	private final int _regionY;
+	private final int _minX;
+	private final int _minY;
 	private boolean _active = Config.GRIDS_ALWAYS_ON;
 	private ScheduledFuture<?> _neighborsTask = null;
 	private final AtomicInteger _activeNeighbors = new AtomicInteger();
@@ -53,6 +114,8 @@ public class WorldRegion
 	{
 		_regionX = regionX;
 		_regionY = regionY;
+		_minX = (regionX - World.OFFSET_X) << World.SHIFT_BY;
+		_minY = (regionY - World.OFFSET_Y) << World.SHIFT_BY;
 	}
 	
 	private void switchAI(boolean isOn)
@@ -273,6 +336,7 @@ public class WorldRegion
 		}
 		
 		_visibleObjects.add(object);
+		addToCell(object);
 		
 		if (object.isDoor())
 		{
@@ -307,6 +371,8 @@ public class WorldRegion
 			return;
 		}
 		
+		removeFromCell(object);
+		
 		if (_visibleObjects.isEmpty())
 		{
 			return;
@@ -340,6 +406,292 @@ public class WorldRegion
 		return _visibleObjects;
 	}
 	
+	/**
+	 * Moves the object to the sub-cell matching its current position, if it is listed in this region.<br>
+	 * A thread finding the object already being moved leaves it to the moving thread, which checks the position again when done.
+	 * @param object the moved object
+	 */
+	public void updateCell(WorldObject object)
+	{
+		while ((object.getCellRegion() == this) && (object.getRegionCell() != getCellIndex(object.getX(), object.getY())))
+		{
+			if (!object.startCellUpdate())
+			{
+				return;
+			}
+			
+			try
+			{
+				if (object.getCellRegion() == this)
+				{
+					final int bucket = getBucket(object);
+					final int cell = getCellIndex(object.getX(), object.getY());
+					removeFromSlot(_cells, (object.getRegionCell() * BUCKETS) + bucket, object);
+					addToSlot(_cells, (cell * BUCKETS) + bucket, object);
+					object.setRegionCell(this, cell);
+				}
+			}
+			finally
+			{
+				object.finishCellUpdate();
+			}
+		}
+	}
+	
+	private void addToCell(WorldObject object)
+	{
+		while (!object.startCellUpdate())
+		{
+			Thread.onSpinWait();
+		}
+		
+		try
+		{
+			final WorldRegion cellRegion = object.getCellRegion();
+			if (cellRegion != null)
+			{
+				cellRegion.unlistObject(object);
+			}
+			
+			final int bucket = getBucket(object);
+			final int cell = getCellIndex(object.getX(), object.getY());
+			addToSlot(_objects, bucket, object);
+			addToSlot(_cells, (cell * BUCKETS) + bucket, object);
+			object.setRegionCell(this, cell);
+		}
+		finally
+		{
+			object.finishCellUpdate();
+		}
+		
+		// The object may have moved while it was being listed.
+		updateCell(object);
+	}
+	
+	private void removeFromCell(WorldObject object)
+	{
+		while (!object.startCellUpdate())
+		{
+			Thread.onSpinWait();
+		}
+		
+		try
+		{
+			if (object.getCellRegion() == this)
+			{
+				unlistObject(object);
+			}
+		}
+		finally
+		{
+			object.finishCellUpdate();
+		}
+	}
+	
+	/**
+	 * Removes the object from the arrays of this region. Called by the thread moving the object.
+	 * @param object the object to remove
+	 */
+	private void unlistObject(WorldObject object)
+	{
+		final int bucket = getBucket(object);
+		removeFromSlot(_objects, bucket, object);
+		removeFromSlot(_cells, (object.getRegionCell() * BUCKETS) + bucket, object);
+		object.setRegionCell(null, -1);
+	}
+	
+	private static void addToSlot(AtomicReferenceArray<WorldObject[]> slots, int slot, WorldObject object)
+	{
+		WorldObject[] current;
+		WorldObject[] updated;
+		do
+		{
+			current = slots.get(slot);
+			if (current == null)
+			{
+				updated = new WorldObject[]
+				{
+					object
+				};
+			}
+			else
+			{
+				updated = Arrays.copyOf(current, current.length + 1);
+				updated[current.length] = object;
+			}
+		}
+		while (!slots.compareAndSet(slot, current, updated));
+	}
+	
+	private static void removeFromSlot(AtomicReferenceArray<WorldObject[]> slots, int slot, WorldObject object)
+	{
+		WorldObject[] current;
+		WorldObject[] updated;
+		do
+		{
+			current = slots.get(slot);
+			if (current == null)
+			{
+				return;
+			}
+			
+			int index = -1;
+			for (int i = 0; i < current.length; i++)
+			{
+				if (current[i] == object)
+				{
+					index = i;
+					break;
+				}
+			}
+			if (index < 0)
+			{
+				return;
+			}
+			
+			if (current.length == 1)
+			{
+				updated = null;
+			}
+			else
+			{
+				updated = new WorldObject[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, index);
+				System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+			}
+		}
+		while (!slots.compareAndSet(slot, current, updated));
+	}
+	
+	private int getCellIndex(int x, int y)
+	{
+		return (((x >> CELL_SHIFT) & CELL_MASK) * CELLS_PER_SIDE) + ((y >> CELL_SHIFT) & CELL_MASK);
+	}
+	
+	private static int getBucket(WorldObject object)
+	{
+		if (object instanceof Player)
+		{
+			return 0;
+		}
+		if (object instanceof Summon)
+		{
+			return 1;
+		}
+		if (object instanceof Npc)
+		{
+			return 2;
+		}
+		if (object instanceof Item)
+		{
+			return 3;
+		}
+		return BUCKET_OTHER;
+	}
+	
+	/**
+	 * Iterates the objects of this region that are instances of the given class, only visiting the type arrays that can contain them.
+	 * @param <T> the type of object
+	 * @param object the object performing the query, excluded from the results
+	 * @param clazz the class of objects to look for
+	 * @param c the consumer of matching objects
+	 */
+	public <T extends WorldObject> void forEachVisibleObject(WorldObject object, Class<T> clazz, Consumer<T> c)
+	{
+		if (_visibleObjects.isEmpty())
+		{
+			return;
+		}
+		
+		final int bucketMask = BUCKET_MASKS.get(clazz);
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			if ((bucketMask & (1 << bucket)) != 0)
+			{
+				forEachInArray(_objects.get(bucket), object, clazz, -1, c);
+			}
+		}
+	}
+	
+	/**
+	 * Iterates the objects of this region that are instances of the given class and within 3D range of the object.<br>
+	 * Only the sub-cells overlapping the range and the type buckets that can contain the class are visited.
+	 * @param <T> the type of object
+	 * @param object the object performing the query, excluded from the results
+	 * @param clazz the class of objects to look for
+	 * @param range the range to look in
+	 * @param c the consumer of matching objects
+	 */
+	public <T extends WorldObject> void forEachVisibleObjectInRange(WorldObject object, Class<T> clazz, int range, Consumer<T> c)
+	{
+		if (_visibleObjects.isEmpty())
+		{
+			return;
+		}
+		
+		final int regionSize = 1 << World.SHIFT_BY;
+		final int minX = (int) Math.max((long) object.getX() - range, _minX) - _minX;
+		final int maxX = (int) Math.min((long) object.getX() + range, (_minX + regionSize) - 1) - _minX;
+		final int minY = (int) Math.max((long) object.getY() - range, _minY) - _minY;
+		final int maxY = (int) Math.min((long) object.getY() + range, (_minY + regionSize) - 1) - _minY;
+		if ((minX > maxX) || (minY > maxY))
+		{
+			return;
+		}
+		
+		forEachInCells(object, clazz, minX >> CELL_SHIFT, maxX >> CELL_SHIFT, minY >> CELL_SHIFT, maxY >> CELL_SHIFT, range, c);
+	}
+	
+	private <T extends WorldObject> void forEachInCells(WorldObject object, Class<T> clazz, int fromCellX, int toCellX, int fromCellY, int toCellY, int range, Consumer<T> c)
+	{
+		final int bucketMask = BUCKET_MASKS.get(clazz);
+		for (int cellX = fromCellX; cellX <= toCellX; cellX++)
+		{
+			for (int cellY = fromCellY; cellY <= toCellY; cellY++)
+			{
+				final int cellSlot = ((cellX * CELLS_PER_SIDE) + cellY) * BUCKETS;
+				for (int bucket = 0; bucket < BUCKETS; bucket++)
+				{
+					if ((bucketMask & (1 << bucket)) == 0)
+					{
+						continue;
+					}
+					
+					forEachInArray(_cells.get(cellSlot + bucket), object, clazz, range, c);
+				}
+			}
+		}
+	}
+	
+	private static <T extends WorldObject> void forEachInArray(WorldObject[] objects, WorldObject object, Class<T> clazz, int range, Consumer<T> c)
+	{
+		if (objects == null)
+		{
+			return;
+		}
+		
+		for (int i = 0; i < objects.length; i++)
+		{
+			final WorldObject wo = objects[i];
+			if ((wo == object) || !clazz.isInstance(wo))
+			{
+				continue;
+			}
+			
+			if (wo.getInstanceWorld() != object.getInstanceWorld())
+			{
+				continue;
+			}
+			
+			if ((range >= 0) && (wo.calculateDistance3D(object) > range))
+			{
+				continue;
+			}
+			
+			c.accept(clazz.cast(wo));
+		}
+	}
+	
 	public synchronized void addDoor(Door door)
 	{
 		if (!_doors.contains(door))
@@ -115,6 +115,7 @@ import org.l2jmobius.gameserver.instancemanager.DuelManager;
 import org.l2jmobius.gameserver.instancemanager.FortManager;
 import org.l2jmobius.gameserver.instancemanager.FortSiegeManager;
 import org.l2jmobius.gameserver.instancemanager.IdManager;
+import org.l2jmobius.gameserver.instancemanager.ItemPersistenceManager;
 import org.l2jmobius.gameserver.instancemanager.ItemsOnGroundManager;
 import org.l2jmobius.gameserver.instancemanager.MatchingRoomManager;
 import org.l2jmobius.gameserver.instancemanager.MentorManager;
@@ -356,6 +357,7 @@ import org.l2jmobius.gameserver.taskmanager.PlayerAutoSaveTaskManager;
 import org.l2jmobius.gameserver.taskmanager.PvpFlagTaskManager;
 import org.l2jmobius.gameserver.util.Broadcast;
 import org.l2jmobius.gameserver.util.EnumIntBitmask;
+import org.l2jmobius.gameserver.util.PlayerRestorePipeline;
 import org.l2jmobius.gameserver.util.Util;
 
 /**
@@ -6581,6 +6583,8 @@ public class Player extends Playable
 		double currentCp = 0;
 		double currentHp = 0;
 		double currentMp = 0;
+		final PlayerRestorePipeline pipeline = new PlayerRestorePipeline(objectId);
+		final long start = System.nanoTime();
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement statement = con.prepareStatement(RESTORE_CHARACTER))
 		{
@@ -6780,6 +6784,7 @@ public class Player extends Playable
 			{
 				return null;
 			}
+			pipeline.record("character", System.nanoTime() - start);
 			
 			if (player.isGM())
 			{
@@ -6787,22 +6792,30 @@ public class Player extends Playable
 				player.setOverrideCond(masks);
 			}
 			
+			// Parts that are only used once the Player is restored, loaded in parallel.
+			final Player restored = player;
+			pipeline.fork("warehouse", restored.getWarehouse()::restore);
+			pipeline.fork("freight", restored.getFreight()::restore);
+			pipeline.fork("friends", restored::restoreFriendList);
+			pipeline.fork("recommendations", restored::loadRecommendations);
+			
 			// Retrieve from the database all items of this Player and add them to _inventory
-			player.getInventory().restore();
-			player.getWarehouse().restore();
-			player.getFreight().restore();
-			player.restoreItemReuse();
+			pipeline.run("inventory", restored.getInventory()::restore);
 			
 			// Retrieve from the database all secondary data of this Player
 			// Note that Clan, Noblesse and Hero skills are given separately and not here.
 			// Retrieve from the database all skills of this Player and add them to _skills
-			player.restoreCharData();
+			player.restoreCharData(pipeline);
+			
+			// Item reuse needs the warehouse.
+			pipeline.join();
+			pipeline.run("item reuse", restored::restoreItemReuse);
 			
 			// Reward auto-get skills and all available skills if auto-learn skills is true.
 			player.rewardSkills();
 			
 			// Restore player shortcuts
-			player.restoreShortCuts();
+			pipeline.run("shortcuts", restored::restoreShortCuts);
 			
 			// Initialize status update cache
 			player.initStatusUpdateCache();
@@ -6844,9 +6857,6 @@ public class Player extends Playable
 			// Update the expertise status of the Player
 			player.refreshExpertisePenalty();
 			
-			player.restoreFriendList();
-			
-			player.loadRecommendations();
 			player.startRecoGiveTask();
 			player.startOnlineTimeUpdateTask();
 			
@@ -6858,6 +6868,10 @@ public class Player extends Playable
 		{
 			LOGGER.log(Level.SEVERE, "Failed loading character.", e);
 		}
+		finally
+		{
+			pipeline.finish();
+		}
 		return player;
 	}
 	
@@ -6952,35 +6966,37 @@ public class Player extends Playable
 	 * <li>Premium Item List</li>
 	 * <li>Pet Inventory Items</li>
 	 * </ul>
+	 * Skills and henna change the stats of the Player and are restored on the current thread, the others in parallel.
+	 * @param pipeline the restore pipeline
 	 */
-	private void restoreCharData()
+	private void restoreCharData(PlayerRestorePipeline pipeline)
 	{
-		// Retrieve from the database all skills of this Player and add them to _skills.
-		restoreSkills();
-		
 		// Retrieve from the database all macroses of this Player and add them to _macros.
-		_macros.restoreMe();
-		
-		// Retrieve from the database all henna of this Player and add them to _henna.
-		restoreHenna();
+		pipeline.fork("macros", _macros::restoreMe);
 		
 		// Retrieve from the database all teleport bookmark of this Player and add them to _tpbookmark.
-		restoreTeleportBookmark();
+		pipeline.fork("bookmarks", this::restoreTeleportBookmark);
 		
 		// Retrieve from the database the recipe book of this Player.
-		restoreRecipeBook(true);
+		pipeline.fork("recipe book", () -> restoreRecipeBook(true));
 		
 		// Restore Recipe Shop list.
 		if (Config.STORE_RECIPE_SHOPLIST)
 		{
-			restoreRecipeShopList();
+			pipeline.fork("recipe shop", this::restoreRecipeShopList);
 		}
 		
 		// Load Premium Item List.
-		loadPremiumItemList();
+		pipeline.fork("premium items", this::loadPremiumItemList);
 		
 		// Restore items in pet inventory.
-		restorePetInventoryItems();
+		pipeline.fork("pet inventory", this::restorePetInventoryItems);
+		
+		// Retrieve from the database all skills of this Player and add them to _skills.
+		pipeline.run("skills", this::restoreSkills);
+		
+		// Retrieve from the database all henna of this Player and add them to _henna.
+		pipeline.run("henna", this::restoreHenna);
 	}
 	
 	/**
@@ -13126,6 +13142,12 @@ public class Player extends Playable
 	 */
 	private void restorePetInventoryItems()
 	{
+		// Store the pending item changes first.
+		if (Config.ITEM_WRITE_BEHIND)
+		{
+			ItemPersistenceManager.getInstance().flush();
+		}
+		
 		try (Connection con = DatabaseFactory.getConnection();
 			PreparedStatement statement = con.prepareStatement("SELECT object_id FROM `items` WHERE `owner_id`=? AND (`loc`='PET' OR `loc`='PET_EQUIP') LIMIT 1;"))
 		{
@@ -16,9 +16,9 @@
  */
 package org.l2jmobius.gameserver.model.actor.stat;
 
-import java.util.Collections;
-import java.util.EnumMap;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.OptionalDouble;
@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
+import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.gameserver.enums.AttributeType;
@@ -46,6 +47,28 @@ import org.l2jmobius.gameserver.util.MathUtil;
 
 public class CreatureStat
 {
+	private static final Logger LOGGER = Logger.getLogger(CreatureStat.class.getName());
+	
+	private static final Stat[] STATS = Stat.values();
+	private static final int STAT_WORDS = (Stat.NUM_STATS + 63) >>> 6;
+	private static final double[] RESET_ADD_VALUES = new double[Stat.NUM_STATS];
+	private static final double[] RESET_MUL_VALUES = new double[Stat.NUM_STATS];
+	private static final boolean[] RESET_ADD_PRESENT = new boolean[Stat.NUM_STATS];
+	private static final boolean[] RESET_MUL_PRESENT = new boolean[Stat.NUM_STATS];
+	static
+	{
+		for (Stat stat : STATS)
+		{
+			RESET_ADD_VALUES[stat.ordinal()] = stat.getResetAddValue();
+			RESET_MUL_VALUES[stat.ordinal()] = stat.getResetMulValue();
+			RESET_ADD_PRESENT[stat.ordinal()] = stat.getResetAddValue() != 0;
+			RESET_MUL_PRESENT[stat.ordinal()] = stat.getResetMulValue() != 0;
+		}
+	}
+	
+	/** Per thread copy of the previous stat values, used to find the stats changed by a recalculation. */
+	private static final ThreadLocal<StatSnapshot> SNAPSHOT = ThreadLocal.withInitial(StatSnapshot::new);
+	
 	private final Creature _creature;
 	private long _exp = 0;
 	private long _sp = 0;
@@ -55,8 +78,11 @@ public class CreatureStat
 	private double _vampiricSum = 0;
 	private double _mpVampiricSum = 0;
 	
-	private final Map<Stat, Double> _statsAdd = new EnumMap<>(Stat.class);
-	private final Map<Stat, Double> _statsMul = new EnumMap<>(Stat.class);
+	/** Stat add and mul values indexed by Stat ordinal. A stat without a value is not present and its getters return the default value. */
+	private final double[] _statsAdd = new double[Stat.NUM_STATS];
+	private final double[] _statsMul = new double[Stat.NUM_STATS];
+	private final boolean[] _statsAddPresent = new boolean[Stat.NUM_STATS];
+	private final boolean[] _statsMulPresent = new boolean[Stat.NUM_STATS];
 	private final Map<Stat, Map<MoveType, Double>> _moveTypeStats = new ConcurrentHashMap<>();
 	private final Map<Integer, Double> _reuseStat = new ConcurrentHashMap<>();
 	private final Map<Integer, Double> _mpConsumeStat = new ConcurrentHashMap<>();
@@ -76,6 +102,18 @@ public class CreatureStat
 	
 	private final ReentrantReadWriteLock _lock = new ReentrantReadWriteLock();
 	
+	/** Buffs pumped by the last recalculation, used to find the buffs added or removed since. */
+	private Set<BuffInfo> _pumpedInfos = new LinkedHashSet<>();
+	private Set<BuffInfo> _nextPumpedInfos = new LinkedHashSet<>();
+	private boolean _pumpedInfosValid = false;
+	/** Pump tracking, only used by the thread holding the write lock. */
+	private Thread _pumpThread;
+	private AbstractEffect _pumpEffect;
+	private boolean _pumpFullOnly;
+	private long[] _pumpMask;
+	private final long[] _pumpRecord = new long[STAT_WORDS];
+	private final long[] _dirtyStats = new long[STAT_WORDS];
+	
 	public CreatureStat(Creature creature)
 	{
 		_creature = creature;
@@ -753,9 +791,22 @@ public class CreatureStat
 	 * @param stat
 	 * @param value
 	 */
-	public void mergeAdd(Stat stat, Double value)
+	public void mergeAdd(Stat stat, double value)
 	{
-		_statsAdd.merge(stat, value, stat::functionAdd);
+		final int index = stat.ordinal();
+		if ((_pumpEffect != null) && !recordPump(index))
+		{
+			return;
+		}
+		if (_statsAddPresent[index])
+		{
+			_statsAdd[index] = stat.functionAdd(_statsAdd[index], value);
+		}
+		else
+		{
+			_statsAdd[index] = value;
+			_statsAddPresent[index] = true;
+		}
 	}
 	
 	/**
@@ -763,9 +814,34 @@ public class CreatureStat
 	 * @param stat
 	 * @param value
 	 */
-	public void mergeMul(Stat stat, Double value)
+	public void mergeMul(Stat stat, double value)
 	{
-		_statsMul.merge(stat, value, stat::functionMul);
+		final int index = stat.ordinal();
+		if ((_pumpEffect != null) && !recordPump(index))
+		{
+			return;
+		}
+		if (_statsMulPresent[index])
+		{
+			_statsMul[index] = stat.functionMul(_statsMul[index], value);
+		}
+		else
+		{
+			_statsMul[index] = value;
+			_statsMulPresent[index] = true;
+		}
+	}
+	
+	/**
+	 * Records a stat modified by the effect being pumped.
+	 * @param index the Stat ordinal
+	 * @return {@code true} if the stat can be modified, {@code false} if it is not dirty during an incremental recalculation
+	 */
+	private boolean recordPump(int index)
+	{
+		final long bit = 1L << index;
+		_pumpRecord[index >>> 6] |= bit;
+		return (_pumpMask == null) || ((_pumpMask[index >>> 6] & bit) != 0);
 	}
 	
 	/**
@@ -787,8 +863,7 @@ public class CreatureStat
 		_lock.readLock().lock();
 		try
 		{
-			final Double val = _statsAdd.get(stat);
-			return val != null ? val.doubleValue() : defaultValue;
+			return getAddValue(stat, defaultValue);
 		}
 		finally
 		{
@@ -816,8 +891,12 @@ public class CreatureStat
 	 */
 	public double getAddValue(Stat stat, double defaultValue)
 	{
-		final Double val = _statsAdd.get(stat);
-		return val != null ? val.doubleValue() : defaultValue;
+		final int index = stat.ordinal();
+		if ((_pumpEffect != null) && (_pumpThread == Thread.currentThread()))
+		{
+			_pumpFullOnly = true;
+		}
+		return _statsAddPresent[index] ? _statsAdd[index] : defaultValue;
 	}
 	
 	/**
@@ -839,8 +918,7 @@ public class CreatureStat
 		_lock.readLock().lock();
 		try
 		{
-			final Double val = _statsMul.get(stat);
-			return val != null ? val.doubleValue() : defaultValue;
+			return getMulValue(stat, defaultValue);
 		}
 		finally
 		{
@@ -868,8 +946,12 @@ public class CreatureStat
 	 */
 	public double getMulValue(Stat stat, double defaultValue)
 	{
-		final Double val = _statsMul.get(stat);
-		return val != null ? val.doubleValue() : defaultValue;
+		final int index = stat.ordinal();
+		if ((_pumpEffect != null) && (_pumpThread == Thread.currentThread()))
+		{
+			_pumpFullOnly = true;
+		}
+		return _statsMulPresent[index] ? _statsMul[index] : defaultValue;
 	}
 	
 	/**
@@ -895,21 +977,33 @@ public class CreatureStat
 	
 	protected void resetStats()
 	{
-		_statsAdd.clear();
-		_statsMul.clear();
 		_vampiricSum = 0;
 		_mpVampiricSum = 0;
 		
 		// Initialize default values
-		for (Stat stat : Stat.values())
+		System.arraycopy(RESET_ADD_VALUES, 0, _statsAdd, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_MUL_VALUES, 0, _statsMul, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_ADD_PRESENT, 0, _statsAddPresent, 0, Stat.NUM_STATS);
+		System.arraycopy(RESET_MUL_PRESENT, 0, _statsMulPresent, 0, Stat.NUM_STATS);
+	}
+	
+	/**
+	 * Resets the given stats to their default values.
+	 * @param stats bit set of Stat ordinals
+	 */
+	protected void resetStats(long[] stats)
+	{
+		for (int word = 0; word < STAT_WORDS; word++)
 		{
-			if (stat.getResetAddValue() != 0)
-			{
-				_statsAdd.put(stat, stat.getResetAddValue());
-			}
-			if (stat.getResetMulValue() != 0)
+			long bits = stats[word];
+			while (bits != 0)
 			{
-				_statsMul.put(stat, stat.getResetMulValue());
+				final int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				_statsAdd[index] = RESET_ADD_VALUES[index];
+				_statsMul[index] = RESET_MUL_VALUES[index];
+				_statsAddPresent[index] = RESET_ADD_PRESENT[index];
+				_statsMulPresent[index] = RESET_MUL_PRESENT[index];
 			}
 		}
 	}
@@ -920,112 +1014,326 @@ public class CreatureStat
 	 */
 	public void recalculateStats(boolean broadcast)
 	{
-		// Copy old data before wiping it out.
-		final Map<Stat, Double> adds = !broadcast ? Collections.emptyMap() : new EnumMap<>(_statsAdd);
-		final Map<Stat, Double> muls = !broadcast ? Collections.emptyMap() : new EnumMap<>(_statsMul);
+		recalculateStats(broadcast, false);
+	}
+	
+	/**
+	 * Locks and recalculates stats.<br>
+	 * An incremental recalculation only resets and pumps again the stats modified by the buffs added or removed since the last recalculation.<br>
+	 * It falls back to a full recalculation when a changed buff has effects that have not been pumped yet or that cannot be pumped alone.
+	 * @param broadcast
+	 * @param incremental {@code true} if only the effect list has changed since the last recalculation
+	 */
+	public void recalculateStats(boolean broadcast, boolean incremental)
+	{
+		Set<Stat> changed = null;
+		StatSnapshot snapshot = null;
 		
 		_lock.writeLock().lock();
 		
 		try
+		{
+			// Copy old data before wiping it out.
+			if (broadcast)
+			{
+				snapshot = SNAPSHOT.get();
+				if (snapshot.isInUse())
+				{
+					// Nested recalculation on this thread.
+					snapshot = new StatSnapshot();
+				}
+				snapshot.copy(this);
+			}
+			
+			if (_lock.getWriteHoldCount() > 1)
+			{
+				// Nested recalculation from an effect pump, the effect cannot be pumped alone.
+				recalculateNested();
+			}
+			else
+			{
+				_pumpThread = Thread.currentThread();
+				recalculatePumps(incremental);
+			}
+			
+			_attackSpeedMultiplier = Formulas.calcAtkSpdMultiplier(_creature);
+			_mAttackSpeedMultiplier = Formulas.calcMAtkSpdMultiplier(_creature);
+			
+			// Calculate the difference between old and new stats.
+			if (snapshot != null)
+			{
+				changed = snapshot.diff(this);
+			}
+		}
+		finally
+		{
+			if (_lock.getWriteHoldCount() == 1)
+			{
+				_pumpThread = null;
+			}
+			if (snapshot != null)
+			{
+				snapshot.release();
+			}
+			_lock.writeLock().unlock();
+		}
+		
+		// Notify recalculation to child classes
+		onRecalculateStats(broadcast);
+		
+		if (changed != null)
+		{
+			_creature.broadcastModifiedStats(changed);
+		}
+	}
+	
+	/**
+	 * Resets and pumps again the stats modified by the changed buffs, or all stats.
+	 * @param incremental {@code true} if only the effect list has changed since the last recalculation
+	 */
+	private void recalculatePumps(boolean incremental)
+	{
+		// Collect the buffs to pump.
+		final Set<BuffInfo> infos = collectPumpedInfos(_nextPumpedInfos);
+		
+		if (incremental && Config.INCREMENTAL_STAT_RECALCULATION && _pumpedInfosValid && markChangedStats(infos))
+		{
+			// Wipe only the data of the changed stats and call pump to the effects that modify them.
+			resetStats(_dirtyStats);
+			_pumpMask = _dirtyStats;
+			try
+			{
+				for (BuffInfo info : infos)
+				{
+					pump(info);
+				}
+			}
+			finally
+			{
+				_pumpMask = null;
+			}
+			
+			if (Config.INCREMENTAL_STAT_RECALCULATION_VERIFY)
+			{
+				verifyIncremental(infos);
+			}
+		}
+		else
 		{
 			// Wipe all the data.
 			resetStats();
 			
 			// Call pump to each effect.
-			for (BuffInfo info : _creature.getEffectList().getPassives())
+			for (BuffInfo info : infos)
 			{
-				if (info.isInUse() && info.getSkill().checkConditions(SkillConditionScope.PASSIVE, _creature, _creature.getTarget()))
+				pump(info);
+			}
+		}
+		
+		// Keep the pumped buffs for the next incremental recalculation.
+		_nextPumpedInfos = _pumpedInfos;
+		_nextPumpedInfos.clear();
+		_pumpedInfos = infos;
+		_pumpedInfosValid = true;
+	}
+	
+	/**
+	 * Recalculates all stats while an effect of the outer recalculation is being pumped, keeping the pump tracking of the outer recalculation.
+	 */
+	private void recalculateNested()
+	{
+		final AbstractEffect pumpEffect = _pumpEffect;
+		final long[] pumpMask = _pumpMask;
+		final long[] pumpRecord = _pumpRecord.clone();
+		_pumpMask = null;
+		try
+		{
+			resetStats();
+			for (BuffInfo info : collectPumpedInfos(new LinkedHashSet<>()))
+			{
+				pump(info);
+			}
+		}
+		finally
+		{
+			_pumpEffect = pumpEffect;
+			_pumpMask = pumpMask;
+			System.arraycopy(pumpRecord, 0, _pumpRecord, 0, STAT_WORDS);
+			_pumpFullOnly = true;
+		}
+	}
+	
+	/**
+	 * @param infos the set to fill
+	 * @return the buffs that pass their use and passive conditions, in pump order
+	 */
+	private Set<BuffInfo> collectPumpedInfos(Set<BuffInfo> infos)
+	{
+		for (BuffInfo info : _creature.getEffectList().getPassives())
+		{
+			if (info.isInUse() && info.getSkill().checkConditions(SkillConditionScope.PASSIVE, _creature, _creature.getTarget()))
+			{
+				infos.add(info);
+			}
+		}
+		for (BuffInfo info : _creature.getEffectList().getOptions())
+		{
+			if (info.isInUse())
+			{
+				infos.add(info);
+			}
+		}
+		for (BuffInfo info : _creature.getEffectList().getEffects())
+		{
+			if (info.isInUse())
+			{
+				infos.add(info);
+			}
+		}
+		
+		// Pump for summon ABILITY_CHANGE abnormal type.
+		if (_creature.isSummon() && (_creature.getActingPlayer() != null) && _creature.getActingPlayer().hasAbnormalType(AbnormalType.ABILITY_CHANGE))
+		{
+			for (BuffInfo info : _creature.getActingPlayer().getEffectList().getEffects())
+			{
+				if (info.isInUse() && info.isAbnormalType(AbnormalType.ABILITY_CHANGE))
 				{
-					for (AbstractEffect effect : info.getEffects())
-					{
-						if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(info.getEffector(), info.getEffected(), info.getSkill()))
-						{
-							effect.pump(info.getEffected(), info.getSkill());
-						}
-					}
+					infos.add(info);
 				}
 			}
-			for (BuffInfo info : _creature.getEffectList().getOptions())
+		}
+		return infos;
+	}
+	
+	/**
+	 * Marks as dirty the stats modified by the buffs added or removed since the last recalculation.<br>
+	 * Stats of effects that cannot be pumped alone are always dirty, so they are refreshed as in a full recalculation.
+	 * @param infos the buffs to pump
+	 * @return {@code true} if the changed stats are known, {@code false} if a full recalculation is needed
+	 */
+	private boolean markChangedStats(Set<BuffInfo> infos)
+	{
+		Arrays.fill(_dirtyStats, 0);
+		for (BuffInfo info : infos)
+		{
+			if (!_pumpedInfos.contains(info))
 			{
-				if (info.isInUse())
+				if (!markChangedStats(info))
 				{
-					for (AbstractEffect effect : info.getEffects())
-					{
-						if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(info.getEffector(), info.getEffected(), info.getSkill()))
-						{
-							effect.pump(info.getEffected(), info.getSkill());
-						}
-					}
+					return false;
 				}
+				continue;
 			}
-			for (BuffInfo info : _creature.getEffectList().getEffects())
+			
+			for (AbstractEffect effect : info.getEffects())
 			{
-				if (info.isInUse())
+				final long[] stats = effect.getPumpedStats();
+				if ((stats != null) && !effect.isIncrementalPump())
 				{
-					for (AbstractEffect effect : info.getEffects())
+					for (int i = 0; i < STAT_WORDS; i++)
 					{
-						if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(info.getEffector(), info.getEffected(), info.getSkill()))
-						{
-							effect.pump(info.getEffected(), info.getSkill());
-						}
+						_dirtyStats[i] |= stats[i];
 					}
 				}
 			}
-			
-			// Pump for summon ABILITY_CHANGE abnormal type.
-			if (_creature.isSummon() && (_creature.getActingPlayer() != null) && _creature.getActingPlayer().hasAbnormalType(AbnormalType.ABILITY_CHANGE))
+		}
+		for (BuffInfo info : _pumpedInfos)
+		{
+			if (!infos.contains(info) && !markChangedStats(info))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private boolean markChangedStats(BuffInfo info)
+	{
+		for (AbstractEffect effect : info.getEffects())
+		{
+			final long[] stats = effect.getPumpedStats();
+			if ((stats == null) || !effect.isIncrementalPump())
 			{
-				for (BuffInfo info : _creature.getActingPlayer().getEffectList().getEffects())
+				return false;
+			}
+			for (int i = 0; i < STAT_WORDS; i++)
+			{
+				_dirtyStats[i] |= stats[i];
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Calls pump to the effects of the given buff.<br>
+	 * During an incremental recalculation only effects that modify a dirty stat are pumped.
+	 * @param info the buff
+	 */
+	private void pump(BuffInfo info)
+	{
+		// Summon ABILITY_CHANGE buffs belong to the owner.
+		final boolean ownerInfo = info.getEffected() != _creature;
+		for (AbstractEffect effect : info.getEffects())
+		{
+			if (_pumpMask != null)
+			{
+				final long[] stats = effect.getPumpedStats();
+				if ((stats == null) || !intersects(stats, _pumpMask))
 				{
-					if (info.isInUse() && info.isAbnormalType(AbnormalType.ABILITY_CHANGE))
-					{
-						for (AbstractEffect effect : info.getEffects())
-						{
-							if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(_creature, _creature, info.getSkill()))
-							{
-								effect.pump(_creature, info.getSkill());
-							}
-						}
-					}
+					continue;
 				}
 			}
 			
-			_attackSpeedMultiplier = Formulas.calcAtkSpdMultiplier(_creature);
-			_mAttackSpeedMultiplier = Formulas.calcMAtkSpdMultiplier(_creature);
+			if (effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && (ownerInfo ? effect.canPump(_creature, _creature, info.getSkill()) : effect.canPump(info.getEffector(), info.getEffected(), info.getSkill())))
+			{
+				Arrays.fill(_pumpRecord, 0);
+				_pumpFullOnly = false;
+				_pumpEffect = effect;
+				try
+				{
+					effect.pump(ownerInfo ? _creature : info.getEffected(), info.getSkill());
+				}
+				finally
+				{
+					_pumpEffect = null;
+				}
+				effect.addPumpedStats(_pumpRecord, !_pumpFullOnly);
+			}
 		}
-		finally
+	}
+	
+	/**
+	 * Runs a full recalculation after an incremental one and logs the stats that differ.
+	 * @param infos the buffs to pump
+	 */
+	private void verifyIncremental(Set<BuffInfo> infos)
+	{
+		final StatSnapshot incremental = new StatSnapshot();
+		incremental.copy(this);
+		
+		resetStats();
+		for (BuffInfo info : infos)
 		{
-			_lock.writeLock().unlock();
+			pump(info);
 		}
 		
-		// Notify recalculation to child classes
-		onRecalculateStats(broadcast);
-		
-		if (broadcast)
+		final Set<Stat> mismatches = incremental.mismatches(this);
+		if (!mismatches.isEmpty())
 		{
-			// Calculate the difference between old and new stats.
-			final Set<Stat> changed = EnumSet.noneOf(Stat.class);
-			Double statAddResetValue;
-			Double statMulResetValue;
-			Double statAddValue;
-			Double statMulValue;
-			Double addsValue;
-			Double mulsValue;
-			for (Stat stat : Stat.values())
+			LOGGER.warning(getClass().getSimpleName() + ": Incremental stat recalculation of " + _creature + " differs from full recalculation for " + mismatches);
+		}
+	}
+	
+	private static boolean intersects(long[] a, long[] b)
+	{
+		for (int i = 0; i < STAT_WORDS; i++)
+		{
+			if ((a[i] & b[i]) != 0)
 			{
-				statAddResetValue = stat.getResetAddValue();
-				statMulResetValue = stat.getResetMulValue();
-				addsValue = adds.getOrDefault(stat, statAddResetValue);
-				mulsValue = muls.getOrDefault(stat, statMulResetValue);
-				statAddValue = _statsAdd.getOrDefault(stat, statAddResetValue);
-				statMulValue = _statsMul.getOrDefault(stat, statMulResetValue);
-				if (addsValue.equals(statAddResetValue) || mulsValue.equals(statMulResetValue) || !addsValue.equals(statAddValue) || !mulsValue.equals(statMulValue))
-				{
-					changed.add(stat);
-				}
+				return true;
 			}
-			_creature.broadcastModifiedStats(changed);
 		}
+		return false;
 	}
 	
 	protected void onRecalculateStats(boolean broadcast)
@@ -1131,6 +1439,15 @@ public class CreatureStat
 	
 	public void addToVampiricSum(double sum)
 	{
+		if (_pumpEffect != null)
+		{
+			// Not reset by incremental recalculations.
+			_pumpFullOnly = true;
+			if (_pumpMask != null)
+			{
+				return;
+			}
+		}
 		_vampiricSum += sum;
 	}
 	
@@ -1149,6 +1466,15 @@ public class CreatureStat
 	
 	public void addToMpVampiricSum(double sum)
 	{
+		if (_pumpEffect != null)
+		{
+			// Not reset by incremental recalculations.
+			_pumpFullOnly = true;
+			if (_pumpMask != null)
+			{
+				return;
+			}
+		}
 		_mpVampiricSum += sum;
 	}
 	
@@ -1202,4 +1528,67 @@ public class CreatureStat
 	{
 		return _fixedValue.remove(stat) != null;
 	}
+	
+	/**
+	 * Holds a copy of the add and mul values of a CreatureStat taken before a recalculation.
+	 */
+	private static class StatSnapshot
+	{
+		private final double[] _adds = new double[Stat.NUM_STATS];
+		private final double[] _muls = new double[Stat.NUM_STATS];
+		private final boolean[] _addsPresent = new boolean[Stat.NUM_STATS];
+		private final boolean[] _mulsPresent = new boolean[Stat.NUM_STATS];
+		private boolean _inUse;
+		
+		public boolean isInUse()
+		{
+			return _inUse;
+		}
+		
+		public void release()
+		{
+			_inUse = false;
+		}
+		
+		public void copy(CreatureStat stat)
+		{
+			_inUse = true;
+			System.arraycopy(stat._statsAdd, 0, _adds, 0, Stat.NUM_STATS);
+			System.arraycopy(stat._statsMul, 0, _muls, 0, Stat.NUM_STATS);
+			System.arraycopy(stat._statsAddPresent, 0, _addsPresent, 0, Stat.NUM_STATS);
+			System.arraycopy(stat._statsMulPresent, 0, _mulsPresent, 0, Stat.NUM_STATS);
+		}
+		
+		public Set<Stat> mismatches(CreatureStat stat)
+		{
+			final Set<Stat> mismatches = EnumSet.noneOf(Stat.class);
+			for (int i = 0; i < Stat.NUM_STATS; i++)
+			{
+				if ((_addsPresent[i] != stat._statsAddPresent[i]) || (_mulsPresent[i] != stat._statsMulPresent[i]) || (Double.compare(_adds[i], stat._statsAdd[i]) != 0) || (Double.compare(_muls[i], stat._statsMul[i]) != 0))
+				{
+					mismatches.add(STATS[i]);
+				}
+			}
+			return mismatches;
+		}
+		
+		public Set<Stat> diff(CreatureStat stat)
+		{
+			final Set<Stat> changed = EnumSet.noneOf(Stat.class);
+			for (int i = 0; i < Stat.NUM_STATS; i++)
+			{
+				final double addResetValue = RESET_ADD_VALUES[i];
+				final double mulResetValue = RESET_MUL_VALUES[i];
+				final double oldAdd = _addsPresent[i] ? _adds[i] : addResetValue;
+				final double oldMul = _mulsPresent[i] ? _muls[i] : mulResetValue;
+				final double newAdd = stat._statsAddPresent[i] ? stat._statsAdd[i] : addResetValue;
+				final double newMul = stat._statsMulPresent[i] ? stat._statsMul[i] : mulResetValue;
+				if ((Double.compare(oldAdd, addResetValue) == 0) || (Double.compare(oldMul, mulResetValue) == 0) || (Double.compare(oldAdd, newAdd) != 0) || (Double.compare(oldMul, newMul) != 0))
+				{
+					changed.add(STATS[i]);
+				}
+			}
+			return changed;
+		}
+	}
 }
@@ -671,11 +671,11 @@ public class PlayerStat extends PlayableStat
 	}
 	
 	@Override
-	public void recalculateStats(boolean broadcast)
+	public void recalculateStats(boolean broadcast, boolean incremental)
 	{
 		if (!getActiveChar().isChangingClass())
 		{
-			super.recalculateStats(broadcast);
+			super.recalculateStats(broadcast, incremental);
 		}
 	}
 	
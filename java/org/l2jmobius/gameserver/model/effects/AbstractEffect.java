@@ -36,6 +36,10 @@ public abstract class AbstractEffect
 	
 	private int _ticks;
 	
+	/** Stat ordinals modified by pump, shared by all creatures affected by this effect. */
+	private volatile long[] _pumpedStats;
+	private volatile boolean _incrementalPump = true;
+	
 	/**
 	 * Gets the effect ticks
 	 * @return the ticks
@@ -159,6 +163,65 @@ public abstract class AbstractEffect
 	{
 	}
 	
+	/**
+	 * Verify if this effect's pump can be recalculated alone for the stats it modifies.<br>
+	 * Override to return {@code false} when pump depends on values that are not of the effected's own stats (e.g. the owner's stats).
+	 * @return {@code true} if the pump of this effect can be part of an incremental stat recalculation, {@code false} otherwise
+	 */
+	public boolean isIncrementalPump()
+	{
+		return _incrementalPump;
+	}
+	
+	/**
+	 * Gets the stats this effect has been seen to modify from {@link #pump(Creature, Skill)}.
+	 * @return bit set of Stat ordinals, {@code null} if this effect has not been pumped yet
+	 */
+	public long[] getPumpedStats()
+	{
+		return _pumpedStats;
+	}
+	
+	/**
+	 * Adds the stats modified by a {@link #pump(Creature, Skill)} call to the stats of this effect.
+	 * @param stats bit set of Stat ordinals modified by the pump
+	 * @param incremental {@code false} if the pump read its own stats or modified values other than stat adds and muls
+	 */
+	public void addPumpedStats(long[] stats, boolean incremental)
+	{
+		final long[] pumpedStats = _pumpedStats;
+		if ((pumpedStats != null) && (incremental || !_incrementalPump) && containsAll(pumpedStats, stats))
+		{
+			return;
+		}
+		
+		synchronized (this)
+		{
+			final long[] merged = _pumpedStats != null ? _pumpedStats.clone() : new long[stats.length];
+			for (int i = 0; i < stats.length; i++)
+			{
+				merged[i] |= stats[i];
+			}
+			if (!incremental)
+			{
+				_incrementalPump = false;
+			}
+			_pumpedStats = merged;
+		}
+	}
+	
+	private static boolean containsAll(long[] set, long[] subset)
+	{
+		for (int i = 0; i < subset.length; i++)
+		{
+			if ((subset[i] & ~set[i]) != 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	/**
 	 * Get this effect's type.<br>
 	 * TODO: Remove.
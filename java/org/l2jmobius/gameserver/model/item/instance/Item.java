@@ -49,6 +49,7 @@ import org.l2jmobius.gameserver.enums.UserInfoType;
 import org.l2jmobius.gameserver.geoengine.GeoEngine;
 import org.l2jmobius.gameserver.instancemanager.CastleManager;
 import org.l2jmobius.gameserver.instancemanager.IdManager;
+import org.l2jmobius.gameserver.instancemanager.ItemPersistenceManager;
 import org.l2jmobius.gameserver.instancemanager.ItemsOnGroundManager;
 import org.l2jmobius.gameserver.instancemanager.SiegeGuardManager;
 import org.l2jmobius.gameserver.model.ArmorSet;
@@ -1578,11 +1579,28 @@ public class Item extends WorldObject
 			{
 				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((_count == 0) && (_loc != ItemLocation.LEASE)))
 				{
-					removeFromDb();
+					if (Config.ITEM_WRITE_BEHIND)
+					{
+						ItemPersistenceManager.getInstance().add(this);
+					}
+					else
+					{
+						removeFromDb();
+					}
 				}
 				else if (!Config.LAZY_ITEMS_UPDATE || force)
 				{
-					updateInDb();
+					if (Config.ITEM_WRITE_BEHIND)
+					{
+						if (!_storedInDb)
+						{
+							ItemPersistenceManager.getInstance().add(this);
+						}
+					}
+					else
+					{
+						updateInDb();
+					}
 				}
 			}
 			else
@@ -1591,7 +1609,155 @@ public class Item extends WorldObject
 				{
 					return;
 				}
-				insertIntoDb();
+				
+				if (Config.ITEM_WRITE_BEHIND)
+				{
+					ItemPersistenceManager.getInstance().add(this);
+				}
+				else
+				{
+					insertIntoDb();
+				}
+			}
+		}
+		finally
+		{
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * Adds the pending database change of this item to the batched statements of ItemPersistenceManager.<br>
+	 * The item is considered stored once added, a failed batch is undone with {@link #revertBatch(int)}.
+	 * @param con the connection of the batch, used for augmentation and elemental updates
+	 * @param insert the batched insert statement
+	 * @param update the batched update statement
+	 * @param deletes the batched delete statements, each taking the object id as only parameter
+	 * @return the ItemPersistenceManager action added to the batch
+	 * @throws SQLException
+	 */
+	public int addToBatch(Connection con, PreparedStatement insert, PreparedStatement update, PreparedStatement[] deletes) throws SQLException
+	{
+		_dbLock.lock();
+		
+		try
+		{
+			if (_wear)
+			{
+				return ItemPersistenceManager.NONE;
+			}
+			
+			final boolean remove = (_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((_count == 0) && (_loc != ItemLocation.LEASE));
+			if (_existsInDb)
+			{
+				if (remove)
+				{
+					for (PreparedStatement ps : deletes)
+					{
+						ps.setInt(1, getObjectId());
+						ps.addBatch();
+					}
+					_existsInDb = false;
+					_storedInDb = false;
+					return ItemPersistenceManager.DELETE;
+				}
+				
+				if (_storedInDb)
+				{
+					return ItemPersistenceManager.NONE;
+				}
+				
+				update.setInt(1, _ownerId);
+				update.setLong(2, _count);
+				update.setString(3, _loc.name());
+				update.setInt(4, _locData);
+				update.setInt(5, _enchantLevel);
+				update.setInt(6, _type1);
+				update.setInt(7, _type2);
+				update.setInt(8, _mana);
+				update.setLong(9, _time);
+				update.setInt(10, getObjectId());
+				update.addBatch();
+				_storedInDb = true;
+				
+				if (_augmentation != null)
+				{
+					updateItemOptions(con);
+				}
+				
+				if (_elementals != null)
+				{
+					updateItemElements(con);
+				}
+				return ItemPersistenceManager.UPDATE;
+			}
+			
+			if (remove || (getObjectId() == 0))
+			{
+				return ItemPersistenceManager.NONE;
+			}
+			
+			insert.setInt(1, _ownerId);
+			insert.setInt(2, _itemId);
+			insert.setLong(3, _count);
+			insert.setString(4, _loc.name());
+			insert.setInt(5, _locData);
+			insert.setInt(6, _enchantLevel);
+			insert.setInt(7, getObjectId());
+			insert.setInt(8, _type1);
+			insert.setInt(9, _type2);
+			insert.setInt(10, _mana);
+			insert.setLong(11, _time);
+			insert.addBatch();
+			_existsInDb = true;
+			_storedInDb = true;
+			
+			if (_augmentation != null)
+			{
+				updateItemOptions(con);
+			}
+			
+			if (_elementals != null)
+			{
+				updateItemElements(con);
+			}
+			return ItemPersistenceManager.INSERT;
+		}
+		finally
+		{
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * Restores the database state of this item after a failed ItemPersistenceManager batch.
+	 * @param action the action returned by {@link #addToBatch(Connection, PreparedStatement, PreparedStatement, PreparedStatement[])}
+	 */
+	public void revertBatch(int action)
+	{
+		_dbLock.lock();
+		
+		try
+		{
+			switch (action)
+			{
+				case ItemPersistenceManager.INSERT:
+				{
+					_existsInDb = false;
+					_storedInDb = false;
+					break;
+				}
+				case ItemPersistenceManager.UPDATE:
+				{
+					_storedInDb = false;
+					break;
+				}
+				case ItemPersistenceManager.DELETE:
+				{
+					_existsInDb = true;
+					_storedInDb = false;
+					break;
+				}
 			}
 		}
 		finally
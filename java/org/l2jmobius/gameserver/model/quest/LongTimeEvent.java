@@ -34,6 +34,7 @@ import java.util.function.Consumer;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.IXmlReader;
@@ -41,6 +42,7 @@ import org.l2jmobius.commons.util.TimeUtil;
 import org.l2jmobius.gameserver.data.sql.AnnouncementsTable;
 import org.l2jmobius.gameserver.data.xml.ItemData;
 import org.l2jmobius.gameserver.data.xml.NpcData;
+import org.l2jmobius.gameserver.instancemanager.ItemPersistenceManager;
 import org.l2jmobius.gameserver.instancemanager.events.EventDropManager;
 import org.l2jmobius.gameserver.instancemanager.events.EventShrineManager;
 import org.l2jmobius.gameserver.model.Location;
@@ -446,6 +448,12 @@ public class LongTimeEvent extends Quest
 					}
 				}
 				// Update database.
+				// Store the pending item changes first.
+				if (Config.ITEM_WRITE_BEHIND)
+				{
+					ItemPersistenceManager.getInstance().flush();
+				}
+				
 				try (Connection con = DatabaseFactory.getConnection();
 					PreparedStatement statement = con.prepareStatement("DELETE FROM items WHERE item_id=?"))
 				{
@@ -16,6 +16,16 @@
  */
 package org.l2jmobius.gameserver.model.variables;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.l2jmobius.gameserver.model.StatSet;
@@ -29,6 +39,8 @@ import org.l2jmobius.gameserver.model.interfaces.IStorable;
 public abstract class AbstractVariables extends StatSet implements IRestorable, IStorable, IDeletable
 {
 	private final AtomicBoolean _hasChanges = new AtomicBoolean(false);
+	private final Set<String> _changedNames = ConcurrentHashMap.newKeySet();
+	private final Set<String> _removedNames = ConcurrentHashMap.newKeySet();
 	
 	/**
 	 * Overriding following methods to prevent from doing useless database operations if there is no changes since player's login.
@@ -37,70 +49,70 @@ public abstract class AbstractVariables extends StatSet implements IRestorable,
 	@Override
 	public void set(String name, boolean value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, byte value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, short value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, int value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, long value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, float value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, double value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, String value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, Enum<?> value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
 	@Override
 	public void set(String name, Object value)
 	{
-		_hasChanges.compareAndSet(false, true);
+		markChanged(name);
 		super.set(name, value);
 	}
 	
@@ -114,7 +126,7 @@ public abstract class AbstractVariables extends StatSet implements IRestorable,
 	{
 		if (markAsChanged)
 		{
-			_hasChanges.compareAndSet(false, true);
+			markChanged(name);
 		}
 		super.set(name, value);
 	}
@@ -156,6 +168,113 @@ public abstract class AbstractVariables extends StatSet implements IRestorable,
 	public void remove(String name)
 	{
 		_hasChanges.compareAndSet(false, true);
+		_changedNames.remove(name);
+		_removedNames.add(name);
 		getSet().remove(name);
 	}
+	
+	@Override
+	public void merge(StatSet newSet)
+	{
+		for (String name : newSet.getSet().keySet())
+		{
+			markChanged(name);
+		}
+		super.merge(newSet);
+	}
+	
+	private void markChanged(String name)
+	{
+		_hasChanges.compareAndSet(false, true);
+		_removedNames.remove(name);
+		_changedNames.add(name);
+	}
+	
+	/**
+	 * Stores only the variables changed or removed since the last store, in batches.<br>
+	 * Changed variables are deleted and inserted again, so tables without a unique key on the variable name never get duplicates.<br>
+	 * On failure the variables stay marked and are stored with the next call.
+	 * @param con the database connection
+	 * @param deleteQuery deletes one variable, with the owner and the variable name as parameters
+	 * @param insertQuery inserts one variable, with the owner, the variable name and the value as parameters
+	 * @param owner the owner of the variables
+	 * @throws SQLException
+	 */
+	protected void storeChanges(Connection con, String deleteQuery, String insertQuery, Object owner) throws SQLException
+	{
+		_hasChanges.set(false);
+		final List<String> removed = takeNames(_removedNames);
+		final Map<String, String> changed = new HashMap<>();
+		for (String name : takeNames(_changedNames))
+		{
+			final Object value = getSet().get(name);
+			if (value != null)
+			{
+				changed.put(name, String.valueOf(value));
+			}
+		}
+		
+		try
+		{
+			if (!removed.isEmpty() || !changed.isEmpty())
+			{
+				try (PreparedStatement st = con.prepareStatement(deleteQuery))
+				{
+					st.setObject(1, owner);
+					for (String name : removed)
+					{
+						st.setString(2, name);
+						st.addBatch();
+					}
+					for (String name : changed.keySet())
+					{
+						st.setString(2, name);
+						st.addBatch();
+					}
+					st.executeBatch();
+				}
+			}
+			
+			if (!changed.isEmpty())
+			{
+				try (PreparedStatement st = con.prepareStatement(insertQuery))
+				{
+					st.setObject(1, owner);
+					for (Entry<String, String> entry : changed.entrySet())
+					{
+						st.setString(2, entry.getKey());
+						st.setString(3, entry.getValue());
+						st.addBatch();
+					}
+					st.executeBatch();
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			for (String name : removed)
+			{
+				if (!getSet().containsKey(name))
+				{
+					_removedNames.add(name);
+				}
+			}
+			_changedNames.addAll(changed.keySet());
+			_hasChanges.set(true);
+			throw e;
+		}
+	}
+	
+	private static List<String> takeNames(Set<String> names)
+	{
+		final List<String> result = new ArrayList<>();
+		for (String name : names)
+		{
+			if (names.remove(name))
+			{
+				result.add(name);
+			}
+		}
+		return result;
+	}
 }
@@ -20,7 +20,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,6 +35,7 @@ public class AccountVariables extends AbstractVariables
 	// SQL Queries.
 	private static final String SELECT_QUERY = "SELECT * FROM account_gsdata WHERE account_name = ?";
 	private static final String DELETE_QUERY = "DELETE FROM account_gsdata WHERE account_name = ?";
+	private static final String DELETE_VARIABLE_QUERY = "DELETE FROM account_gsdata WHERE account_name = ? AND var = ?";
 	private static final String INSERT_QUERY = "REPLACE INTO account_gsdata (account_name, var, value) VALUES (?, ?, ?)";
 	
 	// Public variable names
@@ -64,7 +64,7 @@ public class AccountVariables extends AbstractVariables
 			{
 				while (rset.next())
 				{
-					set(rset.getString("var"), rset.getString("value"));
+					set(rset.getString("var"), rset.getString("value"), false);
 				}
 			}
 		}
@@ -91,35 +91,13 @@ public class AccountVariables extends AbstractVariables
 		
 		try (Connection con = DatabaseFactory.getConnection())
 		{
-			// Clear previous entries.
-			try (PreparedStatement st = con.prepareStatement(DELETE_QUERY))
-			{
-				st.setString(1, _accountName);
-				st.execute();
-			}
-			
-			// Insert all variables.
-			try (PreparedStatement st = con.prepareStatement(INSERT_QUERY))
-			{
-				st.setString(1, _accountName);
-				for (Entry<String, Object> entry : getSet().entrySet())
-				{
-					st.setString(2, entry.getKey());
-					st.setString(3, String.valueOf(entry.getValue()));
-					st.addBatch();
-				}
-				st.executeBatch();
-			}
+			storeChanges(con, DELETE_VARIABLE_QUERY, INSERT_QUERY, _accountName);
 		}
 		catch (SQLException e)
 		{
 			LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Couldn't update variables for: " + _accountName, e);
 			return false;
 		}
-		finally
-		{
-			compareAndSetChanges(true, false);
-		}
 		return true;
 	}
 	
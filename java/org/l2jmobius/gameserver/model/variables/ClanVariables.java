@@ -20,7 +20,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,6 +35,7 @@ public class ClanVariables extends AbstractVariables
 	// SQL Queries.
 	private static final String SELECT_QUERY = "SELECT * FROM clan_variables WHERE clanId = ?";
 	private static final String DELETE_QUERY = "DELETE FROM clan_variables WHERE clanId = ?";
+	private static final String DELETE_VARIABLE_QUERY = "DELETE FROM clan_variables WHERE clanId = ? AND var = ?";
 	private static final String INSERT_QUERY = "INSERT INTO clan_variables (clanId, var, val) VALUES (?, ?, ?)";
 	
 	private final int _objectId;
@@ -85,35 +85,13 @@ public class ClanVariables extends AbstractVariables
 		
 		try (Connection con = DatabaseFactory.getConnection())
 		{
-			// Clear previous entries.
-			try (PreparedStatement st = con.prepareStatement(DELETE_QUERY))
-			{
-				st.setInt(1, _objectId);
-				st.execute();
-			}
-			
-			// Insert all variables.
-			try (PreparedStatement st = con.prepareStatement(INSERT_QUERY))
-			{
-				st.setInt(1, _objectId);
-				for (Entry<String, Object> entry : getSet().entrySet())
-				{
-					st.setString(2, entry.getKey());
-					st.setString(3, String.valueOf(entry.getValue()));
-					st.addBatch();
-				}
-				st.executeBatch();
-			}
+			storeChanges(con, DELETE_VARIABLE_QUERY, INSERT_QUERY, _objectId);
 		}
 		catch (SQLException e)
 		{
 			LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Couldn't update variables for: " + _objectId, e);
 			return false;
 		}
-		finally
-		{
-			compareAndSetChanges(true, false);
-		}
 		return true;
 	}
 	
@@ -33,6 +33,19 @@ public abstract class ZoneForm
 	
 	public abstract boolean intersectsRectangle(int x1, int x2, int y1, int y2);
 	
+	/**
+	 * Used by the zone region index to skip the exact test for cells that are fully covered by this form.
+	 * @param x1
+	 * @param x2
+	 * @param y1
+	 * @param y2
+	 * @return {@code true} if every point of the rectangle is within this form on the plane, {@code false} if not or unknown.
+	 */
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		return false;
+	}
+	
 	public abstract double getDistanceToZone(int x, int y);
 	
 	public abstract int getLowZ(); // Support for the ability to extract the z coordinates of zones.
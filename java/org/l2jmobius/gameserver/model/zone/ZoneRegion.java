@@ -16,22 +16,42 @@
  */
 package org.l2jmobius.gameserver.model.zone;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.skill.Skill;
 import org.l2jmobius.gameserver.model.zone.type.PeaceZone;
 
 /**
+ * A 32768 by 32768 area of the world and the zones that intersect it.<br>
+ * The area is split in cells that keep the zones which can contain a point of the cell, so a zone check is a cell lookup and an exact test only for the zones crossing the cell border.
  * @author Nos
  */
 public class ZoneRegion
 {
+	// Same as ZoneManager.
+	private static final int REGION_SHIFT = 15;
+	private static final int OFFSET_X = Math.abs(World.WORLD_X_MIN >> REGION_SHIFT);
+	private static final int OFFSET_Y = Math.abs(World.WORLD_Y_MIN >> REGION_SHIFT);
+	
+	// 64 by 64 cells of 512 by 512.
+	private static final int CELL_SHIFT = 9;
+	private static final int CELL_SIZE = 1 << CELL_SHIFT;
+	private static final int CELLS = 1 << (REGION_SHIFT - CELL_SHIFT);
+	private static final ZoneType[] EMPTY_ZONES = new ZoneType[0];
+	
 	private final int _regionX;
 	private final int _regionY;
 	private final Map<Integer, ZoneType> _zones = new ConcurrentHashMap<>();
 	
+	// Cells are built on first use. The array is replaced when zones change.
+	private volatile ZoneCell[] _cells = new ZoneCell[CELLS * CELLS];
+	
 	public ZoneRegion(int regionX, int regionY)
 	{
 		_regionX = regionX;
@@ -53,6 +73,162 @@ public class ZoneRegion
 		return _regionY;
 	}
 	
+	/**
+	 * Adds a zone to this region and to the cells already built.
+	 * @param zone
+	 */
+	public synchronized void addZone(ZoneType zone)
+	{
+		final ZoneType previous = _zones.put(zone.getId(), zone);
+		if (previous != null)
+		{
+			_cells = new ZoneCell[CELLS * CELLS];
+			return;
+		}
+		
+		final ZoneCell[] cells = _cells.clone();
+		for (int i = 0; i < cells.length; i++)
+		{
+			if (cells[i] != null)
+			{
+				cells[i] = cells[i].add(zone);
+			}
+		}
+		_cells = cells;
+	}
+	
+	/**
+	 * Removes a zone from this region.
+	 * @param zoneId
+	 */
+	public synchronized void removeZone(int zoneId)
+	{
+		if (_zones.remove(zoneId) != null)
+		{
+			_cells = new ZoneCell[CELLS * CELLS];
+		}
+	}
+	
+	/**
+	 * Removes all zones from this region.
+	 */
+	public synchronized void clear()
+	{
+		_zones.clear();
+		_cells = new ZoneCell[CELLS * CELLS];
+	}
+	
+	/**
+	 * @param x
+	 * @param y
+	 * @return the cell of the given coordinates, {@code null} if they are outside this region.
+	 */
+	private ZoneCell getCell(int x, int y)
+	{
+		final int cellX = x >> CELL_SHIFT;
+		final int cellY = y >> CELL_SHIFT;
+		if ((((cellX >> (REGION_SHIFT - CELL_SHIFT)) + OFFSET_X) != _regionX) || (((cellY >> (REGION_SHIFT - CELL_SHIFT)) + OFFSET_Y) != _regionY))
+		{
+			return null;
+		}
+		
+		final ZoneCell[] cells = _cells;
+		final int index = ((cellX & (CELLS - 1)) * CELLS) + (cellY & (CELLS - 1));
+		ZoneCell cell = cells[index];
+		if (cell == null)
+		{
+			cell = new ZoneCell(cellX << CELL_SHIFT, cellY << CELL_SHIFT, _zones.values());
+			cells[index] = cell;
+		}
+		return cell;
+	}
+	
+	/**
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return the zones of this region that contain the given coordinates.
+	 */
+	public List<ZoneType> getZones(int x, int y, int z)
+	{
+		final List<ZoneType> result = new ArrayList<>();
+		final ZoneCell cell = getCell(x, y);
+		if (cell == null)
+		{
+			for (ZoneType zone : _zones.values())
+			{
+				if (zone.isInsideZone(x, y, z))
+				{
+					result.add(zone);
+				}
+			}
+			return result;
+		}
+		
+		for (ZoneType zone : cell.getCovering())
+		{
+			if (isInsideHeight(zone, z))
+			{
+				result.add(zone);
+			}
+		}
+		for (ZoneType zone : cell.getCrossing())
+		{
+			if (isInsideHeight(zone, z) && zone.isInsideZone(x, y, z))
+			{
+				result.add(zone);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @param <T>
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param type
+	 * @return a zone of the given type that contains the given coordinates, {@code null} if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends ZoneType> T getZone(int x, int y, int z, Class<T> type)
+	{
+		final ZoneCell cell = getCell(x, y);
+		if (cell == null)
+		{
+			for (ZoneType zone : _zones.values())
+			{
+				if (zone.isInsideZone(x, y, z) && type.isInstance(zone))
+				{
+					return (T) zone;
+				}
+			}
+			return null;
+		}
+		
+		for (ZoneType zone : cell.getCovering())
+		{
+			if (type.isInstance(zone) && isInsideHeight(zone, z))
+			{
+				return (T) zone;
+			}
+		}
+		for (ZoneType zone : cell.getCrossing())
+		{
+			if (type.isInstance(zone) && isInsideHeight(zone, z) && zone.isInsideZone(x, y, z))
+			{
+				return (T) zone;
+			}
+		}
+		return null;
+	}
+	
+	private static boolean isInsideHeight(ZoneType zone, int z)
+	{
+		final ZoneForm form = zone.getZone();
+		return (z >= form.getLowZ()) && (z <= form.getHighZ());
+	}
+	
 	public void revalidateZones(Creature creature)
 	{
 		// do NOT update the world region while the character is still in the process of teleporting
@@ -62,9 +238,35 @@ public class ZoneRegion
 			return;
 		}
 		
-		for (ZoneType z : _zones.values())
+		final int x = creature.getX();
+		final int y = creature.getY();
+		final int z = creature.getZ();
+		final ZoneCell cell = getCell(x, y);
+		if (cell == null)
 		{
-			z.revalidateInZone(creature);
+			for (ZoneType zone : _zones.values())
+			{
+				zone.revalidateInZone(creature);
+			}
+			return;
+		}
+		
+		// Leave the zones that cannot contain this location.
+		for (ZoneType zone : _zones.values())
+		{
+			if (zone.isCharacterInZone(creature) && !cell.contains(zone))
+			{
+				zone.removeCharacter(creature);
+			}
+		}
+		
+		for (ZoneType zone : cell.getCovering())
+		{
+			zone.revalidateInZone(creature, isInsideHeight(zone, z));
+		}
+		for (ZoneType zone : cell.getCrossing())
+		{
+			zone.revalidateInZone(creature, isInsideHeight(zone, z) && zone.isInsideZone(x, y, z));
 		}
 	}
 	
@@ -118,23 +320,147 @@ public class ZoneRegion
 	
 	public void onDeath(Creature creature)
 	{
-		for (ZoneType z : _zones.values())
+		for (ZoneType z : getZones(creature.getX(), creature.getY(), creature.getZ()))
 		{
-			if (z.isInsideZone(creature))
-			{
-				z.onDieInside(creature);
-			}
+			z.onDieInside(creature);
 		}
 	}
 	
 	public void onRevive(Creature creature)
 	{
-		for (ZoneType z : _zones.values())
+		for (ZoneType z : getZones(creature.getX(), creature.getY(), creature.getZ()))
+		{
+			z.onReviveInside(creature);
+		}
+	}
+	
+	/**
+	 * The zones that can contain a point of a cell.<br>
+	 * Covering zones contain every point of the cell on the plane and only need a height check, crossing zones need the exact test.
+	 */
+	private static class ZoneCell
+	{
+		private final int _x;
+		private final int _y;
+		private final ZoneType[] _covering;
+		private final ZoneType[] _crossing;
+		
+		public ZoneCell(int x, int y, Collection<ZoneType> zones)
+		{
+			_x = x;
+			_y = y;
+			
+			final List<ZoneType> covering = new ArrayList<>();
+			final List<ZoneType> crossing = new ArrayList<>();
+			for (ZoneType zone : zones)
+			{
+				switch (classify(zone))
+				{
+					case 1:
+					{
+						crossing.add(zone);
+						break;
+					}
+					case 2:
+					{
+						covering.add(zone);
+						break;
+					}
+				}
+			}
+			_covering = covering.isEmpty() ? EMPTY_ZONES : covering.toArray(EMPTY_ZONES);
+			_crossing = crossing.isEmpty() ? EMPTY_ZONES : crossing.toArray(EMPTY_ZONES);
+		}
+		
+		private ZoneCell(int x, int y, ZoneType[] covering, ZoneType[] crossing)
+		{
+			_x = x;
+			_y = y;
+			_covering = covering;
+			_crossing = crossing;
+		}
+		
+		/**
+		 * @param zone
+		 * @return 0 if the zone does not intersect this cell, 1 if it crosses the cell border, 2 if it covers the cell.
+		 */
+		private int classify(ZoneType zone)
+		{
+			final ZoneForm form = zone.getZone();
+			
+			// One unit of margin for points on the cell border.
+			if (!form.intersectsRectangle(_x - 1, _x + CELL_SIZE + 1, _y - 1, _y + CELL_SIZE + 1))
+			{
+				return 0;
+			}
+			
+			// Blocked zones can cut any cell, these always need the exact test.
+			final List<ZoneForm> blockedZones = zone.getBlockedZones();
+			if (((blockedZones == null) || blockedZones.isEmpty()) && form.containsRectangle(_x, _x + CELL_SIZE, _y, _y + CELL_SIZE))
+			{
+				return 2;
+			}
+			return 1;
+		}
+		
+		/**
+		 * @param zone
+		 * @return a copy of this cell with the given zone.
+		 */
+		public ZoneCell add(ZoneType zone)
+		{
+			switch (classify(zone))
+			{
+				case 1:
+				{
+					return new ZoneCell(_x, _y, _covering, append(_crossing, zone));
+				}
+				case 2:
+				{
+					return new ZoneCell(_x, _y, append(_covering, zone), _crossing);
+				}
+				default:
+				{
+					return this;
+				}
+			}
+		}
+		
+		private static ZoneType[] append(ZoneType[] zones, ZoneType zone)
+		{
+			final ZoneType[] result = new ZoneType[zones.length + 1];
+			System.arraycopy(zones, 0, result, 0, zones.length);
+			result[zones.length] = zone;
+			return result;
+		}
+		
+		public boolean contains(ZoneType zone)
 		{
-			if (z.isInsideZone(creature))
+			for (ZoneType covering : _covering)
 			{
-				z.onReviveInside(creature);
+				if (covering == zone)
+				{
+					return true;
+				}
 			}
+			for (ZoneType crossing : _crossing)
+			{
+				if (crossing == zone)
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		public ZoneType[] getCovering()
+		{
+			return _covering;
+		}
+		
+		public ZoneType[] getCrossing()
+		{
+			return _crossing;
 		}
 	}
 }
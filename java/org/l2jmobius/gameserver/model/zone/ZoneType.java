@@ -415,9 +415,19 @@ public abstract class ZoneType extends ListenersContainer
 	}
 	
 	public void revalidateInZone(Creature creature)
+	{
+		revalidateInZone(creature, isInsideZone(creature));
+	}
+	
+	/**
+	 * Enters or leaves the zone with a location check already done by the zone region.
+	 * @param creature
+	 * @param isInside {@code true} if the creature is within the zone boundaries
+	 */
+	void revalidateInZone(Creature creature, boolean isInside)
 	{
 		// If the object is inside the zone...
-		if (isInsideZone(creature))
+		if (isInside)
 		{
 			// If the character can't be affected by this zone return
 			if (_checkAffected && !isAffected(creature))
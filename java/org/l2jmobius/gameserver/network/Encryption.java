@@ -23,6 +23,9 @@ import org.l2jmobius.commons.network.Buffer;
  */
 public class Encryption
 {
+	/** Multiplier that copies the lowest byte of a long to all its bytes. */
+	private static final long BROADCAST = 0x0101010101010101L;
+	
 	private final byte[] _inKey = new byte[16];
 	private final byte[] _outKey = new byte[16];
 	private boolean _isEnabled;
@@ -41,8 +44,24 @@ public class Encryption
 			return;
 		}
 		
-		int encrypted = 0;
-		for (int i = 0; i < size; i++)
+		// Encrypt 8 bytes at a time. Each byte is xored with the previous encrypted bytes, which within a long is a prefix xor.
+		final long key0 = getLong(_outKey, 0);
+		final long key1 = getLong(_outKey, 8);
+		long chain = 0;
+		int i = 0;
+		for (; (i + 8) <= size; i += 8)
+		{
+			long value = data.readLong(offset + i) ^ ((i & 8) == 0 ? key0 : key1);
+			value ^= value << 8;
+			value ^= value << 16;
+			value ^= value << 32;
+			value ^= chain * BROADCAST;
+			data.writeLong(offset + i, value);
+			chain = value >>> 56;
+		}
+		
+		int encrypted = (int) chain;
+		for (; i < size; i++)
 		{
 			final int raw = Byte.toUnsignedInt(data.readByte(offset + i));
 			encrypted = raw ^ _outKey[i & 0x0f] ^ encrypted;
@@ -68,8 +87,20 @@ public class Encryption
 			return;
 		}
 		
-		int xOr = 0;
-		for (int i = 0; i < size; i++)
+		// Decrypt 8 bytes at a time. Each byte is xored with the previous encrypted byte.
+		final long key0 = getLong(_inKey, 0);
+		final long key1 = getLong(_inKey, 8);
+		long previous = 0;
+		int i = 0;
+		for (; (i + 8) <= size; i += 8)
+		{
+			final long encrypted = data.readLong(offset + i);
+			data.writeLong(offset + i, encrypted ^ ((i & 8) == 0 ? key0 : key1) ^ ((encrypted << 8) | previous));
+			previous = encrypted >>> 56;
+		}
+		
+		int xOr = (int) previous;
+		for (; i < size; i++)
 		{
 			final int encrypted = Byte.toUnsignedInt(data.readByte(offset + i));
 			data.writeByte(offset + i, (byte) (encrypted ^ _inKey[i & 15] ^ xOr));
@@ -87,4 +118,19 @@ public class Encryption
 		_inKey[10] = (byte) ((old >> 16) & 0xff);
 		_inKey[11] = (byte) ((old >> 24) & 0xff);
 	}
+	
+	/**
+	 * @param key the key
+	 * @param index the index of the first byte
+	 * @return the 8 key bytes starting at index, in little-endian order
+	 */
+	private static long getLong(byte[] key, int index)
+	{
+		long value = 0;
+		for (int i = 7; i >= 0; i--)
+		{
+			value = (value << 8) | (key[index + i] & 0xff);
+		}
+		return value;
+	}
 }
@@ -18,10 +18,13 @@ package org.l2jmobius.gameserver.network;
 
 import java.util.logging.Logger;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.network.PacketHandler;
 import org.l2jmobius.commons.network.ReadableBuffer;
 import org.l2jmobius.commons.network.ReadablePacket;
 import org.l2jmobius.commons.util.CommonUtil;
+import org.l2jmobius.gameserver.network.PacketStatistics.PacketStat;
+import org.l2jmobius.gameserver.network.clientpackets.ClientPacket;
 import org.l2jmobius.gameserver.network.clientpackets.RequestBookMarkSlotInfo;
 import org.l2jmobius.gameserver.network.clientpackets.RequestChangeBookMarkSlot;
 import org.l2jmobius.gameserver.network.clientpackets.RequestDeleteBookMarkSlot;
@@ -38,6 +41,25 @@ public class GamePacketHandler implements PacketHandler<GameClient>
 	
 	@Override
 	public ReadablePacket<GameClient> handlePacket(ReadableBuffer buffer, GameClient client)
+	{
+		if (!Config.PACKET_STATISTICS)
+		{
+			return createPacket(buffer, client);
+		}
+		
+		final long receivedTime = System.nanoTime();
+		final int size = buffer.remaining();
+		final ClientPacket packet = createPacket(buffer, client);
+		if (packet != null)
+		{
+			final PacketStat stat = PacketStatistics.getClientPacketStat(buffer);
+			stat.addReceived(size);
+			packet.setStatistics(stat, receivedTime);
+		}
+		return packet;
+	}
+	
+	private ClientPacket createPacket(ReadableBuffer buffer, GameClient client)
 	{
 		// Read packet id.
 		final int packetId;
@@ -0,0 +1,338 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.network;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.network.ReadableBuffer;
+import org.l2jmobius.commons.threads.ThreadPool;
+
+/**
+ * Records the count, size, queue wait and execution time of each client packet type and server packet class, while {@link Config#PACKET_STATISTICS} is enabled.<br>
+ * Client packets are recorded per {@link ClientPackets} and {@link ExClientPackets} entry, server packets per class. Times are kept in power of two microsecond buckets, so recording never locks.
+ * @author Mobius
+ */
+public class PacketStatistics
+{
+	private static final Logger LOGGER = Logger.getLogger(PacketStatistics.class.getName());
+	
+	private static final Path DUMP_FILE = Paths.get("log", "PacketStatistics.txt");
+	
+	private static final AtomicReferenceArray<PacketStat> CLIENT_PACKETS = new AtomicReferenceArray<>(ClientPackets.values().length);
+	private static final AtomicReferenceArray<PacketStat> EX_CLIENT_PACKETS = new AtomicReferenceArray<>(ExClientPackets.values().length);
+	private static final Map<Class<?>, PacketStat> SERVER_PACKETS = new ConcurrentHashMap<>();
+	
+	private static volatile long _startTime = System.currentTimeMillis();
+	
+	/**
+	 * Writes the statistics to {@link #DUMP_FILE} every {@link Config#PACKET_STATISTICS_DUMP_INTERVAL} minutes, while statistics are enabled.
+	 */
+	public static void scheduleDump()
+	{
+		final long interval = Config.PACKET_STATISTICS_DUMP_INTERVAL * 60000L;
+		ThreadPool.scheduleAtFixedRate(() ->
+		{
+			if (Config.PACKET_STATISTICS)
+			{
+				dump();
+			}
+		}, interval, interval);
+	}
+	
+	/**
+	 * @param buffer the decrypted data of a client packet, starting with its opcode
+	 * @return the statistics of the client packet type
+	 */
+	public static PacketStat getClientPacketStat(ReadableBuffer buffer)
+	{
+		final int packetId = Byte.toUnsignedInt(buffer.readByte(0));
+		if (packetId == 0xD0)
+		{
+			final ExClientPackets packet = ExClientPackets.PACKET_ARRAY[Short.toUnsignedInt(buffer.readShort(1))];
+			return getStat(EX_CLIENT_PACKETS, packet.ordinal(), packet.name());
+		}
+		
+		final ClientPackets packet = ClientPackets.PACKET_ARRAY[packetId];
+		return getStat(CLIENT_PACKETS, packet.ordinal(), packet.name());
+	}
+	
+	private static PacketStat getStat(AtomicReferenceArray<PacketStat> stats, int index, String name)
+	{
+		final PacketStat stat = stats.get(index);
+		if (stat != null)
+		{
+			return stat;
+		}
+		
+		stats.compareAndSet(index, null, new PacketStat(name));
+		return stats.get(index);
+	}
+	
+	/**
+	 * @param packetClass the class of a written server packet
+	 * @param size the size of the packet data
+	 * @param writeTime the time spent writing the packet data in nanoseconds
+	 */
+	public static void addServerPacket(Class<?> packetClass, int size, long writeTime)
+	{
+		PacketStat stat = SERVER_PACKETS.get(packetClass);
+		if (stat == null)
+		{
+			stat = SERVER_PACKETS.computeIfAbsent(packetClass, key -> new PacketStat(key.getSimpleName()));
+		}
+		stat.addReceived(size);
+		stat.addExecuted(0, writeTime);
+	}
+	
+	/**
+	 * @return the recorded client packet types, by descending total execution time
+	 */
+	public static List<PacketStat> getClientPacketStats()
+	{
+		final List<PacketStat> result = new ArrayList<>();
+		for (int i = 0; i < CLIENT_PACKETS.length(); i++)
+		{
+			final PacketStat stat = CLIENT_PACKETS.get(i);
+			if (stat != null)
+			{
+				result.add(stat);
+			}
+		}
+		for (int i = 0; i < EX_CLIENT_PACKETS.length(); i++)
+		{
+			final PacketStat stat = EX_CLIENT_PACKETS.get(i);
+			if (stat != null)
+			{
+				result.add(stat);
+			}
+		}
+		result.sort(Comparator.comparingLong(PacketStat::getTotalExecutionTime).reversed());
+		return result;
+	}
+	
+	/**
+	 * @return the recorded server packet classes, by descending total write time
+	 */
+	public static List<PacketStat> getServerPacketStats()
+	{
+		final List<PacketStat> result = new ArrayList<>(SERVER_PACKETS.values());
+		result.sort(Comparator.comparingLong(PacketStat::getTotalExecutionTime).reversed());
+		return result;
+	}
+	
+	/**
+	 * @return the time statistics were last reset
+	 */
+	public static long getStartTime()
+	{
+		return _startTime;
+	}
+	
+	public static void reset()
+	{
+		for (int i = 0; i < CLIENT_PACKETS.length(); i++)
+		{
+			CLIENT_PACKETS.set(i, null);
+		}
+		for (int i = 0; i < EX_CLIENT_PACKETS.length(); i++)
+		{
+			EX_CLIENT_PACKETS.set(i, null);
+		}
+		SERVER_PACKETS.clear();
+		_startTime = System.currentTimeMillis();
+	}
+	
+	/**
+	 * Writes the statistics to {@link #DUMP_FILE}.
+	 * @return {@code true} if the file was written
+	 */
+	public static boolean dump()
+	{
+		final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		final StringBuilder sb = new StringBuilder(16384);
+		sb.append("Packet statistics from " + format.format(new Date(_startTime)) + " to " + format.format(new Date()) + ". Times are in microseconds." + System.lineSeparator());
+		sb.append(System.lineSeparator() + "Client packets" + System.lineSeparator());
+		sb.append(String.format("%-40s %10s %12s %10s %10s %10s %10s %10s %12s%n", "Name", "Count", "Bytes", "Wait avg", "Wait p99", "Run avg", "Run p99", "Run max", "Run total"));
+		for (PacketStat stat : getClientPacketStats())
+		{
+			sb.append(String.format("%-40s %10d %12d %10d %10d %10d %10d %10d %12d%n", stat.getName(), stat.getCount(), stat.getBytes(), stat.getAverageWaitTime(), stat.getWaitTimePercentile(0.99), stat.getAverageExecutionTime(), stat.getExecutionTimePercentile(0.99), stat.getMaxExecutionTime(), stat.getTotalExecutionTime()));
+		}
+		sb.append(System.lineSeparator() + "Server packets" + System.lineSeparator());
+		sb.append(String.format("%-40s %10s %12s %10s %10s %10s %12s%n", "Name", "Count", "Bytes", "Write avg", "Write p99", "Write max", "Write total"));
+		for (PacketStat stat : getServerPacketStats())
+		{
+			sb.append(String.format("%-40s %10d %12d %10d %10d %10d %12d%n", stat.getName(), stat.getCount(), stat.getBytes(), stat.getAverageExecutionTime(), stat.getExecutionTimePercentile(0.99), stat.getMaxExecutionTime(), stat.getTotalExecutionTime()));
+		}
+		
+		try
+		{
+			Files.createDirectories(DUMP_FILE.getParent());
+			Files.writeString(DUMP_FILE, sb.toString());
+			return true;
+		}
+		catch (IOException e)
+		{
+			LOGGER.log(Level.WARNING, "PacketStatistics: Could not write " + DUMP_FILE + "!", e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Statistics of a packet type.<br>
+	 * Execution time is the run time of client packets and the write time of server packets.
+	 */
+	public static class PacketStat
+	{
+		// Bucket i holds times below 2^i microseconds.
+		private static final int BUCKETS = 32;
+		
+		private final String _name;
+		private final LongAdder _count = new LongAdder();
+		private final LongAdder _bytes = new LongAdder();
+		private final LongAdder _executed = new LongAdder();
+		private final LongAdder _waitTime = new LongAdder();
+		private final LongAdder _executionTime = new LongAdder();
+		private final LongAccumulator _maxExecutionTime = new LongAccumulator(Long::max, 0);
+		private final AtomicLongArray _waitTimes = new AtomicLongArray(BUCKETS);
+		private final AtomicLongArray _executionTimes = new AtomicLongArray(BUCKETS);
+		
+		public PacketStat(String name)
+		{
+			_name = name;
+		}
+		
+		/**
+		 * @param size the size of the packet data
+		 */
+		public void addReceived(int size)
+		{
+			_count.increment();
+			_bytes.add(size);
+		}
+		
+		/**
+		 * @param waitTime the time the packet waited for execution in nanoseconds
+		 * @param executionTime the execution time in nanoseconds
+		 */
+		public void addExecuted(long waitTime, long executionTime)
+		{
+			final long wait = Math.max(0, waitTime / 1000);
+			final long execution = Math.max(0, executionTime / 1000);
+			_executed.increment();
+			_waitTime.add(wait);
+			_executionTime.add(execution);
+			_maxExecutionTime.accumulate(execution);
+			_waitTimes.incrementAndGet(getBucket(wait));
+			_executionTimes.incrementAndGet(getBucket(execution));
+		}
+		
+		private static int getBucket(long time)
+		{
+			return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(time));
+		}
+		
+		/**
+		 * @param buckets the bucket counts
+		 * @param percentile the percentile, between 0 and 1
+		 * @return the upper bound of the bucket containing the percentile
+		 */
+		private static long getPercentile(AtomicLongArray buckets, double percentile)
+		{
+			long total = 0;
+			for (int i = 0; i < BUCKETS; i++)
+			{
+				total += buckets.get(i);
+			}
+			
+			final long rank = (long) Math.ceil(total * percentile);
+			long count = 0;
+			for (int i = 0; i < BUCKETS; i++)
+			{
+				count += buckets.get(i);
+				if ((count >= rank) && (count > 0))
+				{
+					return 1L << i;
+				}
+			}
+			return 0;
+		}
+		
+		public String getName()
+		{
+			return _name;
+		}
+		
+		public long getCount()
+		{
+			return _count.sum();
+		}
+		
+		public long getBytes()
+		{
+			return _bytes.sum();
+		}
+		
+		public long getAverageWaitTime()
+		{
+			final long executed = _executed.sum();
+			return executed == 0 ? 0 : _waitTime.sum() / executed;
+		}
+		
+		public long getWaitTimePercentile(double percentile)
+		{
+			return getPercentile(_waitTimes, percentile);
+		}
+		
+		public long getAverageExecutionTime()
+		{
+			final long executed = _executed.sum();
+			return executed == 0 ? 0 : _executionTime.sum() / executed;
+		}
+		
+		public long getExecutionTimePercentile(double percentile)
+		{
+			return getPercentile(_executionTimes, percentile);
+		}
+		
+		public long getMaxExecutionTime()
+		{
+			return _maxExecutionTime.get();
+		}
+		
+		public long getTotalExecutionTime()
+		{
+			return _executionTime.sum();
+		}
+	}
+}
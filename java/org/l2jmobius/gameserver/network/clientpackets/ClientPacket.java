@@ -21,12 +21,16 @@ import org.l2jmobius.commons.util.CommonUtil;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.network.GameClient;
 import org.l2jmobius.gameserver.network.PacketLogger;
+import org.l2jmobius.gameserver.network.PacketStatistics.PacketStat;
 
 /**
  * @author Mobius
  */
 public abstract class ClientPacket extends ReadablePacket<GameClient>
 {
+	private PacketStat _statistics;
+	private long _receivedTime;
+	
 	@Override
 	public boolean read()
 	{
@@ -45,8 +49,32 @@ public abstract class ClientPacket extends ReadablePacket<GameClient>
 	
 	protected abstract void readImpl();
 	
+	/**
+	 * Records the wait and execution time of this packet when it runs.
+	 * @param statistics the statistics of the packet type
+	 * @param receivedTime the {@link System#nanoTime()} the packet was received
+	 */
+	public void setStatistics(PacketStat statistics, long receivedTime)
+	{
+		_statistics = statistics;
+		_receivedTime = receivedTime;
+	}
+	
 	@Override
 	public void run()
+	{
+		if (_statistics == null)
+		{
+			execute();
+			return;
+		}
+		
+		final long startTime = System.nanoTime();
+		execute();
+		_statistics.addExecuted(startTime - _receivedTime, System.nanoTime() - startTime);
+	}
+	
+	private void execute()
 	{
 		try
 		{
@@ -17,6 +17,7 @@
 package org.l2jmobius.gameserver.network.serverpackets;
 
 import org.l2jmobius.gameserver.cache.HtmCache;
+import org.l2jmobius.gameserver.cache.HtmlTemplate;
 import org.l2jmobius.gameserver.enums.HtmlActionScope;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.network.PacketLogger;
@@ -29,7 +30,11 @@ public abstract class AbstractHtmlPacket extends ServerPacket
 {
 	public static final char VAR_PARAM_START_CHAR = '$';
 	
+	private static final String[] NO_VALUES = new String[0];
+	
 	private final int _npcObjId;
+	private HtmlTemplate _template = null;
+	private String[] _values = NO_VALUES;
 	private String _html = null;
 	private boolean _disabledValidation = false;
 	
@@ -73,37 +78,84 @@ public abstract class AbstractHtmlPacket extends ServerPacket
 		if (html.length() > 17200)
 		{
 			PacketLogger.warning(getClass().getSimpleName() + ": Html is too long! this will crash the client!");
-			_html = html.substring(0, 17200);
+			setTemplate(HtmlTemplate.compile(html.substring(0, 17200)));
 		}
 		else
 		{
 			if (!html.contains("<html") && !html.startsWith("..\\L2"))
 			{
-				_html = "<html><body>" + html + "</body></html>";
+				setTemplate(HtmlTemplate.compile("<html><body>" + html + "</body></html>"));
 			}
 			else
 			{
-				_html = html;
+				setTemplate(HtmlTemplate.compile(html));
 			}
 		}
 	}
 	
 	public boolean setFile(Player player, String path)
 	{
-		final String content = HtmCache.getInstance().getHtm(player, path);
-		if (content == null)
+		final HtmlTemplate template = HtmCache.getInstance().getTemplate(player, path);
+		if (template == null)
 		{
 			setHtml("<html><body>My Text is missing:<br>" + path + "</body></html>");
 			PacketLogger.warning(getClass().getSimpleName() + ": Missing html page " + path);
 			return false;
 		}
-		setHtml(content);
+		
+		// Use the cached template unless setHtml has to change the page.
+		final String content = template.getHtml();
+		if ((content.length() > 17200) || (!content.contains("<html") && !content.startsWith("..\\L2")))
+		{
+			setHtml(content);
+		}
+		else
+		{
+			setTemplate(template);
+		}
 		return true;
 	}
 	
+	private void setTemplate(HtmlTemplate template)
+	{
+		_template = template;
+		_values = template.getSlotCount() > 0 ? new String[template.getSlotCount()] : NO_VALUES;
+		_html = template.getHtml();
+	}
+	
+	/**
+	 * Replaces a placeholder such as %objectId% with the given value.<br>
+	 * Placeholders fill the slots of the page template, which is rendered once when the html is needed. Other patterns are applied as regular expressions.
+	 * @param pattern the placeholder or regular expression
+	 * @param value the replacement
+	 */
 	public void replace(String pattern, String value)
 	{
-		_html = _html.replaceAll(pattern, value.replaceAll("\\$", "\\\\\\$"));
+		final int slot = _template.getSlot(pattern);
+		if (slot < 0)
+		{
+			// A placeholder that is not in the page has nothing to replace.
+			if (!HtmlTemplate.isPlaceholder(pattern))
+			{
+				setTemplate(HtmlTemplate.compile(getHtml().replaceAll(pattern, value.replaceAll("\\$", "\\\\\\$"))));
+			}
+			return;
+		}
+		
+		// Already replaced.
+		if (_values[slot] != null)
+		{
+			return;
+		}
+		
+		_values[slot] = value;
+		_html = null;
+		
+		// The value may contain placeholders for the following replacements.
+		if (value.indexOf('%') >= 0)
+		{
+			setTemplate(HtmlTemplate.compile(getHtml()));
+		}
 	}
 	
 	public void replace(String pattern, CharSequence value)
@@ -144,7 +196,7 @@ public abstract class AbstractHtmlPacket extends ServerPacket
 		}
 		if (player != null)
 		{
-			Util.buildHtmlActionCache(player, getScope(), _npcObjId, _html);
+			Util.buildHtmlActionCache(player, getScope(), _npcObjId, getHtml());
 		}
 	}
 	
@@ -155,6 +207,10 @@ public abstract class AbstractHtmlPacket extends ServerPacket
 	
 	public String getHtml()
 	{
+		if ((_html == null) && (_template != null))
+		{
+			_html = _template.render(_values);
+		}
 		return _html;
 	}
 	
@@ -16,14 +16,18 @@
  */
 package org.l2jmobius.gameserver.network.serverpackets;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.network.WritableBuffer;
 import org.l2jmobius.commons.network.WritablePacket;
+import org.l2jmobius.commons.network.internal.InternalWritableBuffer;
+import org.l2jmobius.commons.network.internal.NotWrittenBufferException;
 import org.l2jmobius.commons.util.CommonUtil;
 import org.l2jmobius.gameserver.model.actor.Player;
 import org.l2jmobius.gameserver.model.itemcontainer.Inventory;
 import org.l2jmobius.gameserver.network.ConnectionState;
 import org.l2jmobius.gameserver.network.GameClient;
 import org.l2jmobius.gameserver.network.PacketLogger;
+import org.l2jmobius.gameserver.network.PacketStatistics;
 
 /**
  * @author Mobius
@@ -135,6 +139,20 @@ public abstract class ServerPacket extends WritablePacket<GameClient>
 		return false;
 	}
 	
+	@Override
+	public InternalWritableBuffer writeData(GameClient client) throws NotWrittenBufferException
+	{
+		if (!Config.PACKET_STATISTICS)
+		{
+			return super.writeData(client);
+		}
+		
+		final long startTime = System.nanoTime();
+		final InternalWritableBuffer buffer = super.writeData(client);
+		PacketStatistics.addServerPacket(getClass(), buffer.limit(), System.nanoTime() - startTime);
+		return buffer;
+	}
+	
 	public void runImpl(Player player)
 	{
 	}
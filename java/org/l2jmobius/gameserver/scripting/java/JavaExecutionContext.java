@@ -16,19 +16,31 @@
  */
 package org.l2jmobius.gameserver.scripting.java;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
@@ -36,6 +48,8 @@ import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.ToolProvider;
 
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.threads.ThreadProvider;
 import org.l2jmobius.gameserver.scripting.annotations.Disabled;
 
 /**
@@ -49,7 +63,12 @@ public class JavaExecutionContext
 	private static final ClassLoader CLASS_LOADER = ClassLoader.getSystemClassLoader();
 	private static final List<String> OPTIONS = new ArrayList<>();
 	
-	private static Path _currentExecutingScript;
+	private static final Path SCRIPT_ROOT = Config.SCRIPT_ROOT.toPath().toAbsolutePath();
+	private static final int MAX_BATCH_SIZE = 100;
+	
+	// Scripts can be executed by several startup loaders at once.
+	private static final ThreadLocal<Path> CURRENT_EXECUTING_SCRIPT = new ThreadLocal<>();
+	private static byte[] _fingerprint;
 	
 	public JavaExecutionContext()
 	{
@@ -84,14 +103,166 @@ public class JavaExecutionContext
 	
 	public Map<Path, Throwable> executeScripts(Iterable<Path> sourcePaths) throws Exception
 	{
+		final Map<Path, Iterable<ScriptingOutputFileObject>> compiledBatches = compileScripts(sourcePaths);
+		final Map<Path, Throwable> executionFailures = new HashMap<>();
+		for (Path sourcePath : sourcePaths)
+		{
+			boolean found = false;
+			final Iterable<ScriptingOutputFileObject> compiledClasses = compiledBatches.get(sourcePath);
+			for (ScriptingOutputFileObject compiledClass : compiledClasses)
+			{
+				final Path compiledSourcePath = compiledClass.getSourcePath();
+				// sourcePath can be relative, so we have to use endsWith
+				if ((compiledSourcePath != null) && (compiledSourcePath.equals(sourcePath) || compiledSourcePath.endsWith(sourcePath)))
+				{
+					final String javaName = compiledClass.getJavaName();
+					if (javaName.indexOf('$') != -1)
+					{
+						continue;
+					}
+					
+					found = true;
+					CURRENT_EXECUTING_SCRIPT.set(compiledSourcePath);
+					try
+					{
+						final ScriptingClassLoader loader = new ScriptingClassLoader(CLASS_LOADER, compiledClasses);
+						final Class<?> javaClass = loader.loadClass(javaName);
+						executeMainMethod(javaClass, compiledSourcePath);
+					}
+					catch (Exception e)
+					{
+						executionFailures.put(compiledSourcePath, e);
+					}
+					finally
+					{
+						CURRENT_EXECUTING_SCRIPT.remove();
+					}
+					break;
+				}
+			}
+			
+			if (!found)
+			{
+				LOGGER.severe("Compilation successful, but class corresponding to " + sourcePath.toString() + " not found!");
+			}
+		}
+		
+		return executionFailures;
+	}
+	
+	/**
+	 * Compiles the scripts in batches, in parallel when there is more than one batch.<br>
+	 * Each batch is compiled on its own with the sources it uses from the sourcepath, and is loaded from the {@link ScriptingClassCache} when none of these sources changed.
+	 * @param sourcePaths the scripts to compile
+	 * @return the compiled classes of the batch of each script
+	 * @throws Exception if a batch failed to compile
+	 */
+	private Map<Path, Iterable<ScriptingOutputFileObject>> compileScripts(Iterable<Path> sourcePaths) throws Exception
+	{
+		final long start = System.currentTimeMillis();
+		final List<List<Path>> batches = getBatches(sourcePaths);
+		final List<Iterable<ScriptingOutputFileObject>> results = new ArrayList<>(batches.size());
+		final AtomicInteger cached = new AtomicInteger();
+		if (batches.size() == 1)
+		{
+			results.add(compileBatch(batches.get(0), cached));
+		}
+		else
+		{
+			final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(Config.SCRIPT_COMPILATION_THREADS, batches.size())), new ThreadProvider("L2jMobius Script Compiler", true));
+			try
+			{
+				final List<Future<Iterable<ScriptingOutputFileObject>>> futures = new ArrayList<>(batches.size());
+				for (List<Path> batch : batches)
+				{
+					futures.add(executor.submit(() -> compileBatch(batch, cached)));
+				}
+				
+				final StringBuilder errors = new StringBuilder();
+				for (Future<Iterable<ScriptingOutputFileObject>> future : futures)
+				{
+					try
+					{
+						results.add(future.get());
+					}
+					catch (ExecutionException e)
+					{
+						errors.append(e.getCause().getMessage());
+					}
+				}
+				if (errors.length() > 0)
+				{
+					throw new RuntimeException(errors.toString());
+				}
+			}
+			finally
+			{
+				executor.shutdown();
+			}
+		}
+		
+		final Map<Path, Iterable<ScriptingOutputFileObject>> compiledBatches = new HashMap<>();
+		for (int i = 0; i < batches.size(); i++)
+		{
+			for (Path sourcePath : batches.get(i))
+			{
+				compiledBatches.put(sourcePath, results.get(i));
+			}
+		}
+		
+		if (batches.size() > 1)
+		{
+			LOGGER.info("JavaExecutionContext: Compiled " + (batches.size() - cached.get()) + " and loaded " + cached.get() + " cached script batches in " + (System.currentTimeMillis() - start) + " ms.");
+		}
+		return compiledBatches;
+	}
+	
+	/**
+	 * Splits the scripts by their top folder in the script root, in batches of at most {@link #MAX_BATCH_SIZE} scripts.
+	 * @param sourcePaths the scripts
+	 * @return the batches
+	 */
+	private List<List<Path>> getBatches(Iterable<Path> sourcePaths)
+	{
+		final Map<String, List<Path>> folders = new TreeMap<>();
+		for (Path sourcePath : sourcePaths)
+		{
+			final Path absolutePath = sourcePath.toAbsolutePath();
+			final String folder = absolutePath.startsWith(SCRIPT_ROOT) && (absolutePath.getNameCount() > (SCRIPT_ROOT.getNameCount() + 1)) ? absolutePath.getName(SCRIPT_ROOT.getNameCount()).toString() : "";
+			folders.computeIfAbsent(folder, k -> new ArrayList<>()).add(sourcePath);
+		}
+		
+		final List<List<Path>> batches = new ArrayList<>();
+		for (List<Path> folder : folders.values())
+		{
+			folder.sort(null);
+			for (int i = 0; i < folder.size(); i += MAX_BATCH_SIZE)
+			{
+				batches.add(new ArrayList<>(folder.subList(i, Math.min(i + MAX_BATCH_SIZE, folder.size()))));
+			}
+		}
+		return batches;
+	}
+	
+	private Iterable<ScriptingOutputFileObject> compileBatch(List<Path> batch, AtomicInteger cached) throws Exception
+	{
+		if (Config.SCRIPT_CACHE)
+		{
+			final List<ScriptingOutputFileObject> cachedClasses = ScriptingClassCache.load(batch, getFingerprint());
+			if (cachedClasses != null)
+			{
+				cached.incrementAndGet();
+				return cachedClasses;
+			}
+		}
+		
 		final DiagnosticCollector<JavaFileObject> fileManagerDiagnostics = new DiagnosticCollector<>();
 		final DiagnosticCollector<JavaFileObject> compilationDiagnostics = new DiagnosticCollector<>();
-		
 		try (ScriptingFileManager fileManager = new ScriptingFileManager(COMPILER.getStandardFileManager(fileManagerDiagnostics, null, StandardCharsets.UTF_8)))
 		{
 			// We really need an iterable of files or strings.
 			final List<String> sourcePathStrings = new ArrayList<>();
-			for (Path sourcePath : sourcePaths)
+			for (Path sourcePath : batch)
 			{
 				sourcePathStrings.add(sourcePath.toAbsolutePath().toString());
 			}
@@ -105,51 +276,52 @@ public class JavaExecutionContext
 				throw new RuntimeException(strOut.toString());
 			}
 			
-			final Map<Path, Throwable> executionFailures = new HashMap<>();
 			final Iterable<ScriptingOutputFileObject> compiledClasses = fileManager.getCompiledClasses();
-			for (Path sourcePath : sourcePaths)
+			if (Config.SCRIPT_CACHE)
+			{
+				ScriptingClassCache.store(batch, getFingerprint(), compiledClasses);
+			}
+			return compiledClasses;
+		}
+	}
+	
+	/**
+	 * The fingerprint of the compiler options, the Java version and the classpath, compared by the size and modification time of its files.
+	 * @return the fingerprint
+	 * @throws IOException
+	 */
+	private static synchronized byte[] getFingerprint() throws IOException
+	{
+		if (_fingerprint == null)
+		{
+			final MessageDigest digest = ScriptingClassCache.newDigest();
+			final StringBuilder sb = new StringBuilder();
+			sb.append(System.getProperty("java.version")).append('\n');
+			sb.append(OPTIONS).append('\n');
+			for (String entry : System.getProperty("java.class.path").split(File.pathSeparator))
 			{
-				boolean found = false;
-				for (ScriptingOutputFileObject compiledClass : compiledClasses)
+				final Path path = Paths.get(entry);
+				if (Files.isDirectory(path))
 				{
-					final Path compiledSourcePath = compiledClass.getSourcePath();
-					// sourcePath can be relative, so we have to use endsWith
-					if ((compiledSourcePath != null) && (compiledSourcePath.equals(sourcePath) || compiledSourcePath.endsWith(sourcePath)))
+					try (Stream<Path> files = Files.walk(path))
 					{
-						final String javaName = compiledClass.getJavaName();
-						if (javaName.indexOf('$') != -1)
-						{
-							continue;
-						}
-						
-						found = true;
-						_currentExecutingScript = compiledSourcePath;
-						try
-						{
-							final ScriptingClassLoader loader = new ScriptingClassLoader(CLASS_LOADER, compiledClasses);
-							final Class<?> javaClass = loader.loadClass(javaName);
-							executeMainMethod(javaClass, compiledSourcePath);
-						}
-						catch (Exception e)
-						{
-							executionFailures.put(compiledSourcePath, e);
-						}
-						finally
-						{
-							_currentExecutingScript = null;
-						}
-						break;
+						files.filter(Files::isRegularFile).sorted().forEach(file -> appendFile(sb, file));
 					}
 				}
-				
-				if (!found)
+				else if (Files.isRegularFile(path))
 				{
-					LOGGER.severe("Compilation successful, but class corresponding to " + sourcePath.toString() + " not found!");
+					appendFile(sb, path);
 				}
 			}
-			
-			return executionFailures;
+			_fingerprint = digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
 		}
+		return _fingerprint;
+	}
+	
+	private static void appendFile(StringBuilder sb, Path file)
+	{
+		final File f = file.toFile();
+		sb.append(file.toAbsolutePath()).append(':').append(f.length()).append(':').append(f.lastModified()).append('\n');
 	}
 	
 	private void logDiagnostics(PrintWriter out, DiagnosticCollector<JavaFileObject> fileManagerDiagnostics, DiagnosticCollector<JavaFileObject> compilationDiagnostics)
@@ -213,6 +385,6 @@ public class JavaExecutionContext
 	
 	public Path getCurrentExecutingScript()
 	{
-		return _currentExecutingScript;
+		return CURRENT_EXECUTING_SCRIPT.get();
 	}
 }
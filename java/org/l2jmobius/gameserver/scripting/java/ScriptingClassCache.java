@@ -0,0 +1,216 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.scripting.java;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+
+/**
+ * On-disk cache of compiled script batches.<br>
+ * A batch is stored with the hash of every source compiled with it and a fingerprint of the classpath and compiler options, so it is only used while none of them changed.
+ * @author Mobius
+ */
+class ScriptingClassCache
+{
+	private static final Logger LOGGER = Logger.getLogger(ScriptingClassCache.class.getName());
+	
+	private static final String CACHE_FOLDER = "data/scriptcache";
+	private static final int MAGIC = 0x4C32534B; // L2SK
+	private static final int VERSION = 1;
+	
+	private ScriptingClassCache()
+	{
+	}
+	
+	/**
+	 * @param batch the sources of the batch
+	 * @param fingerprint the fingerprint of the classpath and compiler options
+	 * @return the cached classes of the batch, or {@code null} if the batch is not cached or any of its sources changed
+	 */
+	static List<ScriptingOutputFileObject> load(List<Path> batch, byte[] fingerprint)
+	{
+		final File cacheFile = getCacheFile(batch);
+		if (!cacheFile.isFile())
+		{
+			return null;
+		}
+		
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile))))
+		{
+			if ((in.readInt() != MAGIC) || (in.readInt() != VERSION) || !Arrays.equals(readBytes(in), fingerprint))
+			{
+				return null;
+			}
+			
+			final int sourceCount = in.readInt();
+			for (int i = 0; i < sourceCount; i++)
+			{
+				final Path source = Paths.get(in.readUTF());
+				final byte[] hash = readBytes(in);
+				if (!Files.isRegularFile(source) || !Arrays.equals(hash(source), hash))
+				{
+					return null;
+				}
+			}
+			
+			final int classCount = in.readInt();
+			final List<ScriptingOutputFileObject> classes = new ArrayList<>(classCount);
+			for (int i = 0; i < classCount; i++)
+			{
+				final String javaName = in.readUTF();
+				final Path sourcePath = in.readBoolean() ? Paths.get(in.readUTF()) : null;
+				classes.add(new ScriptingOutputFileObject(sourcePath, javaName, javaName.substring(javaName.lastIndexOf('.') + 1), readBytes(in)));
+			}
+			return classes;
+		}
+		catch (Exception e)
+		{
+			LOGGER.log(Level.WARNING, "ScriptingClassCache: Could not read " + cacheFile + ", compiling scripts again.", e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Stores the classes of a batch, together with the hashes of their sources.
+	 * @param batch the sources of the batch
+	 * @param fingerprint the fingerprint of the classpath and compiler options
+	 * @param classes the compiled classes
+	 */
+	static void store(List<Path> batch, byte[] fingerprint, Iterable<ScriptingOutputFileObject> classes)
+	{
+		// Sources of the batch and sources compiled implicitly from the sourcepath.
+		final Set<String> sources = new TreeSet<>();
+		for (Path source : batch)
+		{
+			sources.add(source.toAbsolutePath().toString());
+		}
+		for (ScriptingOutputFileObject compiledClass : classes)
+		{
+			if (compiledClass.getSourcePath() != null)
+			{
+				sources.add(compiledClass.getSourcePath().toAbsolutePath().toString());
+			}
+		}
+		
+		final File cacheFile = getCacheFile(batch);
+		final File tempFile = new File(cacheFile.getPath() + ".tmp");
+		try
+		{
+			cacheFile.getParentFile().mkdirs();
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				writeBytes(out, fingerprint);
+				out.writeInt(sources.size());
+				for (String source : sources)
+				{
+					out.writeUTF(source);
+					writeBytes(out, hash(Paths.get(source)));
+				}
+				
+				final List<ScriptingOutputFileObject> classList = new ArrayList<>();
+				classes.forEach(classList::add);
+				out.writeInt(classList.size());
+				for (ScriptingOutputFileObject compiledClass : classList)
+				{
+					out.writeUTF(compiledClass.getJavaName());
+					out.writeBoolean(compiledClass.getSourcePath() != null);
+					if (compiledClass.getSourcePath() != null)
+					{
+						out.writeUTF(compiledClass.getSourcePath().toString());
+					}
+					writeBytes(out, compiledClass.getJavaData());
+				}
+			}
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			LOGGER.log(Level.WARNING, "ScriptingClassCache: Could not write " + cacheFile, e);
+			tempFile.delete();
+		}
+	}
+	
+	/**
+	 * @param batch the sources of the batch
+	 * @return the cache file of the batch, named after the hash of its source paths
+	 */
+	private static File getCacheFile(List<Path> batch)
+	{
+		final MessageDigest digest = newDigest();
+		for (Path source : batch)
+		{
+			digest.update(source.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		return new File(Config.DATAPACK_ROOT, CACHE_FOLDER + "/" + HexFormat.of().formatHex(digest.digest(), 0, 16) + ".bin");
+	}
+	
+	private static byte[] hash(Path file) throws IOException
+	{
+		return newDigest().digest(Files.readAllBytes(file));
+	}
+	
+	static MessageDigest newDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] readBytes(DataInputStream in) throws IOException
+	{
+		final byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return bytes;
+	}
+	
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException
+	{
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
@@ -46,6 +46,12 @@ public class ScriptingOutputFileObject implements JavaFileObject
 		_out = new ByteArrayOutputStream();
 	}
 	
+	public ScriptingOutputFileObject(Path sourcePath, String javaName, String javaSimpleName, byte[] javaData)
+	{
+		this(sourcePath, javaName, javaSimpleName);
+		_out.writeBytes(javaData);
+	}
+	
 	public Path getSourcePath()
 	{
 		return _sourcePath;
@@ -17,31 +17,70 @@
 package org.l2jmobius.gameserver.taskmanager;
 
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.commons.util.Rnd;
+import org.l2jmobius.gameserver.ai.AttackableAI;
 import org.l2jmobius.gameserver.ai.CreatureAI;
+import org.l2jmobius.gameserver.ai.CtrlIntention;
+import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.actor.Attackable;
+import org.l2jmobius.gameserver.model.actor.Player;
 
 /**
+ * Calls the AI think of the registered attackables every second.<br>
+ * With AI level of detail enabled, attackables out of combat think at a reduced rate when a player is near and are dormant otherwise.
  * @author Mobius
  */
 public class AttackableThinkTaskManager
 {
-	private static final Set<Set<Attackable>> POOLS = ConcurrentHashMap.newKeySet();
+	private static final Set<Map<Attackable, ThinkState>> POOLS = ConcurrentHashMap.newKeySet();
 	private static final int POOL_SIZE = 1000;
 	private static final int TASK_DELAY = 1000;
 	
+	// Level of detail tiers.
+	public static final int TIER_FULL = 0;
+	public static final int TIER_IDLE = 1;
+	public static final int TIER_DORMANT = 2;
+	
+	private static final LongAdder[] THINK_COUNTS =
+	{
+		new LongAdder(),
+		new LongAdder(),
+		new LongAdder()
+	};
+	private static final LongAdder SKIPPED_COUNT = new LongAdder();
+	
 	protected AttackableThinkTaskManager()
 	{
 	}
 	
+	/**
+	 * Think schedule of a registered attackable, also kept by its AI so it can be reached without looking up the pools.
+	 */
+	public static class ThinkState
+	{
+		private final Map<Attackable, ThinkState> _pool;
+		private volatile long _nextThinkTime;
+		private volatile int _tier = TIER_FULL;
+		
+		private ThinkState(Map<Attackable, ThinkState> pool)
+		{
+			_pool = pool;
+		}
+	}
+	
 	private class AttackableThink implements Runnable
 	{
-		private final Set<Attackable> _attackables;
+		private final Map<Attackable, ThinkState> _attackables;
 		
-		public AttackableThink(Set<Attackable> attackables)
+		public AttackableThink(Map<Attackable, ThinkState> attackables)
 		{
 			_attackables = attackables;
 		}
@@ -54,18 +93,51 @@ public class AttackableThinkTaskManager
 				return;
 			}
 			
+			final long currentTime = System.currentTimeMillis();
 			CreatureAI ai;
 			Attackable attackable;
-			final Iterator<Attackable> iterator = _attackables.iterator();
+			ThinkState state;
+			final Iterator<Entry<Attackable, ThinkState>> iterator = _attackables.entrySet().iterator();
 			while (iterator.hasNext())
 			{
-				attackable = iterator.next();
+				final Entry<Attackable, ThinkState> entry = iterator.next();
+				attackable = entry.getKey();
 				if (attackable.hasAI())
 				{
 					ai = attackable.getAI();
 					if (ai != null)
 					{
+						if (!Config.AI_LEVEL_OF_DETAIL)
+						{
+							ai.onEvtThink();
+							continue;
+						}
+						
+						state = entry.getValue();
+						if (currentTime < state._nextThinkTime)
+						{
+							SKIPPED_COUNT.increment();
+							continue;
+						}
+						
 						ai.onEvtThink();
+						THINK_COUNTS[state._tier].increment();
+						
+						final int tier = getTier(attackable, ai);
+						if (tier == TIER_FULL)
+						{
+							state._nextThinkTime = 0;
+						}
+						else if (tier != state._tier)
+						{
+							// Spread the attackables entering a tier over its interval.
+							state._nextThinkTime = currentTime + (Rnd.get(1, getInterval(tier)) * TASK_DELAY);
+						}
+						else
+						{
+							state._nextThinkTime = currentTime + (getInterval(tier) * TASK_DELAY);
+						}
+						state._tier = tier;
 					}
 					else
 					{
@@ -80,42 +152,147 @@ public class AttackableThinkTaskManager
 		}
 	}
 	
-	public synchronized void add(Attackable attackable)
+	/**
+	 * @param attackable the attackable
+	 * @param ai the attackable AI
+	 * @return {@link #TIER_FULL} in combat or when an aggressive attackable may see a player soon, {@link #TIER_IDLE} when a player is near, {@link #TIER_DORMANT} otherwise.
+	 */
+	private static int getTier(Attackable attackable, CreatureAI ai)
+	{
+		final CtrlIntention intention = ai.getIntention();
+		if ((intention == CtrlIntention.AI_INTENTION_ATTACK) || (intention == CtrlIntention.AI_INTENTION_CAST) || attackable.isInCombat() || !attackable.getAggroList().isEmpty())
+		{
+			return TIER_FULL;
+		}
+		
+		final int range = Config.AI_LOD_NEAR_RANGE;
+		final int fullRange = attackable.isAggressive() ? attackable.getAggroRange() * 2 : 0;
+		final double[] nearest =
+		{
+			Double.MAX_VALUE
+		};
+		World.getInstance().forEachVisibleObjectInRange(attackable, Player.class, Math.max(range, fullRange), player ->
+		{
+			final double distance = attackable.calculateDistance3D(player);
+			if (distance < nearest[0])
+			{
+				nearest[0] = distance;
+			}
+		});
+		
+		if ((fullRange > 0) && (nearest[0] <= fullRange))
+		{
+			return TIER_FULL;
+		}
+		return nearest[0] <= range ? TIER_IDLE : TIER_DORMANT;
+	}
+	
+	/**
+	 * @param tier the tier
+	 * @return the think interval of the tier, in tasks
+	 */
+	private static int getInterval(int tier)
+	{
+		switch (tier)
+		{
+			case TIER_IDLE:
+			{
+				return Config.AI_LOD_IDLE_INTERVAL;
+			}
+			case TIER_DORMANT:
+			{
+				return Config.AI_LOD_DORMANT_INTERVAL;
+			}
+			default:
+			{
+				return 1;
+			}
+		}
+	}
+	
+	public synchronized void add(AttackableAI ai)
 	{
-		for (Set<Attackable> pool : POOLS)
+		ThinkState state = ai.getThinkState();
+		if ((state != null) && (state._pool.get(ai.getActiveChar()) == state))
+		{
+			// Intention changed, think on the next task.
+			state._nextThinkTime = 0;
+			return;
+		}
+		
+		final Attackable attackable = ai.getActiveChar();
+		for (Map<Attackable, ThinkState> pool : POOLS)
 		{
-			if (pool.contains(attackable))
+			state = pool.get(attackable);
+			if (state != null)
 			{
+				// Registered by a previous AI of the attackable.
+				state._nextThinkTime = 0;
+				ai.setThinkState(state);
 				return;
 			}
 		}
 		
-		for (Set<Attackable> pool : POOLS)
+		for (Map<Attackable, ThinkState> pool : POOLS)
 		{
 			if (pool.size() < POOL_SIZE)
 			{
-				pool.add(attackable);
+				state = new ThinkState(pool);
+				pool.put(attackable, state);
+				ai.setThinkState(state);
 				return;
 			}
 		}
 		
-		final Set<Attackable> pool = ConcurrentHashMap.newKeySet(POOL_SIZE);
-		pool.add(attackable);
+		final Map<Attackable, ThinkState> pool = new ConcurrentHashMap<>(POOL_SIZE);
+		state = new ThinkState(pool);
+		pool.put(attackable, state);
+		ai.setThinkState(state);
 		ThreadPool.schedulePriorityTaskAtFixedRate(new AttackableThink(pool), TASK_DELAY, TASK_DELAY);
 		POOLS.add(pool);
 	}
 	
-	public void remove(Attackable attackable)
+	public synchronized void remove(AttackableAI ai)
 	{
-		for (Set<Attackable> pool : POOLS)
+		final ThinkState state = ai.getThinkState();
+		if (state != null)
 		{
-			if (pool.remove(attackable))
-			{
-				return;
-			}
+			ai.setThinkState(null);
+			state._pool.remove(ai.getActiveChar(), state);
+		}
+	}
+	
+	/**
+	 * Moves the attackable to the full rate tier, used on aggro and damage.
+	 * @param ai the attackable AI
+	 */
+	public void promote(AttackableAI ai)
+	{
+		final ThinkState state = ai.getThinkState();
+		if (state != null)
+		{
+			state._nextThinkTime = 0;
+			state._tier = TIER_FULL;
 		}
 	}
 	
+	/**
+	 * @param tier the tier
+	 * @return the number of thinks done in the tier
+	 */
+	public long getThinkCount(int tier)
+	{
+		return THINK_COUNTS[tier].sum();
+	}
+	
+	/**
+	 * @return the number of thinks skipped by the level of detail tiers
+	 */
+	public long getSkippedCount()
+	{
+		return SKIPPED_COUNT.sum();
+	}
+	
 	public static AttackableThinkTaskManager getInstance()
 	{
 		return SingletonHolder.INSTANCE;
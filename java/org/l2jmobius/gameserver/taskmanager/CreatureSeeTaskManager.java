@@ -16,20 +16,46 @@
  */
 package org.l2jmobius.gameserver.taskmanager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.gameserver.model.WorldRegion;
 import org.l2jmobius.gameserver.model.actor.Creature;
 
 /**
+ * Updates the creatures seen by each registered creature.<br>
+ * Creatures are grouped by world region, regions without active neighbors are skipped and the others are processed in parallel.
  * @author Mobius
  */
 public class CreatureSeeTaskManager implements Runnable
 {
+	private static final Logger LOGGER = Logger.getLogger(CreatureSeeTaskManager.class.getName());
+	
 	private static final Set<Creature> CREATURES = ConcurrentHashMap.newKeySet();
+	private static final ForkJoinPool POOL = Config.CREATURE_SEE_THREADS > 1 ? new ForkJoinPool(Config.CREATURE_SEE_THREADS) : null;
 	private static boolean _working = false;
 	
+	// Pass metrics.
+	private static final AtomicLong PASS_COUNT = new AtomicLong();
+	private static final AtomicLong SKIPPED_PASS_COUNT = new AtomicLong();
+	private static final AtomicLong PASS_TIME = new AtomicLong();
+	private static volatile long _lastPassTime;
+	private static volatile long _maxPassTime;
+	private static volatile int _lastRegionCount;
+	private static volatile int _lastSkippedRegionCount;
+	
 	protected CreatureSeeTaskManager()
 	{
 		ThreadPool.scheduleAtFixedRate(this, 1000, 1000);
@@ -40,18 +66,84 @@ public class CreatureSeeTaskManager implements Runnable
 	{
 		if (_working)
 		{
+			SKIPPED_PASS_COUNT.incrementAndGet();
 			return;
 		}
 		_working = true;
 		
+		final long start = System.nanoTime();
+		
+		// Group the creatures by region.
+		final Map<WorldRegion, List<Creature>> partitions = new HashMap<>();
 		for (Creature creature : CREATURES)
 		{
-			creature.updateSeenCreatures();
+			final WorldRegion region = creature.getWorldRegion();
+			if (region != null)
+			{
+				partitions.computeIfAbsent(region, k -> new ArrayList<>()).add(creature);
+			}
+		}
+		
+		// Skip the regions without active neighbors.
+		final List<List<Creature>> active = new ArrayList<>(partitions.size());
+		for (Entry<WorldRegion, List<Creature>> entry : partitions.entrySet())
+		{
+			if (entry.getKey().areNeighborsActive())
+			{
+				active.add(entry.getValue());
+			}
+		}
+		
+		if ((POOL == null) || (active.size() < 2))
+		{
+			for (List<Creature> creatures : active)
+			{
+				update(creatures);
+			}
+		}
+		else
+		{
+			final List<Callable<Void>> tasks = new ArrayList<>(active.size());
+			for (List<Creature> creatures : active)
+			{
+				tasks.add(() ->
+				{
+					update(creatures);
+					return null;
+				});
+			}
+			POOL.invokeAll(tasks);
 		}
 		
+		final long time = System.nanoTime() - start;
+		PASS_COUNT.incrementAndGet();
+		PASS_TIME.addAndGet(time);
+		_lastPassTime = time;
+		if (time > _maxPassTime)
+		{
+			_maxPassTime = time;
+		}
+		_lastRegionCount = active.size();
+		_lastSkippedRegionCount = partitions.size() - active.size();
+		
 		_working = false;
 	}
 	
+	private void update(List<Creature> creatures)
+	{
+		for (Creature creature : creatures)
+		{
+			try
+			{
+				creature.updateSeenCreatures();
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.WARNING, getClass().getSimpleName() + ": Could not update seen creatures of " + creature + ".", e);
+			}
+		}
+	}
+	
 	public void add(Creature creature)
 	{
 		CREATURES.add(creature);
@@ -62,6 +154,63 @@ public class CreatureSeeTaskManager implements Runnable
 		CREATURES.remove(creature);
 	}
 	
+	/**
+	 * @return the number of completed passes
+	 */
+	public long getPassCount()
+	{
+		return PASS_COUNT.get();
+	}
+	
+	/**
+	 * @return the number of passes skipped because the previous pass was still running
+	 */
+	public long getSkippedPassCount()
+	{
+		return SKIPPED_PASS_COUNT.get();
+	}
+	
+	/**
+	 * @return the duration of the last pass in milliseconds
+	 */
+	public double getLastPassTime()
+	{
+		return _lastPassTime / 1000000d;
+	}
+	
+	/**
+	 * @return the average duration of a pass in milliseconds
+	 */
+	public double getAveragePassTime()
+	{
+		final long count = PASS_COUNT.get();
+		return count > 0 ? PASS_TIME.get() / 1000000d / count : 0;
+	}
+	
+	/**
+	 * @return the longest duration of a pass in milliseconds
+	 */
+	public double getMaxPassTime()
+	{
+		return _maxPassTime / 1000000d;
+	}
+	
+	/**
+	 * @return the number of regions processed by the last pass
+	 */
+	public int getLastRegionCount()
+	{
+		return _lastRegionCount;
+	}
+	
+	/**
+	 * @return the number of regions without active neighbors skipped by the last pass
+	 */
+	public int getLastSkippedRegionCount()
+	{
+		return _lastSkippedRegionCount;
+	}
+	
 	public static CreatureSeeTaskManager getInstance()
 	{
 		return SingletonHolder.INSTANCE;
@@ -16,13 +16,11 @@
  */
 package org.l2jmobius.gameserver.taskmanager;
 
-import java.util.Iterator;
-import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.commons.time.TimeQueue;
 import org.l2jmobius.gameserver.model.actor.Attackable;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Player;
@@ -33,7 +31,7 @@ import org.l2jmobius.gameserver.model.actor.templates.NpcTemplate;
  */
 public class DecayTaskManager implements Runnable
 {
-	private static final Map<Creature, Long> DECAY_SCHEDULES = new ConcurrentHashMap<>();
+	private static final TimeQueue<Creature> DECAY_SCHEDULES = new TimeQueue<>();
 	private static boolean _working = false;
 	
 	protected DecayTaskManager()
@@ -50,22 +48,7 @@ public class DecayTaskManager implements Runnable
 		}
 		_working = true;
 		
-		if (!DECAY_SCHEDULES.isEmpty())
-		{
-			final long currentTime = System.currentTimeMillis();
-			final Iterator<Entry<Creature, Long>> iterator = DECAY_SCHEDULES.entrySet().iterator();
-			Entry<Creature, Long> entry;
-			
-			while (iterator.hasNext())
-			{
-				entry = iterator.next();
-				if (currentTime > entry.getValue())
-				{
-					entry.getKey().onDecay();
-					iterator.remove();
-				}
-			}
-		}
+		DECAY_SCHEDULES.pollDue(System.currentTimeMillis(), Creature::onDecay);
 		
 		_working = false;
 	}
@@ -130,10 +113,26 @@ public class DecayTaskManager implements Runnable
 	 */
 	public long getRemainingTime(Creature creature)
 	{
-		final Long time = DECAY_SCHEDULES.get(creature);
+		final Long time = DECAY_SCHEDULES.getTime(creature);
 		return time != null ? time.longValue() - System.currentTimeMillis() : Long.MAX_VALUE;
 	}
 	
+	/**
+	 * @return the number of decay entries that came due, including cancelled and rescheduled ones
+	 */
+	public long getDueCount()
+	{
+		return DECAY_SCHEDULES.getDueCount();
+	}
+	
+	/**
+	 * @return the number of processed decays
+	 */
+	public long getProcessedCount()
+	{
+		return DECAY_SCHEDULES.getProcessedCount();
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -143,11 +142,16 @@ public class DecayTaskManager implements Runnable
 		ret.append("Tasks count: ");
 		ret.append(DECAY_SCHEDULES.size());
 		ret.append(System.lineSeparator());
+		ret.append("Due/processed: ");
+		ret.append(DECAY_SCHEDULES.getDueCount());
+		ret.append('/');
+		ret.append(DECAY_SCHEDULES.getProcessedCount());
+		ret.append(System.lineSeparator());
 		ret.append("Tasks dump:");
 		ret.append(System.lineSeparator());
 		
 		final long time = System.currentTimeMillis();
-		for (Entry<Creature, Long> entry : DECAY_SCHEDULES.entrySet())
+		for (Entry<Creature, Long> entry : DECAY_SCHEDULES.getSchedules().entrySet())
 		{
 			ret.append("Class/Name: ");
 			ret.append(entry.getKey().getClass().getSimpleName());
@@ -16,68 +16,106 @@
  */
 package org.l2jmobius.gameserver.taskmanager;
 
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.threads.ThreadPool;
 import org.l2jmobius.commons.util.CommonUtil;
 import org.l2jmobius.gameserver.ai.CtrlEvent;
 import org.l2jmobius.gameserver.model.actor.Creature;
 
 /**
- * Movement task manager class.
+ * Movement task manager class.<br>
+ * Moving creatures are split by object id into a fixed number of shards, sized to the available processors.<br>
+ * Each shard runs as one periodic tick on the high priority pool and receives new creatures through a lock-free queue that it drains at the start of every tick.
  * @author Mobius
  */
 public class MovementTaskManager
 {
 	protected static final Logger LOGGER = Logger.getLogger(MovementTaskManager.class.getName());
 	
-	private static final Set<Set<Creature>> POOLS = ConcurrentHashMap.newKeySet();
-	private static final int POOL_SIZE = 1000;
 	private static final int TASK_DELAY = 100;
 	
+	private final Shard[] _shards;
+	
 	protected MovementTaskManager()
 	{
+		final int shardCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), Config.HIGH_PRIORITY_SCHEDULED_THREAD_POOL_SIZE));
+		_shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++)
+		{
+			_shards[i] = new Shard();
+			
+			// Spread the shard ticks over the task delay.
+			ThreadPool.schedulePriorityTaskAtFixedRate(_shards[i], TASK_DELAY + ((i * TASK_DELAY) / shardCount), TASK_DELAY);
+		}
 	}
 	
-	private class Movement implements Runnable
+	private class Shard implements Runnable
 	{
-		private final Set<Creature> _creatures;
+		private final Queue<Creature> _registrations = new ConcurrentLinkedQueue<>();
+		private final Set<Creature> _creatures = new HashSet<>();
 		
-		public Movement(Set<Creature> creatures)
-		{
-			_creatures = creatures;
-		}
+		// Metrics.
+		private volatile int _movingCount;
+		private volatile long _lastTickTime;
+		private volatile long _maxTickTime;
+		private volatile long _totalTickTime;
+		private volatile long _tickCount;
+		private volatile long _overrunCount;
 		
 		@Override
 		public void run()
 		{
-			if (_creatures.isEmpty())
+			final long start = System.nanoTime();
+			
+			Creature creature;
+			while ((creature = _registrations.poll()) != null)
 			{
-				return;
+				_creatures.add(creature);
 			}
 			
-			Creature creature;
-			final Iterator<Creature> iterator = _creatures.iterator();
-			while (iterator.hasNext())
+			if (!_creatures.isEmpty())
 			{
-				creature = iterator.next();
-				try
+				final Iterator<Creature> iterator = _creatures.iterator();
+				while (iterator.hasNext())
 				{
-					if (creature.updatePosition())
+					creature = iterator.next();
+					try
+					{
+						if (creature.updatePosition())
+						{
+							iterator.remove();
+							creature.getAI().notifyEvent(CtrlEvent.EVT_ARRIVED);
+						}
+					}
+					catch (Exception e)
 					{
 						iterator.remove();
-						creature.getAI().notifyEvent(CtrlEvent.EVT_ARRIVED);
+						LOGGER.warning("MovementTaskManager: Problem updating position of " + creature);
+						LOGGER.warning(CommonUtil.getStackTrace(e));
 					}
 				}
-				catch (Exception e)
-				{
-					iterator.remove();
-					LOGGER.warning("MovementTaskManager: Problem updating position of " + creature);
-					LOGGER.warning(CommonUtil.getStackTrace(e));
-				}
+			}
+			
+			final long tickTime = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+			_movingCount = _creatures.size();
+			_lastTickTime = tickTime;
+			_totalTickTime += tickTime;
+			_tickCount++;
+			if (tickTime > _maxTickTime)
+			{
+				_maxTickTime = tickTime;
+			}
+			if (tickTime > TimeUnit.MILLISECONDS.toMicros(TASK_DELAY))
+			{
+				_overrunCount++;
 			}
 		}
 	}
@@ -86,29 +124,71 @@ public class MovementTaskManager
 	 * Add a Creature to moving objects of MovementTaskManager.
 	 * @param creature The Creature to add to moving objects of MovementTaskManager.
 	 */
-	public synchronized void registerMovingObject(Creature creature)
+	public void registerMovingObject(Creature creature)
 	{
-		for (Set<Creature> pool : POOLS)
+		_shards[Math.floorMod(creature.getObjectId(), _shards.length)]._registrations.add(creature);
+	}
+	
+	/**
+	 * @return the number of shards.
+	 */
+	public int getShardCount()
+	{
+		return _shards.length;
+	}
+	
+	/**
+	 * @return the number of moving creatures at the last tick of each shard.
+	 */
+	public int getMovingCount()
+	{
+		int count = 0;
+		for (Shard shard : _shards)
 		{
-			if (pool.contains(creature))
-			{
-				return;
-			}
+			count += shard._movingCount;
 		}
-		
-		for (Set<Creature> pool : POOLS)
+		return count;
+	}
+	
+	/**
+	 * @return the average tick duration of all shards in milliseconds.
+	 */
+	public double getAverageTickTime()
+	{
+		long totalTime = 0;
+		long tickCount = 0;
+		for (Shard shard : _shards)
 		{
-			if (pool.size() < POOL_SIZE)
-			{
-				pool.add(creature);
-				return;
-			}
+			totalTime += shard._totalTickTime;
+			tickCount += shard._tickCount;
 		}
-		
-		final Set<Creature> pool = ConcurrentHashMap.newKeySet(POOL_SIZE);
-		pool.add(creature);
-		ThreadPool.schedulePriorityTaskAtFixedRate(new Movement(pool), TASK_DELAY, TASK_DELAY);
-		POOLS.add(pool);
+		return tickCount > 0 ? totalTime / 1000d / tickCount : 0;
+	}
+	
+	/**
+	 * @return the longest tick duration of all shards in milliseconds.
+	 */
+	public double getMaxTickTime()
+	{
+		long maxTime = 0;
+		for (Shard shard : _shards)
+		{
+			maxTime = Math.max(maxTime, shard._maxTickTime);
+		}
+		return maxTime / 1000d;
+	}
+	
+	/**
+	 * @return the number of ticks that lasted longer than the task delay.
+	 */
+	public long getOverrunCount()
+	{
+		long count = 0;
+		for (Shard shard : _shards)
+		{
+			count += shard._overrunCount;
+		}
+		return count;
 	}
 	
 	public static final MovementTaskManager getInstance()
@@ -16,12 +16,8 @@
  */
 package org.l2jmobius.gameserver.taskmanager;
 
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-
 import org.l2jmobius.commons.threads.ThreadPool;
+import org.l2jmobius.commons.time.TimeQueue;
 import org.l2jmobius.gameserver.model.Spawn;
 import org.l2jmobius.gameserver.model.actor.Npc;
 
@@ -30,7 +26,7 @@ import org.l2jmobius.gameserver.model.actor.Npc;
  */
 public class RespawnTaskManager implements Runnable
 {
-	private static final Map<Npc, Long> PENDING_RESPAWNS = new ConcurrentHashMap<>();
+	private static final TimeQueue<Npc> PENDING_RESPAWNS = new TimeQueue<>();
 	private static boolean _working = false;
 	
 	protected RespawnTaskManager()
@@ -47,29 +43,15 @@ public class RespawnTaskManager implements Runnable
 		}
 		_working = true;
 		
-		if (!PENDING_RESPAWNS.isEmpty())
+		PENDING_RESPAWNS.pollDue(System.currentTimeMillis(), npc ->
 		{
-			final long currentTime = System.currentTimeMillis();
-			final Iterator<Entry<Npc, Long>> iterator = PENDING_RESPAWNS.entrySet().iterator();
-			Entry<Npc, Long> entry;
-			
-			while (iterator.hasNext())
+			final Spawn spawn = npc.getSpawn();
+			if (spawn != null)
 			{
-				entry = iterator.next();
-				if (currentTime > entry.getValue())
-				{
-					iterator.remove();
-					
-					final Npc npc = entry.getKey();
-					final Spawn spawn = npc.getSpawn();
-					if (spawn != null)
-					{
-						spawn.respawnNpc(npc);
-						spawn._scheduledCount--;
-					}
-				}
+				spawn.respawnNpc(npc);
+				spawn._scheduledCount--;
 			}
-		}
+		});
 		
 		_working = false;
 	}
@@ -79,6 +61,65 @@ public class RespawnTaskManager implements Runnable
 		PENDING_RESPAWNS.put(npc, time);
 	}
 	
+	/**
+	 * Cancels the respawn of the specified npc.
+	 * @param npc the npc
+	 * @return {@code true} if a respawn was pending, {@code false} otherwise
+	 */
+	public boolean cancel(Npc npc)
+	{
+		if (!PENDING_RESPAWNS.remove(npc))
+		{
+			return false;
+		}
+		
+		final Spawn spawn = npc.getSpawn();
+		if (spawn != null)
+		{
+			spawn._scheduledCount--;
+		}
+		return true;
+	}
+	
+	/**
+	 * Cancels the pending respawns of the npcs of the specified spawn.
+	 * @param spawn the spawn
+	 */
+	public void cancel(Spawn spawn)
+	{
+		for (Npc npc : PENDING_RESPAWNS.getSchedules().keySet())
+		{
+			if (npc.getSpawn() == spawn)
+			{
+				cancel(npc);
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of pending respawns
+	 */
+	public int getPendingCount()
+	{
+		return PENDING_RESPAWNS.size();
+	}
+	
+	/**
+	 * @return the number of respawn entries that came due, including cancelled and rescheduled ones
+	 */
+	public long getDueCount()
+	{
+		return PENDING_RESPAWNS.getDueCount();
+	}
+	
+	/**
+	 * @return the number of processed respawns
+	 */
+	public long getProcessedCount()
+	{
+		return PENDING_RESPAWNS.getProcessedCount();
+	}
+	
 	public static RespawnTaskManager getInstance()
 	{
 		return SingletonHolder.INSTANCE;
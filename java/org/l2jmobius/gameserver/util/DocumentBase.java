@@ -28,12 +28,15 @@ import java.util.StringTokenizer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.util.DocumentCache;
 import org.l2jmobius.gameserver.data.xml.ItemData;
 import org.l2jmobius.gameserver.enums.CastleSide;
 import org.l2jmobius.gameserver.enums.CategoryType;
@@ -165,7 +168,8 @@ public abstract class DocumentBase
 			final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 			factory.setValidating(false);
 			factory.setIgnoringComments(true);
-			doc = factory.newDocumentBuilder().parse(_file);
+			final DocumentBuilder builder = factory.newDocumentBuilder();
+			doc = Config.DATAPACK_CACHE ? DocumentCache.getDocument(getClass().getSimpleName(), _file, () -> builder.parse(_file)) : builder.parse(_file);
 			parseDocument(doc);
 		}
 		catch (Exception e)
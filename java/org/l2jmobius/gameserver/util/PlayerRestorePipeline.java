@@ -0,0 +1,193 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+
+/**
+ * Restores the parts of a character from the database, running the parts that do not depend on each other in parallel.<br>
+ * The time spent in each stage is kept, slow restores are logged with their stages.
+ * @author Mobius
+ */
+public class PlayerRestorePipeline
+{
+	private static final Logger LOGGER = Logger.getLogger(PlayerRestorePipeline.class.getName());
+	
+	// Database queries mostly wait, virtual threads do not keep the packet threads waiting for a free thread.
+	private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("L2jMobius Player Restore ", 1).factory());
+	
+	private static final Map<String, LongAdder[]> STAGE_TIMES = new ConcurrentHashMap<>();
+	private static final LongAdder RESTORE_COUNT = new LongAdder();
+	private static final LongAdder RESTORE_TIME = new LongAdder();
+	
+	private final int _objectId;
+	private final long _start = System.nanoTime();
+	private final List<Future<?>> _forks = new ArrayList<>();
+	private final Map<String, Long> _stages = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param objectId the object id of the restored character
+	 */
+	public PlayerRestorePipeline(int objectId)
+	{
+		_objectId = objectId;
+	}
+	
+	/**
+	 * Runs a stage on the current thread.
+	 * @param stage the name of the stage
+	 * @param task the stage
+	 */
+	public void run(String stage, Runnable task)
+	{
+		final long start = System.nanoTime();
+		task.run();
+		record(stage, System.nanoTime() - start);
+	}
+	
+	/**
+	 * Runs a stage in parallel, or on the current thread when parallel restore is disabled.<br>
+	 * The stage must only restore data that no other stage uses before {@link #join()}.
+	 * @param stage the name of the stage
+	 * @param task the stage
+	 */
+	public void fork(String stage, Runnable task)
+	{
+		if (!Config.PARALLEL_PLAYER_RESTORE)
+		{
+			run(stage, task);
+			return;
+		}
+		
+		_forks.add(EXECUTOR.submit(() -> run(stage, task)));
+	}
+	
+	/**
+	 * Waits for the stages running in parallel.
+	 */
+	public void join()
+	{
+		for (Future<?> fork : _forks)
+		{
+			try
+			{
+				fork.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException e)
+			{
+				LOGGER.log(Level.WARNING, "Could not restore character " + _objectId + ".", e.getCause());
+			}
+		}
+		_forks.clear();
+	}
+	
+	/**
+	 * Records the time spent in a stage.
+	 * @param stage the name of the stage
+	 * @param nanos the time spent, in nanoseconds
+	 */
+	public void record(String stage, long nanos)
+	{
+		_stages.put(stage, nanos);
+		final LongAdder[] times = STAGE_TIMES.computeIfAbsent(stage, k -> new LongAdder[]
+		{
+			new LongAdder(),
+			new LongAdder()
+		});
+		times[0].increment();
+		times[1].add(nanos);
+	}
+	
+	/**
+	 * Waits for the remaining stages and records the time of the whole restore.
+	 */
+	public void finish()
+	{
+		join();
+		
+		final long time = System.nanoTime() - _start;
+		RESTORE_COUNT.increment();
+		RESTORE_TIME.add(time);
+		if ((Config.PLAYER_RESTORE_LOG_THRESHOLD > 0) && ((time / 1000000) >= Config.PLAYER_RESTORE_LOG_THRESHOLD))
+		{
+			final StringBuilder sb = new StringBuilder();
+			for (Entry<String, Long> entry : _stages.entrySet())
+			{
+				sb.append(' ').append(entry.getKey()).append('=').append(entry.getValue() / 1000000).append("ms");
+			}
+			LOGGER.info(getClass().getSimpleName() + ": Character " + _objectId + " restored in " + (time / 1000000) + " ms," + sb);
+		}
+	}
+	
+	/**
+	 * @return the number of restored characters
+	 */
+	public static long getRestoreCount()
+	{
+		return RESTORE_COUNT.sum();
+	}
+	
+	/**
+	 * @return the average time of a restore, in milliseconds
+	 */
+	public static double getAverageRestoreTime()
+	{
+		final long count = RESTORE_COUNT.sum();
+		return count > 0 ? RESTORE_TIME.sum() / 1000000d / count : 0;
+	}
+	
+	/**
+	 * @param stage the name of the stage
+	 * @return the average time of the stage, in milliseconds
+	 */
+	public static double getAverageStageTime(String stage)
+	{
+		final LongAdder[] times = STAGE_TIMES.get(stage);
+		if (times == null)
+		{
+			return 0;
+		}
+		final long count = times[0].sum();
+		return count > 0 ? times[1].sum() / 1000000d / count : 0;
+	}
+	
+	/**
+	 * @return the names of the recorded stages, in alphabetical order
+	 */
+	public static Iterable<String> getStages()
+	{
+		return new TreeSet<>(STAGE_TIMES.keySet());
+	}
+}
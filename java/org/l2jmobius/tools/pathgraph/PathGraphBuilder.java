@@ -0,0 +1,97 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.pathgraph;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.enums.ServerMode;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.IRegion;
+import org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes.RegionGraph;
+import org.l2jmobius.gameserver.geoengine.pathfinding.clusternodes.RegionGraphBuilder;
+import org.l2jmobius.gameserver.model.World;
+
+/**
+ * Builds the region graphs used by hierarchical pathfinding for all geodata regions, so the game server does not build them on startup.<br>
+ * Existing graph files are replaced.
+ * @author Mobius
+ */
+public class PathGraphBuilder
+{
+	private static final Logger LOGGER = Logger.getLogger(PathGraphBuilder.class.getName());
+	
+	public static void main(String[] args) throws InterruptedException
+	{
+		Config.load(ServerMode.GAME);
+		GeoEngine.getInstance();
+		
+		final Queue<int[]> regions = new ConcurrentLinkedQueue<>();
+		for (int regionX = World.TILE_X_MIN; regionX <= World.TILE_X_MAX; regionX++)
+		{
+			for (int regionY = World.TILE_Y_MIN; regionY <= World.TILE_Y_MAX; regionY++)
+			{
+				if (GeoEngine.getInstance().hasGeoPos(regionX * IRegion.REGION_CELLS_X, regionY * IRegion.REGION_CELLS_Y))
+				{
+					regions.add(new int[]
+					{
+						regionX,
+						regionY
+					});
+				}
+			}
+		}
+		
+		final int total = regions.size();
+		final AtomicInteger built = new AtomicInteger();
+		final long start = System.currentTimeMillis();
+		final Thread[] workers = new Thread[Math.max(1, Math.min(total, Runtime.getRuntime().availableProcessors()))];
+		for (int i = 0; i < workers.length; i++)
+		{
+			workers[i] = new Thread(() ->
+			{
+				final RegionGraphBuilder builder = new RegionGraphBuilder();
+				int[] region;
+				while ((region = regions.poll()) != null)
+				{
+					try
+					{
+						final RegionGraph graph = builder.build(region[0], region[1]);
+						graph.save();
+						LOGGER.info("Built " + RegionGraph.getFilePath(region[0], region[1]).getFileName() + " with " + graph.getPortalCount() + " portals and " + graph.getEdgeCount() + " edges (" + built.incrementAndGet() + "/" + total + ").");
+					}
+					catch (Exception e)
+					{
+						LOGGER.log(Level.WARNING, "Failed to build region graph " + region[0] + "_" + region[1] + "!", e);
+					}
+				}
+			});
+			workers[i].start();
+		}
+		
+		for (Thread worker : workers)
+		{
+			worker.join();
+		}
+		
+		LOGGER.info("Built " + built.get() + " region graphs in " + ((System.currentTimeMillis() - start) / 1000) + " seconds.");
+	}
+}
\ No newline at end of file